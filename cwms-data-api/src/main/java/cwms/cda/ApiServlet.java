@@ -26,7 +26,10 @@ package cwms.cda;
 
 import static cwms.cda.api.Controllers.NAME;
 import static io.javalin.apibuilder.ApiBuilder.crud;
+import static io.javalin.apibuilder.ApiBuilder.delete;
 import static io.javalin.apibuilder.ApiBuilder.get;
+import static io.javalin.apibuilder.ApiBuilder.patch;
+import static io.javalin.apibuilder.ApiBuilder.post;
 import static io.javalin.apibuilder.ApiBuilder.prefixPath;
 import static io.javalin.apibuilder.ApiBuilder.staticInstance;
 import static java.lang.String.format;
@@ -39,6 +42,7 @@ import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.google.common.flogger.FluentLogger;
 import cwms.cda.api.BasinController;
+import cwms.cda.api.BasinTraversalController;
 import cwms.cda.api.BinaryTimeSeriesController;
 import cwms.cda.api.BinaryTimeSeriesValueController;
 import cwms.cda.api.BlobController;
@@ -48,8 +52,11 @@ import cwms.cda.api.Controllers;
 import cwms.cda.api.CountyController;
 import cwms.cda.api.ForecastInstanceController;
 import cwms.cda.api.ForecastSpecController;
+import cwms.cda.api.ForecastTimeseriesController;
 import cwms.cda.api.LevelsAsTimeSeriesController;
 import cwms.cda.api.LevelsController;
+import cwms.cda.api.LobUploadController;
+import cwms.cda.api.LocationBulkController;
 import cwms.cda.api.LocationCategoryController;
 import cwms.cda.api.LocationController;
 import cwms.cda.api.LocationGroupController;
@@ -60,15 +67,18 @@ import cwms.cda.api.RatingController;
 import cwms.cda.api.RatingMetadataController;
 import cwms.cda.api.RatingSpecController;
 import cwms.cda.api.RatingTemplateController;
+import cwms.cda.api.RatingValuesController;
 import cwms.cda.api.SpecifiedLevelController;
 import cwms.cda.api.StandardTextController;
 import cwms.cda.api.StateController;
 import cwms.cda.api.TextTimeSeriesController;
 import cwms.cda.api.TextTimeSeriesValueController;
+import cwms.cda.api.TimeSeriesBulkController;
 import cwms.cda.api.TimeSeriesCategoryController;
 import cwms.cda.api.TimeSeriesController;
 import cwms.cda.api.TimeSeriesGroupController;
 import cwms.cda.api.TimeSeriesIdentifierDescriptorController;
+import cwms.cda.api.TimeSeriesLatestController;
 import cwms.cda.api.TimeSeriesRecentController;
 import cwms.cda.api.TimeZoneController;
 import cwms.cda.api.UnitsController;
@@ -81,11 +91,17 @@ import cwms.cda.api.errors.FieldException;
 import cwms.cda.api.errors.InvalidItemException;
 import cwms.cda.api.errors.JsonFieldsException;
 import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.api.errors.NotModifiedException;
 import cwms.cda.api.errors.RequiredQueryParameterException;
 import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.ReferenceData;
+import cwms.cda.data.dao.SchemaCapabilities;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.FormattingException;
+import cwms.cda.helpers.CountingResponse;
+import cwms.cda.helpers.UploadStaging;
 import cwms.cda.security.CwmsAuthException;
+import cwms.cda.security.OpenIDAccessManager;
 import cwms.cda.security.Role;
 import cwms.cda.spi.AccessManagers;
 import cwms.cda.spi.CdaAccessManager;
@@ -98,6 +114,7 @@ import io.javalin.core.security.RouteRole;
 import io.javalin.core.util.Header;
 import io.javalin.core.validation.JavalinValidation;
 import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
 import io.javalin.http.Handler;
 import io.javalin.http.JavalinServlet;
 import io.javalin.plugin.openapi.OpenApiOptions;
@@ -160,7 +177,7 @@ import org.owasp.html.PolicyFactory;
         "/pools/*",
         "/specified-levels/*",
 //        "/forecast-spec/*",
-//        "/forecast-instance/*",
+        "/forecast-instance/*",
         "/standard-text-id/*"
 })
 public class ApiServlet extends HttpServlet {
@@ -174,6 +191,11 @@ public class ApiServlet extends HttpServlet {
     public static final String DATA_SOURCE = "data_source";
     public static final String RAW_DATA_SOURCE = "data_source";
     public static final String DATABASE = "database";
+    public static final String REQUEST_METRICS = "request_metrics";
+    /**
+     * Set by a handler, to the cause, when a response failed after part of it was sent.
+     */
+    public static final String ABORTED_RESPONSE = "aborted_response";
 
     // The VERSION should match the gradle version but not contain the patch version.
     // For example 2.4 not 2.4.13
@@ -198,6 +220,9 @@ public class ApiServlet extends HttpServlet {
 
     @Override
     public void destroy() {
+        SchemaCapabilities.stopRefresh();
+        ReferenceData.stopRefresh();
+        OpenIDAccessManager.stopRefresh();
         javalin.destroy();
     }
 
@@ -215,6 +240,8 @@ public class ApiServlet extends HttpServlet {
     public void init() {
         JavalinValidation.register(UnitSystem.class, UnitSystem::systemFor);
         JavalinValidation.register(JooqDao.DeleteMethod.class, Controllers::getDeleteMethod);
+        SchemaCapabilities.startRefresh(cwms);
+        ReferenceData.startRefresh(cwms);
 
         ObjectMapper om = new ObjectMapper();
         om.setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE);
@@ -227,7 +254,10 @@ public class ApiServlet extends HttpServlet {
                     config.contextPath = context;
                     getOpenApiOptions(config);
                     config.autogenerateEtags = true;
-                    config.requestLogger((ctx, ms) -> logger.atFinest().log(ctx.toString()));
+                    config.requestLogger((ctx, ms) -> {
+                        logger.atFinest().log(ctx.toString());
+                        recordRequest(ctx);
+                    });
                 })
                 .attribute("PolicyFactory", sanitizer)
                 .attribute("ObjectMapper", om)
@@ -290,6 +320,10 @@ public class ApiServlet extends HttpServlet {
                     logger.atInfo().withCause(e).log(re.toString());
                     ctx.status(HttpServletResponse.SC_NOT_FOUND).json(re);
                 })
+                .exception(NotModifiedException.class, (e, ctx) -> {
+                    ctx.header(Header.ETAG, e.getEtag());
+                    ctx.status(HttpServletResponse.SC_NOT_MODIFIED);
+                })
                 .exception(FieldException.class, (e, ctx) -> {
                     CdaError re = new CdaError(e.getMessage(), e.getDetails(), true);
                     ctx.status(HttpServletResponse.SC_BAD_REQUEST).json(re);
@@ -371,6 +405,7 @@ public class ApiServlet extends HttpServlet {
                 new LocationCategoryController(metrics), requiredRoles, 5, TimeUnit.MINUTES);
         cdaCrudCache("/location/group/{group-id}",
                 new LocationGroupController(metrics), requiredRoles, 5, TimeUnit.MINUTES);
+        post("/locations/bulk", new LocationBulkController(metrics), requiredRoles);
         cdaCrudCache("/locations/{location-id}",
                 new LocationController(metrics), requiredRoles, 5, TimeUnit.MINUTES);
         cdaCrudCache("/states/{state}",
@@ -394,6 +429,10 @@ public class ApiServlet extends HttpServlet {
         String recentPath = "/timeseries/recent/{group-id}";
         get(recentPath, new TimeSeriesRecentController(metrics), requiredRoles);
         addCacheControl(recentPath, 5, TimeUnit.MINUTES);
+        post("/timeseries/bulk", new TimeSeriesBulkController(metrics), requiredRoles);
+        TimeSeriesLatestController latestController = new TimeSeriesLatestController(metrics);
+        get("/timeseries/latest", latestController, requiredRoles);
+        post("/timeseries/latest", latestController, requiredRoles);
 
         cdaCrudCache(format("/standard-text-id/{%s}", Controllers.STANDARD_TEXT_ID),
                 new StandardTextController(metrics), requiredRoles,1, TimeUnit.DAYS);
@@ -424,10 +463,19 @@ public class ApiServlet extends HttpServlet {
                 new RatingMetadataController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         cdaCrudCache("/ratings/{rating-id}",
                 new RatingController(metrics), requiredRoles,5, TimeUnit.MINUTES);
+        get("/ratings/{rating-id}/rate", new RatingValuesController(metrics, false));
+        get("/ratings/{rating-id}/reverse-rate", new RatingValuesController(metrics, true));
         cdaCrudCache("/catalog/{dataset}",
                 new CatalogController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         cdaCrudCache("/basins/{basin-id}",
                 new BasinController(metrics), requiredRoles,5, TimeUnit.MINUTES);
+        get("/basins/{basin-id}/upstream", new BasinTraversalController(metrics, true));
+        get("/basins/{basin-id}/downstream", new BasinTraversalController(metrics, false));
+        UploadStaging uploadStaging = UploadStaging.fromSystemProperties();
+        lobUploads("/blobs/uploads", new LobUploadController(metrics, uploadStaging, true),
+                requiredRoles);
+        lobUploads("/clobs/uploads", new LobUploadController(metrics, uploadStaging, false),
+                requiredRoles);
         cdaCrudCache("/blobs/{blob-id}",
                 new BlobController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         cdaCrudCache("/clobs/{clob-id}",
@@ -436,14 +484,33 @@ public class ApiServlet extends HttpServlet {
                 new PoolController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         cdaCrudCache("/specified-levels/{specified-level-id}",
                 new SpecifiedLevelController(metrics), requiredRoles,5, TimeUnit.MINUTES);
-//        cdaCrudCache("/forecast-instance/{" + Controllers.NAME + "}",
-//                new ForecastInstanceController(metrics), requiredRoles,5, TimeUnit.MINUTES);
+        ForecastInstanceController forecastInstanceController =
+                new ForecastInstanceController(metrics);
+        String forecastFilePath = "/forecast-instance/{" + Controllers.NAME + "}/file-data";
+        get(forecastFilePath, forecastInstanceController::getFileData);
+        post(forecastFilePath, forecastInstanceController::storeFileData, requiredRoles);
+        addCacheControl(forecastFilePath, 5, TimeUnit.MINUTES);
+        String forecastTsPath = "/forecast-instance/{" + Controllers.NAME + "}/timeseries";
+        get(forecastTsPath, new ForecastTimeseriesController(metrics)::getAll);
+        addCacheControl(forecastTsPath, 5, TimeUnit.MINUTES);
+        cdaCrudCache("/forecast-instance/{" + Controllers.NAME + "}",
+                forecastInstanceController, requiredRoles,5, TimeUnit.MINUTES);
 //        cdaCrudCache("/forecast-spec/{" + Controllers.NAME + "}",
 //                new ForecastSpecController(metrics), requiredRoles,5, TimeUnit.MINUTES);
 
 
     }
 
+    private static void lobUploads(String path, LobUploadController controller,
+                                   RouteRole[] roles) {
+        String uploadPath = path + "/{" + Controllers.UPLOAD_ID + "}";
+        post(path, controller::begin, roles);
+        get(uploadPath, controller::status, roles);
+        patch(uploadPath, controller::append, roles);
+        post(uploadPath, controller::complete, roles);
+        delete(uploadPath, controller::abort, roles);
+    }
+
     /**
      * This method delegates to the cdaCrud method but also adds an after filter for the specified
      * path.  If the request was a GET request and the response does not already include
@@ -633,13 +700,14 @@ public class ApiServlet extends HttpServlet {
     protected void service(HttpServletRequest req, HttpServletResponse resp)
             throws ServletException, IOException {
         totalRequests.mark();
+        req.setAttribute(REQUEST_METRICS, RequestMetrics.begin());
         try {
             String office = officeFromContext(req.getContextPath());
             req.setAttribute(OFFICE_ID, office);
             //logger.atInfo().log("Connection user name is: %s")
             req.setAttribute(DATA_SOURCE, cwms);
             req.setAttribute(RAW_DATA_SOURCE,cwms);
-            javalin.service(req, resp);
+            javalin.service(req, new CountingResponse(resp));
         } catch (Exception ex) {
             CdaError re = new CdaError("Major Database Issue");
             logger.atSevere().withCause(ex).log(re + " for url " + req.getRequestURI());
@@ -649,7 +717,40 @@ public class ApiServlet extends HttpServlet {
                 ObjectMapper om = new ObjectMapper();
                 out.println(om.writeValueAsString(re));
             }
+        } finally {
+            RequestMetrics.end();
+        }
+        Object aborted = req.getAttribute(ABORTED_RESPONSE);
+        if (aborted instanceof Throwable) {
+            // The response is committed, so no error can be sent anymore.  Failing here has the
+            // container drop the connection rather than end the body normally, which lets the
+            // client see the response is incomplete.
+            throw new ServletException("Response aborted for url " + req.getRequestURI(),
+                    (Throwable) aborted);
+        }
+    }
+
+    /**
+     * Records where the time of a finished request went, per route and response format.
+     */
+    private void recordRequest(Context ctx) {
+        RequestMetrics requestMetrics = ctx.attribute(REQUEST_METRICS);
+        if (requestMetrics == null) {
+            return;
+        }
+        String route;
+        try {
+            route = ctx.endpointHandlerPath();
+        } catch (IllegalStateException ex) {
+            route = null; // nothing matched the request
+        }
+        String contextPath = ctx.contextPath();
+        if (route != null && !contextPath.isEmpty() && route.startsWith(contextPath)) {
+            route = route.substring(contextPath.length());
         }
+        long bytes = ctx.res instanceof CountingResponse ? ((CountingResponse) ctx.res).getCount() : 0;
+        requestMetrics.finish(metrics, ctx.method(), route, ctx.res.getContentType(),
+                ctx.status(), bytes, ctx.fullUrl());
     }
 
     public static String officeFromContext(String contextPath) {
@@ -0,0 +1,232 @@
+package cwms.cda;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.flogger.FluentLogger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Where the time of one request goes: waiting for a pooled connection, executing statements
+ * and formatting the response.
+ *
+ * <p>ApiServlet starts one for each request and makes it the current one of the request
+ * thread, so the data source, the jOOQ listener and the formatters can add to it without it
+ * being passed along.  Once the request is done the times, the total latency and the bytes
+ * written are recorded per route and response format as
+ * {@code cwms.dataapi.requests.<method>_<route>.<format>.<part>}.
+ *
+ * <p>Requests slower than {@value #SLOW_MILLIS_KEY} ms (default 2000) are logged with the
+ * slowest statements they ran, with bind values inlined.  Only a {@value #SLOW_SAMPLE_KEY}
+ * fraction (default 0.1) of them is logged so a slow database does not flood the log.
+ */
+public final class RequestMetrics {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    public static final String SLOW_MILLIS_KEY = "cwms.dataapi.request.slow.millis";
+    public static final String SLOW_SAMPLE_KEY = "cwms.dataapi.request.slow.sample.rate";
+    static final String PREFIX = "cwms.dataapi.requests";
+    static final int SLOWEST_STATEMENTS = 3;
+    private static final int MAX_SQL_LENGTH = 4000;
+
+    private static final ThreadLocal<RequestMetrics> current = new ThreadLocal<>();
+
+    private final long start;
+    private final AtomicLong connectionWaitNanos = new AtomicLong();
+    private final AtomicLong jdbcNanos = new AtomicLong();
+    private final AtomicLong formattingNanos = new AtomicLong();
+    private final AtomicLong statementCount = new AtomicLong();
+    // slowest first
+    private final List<Statement> slowest = new ArrayList<>(SLOWEST_STATEMENTS + 1);
+
+    RequestMetrics(long startNanos) {
+        this.start = startNanos;
+    }
+
+    /**
+     * Starts the metrics of a request handled by the calling thread.
+     */
+    static RequestMetrics begin() {
+        RequestMetrics retval = new RequestMetrics(System.nanoTime());
+        current.set(retval);
+        return retval;
+    }
+
+    static void end() {
+        current.remove();
+    }
+
+    /**
+     * @return the metrics of the request the calling thread is handling, or null
+     */
+    public static RequestMetrics current() {
+        return current.get();
+    }
+
+    /**
+     * Adds the time since {@code startNanos} to the connection wait of the current request.
+     */
+    public static void recordConnectionWait(long startNanos) {
+        RequestMetrics metrics = current();
+        if (metrics != null) {
+            metrics.connectionWaitNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Adds the time since {@code startNanos} to the formatting time of the current request.
+     */
+    public static void recordFormatting(long startNanos) {
+        RequestMetrics metrics = current();
+        if (metrics != null) {
+            metrics.formattingNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * @param sql renders the statement; only called if the request is logged as slow
+     */
+    public void addStatement(long nanos, Supplier<String> sql) {
+        jdbcNanos.addAndGet(nanos);
+        statementCount.incrementAndGet();
+        synchronized (slowest) {
+            int i = slowest.size();
+            while (i > 0 && slowest.get(i - 1).nanos < nanos) {
+                i--;
+            }
+            if (i < SLOWEST_STATEMENTS) {
+                slowest.add(i, new Statement(nanos, sql));
+                if (slowest.size() > SLOWEST_STATEMENTS) {
+                    slowest.remove(SLOWEST_STATEMENTS);
+                }
+            }
+        }
+    }
+
+    long getConnectionWaitNanos() {
+        return connectionWaitNanos.get();
+    }
+
+    long getJdbcNanos() {
+        return jdbcNanos.get();
+    }
+
+    long getFormattingNanos() {
+        return formattingNanos.get();
+    }
+
+    long getStatementCount() {
+        return statementCount.get();
+    }
+
+    List<Long> getSlowestNanos() {
+        synchronized (slowest) {
+            List<Long> retval = new ArrayList<>(slowest.size());
+            for (Statement statement : slowest) {
+                retval.add(statement.nanos);
+            }
+            return retval;
+        }
+    }
+
+    /**
+     * Records the request in the registry and logs it if it was slow.
+     *
+     * @param route the route template that handled the request, null if none did
+     * @param contentType the content type of the response, null if there was none
+     */
+    void finish(MetricRegistry registry, String method, String route, String contentType,
+                int status, long bytes, String url) {
+        long total = System.nanoTime() - start;
+        String base = name(PREFIX, routeName(method, route), formatName(contentType));
+        registry.timer(name(base, "total")).update(total, TimeUnit.NANOSECONDS);
+        registry.timer(name(base, "connection_wait"))
+                .update(connectionWaitNanos.get(), TimeUnit.NANOSECONDS);
+        registry.timer(name(base, "jdbc")).update(jdbcNanos.get(), TimeUnit.NANOSECONDS);
+        registry.timer(name(base, "formatting"))
+                .update(formattingNanos.get(), TimeUnit.NANOSECONDS);
+        registry.histogram(name(base, "bytes")).update(bytes);
+
+        long slowMillis = Long.getLong(SLOW_MILLIS_KEY, 2000L);
+        if (TimeUnit.NANOSECONDS.toMillis(total) >= slowMillis && sampled()) {
+            logger.atWarning().log("Slow request %s %s -> %d in %d ms: connection wait %d ms, "
+                            + "%d statements in %d ms, formatting %d ms, %d bytes%s",
+                    method, url, status, millis(total), millis(connectionWaitNanos.get()),
+                    statementCount.get(), millis(jdbcNanos.get()),
+                    millis(formattingNanos.get()), bytes, describeSlowest());
+        }
+    }
+
+    private static boolean sampled() {
+        double rate = Double.parseDouble(System.getProperty(SLOW_SAMPLE_KEY, "0.1"));
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private String describeSlowest() {
+        StringBuilder retval = new StringBuilder();
+        synchronized (slowest) {
+            for (Statement statement : slowest) {
+                String sql = statement.render();
+                if (sql.length() > MAX_SQL_LENGTH) {
+                    sql = sql.substring(0, MAX_SQL_LENGTH) + "...";
+                }
+                retval.append(System.lineSeparator())
+                        .append("  ").append(millis(statement.nanos)).append(" ms: ")
+                        .append(sql);
+            }
+        }
+        return retval.toString();
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * @return e.g. get_timeseries_timeseries for a GET of /timeseries/{timeseries}
+     */
+    static String routeName(String method, String route) {
+        String path = route == null || route.isEmpty() ? "unmatched" : route;
+        return sanitize(method + "_" + path);
+    }
+
+    /**
+     * @return e.g. application_json_version_2, without the charset
+     */
+    static String formatName(String contentType) {
+        if (contentType == null || contentType.isEmpty()) {
+            return "none";
+        }
+        return sanitize(contentType.replaceAll("(?i);\\s*charset=[^;]*", ""));
+    }
+
+    private static String sanitize(String text) {
+        return text.toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", "_")
+                .replaceAll("^_+|_+$", "");
+    }
+
+    private static final class Statement {
+        private final long nanos;
+        private final Supplier<String> sql;
+
+        Statement(long nanos, Supplier<String> sql) {
+            this.nanos = nanos;
+            this.sql = sql;
+        }
+
+        String render() {
+            try {
+                return sql.get();
+            } catch (RuntimeException ex) {
+                return "<unable to render statement: " + ex.getMessage() + ">";
+            }
+        }
+    }
+}
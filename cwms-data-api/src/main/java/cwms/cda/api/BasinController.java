@@ -13,6 +13,8 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.errors.CdaError;
+import cwms.cda.api.graph.basinconnectivity.BasinConnectivityGraph;
+import cwms.cda.api.graph.basinconnectivity.BasinNetwork;
 import cwms.cda.data.dao.BasinDao;
 import cwms.cda.data.dto.basinconnectivity.Basin;
 import cwms.cda.formatters.ContentType;
@@ -27,16 +29,11 @@ import io.javalin.plugin.openapi.annotations.OpenApi;
 import io.javalin.plugin.openapi.annotations.OpenApiContent;
 import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiResponse;
-import java.sql.SQLException;
-import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import javax.servlet.http.HttpServletResponse;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 
 public class BasinController implements CrudHandler {
-    private static final Logger LOGGER = Logger.getLogger(BasinController.class.getName());
     public static final String TAG = "Basins";
 
 
@@ -94,14 +91,16 @@ public class BasinController implements CrudHandler {
             }
             ctx.contentType(contentType.toString());
             BasinDao basinDao = new BasinDao(dsl);
-            List<Basin> basins = basinDao.getAllBasins(units, office);
+            BasinNetwork network = basinDao.getNetwork(units, office);
             if (contentType.getType().equals(Formats.NAMED_PGJSON)) {
                 NamedPgJsonFormatter basinPgJsonFormatter = new NamedPgJsonFormatter();
-                String result = basinPgJsonFormatter.format(basins);
-                ctx.result(result);
+                StringBuilder result = new StringBuilder();
+                for (Basin basin : network.getBasins()) {
+                    result.append(basinPgJsonFormatter.format(basin.getBasinName(),
+                            network.getGraph(basin.getBasinName(), basin.getOfficeId())));
+                }
+                ctx.result(result.toString());
             }
-        } catch (SQLException ex) {
-            LOGGER.log(Level.SEVERE, "Error retrieving all basins", ex);
         }
     }
 
@@ -148,18 +147,15 @@ public class BasinController implements CrudHandler {
             }
             ctx.contentType(contentType.toString());
             BasinDao basinDao = new BasinDao(dsl);
-            Basin basin = basinDao.getBasin(basinId, units, office);
+            BasinConnectivityGraph graph = basinDao.getGraph(basinId, units, office);
             if (contentType.getType().equals(Formats.NAMED_PGJSON)) {
                 NamedPgJsonFormatter basinPgJsonFormatter = new NamedPgJsonFormatter();
-                String result = basinPgJsonFormatter.format(basin);
+                String result = basinPgJsonFormatter.format(graph.getName(), graph);
                 ctx.result(result);
             } else {
                 ctx.status(HttpServletResponse.SC_NOT_FOUND).json(new CdaError("Unsupported "
                         + "format for basins"));
             }
-        } catch (SQLException ex) {
-            String errorMsg = "Error retrieving " + basinId;
-            LOGGER.log(Level.SEVERE, errorMsg, ex);
         }
     }
 
@@ -0,0 +1,119 @@
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.LOCATION_ID;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_404;
+import static cwms.cda.api.Controllers.UNIT;
+import static cwms.cda.api.Controllers.requiredParam;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.api.enums.UnitSystem;
+import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.api.graph.basinconnectivity.BasinConnectivityGraph;
+import cwms.cda.data.dao.BasinDao;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dto.basinconnectivity.Basin;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.json.NamedPgJsonFormatter;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Returns the part of a basin upstream or downstream of one of its locations, from the basin
+ * network cached by {@link BasinDao}.
+ */
+public class BasinTraversalController implements Handler {
+    private static final String BASIN_ID = "basin-id";
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+    private final boolean upstream;
+
+    /**
+     * @param upstream when true returns what flows into the location, otherwise what the
+     *     location flows into
+     */
+    public BasinTraversalController(MetricRegistry metrics, boolean upstream) {
+        this.metrics = metrics;
+        this.upstream = upstream;
+        requestResultSize = this.metrics.histogram((name(BasinTraversalController.class, RESULTS, SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    protected DSLContext getDslContext(Context ctx) {
+        return JooqDao.getDslContext(ctx);
+    }
+
+    @NotNull
+    protected BasinDao getBasinDao(DSLContext dsl) {
+        return new BasinDao(dsl);
+    }
+
+    @OpenApi(
+            pathParams = {
+                @OpenApiParam(name = BASIN_ID, required = true, description = "The basin to "
+                        + "traverse."),
+            },
+            queryParams = {
+                @OpenApiParam(name = LOCATION_ID, required = true, description = "Stream "
+                        + "location to start from."),
+                @OpenApiParam(name = OFFICE, description = "Specifies the owning office of the "
+                        + "basin."),
+                @OpenApiParam(name = UNIT, description = "Unit system of the stations, EN "
+                        + "(default) or SI."),
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, content = {
+                    @OpenApiContent(from = Basin.class, type = Formats.NAMED_PGJSON)}),
+                @OpenApiResponse(status = STATUS_404, description = "The basin was not found or "
+                        + "the location is not on it.")
+            },
+            description = "Returns the location and everything upstream of it within the "
+                    + "basin.  The path /basins/{basin-id}/downstream returns the location and "
+                    + "everything downstream of it.",
+            path = "/basins/{basin-id}/upstream",
+            tags = {BasinController.TAG},
+            method = HttpMethod.GET
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        String basinId = ctx.pathParam(BASIN_ID);
+        try (final Timer.Context ignored = markAndTime(upstream ? "upstream" : "downstream")) {
+            String locationId = requiredParam(ctx, LOCATION_ID);
+            String office = ctx.queryParam(OFFICE);
+            String units = ctx.queryParamAsClass(UNIT, String.class)
+                    .getOrDefault(UnitSystem.EN.value());
+
+            BasinConnectivityGraph graph = getBasinDao(getDslContext(ctx))
+                    .getGraph(basinId, units, office);
+            BasinConnectivityGraph result = upstream ? graph.upstreamOf(locationId)
+                    : graph.downstreamOf(locationId);
+            if (result == null) {
+                throw new NotFoundException("Location " + locationId + " is not on basin "
+                        + basinId);
+            }
+
+            String body = new NamedPgJsonFormatter().format(result.getName(), result);
+            ctx.result(body).contentType(Formats.NAMED_PGJSON);
+            requestResultSize.update(body.length());
+            ctx.status(HttpServletResponse.SC_OK);
+        }
+    }
+}
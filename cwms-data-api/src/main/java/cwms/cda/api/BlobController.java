@@ -173,16 +173,24 @@ public class BlobController implements CrudHandler {
 
 
     @OpenApi(
-            description = "Create new Blob",
+            description = "Create new Blob.  Any content type other than " + Formats.JSONV2
+                    + " or " + Formats.XMLV2 + " is stored as is, streamed straight from the "
+                    + "request, with the content type as its media type; the office and "
+                    + BLOB_ID + " query parameters are then required.",
             requestBody = @OpenApiRequestBody(
                     content = {
                         @OpenApiContent(from = Blob.class, type = Formats.JSONV2),
-                        @OpenApiContent(from = Blob.class, type = Formats.XMLV2)
+                        @OpenApiContent(from = Blob.class, type = Formats.XMLV2),
+                        @OpenApiContent(type = "application/octet-stream")
                     },
                     required = true),
             queryParams = {
                 @OpenApiParam(name = FAIL_IF_EXISTS, type = Boolean.class,
-                        description = "Create will fail if provided ID already exists. Default: true")
+                        description = "Create will fail if provided ID already exists. Default: true"),
+                @OpenApiParam(name = OFFICE, description = "Owning office of a blob sent as is."),
+                @OpenApiParam(name = BLOB_ID, description = "Id of a blob sent as is."),
+                @OpenApiParam(name = DESCRIPTION, description = "Description of a blob sent "
+                        + "as is.")
             },
             method = HttpMethod.POST,
             tags = {TAG}
@@ -197,6 +205,12 @@ public class BlobController implements CrudHandler {
 
             boolean failIfExists = ctx.queryParamAsClass(FAIL_IF_EXISTS, Boolean.class).getOrDefault(true);
 
+            if (reqContentType != null && !isBlobFormat(reqContentType)) {
+                createFromBody(ctx, new BlobDao(dsl),
+                        new ContentType(reqContentType).getType(), failIfExists);
+                return;
+            }
+
             try {
                 ObjectMapper om = getObjectMapperForFormat(formatHeader);
                 Blob blob = om.readValue(ctx.bodyAsInputStream(), Blob.class);
@@ -224,6 +238,31 @@ public class BlobController implements CrudHandler {
         }
     }
 
+    /**
+     * Stores the request body as the blob, copying it to the database as it is read.
+     */
+    private void createFromBody(Context ctx, BlobDao dao, String mediaType,
+                                boolean failIfExists) {
+        String office = requiredParam(ctx, OFFICE);
+        String blobId = requiredParam(ctx, BLOB_ID);
+        String description = ctx.queryParam(DESCRIPTION);
+
+        try (InputStream body = ctx.bodyAsInputStream()) {
+            dao.create(office, blobId, description, mediaType, body, failIfExists, false);
+        } catch (IOException e) {
+            CdaError re = new CdaError("Unable to read the blob from the request");
+            logger.atWarning().withCause(e).log("%s for %s", re, blobId);
+            ctx.status(HttpCode.BAD_REQUEST).json(re);
+            return;
+        }
+        ctx.status(HttpCode.CREATED);
+    }
+
+    private static boolean isBlobFormat(String format) {
+        return ContentType.equivalent(Formats.JSONV2, format)
+                || ContentType.equivalent(Formats.XMLV2, format);
+    }
+
     private static ObjectMapper getObjectMapperForFormat(String format) {
         ObjectMapper om;
 
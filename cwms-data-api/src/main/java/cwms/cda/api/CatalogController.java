@@ -18,12 +18,14 @@ import static cwms.cda.api.Controllers.STATUS_200;
 import static cwms.cda.api.Controllers.TIMESERIES;
 import static cwms.cda.api.Controllers.TIMESERIES_CATEGORY_LIKE;
 import static cwms.cda.api.Controllers.TIMESERIES_GROUP_LIKE;
+import static cwms.cda.api.Controllers.TOTAL;
 import static cwms.cda.api.Controllers.UNIT_SYSTEM;
 import static cwms.cda.api.Controllers.queryParamAsClass;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import cwms.cda.api.enums.TotalMode;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.errors.CdaError;
 import cwms.cda.data.dao.JooqDao;
@@ -32,9 +34,12 @@ import cwms.cda.data.dao.LocationsDaoImpl;
 import cwms.cda.data.dao.TimeSeriesDao;
 import cwms.cda.data.dao.TimeSeriesDaoImpl;
 import cwms.cda.data.dto.Catalog;
+import cwms.cda.data.dto.catalog.CatalogEntry;
 import cwms.cda.data.dto.Office;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.json.NdJsonWriter;
+import cwms.cda.helpers.CountingOutputStream;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.http.Context;
 import io.javalin.http.HttpCode;
@@ -42,6 +47,8 @@ import io.javalin.plugin.openapi.annotations.OpenApi;
 import io.javalin.plugin.openapi.annotations.OpenApiContent;
 import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
@@ -99,6 +106,10 @@ public class CatalogController implements CrudHandler {
                             type = Integer.class,
                             description = "How many entires per page returned. Default 500."
                     ),
+                    @OpenApiParam(name = TOTAL,
+                            type = TotalMode.class,
+                            description = TotalMode.DESCRIPTION
+                    ),
                     @OpenApiParam(name = UNIT_SYSTEM,
                             type = UnitSystem.class,
                             description = UnitSystem.DESCRIPTION
@@ -137,10 +148,13 @@ public class CatalogController implements CrudHandler {
                                     + "Ratings, etc")
             },
             responses = {@OpenApiResponse(status = STATUS_200,
-                    description = "A list of elements the data set you've selected.",
+                    description = "A list of elements the data set you've selected.  "
+                            + Formats.NDJSON + " returns every matching entry, one per line, "
+                            + "and ignores the paging parameters.",
                     content = {
                             @OpenApiContent(from = Catalog.class, type = Formats.JSONV2),
-                            @OpenApiContent(from = Catalog.class, type = Formats.XML)
+                            @OpenApiContent(from = Catalog.class, type = Formats.XML),
+                            @OpenApiContent(from = CatalogEntry.class, type = Formats.NDJSON)
                     }
             )
             },
@@ -188,19 +202,28 @@ public class CatalogController implements CrudHandler {
             String boundingOfficeLike = queryParamAsClass(ctx, new String[]{BOUNDING_OFFICE_LIKE},
                     String.class, null, metrics, name(CatalogController.class.getName(), GET_ONE));
 
+            TotalMode totalMode = TotalMode.totalModeFor(ctx.queryParam(TOTAL));
+
             String acceptHeader = ctx.header(ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(acceptHeader, null);
+            if (Formats.NDJSON.equals(contentType.getType())) {
+                exportCatalog(ctx, dsl, valDataSet, unitSystem, office, like, tsCategoryLike,
+                        tsGroupLike, locCategoryLike, locGroupLike, boundingOfficeLike);
+                return;
+            }
             Catalog cat = null;
             if (TIMESERIES.equalsIgnoreCase(valDataSet)) {
                 TimeSeriesDao tsDao = new TimeSeriesDaoImpl(dsl);
                 cat = tsDao.getTimeSeriesCatalog(cursor, pageSize, office, like, locCategoryLike,
-                        locGroupLike, tsCategoryLike, tsGroupLike, boundingOfficeLike);
+                        locGroupLike, tsCategoryLike, tsGroupLike, boundingOfficeLike, totalMode);
             } else if (LOCATIONS.equalsIgnoreCase(valDataSet)) {
                 LocationsDao dao = new LocationsDaoImpl(dsl);
                 cat = dao.getLocationCatalog(cursor, pageSize, unitSystem, office, like,
-                        locCategoryLike, locGroupLike, boundingOfficeLike);
+                        locCategoryLike, locGroupLike, boundingOfficeLike, totalMode);
             }
-            if (cat != null) {
+            if (cat != null && Controllers.shouldStream("catalog", pageSize)) {
+                requestResultSize.update(Controllers.writeFormatted(ctx, contentType, cat));
+            } else if (cat != null) {
                 String data = Formats.format(contentType, cat);
                 ctx.result(data).contentType(contentType.toString());
                 requestResultSize.update(data.length());
@@ -211,6 +234,54 @@ public class CatalogController implements CrudHandler {
                 logger.info(() -> re + "with url:" + ctx.fullUrl());
                 ctx.json(re).status(HttpCode.NOT_FOUND);
             }
+        } catch (IOException ex) {
+            // only reached when nothing was sent yet
+            CdaError re = new CdaError("Internal Error");
+            logger.log(Level.SEVERE, re.toString(), ex);
+            ctx.status(HttpCode.INTERNAL_SERVER_ERROR).json(re);
+        }
+    }
+
+    /**
+     * Writes the whole catalog as newline delimited json, one entry per line, from a single
+     * forward-only query.  Paging parameters are ignored and no total is computed.  A failure
+     * after the first entries were sent cuts the response off, so a client never takes a
+     * partial catalog for the whole one.
+     */
+    private void exportCatalog(Context ctx, DSLContext dsl, String dataSet, String unitSystem,
+                               String office, String like, String tsCategoryLike,
+                               String tsGroupLike, String locCategoryLike, String locGroupLike,
+                               String boundingOfficeLike) {
+        if (!TIMESERIES.equalsIgnoreCase(dataSet) && !LOCATIONS.equalsIgnoreCase(dataSet)) {
+            final CdaError re = new CdaError("Cannot create catalog of requested "
+                    + "information");
+            logger.info(() -> re + "with url:" + ctx.fullUrl());
+            ctx.json(re).status(HttpCode.NOT_FOUND);
+            return;
+        }
+
+        ctx.status(HttpCode.OK);
+        ctx.contentType(Formats.NDJSON);
+        try {
+            CountingOutputStream out = new CountingOutputStream(ctx.res.getOutputStream());
+            NdJsonWriter writer = new NdJsonWriter(out);
+            Controllers.writeStreamed(ctx, out, () -> {
+                if (TIMESERIES.equalsIgnoreCase(dataSet)) {
+                    TimeSeriesDao tsDao = new TimeSeriesDaoImpl(dsl);
+                    tsDao.exportTimeSeriesCatalog(office, like, locCategoryLike, locGroupLike,
+                            tsCategoryLike, tsGroupLike, boundingOfficeLike, writer::write);
+                } else {
+                    LocationsDao dao = new LocationsDaoImpl(dsl);
+                    dao.exportLocationCatalog(unitSystem, office, like, locCategoryLike,
+                            locGroupLike, boundingOfficeLike, writer::write);
+                }
+            });
+            requestResultSize.update(out.getCount());
+        } catch (IOException ex) {
+            // only reached when nothing was sent yet
+            CdaError re = new CdaError("Internal Error");
+            logger.log(Level.SEVERE, re.toString(), ex);
+            ctx.status(HttpCode.INTERNAL_SERVER_ERROR).json(re);
         }
     }
 
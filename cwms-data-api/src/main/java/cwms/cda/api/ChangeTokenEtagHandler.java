@@ -0,0 +1,236 @@
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.BEGIN;
+import static cwms.cda.api.Controllers.CATEGORY_ID;
+import static cwms.cda.api.Controllers.END;
+import static cwms.cda.api.Controllers.GROUP_ID;
+import static cwms.cda.api.Controllers.LEVEL_ID_MASK;
+import static cwms.cda.api.Controllers.NAME;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.TS_IDS;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.ApiServlet;
+import cwms.cda.api.errors.NotModifiedException;
+import cwms.cda.data.dao.ChangeTokenDao;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import javax.sql.DataSource;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+
+/**
+ * Answers conditional GETs from a cheap database change token instead of the full response.
+ * The ETag is a hash of the token and the request, so an If-None-Match that still matches is
+ * answered with a 304 without building the response at all.  On a miss the ETag header is set
+ * before the response is written, and Javalin keeps it rather than hashing the response body.
+ *
+ * <p>The token is only computed for requests that carry an If-None-Match header.  A plain GET
+ * costs nothing extra and gets the ETag Javalin generates from the body; the first conditional
+ * request then swaps it for the token based one.
+ *
+ * <p>Endpoints call {@link #handle(Context)} first thing in their GET handler rather than
+ * registering it as a before-handler, so the token query only runs for requests the access
+ * manager let through.
+ *
+ * <p>If no token can be computed (missing parameters, nothing matched, database error) the
+ * request is passed through untouched.
+ */
+public class ChangeTokenEtagHandler implements Handler {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    /**
+     * Location levels have no last-update time in the database, so level tokens also roll over
+     * every this many seconds.  The token sees levels and effective dates being added or
+     * removed, but a value edited in place is only noticed when the period rolls over.  Matches
+     * the Cache-Control max-age of the levels endpoint, which already allows that staleness.
+     */
+    public static final String LEVELS_PERIOD_KEY = "cwms.dataapi.levels.etag.period.seconds";
+    private static final long LEVELS_PERIOD_SECONDS = Long.getLong(LEVELS_PERIOD_KEY, 300);
+
+    /**
+     * Computes the change token for a request.
+     */
+    @FunctionalInterface
+    public interface ChangeTokenSource {
+        /**
+         * @return the token, or null if none applies to this request
+         */
+        String token(Context ctx, ChangeTokenDao dao);
+    }
+
+    private final ChangeTokenSource source;
+    private final Meter notModified;
+    private final Meter tokenFailures;
+
+    public ChangeTokenEtagHandler(MetricRegistry metrics, String endpoint,
+                                  ChangeTokenSource source) {
+        this.source = source;
+        notModified = metrics.meter(name(ChangeTokenEtagHandler.class, endpoint, "not_modified"));
+        tokenFailures = metrics.meter(name(ChangeTokenEtagHandler.class, endpoint, "failures"));
+    }
+
+    /**
+     * Only requests for a fixed time window get an ETag.  Without begin or end, or with a
+     * relative one, the window moves with the clock and the same url returns other values
+     * later on, even though nothing in the database changed.
+     */
+    public static ChangeTokenEtagHandler forTimeSeries(MetricRegistry metrics) {
+        return new ChangeTokenEtagHandler(metrics, "timeseries",
+                ChangeTokenEtagHandler::timeSeriesToken);
+    }
+
+    static String timeSeriesToken(Context ctx, ChangeTokenDao dao) {
+        String tsId = ctx.queryParam(NAME);
+        if (tsId == null || !isFixedTime(ctx.queryParam(BEGIN))
+                || !isFixedTime(ctx.queryParam(END))) {
+            return null;
+        }
+        return dao.timeSeriesToken(ctx.queryParam(OFFICE), tsId);
+    }
+
+    /**
+     * @return true for a date, false if there is none or it is relative to the current time
+     */
+    static boolean isFixedTime(String text) {
+        if (text == null) {
+            return false;
+        }
+        String trimmed = text.trim();
+        return !trimmed.isEmpty() && !trimmed.startsWith("P") && !trimmed.startsWith("-P");
+    }
+
+    public static ChangeTokenEtagHandler forRecent(MetricRegistry metrics) {
+        return new ChangeTokenEtagHandler(metrics, "recent", (ctx, dao) -> {
+            // The recent window is anchored on the current day, so the day is part of the token.
+            String day = LocalDate.now(ZoneOffset.UTC).toString();
+            String categoryId = ctx.queryParam(CATEGORY_ID);
+            String groupId = ctx.pathParamMap().get(GROUP_ID);
+            List<String> tsIds = TimeSeriesRecentController.getTsIds(ctx.queryParam(TS_IDS));
+            boolean hasGroup = categoryId != null && !categoryId.isEmpty()
+                    && groupId != null && !groupId.isEmpty();
+            boolean hasTsIds = tsIds != null && !tsIds.isEmpty();
+            String token = null;
+            if (hasGroup && !hasTsIds) {
+                token = dao.timeSeriesGroupToken(ctx.queryParam(OFFICE), categoryId, groupId);
+            } else if (hasTsIds && !hasGroup) {
+                token = dao.timeSeriesToken(tsIds);
+            }
+            return token == null ? null : day + "|" + token;
+        });
+    }
+
+    public static ChangeTokenEtagHandler forLevels(MetricRegistry metrics) {
+        return new ChangeTokenEtagHandler(metrics, "levels", ChangeTokenEtagHandler::levelsToken);
+    }
+
+    /**
+     * Requests without an office or a level mask get no token, it would have to scan every
+     * level in the database.
+     */
+    static String levelsToken(Context ctx, ChangeTokenDao dao) {
+        String mask = ctx.queryParam(LEVEL_ID_MASK);
+        if (mask == null) {
+            mask = ctx.queryParam(NAME);
+        }
+        String office = ctx.queryParam(OFFICE);
+        if (isEmpty(office) && isEmpty(mask)) {
+            return null;
+        }
+        String token = dao.locationLevelsToken(office, mask);
+        long period = System.currentTimeMillis() / 1000 / Math.max(1, LEVELS_PERIOD_SECONDS);
+        return token == null ? null : period + "|" + token;
+    }
+
+    private static boolean isEmpty(String text) {
+        return text == null || text.isEmpty();
+    }
+
+    /**
+     * Builds a context on the request's data source.  Without one, as in unit tests of the
+     * endpoints, no token is computed.
+     */
+    protected DSLContext getDslContext(Context ctx) {
+        DataSource dataSource = ctx.attribute(ApiServlet.DATA_SOURCE);
+        return dataSource == null ? null : DSL.using(dataSource, SQLDialect.ORACLE18C);
+    }
+
+    protected ChangeTokenDao getChangeTokenDao(DSLContext dsl) {
+        return new ChangeTokenDao(dsl);
+    }
+
+    @Override
+    public void handle(@NotNull Context ctx) {
+        String ifNoneMatch = ctx.header(Header.IF_NONE_MATCH);
+        if (!"GET".equals(ctx.req.getMethod()) || isEmpty(ifNoneMatch)) {
+            return;
+        }
+
+        String token;
+        try {
+            DSLContext dsl = getDslContext(ctx);
+            if (dsl == null) {
+                return;
+            }
+            token = source.token(ctx, getChangeTokenDao(dsl));
+        } catch (DataAccessException | IllegalArgumentException ex) {
+            // Let the endpoint run and report whatever is wrong with the request.
+            tokenFailures.mark();
+            logger.atFine().withCause(ex).log("Unable to compute change token for %s",
+                    ctx.req.getRequestURI());
+            return;
+        }
+        if (token == null) {
+            return;
+        }
+
+        String etag = etag(token, ctx.req.getRequestURI(), ctx.req.getQueryString(),
+                ctx.header(Header.ACCEPT));
+        if (matches(ifNoneMatch, etag)) {
+            notModified.mark();
+            throw new NotModifiedException(etag);
+        }
+        ctx.header(Header.ETAG, etag);
+    }
+
+    static String etag(String token, String uri, String query, String accept) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String input = token + "\n" + uri + "?" + query + "\n" + accept;
+            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+            return "\"" + String.format("%064x", new BigInteger(1, hash)).substring(0, 32) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
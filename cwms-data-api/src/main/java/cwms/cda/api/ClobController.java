@@ -18,6 +18,7 @@ import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.FormattingException;
 import cwms.cda.formatters.json.JsonV2;
+import cwms.cda.formatters.xml.JaxbContextCache;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.core.util.Header;
 import io.javalin.http.Context;
@@ -38,7 +39,13 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -214,16 +221,24 @@ public class ClobController implements CrudHandler {
     }
 
     @OpenApi(
-            description = "Create new Clob",
+            description = "Create new Clob.  Any content type other than " + Formats.JSONV2
+                    + " or " + Formats.XMLV2 + " is stored as the text, streamed straight from "
+                    + "the request; the office and " + CLOB_ID + " query parameters are then "
+                    + "required.",
             requestBody = @OpenApiRequestBody(
                     content = {
                         @OpenApiContent(from = Clob.class, type = Formats.JSONV2),
-                        @OpenApiContent(from = Clob.class, type = Formats.XMLV2)
+                        @OpenApiContent(from = Clob.class, type = Formats.XMLV2),
+                        @OpenApiContent(type = TEXT_PLAIN)
                     },
                     required = true),
             queryParams = {
                 @OpenApiParam(name = FAIL_IF_EXISTS, type = Boolean.class,
-                        description = "Create will fail if provided ID already exists. Default: true")
+                        description = "Create will fail if provided ID already exists. Default: true"),
+                @OpenApiParam(name = OFFICE, description = "Owning office of text sent as is."),
+                @OpenApiParam(name = CLOB_ID, description = "Id of text sent as is."),
+                @OpenApiParam(name = DESCRIPTION, description = "Description of text sent as "
+                        + "is.")
             },
             method = HttpMethod.POST,
             tags = {TAG}
@@ -237,6 +252,12 @@ public class ClobController implements CrudHandler {
             String formatHeader = reqContentType != null ? reqContentType : Formats.JSON;
 
             boolean failIfExists = ctx.queryParamAsClass(FAIL_IF_EXISTS, Boolean.class).getOrDefault(true);
+
+            if (reqContentType != null && !isClobFormat(reqContentType)) {
+                createFromBody(ctx, new ClobDao(dsl), failIfExists);
+                return;
+            }
+
             Clob clob = deserializeBody(ctx.bodyAsInputStream(), formatHeader);
 
             if (clob.getOfficeId() == null) {
@@ -258,6 +279,40 @@ public class ClobController implements CrudHandler {
         }
     }
 
+    /**
+     * Stores the request body as the text, copying it to the database as it is read.
+     */
+    private void createFromBody(Context ctx, ClobDao dao, boolean failIfExists) {
+        String office = requiredParam(ctx, OFFICE);
+        String clobId = requiredParam(ctx, CLOB_ID);
+        String description = ctx.queryParam(DESCRIPTION);
+        String encoding = ctx.req.getCharacterEncoding();
+        Charset charset;
+        try {
+            charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            CdaError re = new CdaError("Unsupported charset " + encoding);
+            log.atInfo().withCause(e).log("%s for %s", re, clobId);
+            ctx.status(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE).json(re);
+            return;
+        }
+
+        try (Reader body = new InputStreamReader(ctx.bodyAsInputStream(), charset)) {
+            dao.create(office, clobId, description, body, failIfExists);
+        } catch (IOException e) {
+            CdaError re = new CdaError("Unable to read the clob from the request");
+            log.atWarning().withCause(e).log("%s for %s", re, clobId);
+            ctx.status(HttpCode.BAD_REQUEST).json(re);
+            return;
+        }
+        ctx.status(HttpCode.CREATED);
+    }
+
+    private static boolean isClobFormat(String format) {
+        return ContentType.equivalent(Formats.JSONV2, format)
+                || ContentType.equivalent(Formats.XMLV2, format);
+    }
+
     private Clob deserializeBody(InputStream bodyStream, String formatHeader) {
         try {
             ObjectMapper om = getObjectMapperForFormat(formatHeader);
@@ -296,7 +351,7 @@ public class ClobController implements CrudHandler {
     }
 
     public static Clob deserializeJAXB(String body) throws JAXBException {
-        JAXBContext jaxbContext = JAXBContext.newInstance(Clob.class);
+        JAXBContext jaxbContext = JaxbContextCache.getContext(Clob.class);
         Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
         return (Clob) unmarshaller.unmarshal(new StringReader(body));
     }
@@ -27,23 +27,34 @@ package cwms.cda.api;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import cwms.cda.ApiServlet;
 import cwms.cda.api.enums.VersionType;
+import cwms.cda.api.errors.NotModifiedException;
 import cwms.cda.api.errors.RequiredQueryParameterException;
 import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.ReferenceData;
+import cwms.cda.data.dto.CwmsDTOBase;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.helpers.CountingOutputStream;
 import cwms.cda.helpers.DateUtils;
+import io.javalin.core.util.Header;
 import io.javalin.core.validation.JavalinValidation;
 import io.javalin.core.validation.Validator;
 import io.javalin.http.Context;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.jetbrains.annotations.Nullable;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
 
 public final class Controllers {
-
+    private static final Logger logger = Logger.getLogger(Controllers.class.getName());
 
     public static final String GET_ONE = "getOne";
     public static final String GET_ALL = "getAll";
@@ -53,6 +64,7 @@ public final class Controllers {
     public static final String CURSOR = "cursor";
     public static final String PAGE = "page";
     public static final String PAGE_SIZE = "page-size";
+    public static final String TOTAL = "total";
 
     // IF the constant has a number at the end its a deprecated variant
 
@@ -80,6 +92,10 @@ public final class Controllers {
     public static final String ACCEPT = "Accept";
     public static final String CLOB_ID = "clob-id";
     public static final String BLOB_ID = "blob-id";
+    public static final String DESCRIPTION = "description";
+    public static final String MEDIA_TYPE = "media-type";
+    public static final String UPLOAD_ID = "upload-id";
+    public static final String OFFSET = "offset";
     public static final String INCLUDE_VALUES = "include-values";
     public static final String FAIL_IF_EXISTS = "fail-if-exists";
     public static final String IGNORE_NULLS = "ignore-nulls";
@@ -90,12 +106,16 @@ public final class Controllers {
     public static final String NAME = "name";
     public static final String CASCADE_DELETE = "cascade-delete";
     public static final String DATUM = "datum";
+    public static final String BBOX = "bbox";
+    public static final String NEAR = "near";
     public static final String BEGIN = "begin";
     public static final String END = "end";
     public static final String TIMEZONE = "timezone";
     public static final String FORMAT = "format";
     public static final String VERSION = "version";
     public static final String AT = "at";
+    public static final String TIMES = "times";
+    public static final String VALUES = "values";
     public static final String METHOD = "method";
     public static final String START = "start";
     public static final String RATING_ID_MASK = "rating-id-mask";
@@ -128,6 +148,7 @@ public final class Controllers {
     public static final String SOURCE_ENTITY = "source-entity";
     public static final String FORECAST_DATE = "forecast-date";
     public static final String ISSUE_DATE = "issue-date";
+    public static final String FILENAME = "filename";
 
     public static final String GROUP_ID = "group-id";
     public static final String REPLACE_ASSIGNED_LOCS = "replace-assigned-locs";
@@ -155,6 +176,9 @@ public final class Controllers {
     public static final String STATUS_404 = "404";
     public static final String STATUS_501 = "501";
     public static final String STATUS_400 = "400";
+    public static final String STATUS_409 = "409";
+    public static final String STATUS_413 = "413";
+    public static final String STATUS_415 = "415";
     public static final String TEXT_MASK = "text-mask";
     public static final String DELETE_MODE = "delete-mode";
     public static final String MIN_ATTRIBUTE = "min-attribute";
@@ -191,6 +215,76 @@ public final class Controllers {
         return timer.time();
     }
 
+    /**
+     * Sends a body that was rendered ahead of time, or 304 Not Modified if the client already
+     * has it.
+     *
+     * @param body rendered content and its ETag
+     */
+    public static void resultWithEtag(Context ctx, ReferenceData.Body body) {
+        if (ChangeTokenEtagHandler.matches(ctx.header(Header.IF_NONE_MATCH), body.getEtag())) {
+            throw new NotModifiedException(body.getEtag());
+        }
+        ctx.header(Header.ETAG, body.getEtag());
+        ctx.result(body.getContent());
+    }
+
+    /**
+     * Writes a body straight to the response stream.
+     */
+    @FunctionalInterface
+    public interface StreamedBody {
+        void write() throws IOException;
+    }
+
+    /**
+     * Writes a response that goes out while it is being produced.  A failure before anything
+     * was sent is rethrown so it is answered like any other error.  Once part of the body is
+     * out no error can be sent, so the failure is logged and recorded as
+     * {@link ApiServlet#ABORTED_RESPONSE} for the servlet to cut the response off.
+     *
+     * @param out the response stream the body writes to
+     */
+    public static void writeStreamed(Context ctx, CountingOutputStream out, StreamedBody body)
+            throws IOException {
+        try {
+            body.write();
+            out.flush();
+        } catch (IOException | RuntimeException ex) {
+            if (out.getCount() == 0 && !ctx.res.isCommitted()) {
+                throw ex; // nothing was sent, answer with a regular error
+            }
+            logger.log(Level.SEVERE, "Response for " + ctx.fullUrl() + " failed after "
+                    + out.getCount() + " bytes", ex);
+            ctx.attribute(ApiServlet.ABORTED_RESPONSE, ex);
+        }
+    }
+
+    /**
+     * Pages at least this large are formatted straight onto the response instead of being
+     * built as a String first.  The system property is
+     * {@code cda.api.<endpoint>.stream.min.page.size}, a negative page size always streams.
+     */
+    public static boolean shouldStream(String endpoint, int pageSize) {
+        int minPageSize = Integer.getInteger("cda.api." + endpoint + ".stream.min.page.size",
+                5000);
+        return pageSize < 0 || pageSize >= minPageSize;
+    }
+
+    /**
+     * Formats the dto onto the response as it is rendered.  Status and headers have to be set
+     * before calling this.
+     *
+     * @return the number of bytes written
+     */
+    public static long writeFormatted(Context ctx, ContentType contentType, CwmsDTOBase dto)
+            throws IOException {
+        ctx.contentType(contentType.toString());
+        CountingOutputStream out = new CountingOutputStream(ctx.res.getOutputStream());
+        writeStreamed(ctx, out, () -> Formats.format(contentType, dto, out));
+        return out.getCount();
+    }
+
     /**
      * Returns the first matching query param or the provided default value if no match is found.
      *
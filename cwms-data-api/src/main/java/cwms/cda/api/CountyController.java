@@ -28,6 +28,7 @@ import static com.codahale.metrics.MetricRegistry.name;
 import static cwms.cda.api.Controllers.GET_ALL;
 import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.resultWithEtag;
 import static cwms.cda.data.dao.JooqDao.getDslContext;
 
 import com.codahale.metrics.Histogram;
@@ -35,6 +36,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import cwms.cda.api.errors.CdaError;
 import cwms.cda.data.dao.CountyDao;
+import cwms.cda.data.dao.ReferenceData;
 import cwms.cda.data.dto.County;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
@@ -88,14 +90,26 @@ public class CountyController implements CrudHandler {
     @Override
     public void getAll(@NotNull Context ctx) {
         try (Timer.Context ignored = markAndTime(GET_ALL)) {
-            DSLContext dsl = getDslContext(ctx);
-            CountyDao dao = new CountyDao(dsl);
-            List<County> counties = dao.getCounties();
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeader(formatHeader);
             if (contentType == null) {
                 throw new FormattingException("Format header could not be parsed");
             }
+
+            ReferenceData reference = ReferenceData.current();
+            if (reference != null) {
+                ReferenceData.Body body = reference.render("counties|" + contentType,
+                        () -> Formats.format(contentType, reference.getCounties(), County.class));
+                resultWithEtag(ctx, body);
+                ctx.contentType(contentType.toString());
+                requestResultSize.update(body.getContent().length());
+                ctx.status(HttpServletResponse.SC_OK);
+                return;
+            }
+
+            DSLContext dsl = getDslContext(ctx);
+            CountyDao dao = new CountyDao(dsl);
+            List<County> counties = dao.getCounties();
             String result = Formats.format(contentType, counties, County.class);
             ctx.result(result).contentType(contentType.toString());
             requestResultSize.update(result.length());
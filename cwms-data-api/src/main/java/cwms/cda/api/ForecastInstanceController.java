@@ -3,8 +3,10 @@ package cwms.cda.api;
 import static com.codahale.metrics.MetricRegistry.name;
 import static cwms.cda.api.Controllers.CREATE;
 import static cwms.cda.api.Controllers.DELETE;
+import static cwms.cda.api.Controllers.DESCRIPTION;
 import static cwms.cda.api.Controllers.DESIGNATOR;
 import static cwms.cda.api.Controllers.DESIGNATOR_MASK;
+import static cwms.cda.api.Controllers.FILENAME;
 import static cwms.cda.api.Controllers.FORECAST_DATE;
 import static cwms.cda.api.Controllers.GET_ALL;
 import static cwms.cda.api.Controllers.GET_ONE;
@@ -14,10 +16,12 @@ import static cwms.cda.api.Controllers.OFFICE;
 import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
 import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_201;
 import static cwms.cda.api.Controllers.STATUS_400;
 import static cwms.cda.api.Controllers.STATUS_404;
 import static cwms.cda.api.Controllers.STATUS_501;
 import static cwms.cda.api.Controllers.UPDATE;
+import static cwms.cda.api.Controllers.requiredInstant;
 import static cwms.cda.api.Controllers.requiredParam;
 
 import com.codahale.metrics.Histogram;
@@ -34,6 +38,7 @@ import cwms.cda.formatters.json.JsonV2;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.core.util.Header;
 import io.javalin.http.Context;
+import io.javalin.http.HttpCode;
 import io.javalin.plugin.openapi.annotations.HttpMethod;
 import io.javalin.plugin.openapi.annotations.OpenApi;
 import io.javalin.plugin.openapi.annotations.OpenApiContent;
@@ -41,10 +46,15 @@ import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
 import io.javalin.plugin.openapi.annotations.OpenApiResponse;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.http.HttpServletResponse;
+import org.apache.http.client.utils.URIBuilder;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
@@ -53,6 +63,7 @@ public class ForecastInstanceController implements CrudHandler {
     private static final Logger logger = Logger.getLogger(ForecastInstanceController.class.getName());
 
     public static final String TAG = "Forecast";
+    static final String FILE_DATA = "file-data";
     private final MetricRegistry metrics;
 
     private final Histogram requestResultSize;
@@ -72,13 +83,18 @@ public class ForecastInstanceController implements CrudHandler {
     }
 
     @OpenApi(
-            description = "Used to create and save a forecast instance",
+            description = "Used to create and save a forecast instance.  A large forecast file "
+                    + "is better sent separately to the " + FILE_DATA + " path of the instance "
+                    + "than as file-data in the instance.",
             requestBody = @OpenApiRequestBody(
                     content = {
                         @OpenApiContent(from = ForecastInstance.class, type = Formats.JSONV2)
                     },
                     required = true
             ),
+            responses = {
+                @OpenApiResponse(status = STATUS_201, description = "Forecast instance created")
+            },
             method = HttpMethod.POST,
             tags = TAG
     )
@@ -89,7 +105,7 @@ public class ForecastInstanceController implements CrudHandler {
 
             ForecastInstance forecastInstance = deserializeForecastInstance(ctx);
             dao.create(forecastInstance);
-            ctx.status(HttpServletResponse.SC_OK);
+            ctx.status(HttpServletResponse.SC_CREATED);
         } catch (IOException | DataAccessException ex) {
             CdaError re = new CdaError("Internal Error");
             logger.log(Level.SEVERE, re.toString(), ex);
@@ -128,11 +144,12 @@ public class ForecastInstanceController implements CrudHandler {
         String office = requiredParam(ctx, OFFICE);
 
         String designator = requiredParam(ctx, DESIGNATOR);
-        String forecastDate =  requiredParam(ctx, FORECAST_DATE);
-        String issueDate = requiredParam(ctx, ISSUE_DATE);
+        Instant forecastDate = requiredInstant(ctx, FORECAST_DATE);
+        Instant issueDate = requiredInstant(ctx, ISSUE_DATE);
         try (final Timer.Context ignored = markAndTime(DELETE)) {
             ForecastInstanceDao dao = new ForecastInstanceDao(getDslContext(ctx));
             dao.delete(office, name, designator, forecastDate, issueDate);
+            ctx.status(HttpServletResponse.SC_NO_CONTENT);
         }
     }
 
@@ -169,7 +186,10 @@ public class ForecastInstanceController implements CrudHandler {
             String name = ctx.queryParam(NAME);
 
             ForecastInstanceDao dao = new ForecastInstanceDao(getDslContext(ctx));
-            List<ForecastInstance> instances = dao.getForecastInstances(office, name, desionatorMask);
+            List<ForecastInstance> instances = dao.getForecastInstances(office, name, desionatorMask)
+                    .stream()
+                    .map(instance -> withFileDataUrl(ctx, instance))
+                    .collect(Collectors.toList());
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, null);
             String result = Formats.format(contentType, instances, ForecastInstance.class);
@@ -218,11 +238,12 @@ public class ForecastInstanceController implements CrudHandler {
     public void getOne(@NotNull Context ctx, @NotNull String name) {
         String office = requiredParam(ctx, OFFICE);
         String designator = requiredParam(ctx, DESIGNATOR);
-        String forecastDate =  requiredParam(ctx, FORECAST_DATE);
-        String issueDate = requiredParam(ctx, ISSUE_DATE);
+        Instant forecastDate = requiredInstant(ctx, FORECAST_DATE);
+        Instant issueDate = requiredInstant(ctx, ISSUE_DATE);
         try (final Timer.Context ignored = markAndTime(GET_ONE)) {
             ForecastInstanceDao dao = new ForecastInstanceDao(getDslContext(ctx));
-            ForecastInstance instance = dao.getForecastInstance(office, name, designator, forecastDate, issueDate);
+            ForecastInstance instance = withFileDataUrl(ctx,
+                    dao.getForecastInstance(office, name, designator, forecastDate, issueDate));
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, null);
             String result = Formats.format(contentType, instance);
@@ -266,13 +287,159 @@ public class ForecastInstanceController implements CrudHandler {
         }
     }
 
+    @OpenApi(
+            description = "Retrieve the forecast file of a forecast instance.  Range requests "
+                    + "are supported so a large file can be read in parts.",
+            pathParams = {
+                @OpenApiParam(name = NAME, required = true, description = "Specifies the "
+                        + "spec id of the forecast spec of the forecast instance."),
+            },
+            queryParams = {
+                @OpenApiParam(name = FORECAST_DATE, required = true, description = "Specifies the "
+                        + "forecast date time of the forecast instance."),
+                @OpenApiParam(name = ISSUE_DATE, required = true, description = "Specifies the "
+                        + "issue date time of the forecast instance."),
+                @OpenApiParam(name = OFFICE, required = true, description = "Specifies the "
+                        + "owning office of the forecast instance."),
+                @OpenApiParam(name = DESIGNATOR, required = true, description = "Specifies the "
+                        + "designator of the forecast spec of the forecast instance."),
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, content = {
+                    @OpenApiContent(type = "application/octet-stream")
+                }),
+                @OpenApiResponse(status = STATUS_404, description = "The forecast instance was "
+                        + "not found or has no forecast file."),
+            },
+            path = "/forecast-instance/{" + NAME + "}/" + FILE_DATA,
+            method = HttpMethod.GET,
+            tags = TAG
+    )
+    public void getFileData(@NotNull Context ctx) {
+        String name = ctx.pathParam(NAME);
+        String office = requiredParam(ctx, OFFICE);
+        String designator = requiredParam(ctx, DESIGNATOR);
+        Instant forecastDate = requiredInstant(ctx, FORECAST_DATE);
+        Instant issueDate = requiredInstant(ctx, ISSUE_DATE);
+        try (final Timer.Context ignored = markAndTime("getFileData")) {
+            ForecastInstanceDao dao = new ForecastInstanceDao(getDslContext(ctx));
+            dao.getFile(office, name, designator, forecastDate, issueDate,
+                    (file, mediaType, filename) -> {
+                        if (file == null) {
+                            ctx.status(HttpServletResponse.SC_NOT_FOUND).json(new CdaError(
+                                    "The forecast instance has no forecast file"));
+                            return;
+                        }
+                        long size = file.length();
+                        requestResultSize.update(size);
+                        if (filename != null) {
+                            ctx.header("Content-Disposition",
+                                    "inline; filename=\"" + filename.replace("\"", "") + "\"");
+                        }
+                        ctx.seekableStream(file.getBinaryStream(), mediaType, size);
+                    });
+        }
+    }
+
+    @OpenApi(
+            description = "Replace the forecast file of a forecast instance.  The request body "
+                    + "is the file itself and is copied to the database as it is received; "
+                    + "its content type is stored as the media type of the file.",
+            pathParams = {
+                @OpenApiParam(name = NAME, required = true, description = "Specifies the "
+                        + "spec id of the forecast spec of the forecast instance."),
+            },
+            queryParams = {
+                @OpenApiParam(name = FORECAST_DATE, required = true, description = "Specifies the "
+                        + "forecast date time of the forecast instance."),
+                @OpenApiParam(name = ISSUE_DATE, required = true, description = "Specifies the "
+                        + "issue date time of the forecast instance."),
+                @OpenApiParam(name = OFFICE, required = true, description = "Specifies the "
+                        + "owning office of the forecast instance."),
+                @OpenApiParam(name = DESIGNATOR, required = true, description = "Specifies the "
+                        + "designator of the forecast spec of the forecast instance."),
+                @OpenApiParam(name = FILENAME, required = true, description = "Name of the "
+                        + "forecast file."),
+                @OpenApiParam(name = DESCRIPTION, description = "Description of the forecast "
+                        + "file."),
+            },
+            requestBody = @OpenApiRequestBody(
+                    content = {@OpenApiContent(type = "application/octet-stream")},
+                    required = true),
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "The forecast file was "
+                        + "stored."),
+                @OpenApiResponse(status = STATUS_404, description = "The forecast instance was "
+                        + "not found."),
+            },
+            path = "/forecast-instance/{" + NAME + "}/" + FILE_DATA,
+            method = HttpMethod.POST,
+            tags = TAG
+    )
+    public void storeFileData(@NotNull Context ctx) {
+        String name = ctx.pathParam(NAME);
+        String office = requiredParam(ctx, OFFICE);
+        String designator = requiredParam(ctx, DESIGNATOR);
+        Instant forecastDate = requiredInstant(ctx, FORECAST_DATE);
+        Instant issueDate = requiredInstant(ctx, ISSUE_DATE);
+        String filename = requiredParam(ctx, FILENAME);
+        String description = ctx.queryParam(DESCRIPTION);
+        String mediaType = ctx.req.getContentType() == null ? null
+                : new ContentType(ctx.req.getContentType()).getType();
+        try (final Timer.Context ignored = markAndTime("storeFileData");
+             InputStream body = ctx.bodyAsInputStream()) {
+            ForecastInstanceDao dao = new ForecastInstanceDao(getDslContext(ctx));
+            dao.storeFile(office, name, designator, forecastDate, issueDate, filename,
+                    description, mediaType, body);
+            ctx.status(HttpServletResponse.SC_OK);
+        } catch (IOException ex) {
+            CdaError re = new CdaError("Unable to read the forecast file from the request");
+            logger.log(Level.WARNING, re.toString(), ex);
+            ctx.status(HttpCode.BAD_REQUEST).json(re);
+        }
+    }
+
+    /**
+     * Points the instance at the {@value #FILE_DATA} path of this api for its forecast file.
+     */
+    private static ForecastInstance withFileDataUrl(Context ctx, ForecastInstance instance) {
+        if (instance.getFilename() == null) {
+            return instance;
+        }
+        try {
+            String url = new URIBuilder(ctx.fullUrl())
+                    .setPath(ctx.contextPath() + "/forecast-instance/"
+                            + instance.getSpec().getSpecId() + "/" + FILE_DATA)
+                    .clearParameters()
+                    .addParameter(OFFICE, instance.getSpec().getOfficeId())
+                    .addParameter(DESIGNATOR, instance.getSpec().getDesignator())
+                    .addParameter(FORECAST_DATE, instance.getDateTime().toString())
+                    .addParameter(ISSUE_DATE, instance.getIssueDateTime().toString())
+                    .build()
+                    .toString();
+            return new ForecastInstance.Builder()
+                    .from(instance)
+                    .withFileDataUrl(url)
+                    .build();
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException("Unable to build the forecast file url", ex);
+        }
+    }
+
     private ForecastInstance deserializeForecastInstance(Context ctx) throws IOException {
-        return deserializeForecastInstance(ctx.body(), getUserDataContentType(ctx));
+        // read from the stream so a large embedded file is not also held as a request string
+        try (InputStream body = ctx.bodyAsInputStream()) {
+            return deserializeForecastInstance(body, getUserDataContentType(ctx).toString());
+        }
     }
 
-    private ForecastInstance deserializeForecastInstance(String body, ContentType contentType)
+    private static ForecastInstance deserializeForecastInstance(InputStream body,
+                                                                String contentType)
             throws IOException {
-        return deserializeForecastInstance(body, contentType.toString());
+        if (!(Formats.JSONV2).equals(contentType)) {
+            throw new IOException("Unexpected format:" + contentType);
+        }
+        return JsonV2.buildObjectMapper().readValue(body, ForecastInstance.class);
     }
 
     public static ForecastInstance deserializeForecastInstance(String body, String contentType)
@@ -3,22 +3,35 @@ package cwms.cda.api;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import cwms.cda.api.errors.CdaError;
+import cwms.cda.data.dao.ForecastInstanceDao;
 import cwms.cda.data.dao.JooqDao;
 import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.TimeSeriesStreamWriter;
+import cwms.cda.helpers.CountingOutputStream;
 import io.javalin.apibuilder.CrudHandler;
+import io.javalin.core.util.Header;
 import io.javalin.http.Context;
 import io.javalin.plugin.openapi.annotations.HttpMethod;
 import io.javalin.plugin.openapi.annotations.OpenApi;
 import io.javalin.plugin.openapi.annotations.OpenApiContent;
 import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.servlet.http.HttpServletResponse;
 
 import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.DESIGNATOR;
 import static cwms.cda.api.Controllers.FORECAST_DATE;
+import static cwms.cda.api.Controllers.GET_ALL;
 import static cwms.cda.api.Controllers.GET_ONE;
 import static cwms.cda.api.Controllers.ISSUE_DATE;
 import static cwms.cda.api.Controllers.LOCATION_ID;
@@ -27,10 +40,15 @@ import static cwms.cda.api.Controllers.NOT_SUPPORTED_YET;
 import static cwms.cda.api.Controllers.OFFICE;
 import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_404;
 import static cwms.cda.api.Controllers.TIMESERIES_ID;
+import static cwms.cda.api.Controllers.UNIT;
+import static cwms.cda.api.Controllers.requiredInstant;
+import static cwms.cda.api.Controllers.requiredParam;
 
 public class ForecastTimeseriesController implements CrudHandler {
-    private static final Logger logger = Logger.getLogger(ForecastSpecController.class.getName());
+    private static final Logger logger = Logger.getLogger(ForecastTimeseriesController.class.getName());
 
     public static final String TAG = "Forecast";
     private final MetricRegistry metrics;
@@ -95,11 +113,84 @@ public class ForecastTimeseriesController implements CrudHandler {
         }
     }
 
-    @OpenApi(ignore = true)
+    @OpenApi(
+            description = "Retrieve every time series of a forecast instance in one request.  "
+                    + "The values stored for the forecast date between the first and last date "
+                    + "of the instance are read from a single database cursor and written out "
+                    + "series by series as they are read.",
+            pathParams = {
+                @OpenApiParam(name = NAME, required = true, description = "Specifies the "
+                        + "spec id of the forecast spec of the forecast instance."),
+            },
+            queryParams = {
+                @OpenApiParam(name = FORECAST_DATE, required = true, description = "Specifies the "
+                        + "forecast date time of the forecast instance."),
+                @OpenApiParam(name = ISSUE_DATE, required = true, description = "Specifies the "
+                        + "issue date time of the forecast instance."),
+                @OpenApiParam(name = OFFICE, required = true, description = "Specifies the "
+                        + "owning office of the forecast instance."),
+                @OpenApiParam(name = DESIGNATOR, required = true, description = "Specifies the "
+                        + "designator of the forecast spec of the forecast instance."),
+                @OpenApiParam(name = UNIT, description = "Specifies the unit system of the "
+                        + "values, EN or SI.  Default is EN."),
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, content = {
+                    @OpenApiContent(isArray = true, from = TimeSeries.class, type = Formats.JSONV2)
+                }),
+                @OpenApiResponse(status = STATUS_404, description = "The forecast instance was "
+                        + "not found."),
+            },
+            path = "/forecast-instance/{" + NAME + "}/timeseries",
+            method = HttpMethod.GET,
+            tags = TAG
+    )
     @Override
     public void getAll(@NotNull Context ctx) {
-        try (final Timer.Context ignored = markAndTime(GET_ONE)) {
-            throw new UnsupportedOperationException(NOT_SUPPORTED_YET);
+        String name = ctx.pathParam(NAME);
+        String office = requiredParam(ctx, OFFICE);
+        String designator = requiredParam(ctx, DESIGNATOR);
+        Instant forecastDate = requiredInstant(ctx, FORECAST_DATE);
+        Instant issueDate = requiredInstant(ctx, ISSUE_DATE);
+        String units = ctx.queryParamAsClass(UNIT, String.class).getOrDefault("EN");
+        if (!"EN".equalsIgnoreCase(units) && !"SI".equalsIgnoreCase(units)) {
+            throw new IllegalArgumentException("The " + UNIT + " of forecast time series must be "
+                    + "EN or SI");
+        }
+
+        ContentType contentType = Formats.parseHeaderAndQueryParm(ctx.header(Header.ACCEPT), null);
+        TimeSeriesStreamWriter writer = Formats.getTimeSeriesStreamWriter(contentType);
+        if (writer == null || !Formats.JSONV2.equals(writer.getContentType())) {
+            throw new IllegalArgumentException("Forecast time series are only available as "
+                    + Formats.JSONV2);
+        }
+
+        try (final Timer.Context ignored = markAndTime(GET_ALL)) {
+            ForecastInstanceDao dao = new ForecastInstanceDao(getDslContext(ctx));
+            ctx.status(HttpServletResponse.SC_OK);
+            ctx.contentType(contentType.toString());
+            CountingOutputStream out = new CountingOutputStream(ctx.res.getOutputStream());
+            // nothing is written before the first series, so a missing instance can still
+            // be answered with a 404.  A failure after that cuts the response off.
+            boolean[] started = {false};
+            Controllers.writeStreamed(ctx, out, () -> {
+                dao.streamTimeSeries(office, name, designator, forecastDate, issueDate,
+                        units.toUpperCase(), (ts, values) -> {
+                            out.write(started[0] ? ',' : '[');
+                            started[0] = true;
+                            writer.write(ts, values, out);
+                        });
+                if (!started[0]) {
+                    out.write('[');
+                }
+                out.write(']');
+            });
+            requestResultSize.update(out.getCount());
+        } catch (IOException ex) {
+            // only reached when nothing was sent yet
+            CdaError re = new CdaError("Internal Error");
+            logger.log(Level.SEVERE, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR).json(re);
         }
     }
 
@@ -68,18 +68,23 @@ import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import static com.codahale.metrics.MetricRegistry.name;
 import static cwms.cda.api.Controllers.*;
 import static cwms.cda.data.dao.JooqDao.getDslContext;
 
 public class LevelsController implements CrudHandler {
+    private static final Logger logger = Logger.getLogger(LevelsController.class.getName());
     static final String TAG = "Levels";
     private final MetricRegistry metrics;
+    private final ChangeTokenEtagHandler changeTokens;
 
     private final Histogram requestResultSize;
 
@@ -90,6 +95,7 @@ public class LevelsController implements CrudHandler {
         this.metrics = metrics;
 
         requestResultSize = this.metrics.histogram((name(this.getClass().getName(), RESULTS, SIZE)));
+        changeTokens = ChangeTokenEtagHandler.forLevels(metrics);
     }
 
     private Timer.Context markAndTime(String subject) {
@@ -233,6 +239,12 @@ public class LevelsController implements CrudHandler {
                             + "the 'next-page' value in the response."),
                     @OpenApiParam(name = PAGE_SIZE, type = Integer.class, description = "How "
                             + "many entries per page returned. Default " + defaultPageSize + ".")},
+            description = "Returns CWMS Location Levels.  Responses may be cached for up to 5 "
+                    + "minutes.  A conditional request (If-None-Match) sees levels and effective "
+                    + "dates that were added or removed right away, but a level value edited in "
+                    + "place can still be answered with 304 Not Modified for up to the period "
+                    + "set by " + ChangeTokenEtagHandler.LEVELS_PERIOD_KEY + " (default 300 "
+                    + "seconds).",
             responses = {
                     @OpenApiResponse(status = STATUS_200, content = {
                             @OpenApiContent(type = Formats.JSON),
@@ -244,6 +256,7 @@ public class LevelsController implements CrudHandler {
             tags = TAG)
     @Override
     public void getAll(Context ctx) {
+        changeTokens.handle(ctx);
 
         try (final Timer.Context timeContext = markAndTime(GET_ALL)) {
             DSLContext dsl = getDslContext(ctx);
@@ -287,12 +300,15 @@ public class LevelsController implements CrudHandler {
 
                 LocationLevels levels = levelsDao.getLocationLevels(cursor, pageSize, levelIdMask,
                         office, unit, datum, beginZdt, endZdt);
-                String result = Formats.format(contentType, levels);
-
-                ctx.result(result).contentType(contentType.toString());
-                requestResultSize.update(result.length());
-
                 ctx.status(HttpServletResponse.SC_OK);
+                if (Controllers.shouldStream("levels", pageSize)) {
+                    requestResultSize.update(Controllers.writeFormatted(ctx, contentType, levels));
+                } else {
+                    String result = Formats.format(contentType, levels);
+
+                    ctx.result(result).contentType(contentType.toString());
+                    requestResultSize.update(result.length());
+                }
             } else {
                 switch (format) {
                     case "json": {
@@ -329,6 +345,11 @@ public class LevelsController implements CrudHandler {
                 ctx.result(results);
                 requestResultSize.update(results.length());
             }
+        } catch (IOException ex) {
+            // only reached when nothing was sent yet
+            CdaError re = new CdaError("Internal Error");
+            logger.log(Level.SEVERE, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR).json(re);
         }
     }
 
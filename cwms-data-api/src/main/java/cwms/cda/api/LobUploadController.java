@@ -0,0 +1,243 @@
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.BLOB_ID;
+import static cwms.cda.api.Controllers.CLOB_ID;
+import static cwms.cda.api.Controllers.CREATE;
+import static cwms.cda.api.Controllers.DELETE;
+import static cwms.cda.api.Controllers.DESCRIPTION;
+import static cwms.cda.api.Controllers.FAIL_IF_EXISTS;
+import static cwms.cda.api.Controllers.GET_ONE;
+import static cwms.cda.api.Controllers.MEDIA_TYPE;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.OFFSET;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_201;
+import static cwms.cda.api.Controllers.STATUS_404;
+import static cwms.cda.api.Controllers.STATUS_409;
+import static cwms.cda.api.Controllers.STATUS_413;
+import static cwms.cda.api.Controllers.UPDATE;
+import static cwms.cda.api.Controllers.UPLOAD_ID;
+import static cwms.cda.api.Controllers.requiredParam;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.api.errors.CdaError;
+import cwms.cda.data.dao.BlobDao;
+import cwms.cda.data.dao.ClobDao;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.helpers.UploadStaging;
+import io.javalin.http.Context;
+import io.javalin.http.HttpCode;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Resumable uploads of large blobs and clobs.  The content is sent in parts that are staged
+ * on disk by {@link UploadStaging}; once all parts are in, the upload is completed and
+ * streamed into the database in one call.  The same handlers serve /blobs/uploads and
+ * /clobs/uploads; clob uploads are read as UTF-8 text.
+ */
+public class LobUploadController {
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+    private final UploadStaging staging;
+    private final boolean binary;
+
+    /**
+     * @param binary true for blobs, false for clobs
+     */
+    public LobUploadController(MetricRegistry metrics, UploadStaging staging, boolean binary) {
+        this.metrics = metrics;
+        this.staging = staging;
+        this.binary = binary;
+        requestResultSize = this.metrics.histogram((name(LobUploadController.class, RESULTS,
+                SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(),
+                (binary ? "blob" : "clob") + "." + subject);
+    }
+
+    protected DSLContext getDslContext(Context ctx) {
+        return JooqDao.getDslContext(ctx);
+    }
+
+    @OpenApi(
+            responses = {
+                @OpenApiResponse(status = STATUS_201, description = "The upload was started. "
+                        + "The body holds its upload-id and size.")
+            },
+            description = "Starts a resumable upload of a large blob.  POST /clobs/uploads "
+                    + "does the same for clobs.",
+            path = "/blobs/uploads",
+            method = HttpMethod.POST,
+            tags = {BlobController.TAG}
+    )
+    public void begin(@NotNull Context ctx) throws IOException {
+        try (final Timer.Context ignored = markAndTime(CREATE)) {
+            String uploadId = staging.begin();
+            ctx.status(HttpCode.CREATED).json(status(uploadId, 0L));
+        }
+    }
+
+    @OpenApi(
+            pathParams = {
+                @OpenApiParam(name = UPLOAD_ID, required = true, description = "The upload.")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "The number of bytes "
+                        + "received so far, where the next part has to start."),
+                @OpenApiResponse(status = STATUS_404, description = "No such upload.")
+            },
+            description = "Returns how much of an upload has been received, so an interrupted "
+                    + "upload can carry on.",
+            path = "/blobs/uploads/{upload-id}",
+            method = HttpMethod.GET,
+            tags = {BlobController.TAG}
+    )
+    public void status(@NotNull Context ctx) throws IOException {
+        try (final Timer.Context ignored = markAndTime(GET_ONE)) {
+            String uploadId = ctx.pathParam(UPLOAD_ID);
+            ctx.json(status(uploadId, staging.size(uploadId)));
+        }
+    }
+
+    @OpenApi(
+            pathParams = {
+                @OpenApiParam(name = UPLOAD_ID, required = true, description = "The upload.")
+            },
+            queryParams = {
+                @OpenApiParam(name = OFFSET, required = true, type = Long.class,
+                        description = "Where the part starts.  Has to be the number of bytes "
+                                + "already received.")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "The part was added."),
+                @OpenApiResponse(status = STATUS_404, description = "No such upload."),
+                @OpenApiResponse(status = STATUS_409, description = "The offset is not where "
+                        + "the upload currently ends; the body holds the current size.  Also "
+                        + "returned while another part of the upload is still being written."),
+                @OpenApiResponse(status = STATUS_413, description = "The part would make the "
+                        + "upload larger than the server allows; nothing was added.")
+            },
+            description = "Adds the request body as the next part of the upload.",
+            path = "/blobs/uploads/{upload-id}",
+            method = HttpMethod.PATCH,
+            tags = {BlobController.TAG}
+    )
+    public void append(@NotNull Context ctx) throws IOException {
+        try (final Timer.Context ignored = markAndTime(UPDATE)) {
+            String uploadId = ctx.pathParam(UPLOAD_ID);
+            long offset = Long.parseLong(requiredParam(ctx, OFFSET));
+            long size;
+            try (InputStream part = ctx.bodyAsInputStream()) {
+                size = staging.append(uploadId, offset, part);
+            } catch (UploadStaging.OffsetMismatchException e) {
+                ctx.status(HttpCode.CONFLICT).json(status(uploadId, e.getSize()));
+                return;
+            } catch (UploadStaging.PartInProgressException e) {
+                ctx.status(HttpCode.CONFLICT).json(new CdaError(e.getMessage()));
+                return;
+            } catch (UploadStaging.UploadTooLargeException e) {
+                ctx.status(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE)
+                        .json(new CdaError(e.getMessage()));
+                return;
+            }
+            requestResultSize.update(size - offset);
+            ctx.json(status(uploadId, size));
+        }
+    }
+
+    @OpenApi(
+            pathParams = {
+                @OpenApiParam(name = UPLOAD_ID, required = true, description = "The upload.")
+            },
+            queryParams = {
+                @OpenApiParam(name = OFFICE, required = true, description = "Owning office."),
+                @OpenApiParam(name = BLOB_ID, required = true, description = "Id to store the "
+                        + "blob as.  Clob uploads take " + CLOB_ID + " instead."),
+                @OpenApiParam(name = MEDIA_TYPE, description = "Media type of a blob. Default: "
+                        + "application/octet-stream"),
+                @OpenApiParam(name = DESCRIPTION, description = "Description of the blob or "
+                        + "clob."),
+                @OpenApiParam(name = FAIL_IF_EXISTS, type = Boolean.class,
+                        description = "Create will fail if provided ID already exists. "
+                                + "Default: true")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_201, description = "The content was stored "
+                        + "and the upload removed."),
+                @OpenApiResponse(status = STATUS_404, description = "No such upload.")
+            },
+            description = "Stores everything received for the upload as a blob, or as a clob "
+                    + "for /clobs/uploads/{upload-id}.",
+            path = "/blobs/uploads/{upload-id}",
+            method = HttpMethod.POST,
+            tags = {BlobController.TAG}
+    )
+    public void complete(@NotNull Context ctx) throws IOException {
+        try (final Timer.Context ignored = markAndTime(CREATE)) {
+            String uploadId = ctx.pathParam(UPLOAD_ID);
+            String office = requiredParam(ctx, OFFICE);
+            String description = ctx.queryParam(DESCRIPTION);
+            boolean failIfExists = ctx.queryParamAsClass(FAIL_IF_EXISTS, Boolean.class)
+                    .getOrDefault(true);
+            DSLContext dsl = getDslContext(ctx);
+
+            try (InputStream content = staging.open(uploadId)) {
+                if (binary) {
+                    String mediaType = ctx.queryParamAsClass(MEDIA_TYPE, String.class)
+                            .getOrDefault("application/octet-stream");
+                    new BlobDao(dsl).create(office, requiredParam(ctx, BLOB_ID), description,
+                            mediaType, content, failIfExists, false);
+                } else {
+                    Reader text = new InputStreamReader(content, StandardCharsets.UTF_8);
+                    new ClobDao(dsl).create(office, requiredParam(ctx, CLOB_ID), description,
+                            text, failIfExists);
+                }
+            }
+            staging.delete(uploadId);
+            ctx.status(HttpCode.CREATED);
+        }
+    }
+
+    @OpenApi(
+            pathParams = {
+                @OpenApiParam(name = UPLOAD_ID, required = true, description = "The upload.")
+            },
+            description = "Abandons an upload and removes what was received.",
+            path = "/blobs/uploads/{upload-id}",
+            method = HttpMethod.DELETE,
+            tags = {BlobController.TAG}
+    )
+    public void abort(@NotNull Context ctx) throws IOException {
+        try (final Timer.Context ignored = markAndTime(DELETE)) {
+            staging.delete(ctx.pathParam(UPLOAD_ID));
+            ctx.status(HttpCode.NO_CONTENT);
+        }
+    }
+
+    private static Map<String, Object> status(String uploadId, long size) {
+        Map<String, Object> retval = new LinkedHashMap<>();
+        retval.put(UPLOAD_ID, uploadId);
+        retval.put(SIZE, size);
+        return retval;
+    }
+}
@@ -0,0 +1,228 @@
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.CREATE;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.data.dao.JooqDao.getDslContext;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import cwms.cda.data.dao.LocationStoreStatus;
+import cwms.cda.data.dao.LocationUpsert;
+import cwms.cda.data.dao.LocationsDao;
+import cwms.cda.data.dto.Location;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.FormattingException;
+import cwms.cda.helpers.CountingOutputStream;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+
+/**
+ * Stores many locations in one request.  The body is read one location at a time and stored
+ * in batches, and the outcome of each location is written back once its batch is done, so
+ * neither the request nor the report is held in memory as a whole.
+ */
+public class LocationBulkController implements Handler {
+    private static final Logger logger = Logger.getLogger(LocationBulkController.class.getName());
+
+    public static final String BATCH_SIZE_KEY = "cwms.dataapi.location.bulk.batch.size";
+    static final String BATCH_SIZE = "batch-size";
+    static final String RENAME_FROM = "rename-from";
+    static final String NOT_STORED = "Not stored, the database could not store this batch.";
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+
+    public LocationBulkController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        requestResultSize = this.metrics.histogram((name(LocationBulkController.class, RESULTS,
+                SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @OpenApi(
+            requestBody = @OpenApiRequestBody(
+                    content = {
+                        @OpenApiContent(from = Location.class, isArray = true,
+                                type = Formats.JSON),
+                        @OpenApiContent(from = Location.class, type = Formats.NDJSON)
+                    },
+                    required = true),
+            queryParams = {
+                @OpenApiParam(name = BATCH_SIZE, type = Integer.class, description = "How many "
+                        + "locations are stored per database transaction. Default: 500")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "One entry per location "
+                        + "with its index in the request, its name and whether it was STORED, "
+                        + "RENAMED or FAILED, and why.")
+            },
+            description = "Creates or updates many CWMS Locations.  The body is a JSON array "
+                    + "of locations, or one location per line as " + Formats.NDJSON + ".  A "
+                    + "location with a " + RENAME_FROM + " field is renamed from that name.",
+            method = HttpMethod.POST,
+            path = "/locations/bulk",
+            tags = {"Locations"}
+    )
+    @Override
+    public void handle(@NotNull Context ctx) throws IOException {
+        try (final Timer.Context ignored = markAndTime(CREATE)) {
+            String reqContentType = ctx.req.getContentType();
+            ContentType contentType = Formats.parseHeader(reqContentType != null
+                    ? reqContentType : Formats.JSON);
+            if (contentType == null || !isSupported(contentType.getType())) {
+                throw new FormattingException("Bulk location loads take " + Formats.JSON
+                        + " or " + Formats.NDJSON);
+            }
+            int batchSize = ctx.queryParamAsClass(BATCH_SIZE, Integer.class)
+                    .getOrDefault(Integer.getInteger(BATCH_SIZE_KEY, 500));
+            if (batchSize < 1) {
+                throw new IllegalArgumentException(BATCH_SIZE + " must be at least 1");
+            }
+            DSLContext dsl = getDslContext(ctx);
+            LocationsDao dao = LocationController.getLocationsDao(dsl);
+
+            ctx.status(HttpServletResponse.SC_OK);
+            ctx.contentType(Formats.JSON);
+            CountingOutputStream out = new CountingOutputStream(ctx.res.getOutputStream());
+            ObjectMapper om = LocationController.getObjectMapperForFormat(Formats.JSON);
+            try (InputStream in = ctx.bodyAsInputStream();
+                 JsonGenerator gen = om.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gen.writeStartArray();
+                load(om, in, batchSize, dao, gen);
+                gen.writeEndArray();
+            }
+            out.flush();
+            requestResultSize.update(out.getCount());
+        }
+    }
+
+    /**
+     * Once a batch cannot be stored at all, the database is assumed unusable and the rest of
+     * the request is only read to report every item as failed.
+     */
+    static void load(ObjectMapper om, InputStream in, int batchSize, LocationsDao dao,
+                     JsonGenerator gen) throws IOException {
+        List<LocationUpsert> batch = new ArrayList<>(batchSize);
+        List<LocationStoreStatus> statuses = new ArrayList<>();
+        boolean storing = true;
+        int index = 0;
+        // a top level array is read element by element, as is a stream of objects
+        try (MappingIterator<JsonNode> items = om.readerFor(JsonNode.class).readValues(in)) {
+            while (items.hasNextValue()) {
+                JsonNode item = items.nextValue();
+                try {
+                    batch.add(toUpsert(om, index, item));
+                } catch (IOException | RuntimeException ex) {
+                    statuses.add(LocationStoreStatus.failed(index, nameOf(item),
+                            ex.getLocalizedMessage()));
+                }
+                index++;
+                if (batch.size() == batchSize) {
+                    storing = store(dao, batch, storing, statuses);
+                    write(gen, statuses);
+                    batch.clear();
+                    statuses.clear();
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            // nothing after a syntax error can be trusted, store what was read before it
+            logger.fine(() -> "Bulk location load stopped at " + ex.getLocation());
+            statuses.add(LocationStoreStatus.failed(index, null,
+                    "Unreadable from here on: " + ex.getOriginalMessage()));
+        }
+        if (!batch.isEmpty()) {
+            store(dao, batch, storing, statuses);
+        }
+        write(gen, statuses);
+    }
+
+    /**
+     * @param storing false once an earlier batch failed, the items are then only reported
+     * @return whether the batch was stored
+     */
+    private static boolean store(LocationsDao dao, List<LocationUpsert> batch, boolean storing,
+                                 List<LocationStoreStatus> statuses) {
+        if (storing) {
+            try {
+                statuses.addAll(dao.storeLocations(batch));
+                return true;
+            } catch (DataAccessException ex) {
+                logger.log(Level.WARNING, "Bulk location batch failed, no further batches "
+                        + "are stored", ex);
+            }
+        }
+        for (LocationUpsert item : batch) {
+            statuses.add(LocationStoreStatus.failed(item.getIndex(),
+                    item.getLocation().getName(), NOT_STORED));
+        }
+        return false;
+    }
+
+    static LocationUpsert toUpsert(ObjectMapper om, int index, JsonNode item)
+            throws IOException {
+        if (!item.isObject()) {
+            throw new IllegalArgumentException("Expected a location object");
+        }
+        ObjectNode fields = ((ObjectNode) item).deepCopy();
+        JsonNode renameFrom = fields.remove(RENAME_FROM);
+        Location location = new Location.Builder(om.treeToValue(fields, Location.class)).build();
+        return new LocationUpsert(index, location,
+                renameFrom == null || renameFrom.isNull() ? null : renameFrom.asText());
+    }
+
+    private static String nameOf(JsonNode item) {
+        JsonNode name = item.get("name");
+        return name == null || name.isNull() ? null : name.asText();
+    }
+
+    /**
+     * Writes the statuses in request order, since items that could not be read are reported
+     * before the batch they were in has been stored.
+     */
+    private static void write(JsonGenerator gen, List<LocationStoreStatus> statuses)
+            throws IOException {
+        statuses.sort(Comparator.comparingInt(LocationStoreStatus::getIndex));
+        for (LocationStoreStatus status : statuses) {
+            gen.writeObject(status);
+        }
+        gen.flush();
+    }
+
+    private static boolean isSupported(String type) {
+        return Formats.JSON.equals(type) || Formats.JSONV2.equals(type)
+                || Formats.NDJSON.equals(type);
+    }
+}
@@ -25,6 +25,7 @@
 package cwms.cda.api;
 
 import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.BBOX;
 import static cwms.cda.api.Controllers.CASCADE_DELETE;
 import static cwms.cda.api.Controllers.CREATE;
 import static cwms.cda.api.Controllers.DATUM;
@@ -32,6 +33,7 @@ import static cwms.cda.api.Controllers.DELETE;
 import static cwms.cda.api.Controllers.FORMAT;
 import static cwms.cda.api.Controllers.GET_ALL;
 import static cwms.cda.api.Controllers.GET_ONE;
+import static cwms.cda.api.Controllers.NEAR;
 import static cwms.cda.api.Controllers.OFFICE;
 import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
@@ -58,6 +60,7 @@ import cwms.cda.api.errors.DeleteConflictException;
 import cwms.cda.api.errors.NotFoundException;
 import cwms.cda.data.dao.LocationsDao;
 import cwms.cda.data.dao.LocationsDaoImpl;
+import cwms.cda.data.dao.SpatialFilter;
 import cwms.cda.data.dto.Location;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
@@ -131,7 +134,13 @@ public class LocationController implements CrudHandler {
                         + "of the response. Valid values for the format field for this URI "
                         + "are:\r\n1.    tab\r\n2.    csv\r\n3.    xml\r\n4.  wml2 (only if "
                         + "name field is specified)\r\n5.    json (default)\n" + "6.    "
-                        + "geojson")
+                        + "geojson"),
+                @OpenApiParam(name = BBOX, description = "Only for geojson. Only returns the "
+                        + "locations of the office within min-longitude,min-latitude,"
+                        + "max-longitude,max-latitude, in decimal degrees."),
+                @OpenApiParam(name = NEAR, description = "Only for geojson. Only returns the "
+                        + "locations of the office within a distance of a point, given as "
+                        + "longitude,latitude,radius in kilometers, nearest first.")
             },
             responses = {
                 @OpenApiResponse(status = STATUS_200,
@@ -150,6 +159,10 @@ public class LocationController implements CrudHandler {
     )
     @Override
     public void getAll(@NotNull Context ctx) {
+        SpatialFilter filter = SpatialFilter.parse(ctx.queryParam(BBOX), ctx.queryParam(NEAR));
+        if (filter != null && ctx.queryParam(OFFICE) == null) {
+            throw new IllegalArgumentException(BBOX + " and " + NEAR + " need an " + OFFICE);
+        }
 
         try (final Timer.Context ignored = markAndTime(GET_ALL)) {
             DSLContext dsl = getDslContext(ctx);
@@ -169,7 +182,7 @@ public class LocationController implements CrudHandler {
             final String results;
             if (contentType.getType().equals(Formats.GEOJSON)) {
                 FeatureCollection collection = locationsDao.buildFeatureCollection(names, units,
-                        office);
+                        office, filter);
                 ctx.json(collection);
 
                 requestResultSize.update(ctx.res.getBufferSize());
@@ -450,7 +463,7 @@ public class LocationController implements CrudHandler {
         return retVal;
     }
 
-    private static ObjectMapper getObjectMapperForFormat(String format) {
+    static ObjectMapper getObjectMapperForFormat(String format) {
         ObjectMapper om;
         if ((Formats.XML).equals(format) || (Formats.XMLV2).equals(format)) {
             om = new XmlMapper();
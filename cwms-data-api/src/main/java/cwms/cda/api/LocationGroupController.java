@@ -35,6 +35,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import cwms.cda.api.errors.CdaError;
 import cwms.cda.data.dao.LocationGroupDao;
+import cwms.cda.data.dao.SpatialFilter;
 import cwms.cda.data.dto.LocationGroup;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
@@ -148,6 +149,12 @@ public class LocationGroupController implements CrudHandler {
                     @OpenApiParam(name = CATEGORY_ID, required = true, description = "Specifies"
                             + " the category containing the location group whose data is to be "
                             + "included in the response."),
+                    @OpenApiParam(name = BBOX, description = "Only for geojson. Only returns "
+                            + "the locations within min-longitude,min-latitude,max-longitude,"
+                            + "max-latitude, in decimal degrees."),
+                    @OpenApiParam(name = NEAR, description = "Only for geojson. Only returns "
+                            + "the locations within a distance of a point, given as longitude,"
+                            + "latitude,radius in kilometers, nearest first."),
             },
             responses = {@OpenApiResponse(status = STATUS_200,
                     content = {
@@ -172,8 +179,10 @@ public class LocationGroupController implements CrudHandler {
 
             String result;
             if (Formats.GEOJSON.equals(contentType.getType())) {
+                SpatialFilter filter = SpatialFilter.parse(ctx.queryParam(BBOX),
+                        ctx.queryParam(NEAR));
                 FeatureCollection fc = cdm.buildFeatureCollectionForLocationGroup(office,
-                        categoryId, groupId, "EN");
+                        categoryId, groupId, "EN", filter);
                 ObjectMapper mapper = ctx.appAttribute("ObjectMapper");
                 result = mapper.writeValueAsString(fc);
             } else {
@@ -9,6 +9,7 @@ import static cwms.cda.api.Controllers.OFFICE;
 import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
 import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.resultWithEtag;
 import static cwms.cda.data.dao.JooqDao.getDslContext;
 
 import com.codahale.metrics.Histogram;
@@ -16,6 +17,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import cwms.cda.api.errors.CdaError;
 import cwms.cda.data.dao.OfficeDao;
+import cwms.cda.data.dao.ReferenceData;
 import cwms.cda.data.dto.Office;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
@@ -92,20 +94,31 @@ public class OfficeController implements CrudHandler {
     public void getAll(Context ctx) {
 
         try (final Timer.Context timeContext = markAndTime(GET_ALL)){
-            DSLContext dsl = getDslContext(ctx);
-
-            OfficeDao dao = new OfficeDao(dsl);
             String formatParm = ctx
                 .queryParamAsClass(FORMAT, String.class)
                 .getOrDefault("");
             Boolean hasDataParm = ctx
                 .queryParamAsClass(HAS_DATA, Boolean.class)
                 .getOrDefault(false);
-            List<Office> offices = dao.getOffices(hasDataParm);
 
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, formatParm);
 
+            ReferenceData reference = ReferenceData.current();
+            if (reference != null) {
+                ReferenceData.Body body = reference.render("offices|" + hasDataParm + "|"
+                        + contentType, () -> Formats.format(contentType,
+                        reference.getOffices(hasDataParm), Office.class));
+                resultWithEtag(ctx, body);
+                ctx.contentType(contentType.toString());
+                requestResultSize.update(body.getContent().length());
+                return;
+            }
+
+            DSLContext dsl = getDslContext(ctx);
+            OfficeDao dao = new OfficeDao(dsl);
+            List<Office> offices = dao.getOffices(hasDataParm);
+
             String result = Formats.format(contentType, offices, Office.class);
 
             ctx.result(result).contentType(contentType.toString());
@@ -136,14 +149,21 @@ public class OfficeController implements CrudHandler {
     @Override
     public void getOne(Context ctx, String officeId) {
         try (final Timer.Context timeContext = markAndTime(GET_ONE)){
-            DSLContext dsl = getDslContext(ctx);
-
-            OfficeDao dao = new OfficeDao(dsl);
-            Optional<Office> office = dao.getOfficeById(officeId);
+            ReferenceData reference = ReferenceData.current();
+            Optional<Office> office = reference != null ? reference.getOfficeById(officeId)
+                    : new OfficeDao(getDslContext(ctx)).getOfficeById(officeId);
             if (office.isPresent()) {
                 String formatParm = ctx.queryParamAsClass(FORMAT, String.class).getOrDefault("");
                 String formatHeader = ctx.header(Header.ACCEPT);
                 ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, formatParm);
+                if (reference != null) {
+                    ReferenceData.Body body = reference.render("office|" + office.get().getName()
+                            + "|" + contentType, () -> Formats.format(contentType, office.get()));
+                    resultWithEtag(ctx, body);
+                    ctx.contentType(contentType.toString());
+                    requestResultSize.update(body.getContent().length());
+                    return;
+                }
                 String result = Formats.format(contentType, office.get());
                 ctx.result(result).contentType(contentType.toString());
 
@@ -7,13 +7,16 @@ import static cwms.cda.api.Controllers.GET_ONE;
 import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
 import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.resultWithEtag;
 import static cwms.cda.data.dao.JooqDao.getDslContext;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import cwms.cda.api.errors.CdaError;
+import cwms.cda.api.errors.NotModifiedException;
 import cwms.cda.data.dao.ParameterDao;
+import cwms.cda.data.dao.ReferenceData;
 import cwms.cda.formatters.Formats;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.http.Context;
@@ -70,8 +73,6 @@ public class ParametersController implements CrudHandler {
     @Override
     public void getAll(Context ctx) {
         try (final Timer.Context timeContext = markAndTime(GET_ALL);) {
-            DSLContext dsl = getDslContext(ctx);
-            ParameterDao dao = new ParameterDao(dsl);
             String format = ctx.queryParamAsClass(FORMAT, String.class).getOrDefault("json");
 
             switch (format) {
@@ -101,10 +102,24 @@ public class ParametersController implements CrudHandler {
                     return;
             }
 
+            ReferenceData reference = ReferenceData.current();
+            String cached = reference == null ? null : reference.getParameters(format);
+            if (cached != null) {
+                ReferenceData.Body body = reference.render("parameters|" + format, () -> cached);
+                ctx.status(HttpServletResponse.SC_OK);
+                resultWithEtag(ctx, body);
+                requestResultSize.update(cached.length());
+                return;
+            }
+
+            DSLContext dsl = getDslContext(ctx);
+            ParameterDao dao = new ParameterDao(dsl);
             String results = dao.getParameters(format);
             ctx.status(HttpServletResponse.SC_OK);
             ctx.result(results);
             requestResultSize.update(results.length());
+        } catch (NotModifiedException ex) {
+            throw ex;
         } catch (Exception ex) {
             CdaError re = new CdaError("Failed to process request");
             logger.log(Level.SEVERE, re.toString(), ex);
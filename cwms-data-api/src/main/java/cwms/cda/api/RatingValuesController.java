@@ -0,0 +1,210 @@
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.AT;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.RATING_ID;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.STATUS_404;
+import static cwms.cda.api.Controllers.TIMES;
+import static cwms.cda.api.Controllers.TIMEZONE;
+import static cwms.cda.api.Controllers.VALUES;
+import static cwms.cda.api.Controllers.queryParamAsInstant;
+import static cwms.cda.api.Controllers.requiredParam;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.api.errors.CdaError;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.RatingDao;
+import cwms.cda.data.dao.RatingSetDao;
+import cwms.cda.data.dto.rating.RatedValues;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.helpers.DateUtils;
+import hec.data.RatingException;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.http.HttpServletResponse;
+import mil.army.usace.hec.metadata.constants.NumericalConstants;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Evaluates a rating for a list of values.  Rating sets are loaded once and kept in memory
+ * (see {@link RatingDao#rateCached(String, String, long[], double[], boolean)}) so repeated
+ * requests against the same rating do not go back to the database.
+ */
+public class RatingValuesController implements Handler {
+    private static final Logger logger = Logger.getLogger(RatingValuesController.class.getName());
+    private static final String TAG = "Ratings";
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+    private final boolean reverse;
+
+    /**
+     * @param reverse when true the values are dependent values and are reverse rated
+     */
+    public RatingValuesController(MetricRegistry metrics, boolean reverse) {
+        this.metrics = metrics;
+        this.reverse = reverse;
+        requestResultSize = this.metrics.histogram((name(RatingValuesController.class, RESULTS, SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    protected DSLContext getDslContext(Context ctx) {
+        return JooqDao.getDslContext(ctx);
+    }
+
+    @NotNull
+    protected RatingDao getRatingDao(DSLContext dsl) {
+        return new RatingSetDao(dsl);
+    }
+
+    @OpenApi(
+            pathParams = {
+                @OpenApiParam(name = RATING_ID, required = true, description = "The rating "
+                        + "specification to evaluate."),
+            },
+            queryParams = {
+                @OpenApiParam(name = OFFICE, required = true, description = "Specifies the "
+                        + "owning office of the rating."),
+                @OpenApiParam(name = VALUES, required = true, description = "Comma separated "
+                        + "list of values to rate, in the native units of the rating.  For the "
+                        + "reverse-rate path these are dependent values."),
+                @OpenApiParam(name = AT, description = "Time to evaluate the rating at for "
+                        + "every value.  Defaults to the current time."),
+                @OpenApiParam(name = TIMES, description = "Comma separated list of times to "
+                        + "evaluate the rating at, one for each value.  Cannot be combined with "
+                        + AT + "."),
+                @OpenApiParam(name = TIMEZONE, description = "Time zone of the " + AT + " and "
+                        + TIMES + " fields if they do not include one.  Defaults to UTC.")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, content = {
+                    @OpenApiContent(from = RatedValues.class, type = Formats.JSONV2)}),
+                @OpenApiResponse(status = STATUS_400, description = "The values could not be "
+                        + "read or the rating could not be applied to them."),
+                @OpenApiResponse(status = STATUS_404, description = "No rating was found for "
+                        + "the office and rating-id.")
+            },
+            description = "Rate, or with the reverse-rate path reverse rate, a list of values. "
+                    + "The path is /ratings/{rating-id}/rate or /ratings/{rating-id}/reverse-rate.",
+            path = "/ratings/{rating-id}/rate",
+            tags = {TAG},
+            method = HttpMethod.GET
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        handle(ctx, ctx.pathParam(RATING_ID));
+    }
+
+    void handle(@NotNull Context ctx, String ratingId) {
+        try (final Timer.Context ignored = markAndTime(reverse ? "reverseRate" : "rate")) {
+            String office = requiredParam(ctx, OFFICE);
+            double[] values = parseValues(requiredParam(ctx, VALUES));
+            List<Instant> times = evaluationTimes(ctx, values.length);
+
+            long[] millis = new long[times.size()];
+            for (int i = 0; i < millis.length; i++) {
+                millis[i] = times.get(i).toEpochMilli();
+            }
+            double[] rated = getRatingDao(getDslContext(ctx)).rateCached(office, ratingId, millis,
+                    values, reverse);
+
+            RatedValues result = new RatedValues(office, ratingId, reverse, times, toList(values),
+                    toList(rated));
+
+            ContentType contentType = Formats.parseHeader(ctx.header(Header.ACCEPT));
+            if (contentType == null) {
+                contentType = new ContentType(Formats.JSONV2);
+            }
+            String body = Formats.format(contentType, result);
+            ctx.result(body).contentType(contentType.toString());
+            requestResultSize.update(body.length());
+            ctx.status(HttpServletResponse.SC_OK);
+        } catch (RatingException ex) {
+            CdaError re = new CdaError("Unable to apply rating: " + ex.getMessage());
+            logger.log(Level.INFO, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST).json(re);
+        } catch (IOException ex) {
+            CdaError re = new CdaError("Failed to retrieve rating");
+            logger.log(Level.SEVERE, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR).json(re);
+        }
+    }
+
+    /**
+     * @return the time to evaluate each value at, from either the times or the at parameter
+     */
+    static List<Instant> evaluationTimes(Context ctx, int count) {
+        String timesParam = ctx.queryParam(TIMES);
+        if (timesParam == null) {
+            Instant at = queryParamAsInstant(ctx, AT);
+            return Collections.nCopies(count, at == null ? Instant.now() : at);
+        }
+        if (ctx.queryParam(AT) != null) {
+            throw new IllegalArgumentException("Only one of " + AT + " and " + TIMES
+                    + " can be given.");
+        }
+        String timezone = ctx.queryParamAsClass(TIMEZONE, String.class).getOrDefault("UTC");
+        String[] parts = timesParam.split(",");
+        if (parts.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " " + TIMES
+                    + ", one for each value, but got " + parts.length);
+        }
+        List<Instant> retval = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            retval.add(DateUtils.parseUserDate(part.trim(), timezone).toInstant());
+        }
+        return retval;
+    }
+
+    static double[] parseValues(String param) {
+        String[] parts = param.split(",");
+        double[] retval = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                retval[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value: " + parts[i], e);
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * Values the rating could not produce come back as the HEC undefined value and are
+     * returned as null.
+     */
+    private static List<Double> toList(double[] values) {
+        List<Double> retval = new ArrayList<>(values.length);
+        for (double value : values) {
+            boolean undefined = value == NumericalConstants.HEC_UNDEFINED_DOUBLE
+                    || Double.isNaN(value) || Double.isInfinite(value);
+            retval.add(undefined ? null : value);
+        }
+        return retval;
+    }
+}
@@ -28,12 +28,14 @@ import static com.codahale.metrics.MetricRegistry.name;
 import static cwms.cda.api.Controllers.GET_ALL;
 import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.resultWithEtag;
 import static cwms.cda.data.dao.JooqDao.getDslContext;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import cwms.cda.api.errors.CdaError;
+import cwms.cda.data.dao.ReferenceData;
 import cwms.cda.data.dao.StateDao;
 import cwms.cda.data.dto.State;
 import cwms.cda.formatters.ContentType;
@@ -89,15 +91,26 @@ public class StateController implements CrudHandler {
     @Override
     public void getAll(@NotNull Context ctx) {
         try (Timer.Context ignored = markAndTime(GET_ALL)) {
-            DSLContext dsl = getDslContext(ctx);
-
-            StateDao dao = new StateDao(dsl);
-            List<State> states = dao.getStates();
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeader(formatHeader);
             if (contentType == null) {
                 throw new FormattingException("Format header could not be parsed");
             }
+
+            ReferenceData reference = ReferenceData.current();
+            if (reference != null) {
+                ReferenceData.Body body = reference.render("states|" + contentType,
+                        () -> Formats.format(contentType, reference.getStates(), State.class));
+                resultWithEtag(ctx, body);
+                ctx.contentType(contentType.toString());
+                requestResultSize.update(body.getContent().length());
+                ctx.status(HttpServletResponse.SC_OK);
+                return;
+            }
+
+            DSLContext dsl = getDslContext(ctx);
+            StateDao dao = new StateDao(dsl);
+            List<State> states = dao.getStates();
             String result = Formats.format(contentType, states, State.class);
             ctx.result(result).contentType(contentType.toString());
             requestResultSize.update(result.length());
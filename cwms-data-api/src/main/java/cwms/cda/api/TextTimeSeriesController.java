@@ -33,6 +33,8 @@ import cwms.cda.data.dto.texttimeseries.TextTimeSeries;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.json.JsonV2;
+import cwms.cda.formatters.json.JsonV2TextTimeSeriesWriter;
+import cwms.cda.helpers.CountingOutputStream;
 import cwms.cda.helpers.ReplaceUtils;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.core.util.Header;
@@ -51,7 +53,6 @@ import org.jooq.DSLContext;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.time.Instant;
@@ -71,6 +72,8 @@ public class TextTimeSeriesController implements CrudHandler {
     public static final boolean DEFAULT_CREATE_REPLACE_ALL = false;
     public static final boolean DEFAULT_UPDATE_REPLACE_ALL = true;
 
+    private static final JsonV2TextTimeSeriesWriter STREAM_WRITER = new JsonV2TextTimeSeriesWriter();
+
     private final MetricRegistry metrics;
 
     public TextTimeSeriesController(MetricRegistry metrics) {
@@ -102,7 +105,12 @@ public class TextTimeSeriesController implements CrudHandler {
                             + "otherwise specified). If this field is not specified, "
                             + "the default time zone of UTC shall be used."),
                     @OpenApiParam(name = BEGIN, required = true, description = "The start of the time window"),
-                    @OpenApiParam(name = END, required = true, description = "The end of the time window.")
+                    @OpenApiParam(name = END, required = true, description = "The end of the time window."),
+                    @OpenApiParam(name = PAGE, description = "This end point can return a lot of "
+                            + "data, this identifies where in the request you are.  The value comes "
+                            + "from the next-page field of the previous page."),
+                    @OpenApiParam(name = PAGE_SIZE, type = Integer.class, description = "How many "
+                            + "values to return per page.  By default all of them are returned.")
 
             },
             responses = {
@@ -142,6 +150,24 @@ public class TextTimeSeriesController implements CrudHandler {
             ReplaceUtils.OperatorBuilder urlBuilder = new ReplaceUtils.OperatorBuilder()
                     .withTemplate(url)
                     .withOperatorKey(URLEncoder.encode(dateToken, "UTF-8"));
+
+            if (ContentType.equivalent(Formats.JSONV2, contentType.toString())) {
+                // Rows are written as they are read from the database, so a long text log is
+                // never held in memory as a whole.  A failure part way through cuts the
+                // response off instead of appending an error to it.
+                String page = ctx.queryParam(PAGE);
+                int pageSize = ctx.queryParamAsClass(PAGE_SIZE, Integer.class).getOrDefault(0);
+                CountingOutputStream out = new CountingOutputStream(ctx.res.getOutputStream());
+                Controllers.writeStreamed(ctx, out, () ->
+                        dao.streamFromDao(office, tsId, textMask, begin, end, version,
+                                kiloByteLimit, page, pageSize, urlBuilder, (header, rows) -> {
+                                    ctx.status(HttpServletResponse.SC_OK);
+                                    ctx.contentType(contentType.toString());
+                                    STREAM_WRITER.write(header, rows, out);
+                                }));
+                return;
+            }
+
             TextTimeSeries textTimeSeries = dao.retrieveFromDao(office, tsId, textMask,
                     begin, end, version, kiloByteLimit, urlBuilder);
 
@@ -151,7 +177,7 @@ public class TextTimeSeriesController implements CrudHandler {
             ctx.result(result);
 
             ctx.status(HttpServletResponse.SC_OK);
-        } catch (URISyntaxException | UnsupportedEncodingException ex) {
+        } catch (URISyntaxException | IOException ex) {
             CdaError re =
                     new CdaError("Failed to process request: " + ex.getLocalizedMessage());
             logger.log(Level.SEVERE, re.toString(), ex);
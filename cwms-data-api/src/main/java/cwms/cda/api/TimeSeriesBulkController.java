@@ -0,0 +1,144 @@
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.CREATE_AS_LRTS;
+import static cwms.cda.api.Controllers.OVERRIDE_PROTECTION;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.STORE_RULE;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.api.errors.CdaError;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.StoreRule;
+import cwms.cda.data.dao.TimeSeriesDao;
+import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesStoreResult;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.json.JsonV2;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Stores many time series from a single request body.  The series are stored on one
+ * database connection and the response reports the outcome of each series.
+ */
+public class TimeSeriesBulkController implements Handler {
+    private static final Logger logger = Logger.getLogger(TimeSeriesBulkController.class.getName());
+    private static final TypeReference<List<TimeSeries>> SERIES_LIST = new TypeReference<List<TimeSeries>>() {};
+    static final int SC_MULTI_STATUS = 207;
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+
+    public TimeSeriesBulkController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        requestResultSize = this.metrics.histogram((name(TimeSeriesBulkController.class, RESULTS, SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    protected DSLContext getDslContext(Context ctx) {
+        return JooqDao.getDslContext(ctx);
+    }
+
+    @NotNull
+    protected TimeSeriesDao getTimeSeriesDao(DSLContext dsl) {
+        return new TimeSeriesDaoImpl(dsl);
+    }
+
+    @OpenApi(
+            requestBody = @OpenApiRequestBody(
+                    content = {
+                        @OpenApiContent(isArray = true, from = TimeSeries.class, type = Formats.JSONV2)
+                    },
+                    required = true),
+            queryParams = {
+                @OpenApiParam(name = CREATE_AS_LRTS, type = Boolean.class, description = "Flag "
+                        + "indicating if timeseries should be created as Local Regular Time "
+                        + "Series. 'True' or 'False', default is 'False'"),
+                @OpenApiParam(name = STORE_RULE, type = StoreRule.class, description = "The "
+                        + "business rule to use when merging the incoming with existing data"),
+                @OpenApiParam(name = OVERRIDE_PROTECTION, type = Boolean.class, description =
+                        "A flag to ignore the protected data quality when storing data.  'True' "
+                                + "or 'False'")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "All time series were stored.",
+                        content = {@OpenApiContent(isArray = true, from = TimeSeriesStoreResult.class,
+                                type = Formats.JSONV2)}),
+                @OpenApiResponse(status = "207", description = "Some time series could not be "
+                        + "stored.  The message of each failed entry describes the problem.",
+                        content = {@OpenApiContent(isArray = true, from = TimeSeriesStoreResult.class,
+                                type = Formats.JSONV2)}),
+                @OpenApiResponse(status = STATUS_400, description = "The request body could not be "
+                        + "read as a list of time series.")
+            },
+            path = "/timeseries/bulk",
+            description = "Store values for several time series in one request.  Series are "
+                    + "grouped by office and stored on a single database connection.",
+            tags = TimeSeriesController.TAG,
+            method = HttpMethod.POST
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        try (final Timer.Context ignored = markAndTime("storeBulk")) {
+            ContentType contentType = Formats.parseHeader(ctx.req.getContentType());
+            if (!new ContentType(Formats.JSONV2).equals(contentType)) {
+                throw new IllegalArgumentException("Bulk time series store only accepts "
+                        + Formats.JSONV2);
+            }
+
+            List<TimeSeries> series = deserializeTimeSeries(ctx.bodyAsInputStream());
+
+            boolean createAsLrts = ctx.queryParamAsClass(CREATE_AS_LRTS, Boolean.class).getOrDefault(false);
+            StoreRule storeRule = ctx.queryParamAsClass(STORE_RULE, StoreRule.class).getOrDefault(StoreRule.REPLACE_ALL);
+            boolean overrideProtection = ctx.queryParamAsClass(OVERRIDE_PROTECTION, Boolean.class).getOrDefault(TimeSeriesDaoImpl.OVERRIDE_PROTECTION);
+
+            TimeSeriesDao dao = getTimeSeriesDao(getDslContext(ctx));
+            List<TimeSeriesStoreResult> results = dao.storeMulti(series, createAsLrts, storeRule,
+                    overrideProtection);
+
+            ContentType resultType = new ContentType(Formats.JSONV2);
+            String result = Formats.format(resultType, results, TimeSeriesStoreResult.class);
+            boolean allStored = results.stream().allMatch(TimeSeriesStoreResult::isStored);
+
+            ctx.result(result).contentType(resultType.toString());
+            requestResultSize.update(result.length());
+            ctx.status(allStored ? HttpServletResponse.SC_OK : SC_MULTI_STATUS);
+        } catch (IOException ex) {
+            CdaError re = new CdaError("Unable to read time series from request body");
+            logger.log(Level.INFO, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST).json(re);
+        }
+    }
+
+    static List<TimeSeries> deserializeTimeSeries(InputStream body) throws IOException {
+        ObjectMapper om = JsonV2.buildObjectMapper();
+        return om.readValue(body, SERIES_LIST);
+    }
+}
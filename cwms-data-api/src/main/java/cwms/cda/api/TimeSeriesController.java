@@ -33,6 +33,7 @@ import static cwms.cda.api.Controllers.STATUS_501;
 import static cwms.cda.api.Controllers.STORE_RULE;
 import static cwms.cda.api.Controllers.TIMESERIES;
 import static cwms.cda.api.Controllers.TIMEZONE;
+import static cwms.cda.api.Controllers.TOTAL;
 import static cwms.cda.api.Controllers.TS_IDS;
 import static cwms.cda.api.Controllers.UNIT;
 import static cwms.cda.api.Controllers.UPDATE;
@@ -47,6 +48,7 @@ import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.api.enums.TotalMode;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.errors.CdaError;
 import cwms.cda.api.errors.NotFoundException;
@@ -60,7 +62,10 @@ import cwms.cda.data.dto.TimeSeries;
 import cwms.cda.data.dto.Tsv;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.TimeSeriesStreamWriter;
 import cwms.cda.formatters.json.JsonV2;
+import cwms.cda.formatters.xml.JaxbContextCache;
+import cwms.cda.helpers.CountingOutputStream;
 import cwms.cda.helpers.DateUtils;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.core.util.Header;
@@ -153,6 +158,7 @@ public class TimeSeriesController implements CrudHandler {
             + "</table>";
 
     private final MetricRegistry metrics;
+    private final ChangeTokenEtagHandler changeTokens;
 
     private final Histogram requestResultSize;
     private static final int DEFAULT_PAGE_SIZE = 500;
@@ -162,6 +168,7 @@ public class TimeSeriesController implements CrudHandler {
         this.metrics = metrics;
         String className = this.getClass().getName();
         requestResultSize = this.metrics.histogram((name(className, RESULTS, SIZE)));
+        changeTokens = ChangeTokenEtagHandler.forTimeSeries(metrics);
     }
 
     static {
@@ -384,7 +391,13 @@ public class TimeSeriesController implements CrudHandler {
                 @OpenApiParam(name = PAGE_SIZE,
                         type = Integer.class,
                         description = "How many entries per page returned. "
-                                + "Default " + DEFAULT_PAGE_SIZE + ".")
+                                + "Default " + DEFAULT_PAGE_SIZE + ". A negative value "
+                                + "returns all values in one response. For " + Formats.JSONV2
+                                + " and " + Formats.XMLV2 + ", large or unlimited pages are "
+                                + "streamed to the client as they are read."),
+                @OpenApiParam(name = TOTAL,
+                        type = TotalMode.class,
+                        description = TotalMode.DESCRIPTION)
             },
             responses = {
                 @OpenApiResponse(status = STATUS_200,
@@ -407,6 +420,7 @@ public class TimeSeriesController implements CrudHandler {
     )
     @Override
     public void getAll(@NotNull Context ctx) {
+        changeTokens.handle(ctx);
 
         try (final Timer.Context ignored = markAndTime(GET_ALL)) {
             DSLContext dsl = getDslContext(ctx);
@@ -434,6 +448,8 @@ public class TimeSeriesController implements CrudHandler {
                     Integer.class, DEFAULT_PAGE_SIZE, metrics,
                     name(TimeSeriesController.class.getName(), GET_ALL));
 
+            TotalMode totalMode = TotalMode.totalModeFor(ctx.queryParam(TOTAL));
+
             String acceptHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(acceptHeader, format);
 
@@ -454,26 +470,33 @@ public class TimeSeriesController implements CrudHandler {
                             Formats.JSONV2, Formats.XMLV2));
                 }
 
+                TimeSeriesStreamWriter streamWriter = Formats.getTimeSeriesStreamWriter(contentType);
+                if (streamWriter != null && Controllers.shouldStream("ts", pageSize)) {
+                    // Large requests are written straight from the database cursor so that
+                    // neither the full value list nor the rendered body is held in memory.
+                    ctx.status(HttpServletResponse.SC_OK);
+                    ctx.contentType(contentType.toString());
+                    CountingOutputStream out = new CountingOutputStream(ctx.res.getOutputStream());
+                    Controllers.writeStreamed(ctx, out, () ->
+                            dao.streamTimeseries(cursor, pageSize, names, office, unit,
+                                beginZdt, endZdt, versionDate, trim.getOrDefault(false), totalMode,
+                                (ts, values) -> {
+                                    ctx.header("Link", buildLinkHeader(ctx, ts, contentType));
+                                    streamWriter.write(ts, values, out);
+                                }));
+                    requestResultSize.update(out.getCount());
+                    return;
+                }
+
                 TimeSeries ts = dao.getTimeseries(cursor, pageSize, names, office, unit,
-                        beginZdt, endZdt, versionDate, trim.getOrDefault(false));
+                        beginZdt, endZdt, versionDate, trim.getOrDefault(false), totalMode);
 
                 results = Formats.format(contentType, ts);
 
                 ctx.status(HttpServletResponse.SC_OK);
 
                 // Send back the link to the next page in the response header
-                StringBuilder linkValue = new StringBuilder(600);
-                linkValue.append(String.format("<%s>; rel=self; type=\"%s\"",
-                        buildRequestUrl(ctx, ts, ts.getPage()), contentType));
-
-                if (ts.getNextPage() != null) {
-                    linkValue.append(",");
-                    linkValue.append(String.format("<%s>; rel=next; type=\"%s\"",
-                            buildRequestUrl(ctx, ts, ts.getNextPage()),
-                            contentType));
-                }
-
-                ctx.header("Link", linkValue.toString());
+                ctx.header("Link", buildLinkHeader(ctx, ts, contentType));
                 ctx.result(results).contentType(contentType.toString());
             } else {
                 if (versionDate != null) {
@@ -505,7 +528,29 @@ public class TimeSeriesController implements CrudHandler {
             logger.log(Level.SEVERE, re.toString(), ex);
             ctx.status(HttpServletResponse.SC_BAD_REQUEST);
             ctx.json(re);
+        } catch (IOException ex) {
+            CdaError re = new CdaError("Internal Error");
+            logger.log(Level.SEVERE, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR).json(re);
+        }
+    }
+
+    /**
+     * Only requests for all values, or pages larger than the configured minimum, are streamed.
+     * Smaller pages are cheap enough to build in memory.
+     */
+    private String buildLinkHeader(Context ctx, TimeSeries ts, ContentType contentType) {
+        StringBuilder linkValue = new StringBuilder(600);
+        linkValue.append(String.format("<%s>; rel=self; type=\"%s\"",
+                buildRequestUrl(ctx, ts, ts.getPage()), contentType));
+
+        if (ts.getNextPage() != null) {
+            linkValue.append(",");
+            linkValue.append(String.format("<%s>; rel=next; type=\"%s\"",
+                    buildRequestUrl(ctx, ts, ts.getNextPage()),
+                    contentType));
         }
+        return linkValue.toString();
     }
 
     @OpenApi(ignore = true)
@@ -594,7 +639,7 @@ public class TimeSeriesController implements CrudHandler {
 
     public static TimeSeries deserializeJaxb(String body) throws IOException {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(TimeSeries.class);
+            JAXBContext jaxbContext = JaxbContextCache.getContext(TimeSeries.class);
             Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
             return (TimeSeries) unmarshaller.unmarshal(new StringReader(body));
         } catch (JAXBException e) {
@@ -0,0 +1,169 @@
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.TS_IDS;
+import static cwms.cda.api.Controllers.UNIT;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.api.errors.CdaError;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.LatestValueDao;
+import cwms.cda.data.dto.LatestValue;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.json.JsonV2;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Returns the latest value of many time series in one call.  Small lists can be passed as the
+ * ts-ids query parameter; large lists are posted as a JSON array of identifiers.  Each
+ * identifier gets its own status in the response, so unknown identifiers do not fail the
+ * request.
+ */
+public class TimeSeriesLatestController implements Handler {
+    private static final Logger logger = Logger.getLogger(TimeSeriesLatestController.class.getName());
+    private static final TypeReference<List<String>> ID_LIST = new TypeReference<List<String>>() {};
+
+    public static final String MAX_IDS_KEY = "cwms.dataapi.timeseries.latest.max.ids";
+    private static final int MAX_IDS = Integer.getInteger(MAX_IDS_KEY, 5000);
+
+    /**
+     * Same window as the recent values endpoint: two weeks either side of the current day.
+     */
+    private static final int WINDOW_DAYS = 14;
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+    private final Histogram requestIdCount;
+
+    public TimeSeriesLatestController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        requestResultSize = this.metrics.histogram((name(TimeSeriesLatestController.class, RESULTS, SIZE)));
+        requestIdCount = this.metrics.histogram((name(TimeSeriesLatestController.class, "ids", SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    protected DSLContext getDslContext(Context ctx) {
+        return JooqDao.getDslContext(ctx);
+    }
+
+    @NotNull
+    protected LatestValueDao getLatestValueDao(DSLContext dsl) {
+        return new LatestValueDao(dsl);
+    }
+
+    @OpenApi(
+            requestBody = @OpenApiRequestBody(
+                    content = {
+                        @OpenApiContent(isArray = true, from = String.class, type = Formats.JSON)
+                    },
+                    description = "Time series identifiers, only read for POST requests"),
+            queryParams = {
+                @OpenApiParam(name = OFFICE, description = "Specifies the owning office of the "
+                        + "time series.  If this field is not specified, matching time series "
+                        + "from all offices are returned."),
+                @OpenApiParam(name = UNIT, description = "Only return values in this unit.  "
+                        + "If not specified the latest value is returned in every unit."),
+                @OpenApiParam(name = TS_IDS, description = "Comma separated list of time "
+                        + "series identifiers for GET requests.  Use POST for long lists."),
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "Every identifier was found.",
+                        content = {@OpenApiContent(isArray = true, from = LatestValue.class,
+                                type = Formats.JSONV2)}),
+                @OpenApiResponse(status = "207", description = "Some identifiers were not found "
+                        + "or are not valid.  The status of each entry says which.",
+                        content = {@OpenApiContent(isArray = true, from = LatestValue.class,
+                                type = Formats.JSONV2)}),
+                @OpenApiResponse(status = STATUS_400, description = "No identifiers, too many "
+                        + "identifiers, or a body that is not a list of identifiers.")
+            },
+            path = "/timeseries/latest",
+            description = "Returns the latest value of each of a list of time series within two "
+                    + "weeks of the current day.  Also answers GET with the ts-ids parameter.",
+            tags = TimeSeriesController.TAG,
+            method = HttpMethod.POST
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        try (final Timer.Context ignored = markAndTime("getLatest")) {
+            List<String> tsIds;
+            if ("POST".equals(ctx.req.getMethod())) {
+                tsIds = deserializeIds(ctx.bodyAsInputStream());
+            } else {
+                tsIds = TimeSeriesRecentController.getTsIds(ctx.queryParam(TS_IDS));
+            }
+            if (tsIds == null || tsIds.isEmpty()) {
+                throw new IllegalArgumentException("No time series identifiers were provided");
+            }
+            if (tsIds.size() > MAX_IDS) {
+                throw new IllegalArgumentException("At most " + MAX_IDS
+                        + " time series identifiers can be requested at once");
+            }
+            requestIdCount.update(tsIds.size());
+
+            String office = ctx.queryParam(OFFICE);
+            String unit = ctx.queryParam(UNIT);
+
+            Instant today = LocalDate.now(ZoneOffset.UTC).atStartOfDay().toInstant(ZoneOffset.UTC);
+            Timestamp pastLimit = Timestamp.from(today.minus(WINDOW_DAYS, ChronoUnit.DAYS));
+            Timestamp futureLimit = Timestamp.from(today.plus(WINDOW_DAYS, ChronoUnit.DAYS));
+
+            LatestValueDao dao = getLatestValueDao(getDslContext(ctx));
+            List<LatestValue> latest = dao.retrieveLatest(office, unit, tsIds, pastLimit,
+                    futureLimit);
+
+            ContentType resultType = new ContentType(Formats.JSONV2);
+            String result = Formats.format(resultType, latest, LatestValue.class);
+            boolean allFound = latest.stream()
+                    .allMatch(v -> v.getStatus() == LatestValue.Status.OK
+                            || v.getStatus() == LatestValue.Status.NO_DATA);
+
+            ctx.result(result).contentType(resultType.toString());
+            requestResultSize.update(result.length());
+            ctx.status(allFound ? HttpServletResponse.SC_OK
+                    : TimeSeriesBulkController.SC_MULTI_STATUS);
+        } catch (IOException ex) {
+            CdaError re = new CdaError("Unable to read time series identifiers from request body");
+            logger.log(Level.INFO, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST).json(re);
+        }
+    }
+
+    static List<String> deserializeIds(InputStream body) throws IOException {
+        ObjectMapper om = JsonV2.buildObjectMapper();
+        return om.readValue(body, ID_LIST);
+    }
+}
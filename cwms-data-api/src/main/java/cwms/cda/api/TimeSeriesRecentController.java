@@ -70,11 +70,13 @@ import static cwms.cda.api.Controllers.*;
 public class TimeSeriesRecentController implements Handler {
     private static final Logger logger = Logger.getLogger(TimeSeriesRecentController.class.getName());
     private final MetricRegistry metrics;
+    private final ChangeTokenEtagHandler changeTokens;
     private final Histogram requestResultSize;
 
     public TimeSeriesRecentController(MetricRegistry metrics) {
         this.metrics = metrics;
         requestResultSize = this.metrics.histogram((name(TimeSeriesRecentController.class, RESULTS, SIZE)));
+        changeTokens = ChangeTokenEtagHandler.forRecent(metrics);
     }
 
     private Timer.Context markAndTime(String subject) {
@@ -118,6 +120,7 @@ public class TimeSeriesRecentController implements Handler {
             method = HttpMethod.GET
     )
     public void handle(@NotNull Context ctx) {
+        changeTokens.handle(ctx);
 
         try (final Timer.Context ignored = markAndTime("getRecent")) {
             DSLContext dsl = getDslContext(ctx);
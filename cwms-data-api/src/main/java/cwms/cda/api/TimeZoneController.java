@@ -9,12 +9,15 @@ import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
 import static cwms.cda.api.Controllers.STATUS_200;
 import static cwms.cda.api.Controllers.STATUS_501;
+import static cwms.cda.api.Controllers.resultWithEtag;
 import static cwms.cda.data.dao.JooqDao.getDslContext;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import cwms.cda.api.errors.CdaError;
+import cwms.cda.api.errors.NotModifiedException;
+import cwms.cda.data.dao.ReferenceData;
 import cwms.cda.data.dao.TimeZoneDao;
 import cwms.cda.formatters.Formats;
 import io.javalin.apibuilder.CrudHandler;
@@ -74,8 +77,6 @@ public class TimeZoneController implements CrudHandler {
     @Override
     public void getAll(Context ctx) {
         try (Timer.Context timeContext = markAndTime(GET_ALL)) {
-            DSLContext dsl = getDslContext(ctx);
-            TimeZoneDao dao = new TimeZoneDao(dsl);
             String format = ctx.queryParamAsClass(FORMAT, String.class).getOrDefault("json");
 
             switch (format) {
@@ -106,11 +107,25 @@ public class TimeZoneController implements CrudHandler {
                 }
             }
 
+            ReferenceData reference = ReferenceData.current();
+            String cached = reference == null ? null : reference.getTimeZones(format);
+            if (cached != null) {
+                ReferenceData.Body body = reference.render("timezones|" + format, () -> cached);
+                ctx.status(HttpServletResponse.SC_OK);
+                resultWithEtag(ctx, body);
+                requestResultSize.update(cached.length());
+                return;
+            }
+
+            DSLContext dsl = getDslContext(ctx);
+            TimeZoneDao dao = new TimeZoneDao(dsl);
             String results = dao.getTimeZones(format);
             requestResultSize.update(results.length());
             ctx.status(HttpServletResponse.SC_OK);
             ctx.result(results);
             requestResultSize.update(results.length());
+        } catch (NotModifiedException ex) {
+            throw ex;
         } catch (Exception ex) {
             logger.log(Level.SEVERE, null, ex);
             ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
@@ -8,12 +8,15 @@ import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
 import static cwms.cda.api.Controllers.STATUS_200;
 import static cwms.cda.api.Controllers.STATUS_501;
+import static cwms.cda.api.Controllers.resultWithEtag;
 import static cwms.cda.data.dao.JooqDao.getDslContext;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import cwms.cda.api.errors.CdaError;
+import cwms.cda.api.errors.NotModifiedException;
+import cwms.cda.data.dao.ReferenceData;
 import cwms.cda.data.dao.UnitsDao;
 import cwms.cda.formatters.Formats;
 import io.javalin.apibuilder.CrudHandler;
@@ -73,8 +76,6 @@ public class UnitsController implements CrudHandler {
     public void getAll(Context ctx) {
 
         try (final Timer.Context timeContext = markAndTime(GET_ALL)) {
-            DSLContext dsl = getDslContext(ctx);
-            UnitsDao dao = new UnitsDao(dsl);
             String format = ctx.queryParamAsClass(FORMAT, String.class).getOrDefault("json");
 
             switch (format) {
@@ -103,10 +104,24 @@ public class UnitsController implements CrudHandler {
                             + "implemented for this end point");
             }
 
+            ReferenceData reference = ReferenceData.current();
+            String cached = reference == null ? null : reference.getUnits(format);
+            if (cached != null) {
+                ReferenceData.Body body = reference.render("units|" + format, () -> cached);
+                ctx.status(HttpServletResponse.SC_OK);
+                resultWithEtag(ctx, body);
+                requestResultSize.update(cached.length());
+                return;
+            }
+
+            DSLContext dsl = getDslContext(ctx);
+            UnitsDao dao = new UnitsDao(dsl);
             String results = dao.getUnits(format);
             ctx.status(HttpServletResponse.SC_OK);
             ctx.result(results);
             requestResultSize.update(results.length());
+        } catch (NotModifiedException ex) {
+            throw ex;
         } catch (Exception ex) {
             logger.log(Level.SEVERE, null, ex);
             ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
@@ -0,0 +1,30 @@
+package cwms.cda.api.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(
+        name = "Total Mode",
+        description = TotalMode.DESCRIPTION
+)
+public enum TotalMode {
+    EXACT,
+    ESTIMATED,
+    NONE;
+
+    public static final String DESCRIPTION = "How the total number of records is worked out on "
+            + "the first page. EXACT (default) counts them, ESTIMATED reuses a recent count for "
+            + "the same filter where one is available and NONE leaves the total out.";
+
+    /**
+     * @param mode case insensitive name, null or empty for {@link #EXACT}
+     * @throws IllegalArgumentException if the mode is not known
+     */
+    public static TotalMode totalModeFor(String mode) {
+        TotalMode retval = EXACT;
+
+        if (mode != null && !mode.isEmpty()) {
+            retval = TotalMode.valueOf(mode.toUpperCase());
+        }
+        return retval;
+    }
+}
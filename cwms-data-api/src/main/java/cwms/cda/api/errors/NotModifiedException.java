@@ -0,0 +1,18 @@
+package cwms.cda.api.errors;
+
+/**
+ * Thrown before an endpoint runs when the client already has the current representation.
+ * ApiServlet turns it into a 304 response, which skips the endpoint handler entirely.
+ */
+public class NotModifiedException extends RuntimeException {
+    private final String etag;
+
+    public NotModifiedException(String etag) {
+        super("Not Modified");
+        this.etag = etag;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+}
@@ -4,11 +4,20 @@ import cwms.cda.api.graph.Edge;
 import cwms.cda.api.graph.Graph;
 import cwms.cda.api.graph.Node;
 import cwms.cda.api.graph.basinconnectivity.edges.BasinConnectivityEdge;
+import cwms.cda.api.graph.basinconnectivity.edges.StreamEdge;
 import cwms.cda.api.graph.basinconnectivity.nodes.BasinConnectivityNode;
 import cwms.cda.data.dto.basinconnectivity.Basin;
 import cwms.cda.data.dto.basinconnectivity.Stream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 public class BasinConnectivityGraph implements Graph {
 
@@ -22,6 +31,13 @@ public class BasinConnectivityGraph implements Graph {
         name = builder.basin.getBasinName();
     }
 
+    private BasinConnectivityGraph(String name, List<BasinConnectivityEdge> edges,
+                                   List<BasinConnectivityNode> nodes) {
+        this.name = name;
+        this.edges.addAll(edges);
+        this.nodes.addAll(nodes);
+    }
+
     @Override
     public List<Edge> getEdges() {
         return new ArrayList<>(edges);
@@ -38,6 +54,76 @@ public class BasinConnectivityGraph implements Graph {
         return name;
     }
 
+    /**
+     * @param nodeId stream location, or generated id of an empty node
+     * @return the node and everything that flows into it, or null if the node is not in this
+     *     graph
+     */
+    public BasinConnectivityGraph upstreamOf(String nodeId) {
+        return traverse(nodeId, BasinConnectivityEdge::getTarget, BasinConnectivityEdge::getSource);
+    }
+
+    /**
+     * @param nodeId stream location, or generated id of an empty node
+     * @return the node and everything it flows into, or null if the node is not in this graph
+     */
+    public BasinConnectivityGraph downstreamOf(String nodeId) {
+        return traverse(nodeId, BasinConnectivityEdge::getSource, BasinConnectivityEdge::getTarget);
+    }
+
+    /**
+     * Stream edges point downstream, so following them from -> to walks the network in one
+     * direction.  Reach edges repeat the stream edges and are only copied into the result.
+     */
+    private BasinConnectivityGraph traverse(String nodeId,
+                                            Function<BasinConnectivityEdge, BasinConnectivityNode> from,
+                                            Function<BasinConnectivityEdge, BasinConnectivityNode> to) {
+        BasinConnectivityNode start = null;
+        for (BasinConnectivityNode node : nodes) {
+            if (node.getId().equalsIgnoreCase(nodeId)) {
+                start = node;
+                break;
+            }
+        }
+        if (start == null) {
+            return null;
+        }
+
+        Map<BasinConnectivityNode, List<BasinConnectivityNode>> next = new HashMap<>();
+        for (BasinConnectivityEdge edge : edges) {
+            if (edge instanceof StreamEdge && edge.getSource() != null && edge.getTarget() != null) {
+                next.computeIfAbsent(from.apply(edge), n -> new ArrayList<>()).add(to.apply(edge));
+            }
+        }
+
+        Set<BasinConnectivityNode> reached = new HashSet<>();
+        Deque<BasinConnectivityNode> pending = new ArrayDeque<>();
+        reached.add(start);
+        pending.add(start);
+        while (!pending.isEmpty()) {
+            for (BasinConnectivityNode node : next.getOrDefault(pending.remove(),
+                    Collections.emptyList())) {
+                if (reached.add(node)) {
+                    pending.add(node);
+                }
+            }
+        }
+
+        List<BasinConnectivityNode> reachedNodes = new ArrayList<>();
+        for (BasinConnectivityNode node : nodes) {
+            if (reached.contains(node)) {
+                reachedNodes.add(node);
+            }
+        }
+        List<BasinConnectivityEdge> reachedEdges = new ArrayList<>();
+        for (BasinConnectivityEdge edge : edges) {
+            if (reached.contains(edge.getSource()) && reached.contains(edge.getTarget())) {
+                reachedEdges.add(edge);
+            }
+        }
+        return new BasinConnectivityGraph(name, reachedEdges, reachedNodes);
+    }
+
     public static class Builder {
 
         private final List<BasinConnectivityEdge> edges = new ArrayList<>();
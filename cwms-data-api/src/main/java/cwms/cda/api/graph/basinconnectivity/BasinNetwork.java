@@ -0,0 +1,56 @@
+package cwms.cda.api.graph.basinconnectivity;
+
+import cwms.cda.data.dto.basinconnectivity.Basin;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every basin of an office with its streams already assembled.  The connectivity graph of
+ * a basin is built the first time it is asked for and then kept, so one instance can serve
+ * many requests.
+ */
+public class BasinNetwork {
+    private final List<Basin> basins;
+    private final Map<String, Basin> basinsById = new LinkedHashMap<>();
+    private final Map<String, BasinConnectivityGraph> graphs = new ConcurrentHashMap<>();
+
+    public BasinNetwork(List<Basin> basins) {
+        this.basins = Collections.unmodifiableList(new ArrayList<>(basins));
+        for (Basin basin : basins) {
+            basinsById.putIfAbsent(key(basin.getOfficeId(), basin.getBasinName()), basin);
+            basinsById.putIfAbsent(key(null, basin.getBasinName()), basin);
+        }
+    }
+
+    public List<Basin> getBasins() {
+        return basins;
+    }
+
+    /**
+     * @param officeId owning office, null for the first basin of that name
+     * @return the basin, or null if there is none
+     */
+    public Basin getBasin(String basinId, String officeId) {
+        return basinsById.get(key(officeId, basinId));
+    }
+
+    /**
+     * @return the connectivity graph of the basin, or null if there is no such basin
+     */
+    public BasinConnectivityGraph getGraph(String basinId, String officeId) {
+        Basin basin = getBasin(basinId, officeId);
+        if (basin == null) {
+            return null;
+        }
+        return graphs.computeIfAbsent(key(basin.getOfficeId(), basin.getBasinName()),
+                k -> new BasinConnectivityGraph.Builder(basin).build());
+    }
+
+    private static String key(String officeId, String basinId) {
+        return (officeId == null ? "" : officeId.toUpperCase()) + "/" + basinId.toUpperCase();
+    }
+}
@@ -1,13 +1,17 @@
 package cwms.cda.data.dao;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.flogger.FluentLogger;
 import cwms.cda.ApiServlet;
+import cwms.cda.CdaMetricsContextListener;
 import cwms.cda.data.dto.auth.ApiKey;
 import cwms.cda.datasource.ConnectionPreparer;
 import cwms.cda.datasource.ConnectionPreparingDataSource;
+import cwms.cda.datasource.ConnectionState;
 import cwms.cda.datasource.DelegatingConnectionPreparer;
 import cwms.cda.datasource.DirectUserPreparer;
 import cwms.cda.datasource.SessionOfficePreparer;
+import cwms.cda.helpers.ExpiringCache;
 import cwms.cda.helpers.ResourceHelper;
 import cwms.cda.security.CwmsAuthException;
 import cwms.cda.security.DataApiPrincipal;
@@ -15,6 +19,8 @@ import cwms.cda.security.Role;
 import io.javalin.core.security.RouteRole;
 import io.javalin.http.Context;
 import io.javalin.http.HttpCode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.sql.Connection;
@@ -22,6 +28,7 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -66,7 +73,25 @@ public class AuthDao extends Dao<DataApiPrincipal> {
     public static final String GET_SINGLE_KEY = "select userid,key_name,created,expires from cwms_20.at_api_keys where UPPER(userid) = UPPER(?) and key_name = ?";
     public static final String ONLY_OWN_KEY_MESSAGE = "You may not create API keys for any user other than your own.";
 
-    private static boolean hasCwmsEnvMultiOfficeAuthFix = false;
+    public static final String CACHE_SIZE_KEY = "cwms.dataapi.auth.cache.size";
+    public static final String CACHE_TTL_KEY = "cwms.dataapi.auth.cache.ttl.seconds";
+
+    /**
+     * Resolved principals, keyed by a hash of the API key so the raw key is not kept around.
+     * Entries expire so role changes and key removals made outside this instance are
+     * picked up within the TTL.
+     */
+    private static final ExpiringCache<String, DataApiPrincipal> principalsByKey =
+        new ExpiringCache<>(CdaMetricsContextListener.METRIC_REGISTRY,
+                            MetricRegistry.name(AuthDao.class, "apikey", "cache"),
+                            Integer.getInteger(CACHE_SIZE_KEY, 1000),
+                            Duration.ofSeconds(Long.getLong(CACHE_TTL_KEY, 60L)));
+    private static final ExpiringCache<Long, DataApiPrincipal> principalsByEdipi =
+        new ExpiringCache<>(CdaMetricsContextListener.METRIC_REGISTRY,
+                            MetricRegistry.name(AuthDao.class, "edipi", "cache"),
+                            Integer.getInteger(CACHE_SIZE_KEY, 1000),
+                            Duration.ofSeconds(Long.getLong(CACHE_TTL_KEY, 60L)));
+
     private static String connectionUser = null;
     private static String defaultOffice = null;
 
@@ -85,17 +110,7 @@ public class AuthDao extends Dao<DataApiPrincipal> {
 
         if (AuthDao.defaultOffice == null) {
             AuthDao.defaultOffice = defaultOffice;
-            try {
-                connectionUser = dsl.connectionResult(c -> c.getMetaData().getUserName());
-                dsl.execute("BEGIN cwms_env.set_session_user_direct(?,?); END;", connectionUser, defaultOffice);
-                hasCwmsEnvMultiOfficeAuthFix = true;
-            } catch (DataAccessException ex) {
-                if (ex.getLocalizedMessage()
-                    .toLowerCase()
-                    .contains("wrong number or types of arguments in call")) {
-                    hasCwmsEnvMultiOfficeAuthFix = false;
-                }
-            }
+            connectionUser = dsl.connectionResult(c -> c.getMetaData().getUserName());
         }
     }
 
@@ -149,9 +164,39 @@ public class AuthDao extends Dao<DataApiPrincipal> {
      * @throws CwmsAuthException throw for any issue with verification of Key or user information.
      */
     public DataApiPrincipal getByApiKey(String apikey) throws CwmsAuthException {
-        String userName = checkKey(apikey);
-        Set<RouteRole> roles = getRolesForUser(userName);
-        return new DataApiPrincipal(userName,roles);
+        if (apikey == null) {
+            throw new CwmsAuthException("No user for key");
+        }
+        return principalsByKey.get(hashKey(apikey), hash -> {
+            String userName = checkKey(apikey);
+            Set<RouteRole> roles = getRolesForUser(userName);
+            return new DataApiPrincipal(userName,roles);
+        });
+    }
+
+    private static String hashKey(String apikey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(apikey.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new CwmsAuthException("Unable to check API key.", ex, HttpCode.INTERNAL_SERVER_ERROR.getStatus());
+        }
+    }
+
+    /**
+     * Drop any cached principals for the given user so the next request is checked
+     * against the database again.  Call it after the change is committed; lookups already
+     * running at that point are not cached.
+     * @param userName the user whose keys or roles changed
+     */
+    public static void invalidatePrincipals(String userName) {
+        principalsByKey.invalidateIf((k, p) -> p.getName().equalsIgnoreCase(userName));
+        principalsByEdipi.invalidateIf((k, p) -> p.getName().equalsIgnoreCase(userName));
     }
 
     /**
@@ -160,7 +205,9 @@ public class AuthDao extends Dao<DataApiPrincipal> {
      * @throws SQLException
      */
     private void setSessionForAuthCheck(Connection conn) throws SQLException {
-        if (hasCwmsEnvMultiOfficeAuthFix) {
+        // Changes the user and office outside the tracked preparers.
+        ConnectionState.forget(conn);
+        if (getCapabilities().hasCwmsEnvMultiOfficeAuthFix()) {
             try (PreparedStatement setApiUser = conn.prepareStatement(SET_API_USER_DIRECT_WITH_OFFICE)) {
                 setApiUser.setString(1,connectionUser);
                 setApiUser.setString(2,defaultOffice);
@@ -239,9 +286,11 @@ public class AuthDao extends Dao<DataApiPrincipal> {
      * @return
      */
     public DataApiPrincipal getPrincipalFromEdipi(Long edipi) throws CwmsAuthException {
-        String username = userForEdipi(edipi);
-        Set<RouteRole> roles = this.getRolesForUser(username);
-        return new DataApiPrincipal(username, roles);
+        return principalsByEdipi.get(edipi, id -> {
+            String username = userForEdipi(id);
+            Set<RouteRole> roles = this.getRolesForUser(username);
+            return new DataApiPrincipal(username, roles);
+        });
     }
 
     /**
@@ -455,6 +504,8 @@ public class AuthDao extends Dao<DataApiPrincipal> {
                 deleteKey.execute();
             }
         });
+        // we don't know which hash belongs to the removed key, so drop all of this user's.
+        invalidatePrincipals(p.getName());
     }
 
 
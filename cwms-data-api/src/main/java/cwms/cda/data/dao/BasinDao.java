@@ -1,91 +1,228 @@
 package cwms.cda.data.dao;
 
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.CdaMetricsContextListener;
 import cwms.cda.api.enums.Unit;
 import cwms.cda.api.enums.UnitSystem;
+import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.api.graph.basinconnectivity.BasinConnectivityGraph;
+import cwms.cda.api.graph.basinconnectivity.BasinNetwork;
 import cwms.cda.data.dto.basinconnectivity.Basin;
 import cwms.cda.data.dto.basinconnectivity.Stream;
+import cwms.cda.data.dto.basinconnectivity.StreamLocation;
+import cwms.cda.data.dto.basinconnectivity.StreamReach;
+import cwms.cda.helpers.ExpiringCache;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
 import org.jooq.DSLContext;
 import usace.cwms.db.jooq.dao.CwmsDbBasinJooq;
+import usace.cwms.db.jooq.dao.CwmsDbStreamJooq;
 
+/**
+ * Basins are served from a {@link BasinNetwork} holding every basin, stream, reach and
+ * stream location of an office.  The network is read with one catalog call of each kind
+ * instead of walking the streams one call at a time, and kept for
+ * {@value #CACHE_TTL_KEY} seconds.
+ */
 public class BasinDao extends JooqDao<Basin> {
+    private static final Logger logger = Logger.getLogger(BasinDao.class.getName());
+
+    public static final String CACHE_SIZE_KEY = "cwms.dataapi.basin.network.cache.size";
+    public static final String CACHE_TTL_KEY = "cwms.dataapi.basin.network.cache.ttl.seconds";
+
+    private static final ExpiringCache<String, BasinNetwork> networks =
+        new ExpiringCache<>(CdaMetricsContextListener.METRIC_REGISTRY,
+                            MetricRegistry.name(BasinDao.class, "network", "cache"),
+                            Integer.getInteger(CACHE_SIZE_KEY, 20),
+                            Duration.ofSeconds(Long.getLong(CACHE_TTL_KEY, 300L)));
+
+    private final ExpiringCache<String, BasinNetwork> cache;
+
     public BasinDao(DSLContext dsl) {
+        this(dsl, networks);
+    }
+
+    BasinDao(DSLContext dsl, ExpiringCache<String, BasinNetwork> cache) {
         super(dsl);
+        this.cache = cache;
     }
 
-    public List<Basin> getAllBasins(String unitSystem, String officeId) throws SQLException {
-        List<Basin> retVal = new ArrayList<>();
-        CwmsDbBasinJooq basinJooq = new CwmsDbBasinJooq();
-        String areaUnitIn = UnitSystem.EN.value().equals(unitSystem)
-                ? Unit.SQUARE_MILES.getValue() : Unit.SQUARE_KILOMETERS.getValue();
-        try {
-            connection(dsl, c -> {
-                ResultSet rs = basinJooq.catBasins(c, null, null, null, areaUnitIn, officeId);
-                retVal.addAll(buildBasinsFromResultSet(rs, unitSystem));
-            });
-        } catch (Exception ex) {
-            throw new SQLException(ex);
+    public List<Basin> getAllBasins(String unitSystem, String officeId) {
+        return getNetwork(unitSystem, officeId).getBasins();
+    }
+
+    public Basin getBasin(String basinId, String unitSystem, String officeId) {
+        Basin retVal = getNetwork(unitSystem, officeId).getBasin(basinId, officeId);
+        if (retVal == null) {
+            throw new NotFoundException(notFoundMessage(basinId, officeId));
+        }
+        return retVal;
+    }
+
+    public BasinConnectivityGraph getGraph(String basinId, String unitSystem, String officeId) {
+        BasinConnectivityGraph retVal = getNetwork(unitSystem, officeId).getGraph(basinId,
+                officeId);
+        if (retVal == null) {
+            throw new NotFoundException(notFoundMessage(basinId, officeId));
         }
         return retVal;
     }
 
-    public Basin getBasin(String basinId, String unitSystem, String officeId) throws SQLException {
+    /**
+     * @param officeId owning office, null for the session office
+     * @return every basin of the office, loaded on first use and then shared
+     */
+    public BasinNetwork getNetwork(String unitSystem, String officeId) {
+        String key = (isEnglish(unitSystem) ? UnitSystem.EN : UnitSystem.SI).value() + "/"
+                + (officeId == null ? "" : officeId.toUpperCase());
+        return cache.get(key, k -> loadNetwork(unitSystem, officeId));
+    }
+
+    protected BasinNetwork loadNetwork(String unitSystem, String officeId) {
+        boolean english = isEnglish(unitSystem);
+        String stationUnit = english ? Unit.MILE.getValue() : Unit.KILOMETER.getValue();
+        String stageUnit = english ? Unit.FEET.getValue() : Unit.METER.getValue();
+        String areaUnit = english ? Unit.SQUARE_MILES.getValue()
+                : Unit.SQUARE_KILOMETERS.getValue();
+        CwmsDbStreamJooq streamJooq = new CwmsDbStreamJooq();
         CwmsDbBasinJooq basinJooq = new CwmsDbBasinJooq();
 
-        String[] pParentBasinId = new String[1];
-        Double[] pSortOrder = new Double[1];
-        String[] pPrimaryStreamId = new String[1];
-        Double[] pTotalDrainageArea = new Double[1];
-        Double[] pContributingDrainageArea = new Double[1];
-        String areaUnitIn = UnitSystem.EN.value().equals(unitSystem)
-                ? Unit.SQUARE_MILES.getValue() : Unit.SQUARE_KILOMETERS.getValue();
-
-        connection(dsl, c -> basinJooq.retrieveBasin(c, pParentBasinId, pSortOrder,
-                pPrimaryStreamId, pTotalDrainageArea, pContributingDrainageArea, basinId,
-                areaUnitIn, officeId));
-
-        Basin retVal = new Basin.Builder(basinId, officeId)
-                .withBasinArea(pTotalDrainageArea[0])
-                .withContributingArea(pContributingDrainageArea[0])
-                .withParentBasinId(pParentBasinId[0])
-                .withSortOrder(pSortOrder[0])
-                .build();
-        if (pPrimaryStreamId[0] != null) {
-            StreamDao streamDao = new StreamDao(dsl);
-            Stream primaryStream = streamDao.getStream(pPrimaryStreamId[0], unitSystem, officeId);
-            retVal = new Basin.Builder(retVal).withPrimaryStream(primaryStream).build();
+        return connectionResult(dsl, c -> {
+            List<Stream> streams = new ArrayList<>();
+            try (ResultSet rs = streamJooq.catStreams(c, null, stationUnit, null, null, null,
+                    null, null, null, null, null, null, null, null, null, null, null, officeId)) {
+                while (rs.next()) {
+                    streams.add(StreamDao.buildStream(rs));
+                }
+            }
+            Set<StreamLocation> locations;
+            try (ResultSet rs = streamJooq.catStreamLocations(c, "*", "*", stationUnit,
+                    stageUnit, areaUnit, officeId)) {
+                locations = StreamLocationDao.buildStreamLocations(rs);
+            }
+            Set<StreamReach> reaches;
+            try (ResultSet rs = streamJooq.catStreamReaches(c, "*", null, null, null,
+                    Unit.KILOMETER.getValue(), officeId)) {
+                reaches = StreamReachDao.buildReachesFromResultSet(rs);
+            }
+
+            Map<String, Stream> assembled = assembleStreams(streams, locations, reaches);
+            List<Basin> basins = new ArrayList<>();
+            try (ResultSet rs = basinJooq.catBasins(c, null, null, null, areaUnit, officeId)) {
+                while (rs.next()) {
+                    basins.add(buildBasin(rs, assembled));
+                }
+            }
+            logger.fine(() -> "Loaded " + basins.size() + " basins and " + streams.size()
+                    + " streams for office " + officeId);
+            return new BasinNetwork(basins);
+        });
+    }
+
+    private static Basin buildBasin(ResultSet rs, Map<String, Stream> streams)
+            throws SQLException {
+        String officeId = rs.getString("OFFICE_ID");
+        String primaryStreamId = rs.getString("PRIMARY_STREAM_ID");
+        Basin.Builder builder = new Basin.Builder(rs.getString("BASIN_ID"), officeId)
+                .withBasinArea(rs.getDouble("TOTAL_DRAINAGE_AREA"))
+                .withContributingArea(rs.getDouble("CONTRIBUTING_DRAINAGE_AREA"))
+                .withParentBasinId(rs.getString("PARENT_BASIN_ID"))
+                .withSortOrder(rs.getDouble("SORT_ORDER"));
+        if (primaryStreamId != null) {
+            builder.withPrimaryStream(streams.get(key(officeId, primaryStreamId)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Attach locations, reaches and tributaries to each stream.
+     *
+     * @param streams catalog rows without any of those attached
+     * @return every stream with its tributaries attached all the way up, keyed by
+     *     {@link #key(String, String)}
+     */
+    static Map<String, Stream> assembleStreams(Collection<Stream> streams,
+                                               Collection<StreamLocation> locations,
+                                               Collection<StreamReach> reaches) {
+        Map<String, List<StreamLocation>> locationsByStream = new HashMap<>();
+        for (StreamLocation location : locations) {
+            locationsByStream.computeIfAbsent(key(location.getOfficeId(),
+                    location.getStreamName()), k -> new ArrayList<>()).add(location);
+        }
+        Map<String, List<StreamReach>> reachesByStream = new HashMap<>();
+        for (StreamReach reach : reaches) {
+            reachesByStream.computeIfAbsent(key(reach.getOfficeId(), reach.getStreamName()),
+                    k -> new ArrayList<>()).add(reach);
+        }
+        Map<String, List<Stream>> tributariesByStream = new HashMap<>();
+        for (Stream stream : streams) {
+            if (stream.getReceivingStreamId() != null) {
+                tributariesByStream.computeIfAbsent(key(stream.getOfficeId(),
+                        stream.getReceivingStreamId()), k -> new ArrayList<>()).add(stream);
+            }
+        }
+
+        Map<String, Stream> retVal = new HashMap<>();
+        for (Stream stream : streams) {
+            assembleStream(stream, locationsByStream, reachesByStream, tributariesByStream,
+                    retVal, new HashSet<>());
         }
         return retVal;
     }
 
-    private List<Basin> buildBasinsFromResultSet(ResultSet rs, String unitSystem) throws SQLException {
-        List<Basin> retVal = new ArrayList<>();
-        while (rs.next()) {
-            String officeId = rs.getString("OFFICE_ID");
-            String basinId = rs.getString("BASIN_ID");
-            String parentBasinId = rs.getString("PARENT_BASIN_ID");
-            Double sortOrder = rs.getDouble("SORT_ORDER");
-            String primaryStreamId = rs.getString("PRIMARY_STREAM_ID");
-            Double basinArea = rs.getDouble("TOTAL_DRAINAGE_AREA");
-            Double contributingArea = rs.getDouble("CONTRIBUTING_DRAINAGE_AREA");
-            Basin basin = new Basin.Builder(basinId, officeId)
-                    .withBasinArea(basinArea)
-                    .withContributingArea(contributingArea)
-                    .withParentBasinId(parentBasinId)
-                    .withSortOrder(sortOrder)
-                    .build();
-            if (primaryStreamId != null) {
-                StreamDao streamDao = new StreamDao(dsl);
-                Stream primaryStream = streamDao.getStream(primaryStreamId, unitSystem, officeId);
-                basin = new Basin.Builder(basin).withPrimaryStream(primaryStream).build();
+    private static Stream assembleStream(Stream stream,
+                                         Map<String, List<StreamLocation>> locationsByStream,
+                                         Map<String, List<StreamReach>> reachesByStream,
+                                         Map<String, List<Stream>> tributariesByStream,
+                                         Map<String, Stream> assembled, Set<String> path) {
+        String key = key(stream.getOfficeId(), stream.getStreamName());
+        Stream retVal = assembled.get(key);
+        if (retVal != null) {
+            return retVal;
+        }
+        if (!path.add(key)) {
+            logger.warning(() -> "Stream " + stream.getStreamName()
+                    + " flows into itself, ignoring it as a tributary");
+            return null;
+        }
+        List<Stream> tributaries = new ArrayList<>();
+        for (Stream tributary : tributariesByStream.getOrDefault(key, Collections.emptyList())) {
+            Stream assembledTributary = assembleStream(tributary, locationsByStream,
+                    reachesByStream, tributariesByStream, assembled, path);
+            if (assembledTributary != null) {
+                tributaries.add(assembledTributary);
             }
-            retVal.add(basin);
         }
+        path.remove(key);
 
+        retVal = new Stream.Builder(stream)
+                .withStreamLocations(locationsByStream.getOrDefault(key, Collections.emptyList()))
+                .withTributaries(tributaries)
+                .withStreamReaches(reachesByStream.getOrDefault(key, Collections.emptyList()))
+                .build();
+        assembled.put(key, retVal);
         return retVal;
     }
 
+    static String key(String officeId, String streamId) {
+        return (officeId == null ? "" : officeId.toUpperCase()) + "/" + streamId.toUpperCase();
+    }
+
+    private static boolean isEnglish(String unitSystem) {
+        return unitSystem == null || UnitSystem.EN.value().equalsIgnoreCase(unitSystem);
+    }
+
+    private static String notFoundMessage(String basinId, String officeId) {
+        return "No basin " + basinId + " found" + (officeId == null ? "" : " for office " + officeId);
+    }
 }
@@ -12,6 +12,9 @@ import usace.cwms.db.jooq.codegen.packages.CWMS_TEXT_PACKAGE;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -29,6 +32,7 @@ public class BlobDao extends JooqDao<Blob> {
             + "FROM CWMS_20.AT_BLOB \n"
             + "join CWMS_20.CWMS_MEDIA_TYPE on AT_BLOB.MEDIA_TYPE_CODE = CWMS_MEDIA_TYPE.MEDIA_TYPE_CODE \n"
             + "WHERE ID = ?";
+    private static final String STORE_BINARY_CALL = "{call CWMS_20.CWMS_TEXT.STORE_BINARY(?,?,?,?,?,?,?)}";
 
     public BlobDao(DSLContext dsl) {
         super(dsl);
@@ -178,6 +182,54 @@ public class BlobDao extends JooqDao<Blob> {
                 blob.getOfficeId()));
     }
 
+    /**
+     * Stores the content without holding it in memory.  It is copied into a temporary database
+     * LOB as it is read and that LOB is handed to the store procedure.
+     *
+     * @param content read to the end, not closed
+     */
+    public void create(String officeId, String id, String description, String mediaType,
+                       InputStream content, boolean failIfExists, boolean ignoreNulls)
+            throws IOException {
+        try {
+            connection(dsl, c -> {
+                setOffice(c, officeId);
+                java.sql.Blob value = c.createBlob();
+                try {
+                    try (OutputStream out = value.setBinaryStream(1)) {
+                        copy(content, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    try (CallableStatement stmt = c.prepareCall(STORE_BINARY_CALL)) {
+                        stmt.setBlob(1, value);
+                        stmt.setString(2, id);
+                        stmt.setString(3, mediaType);
+                        stmt.setString(4, description);
+                        stmt.setString(5, OracleTypeMap.formatBool(failIfExists));
+                        stmt.setString(6, OracleTypeMap.formatBool(ignoreNulls));
+                        stmt.setString(7, officeId);
+                        stmt.execute();
+                    }
+                } finally {
+                    value.free();
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long copy(@NotNull InputStream in, @NotNull OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) != -1) {
+            out.write(buffer, 0, bytesRead);
+            total += bytesRead;
+        }
+        return total;
+    }
 
     public static byte[] readFully(@NotNull InputStream stream) throws IOException {
         byte[] buffer = new byte[8192];
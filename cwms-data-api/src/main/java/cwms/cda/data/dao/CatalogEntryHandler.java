@@ -0,0 +1,13 @@
+package cwms.cda.data.dao;
+
+import cwms.cda.data.dto.catalog.CatalogEntry;
+import java.io.IOException;
+
+/**
+ * Receives catalog entries one at a time while an export is read from the database.
+ */
+@FunctionalInterface
+public interface CatalogEntryHandler {
+
+    void handle(CatalogEntry entry) throws IOException;
+}
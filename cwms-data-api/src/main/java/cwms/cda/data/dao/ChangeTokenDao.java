@@ -0,0 +1,120 @@
+package cwms.cda.data.dao;
+
+import static org.jooq.impl.DSL.count;
+import static org.jooq.impl.DSL.max;
+import static org.jooq.impl.DSL.sum;
+import static usace.cwms.db.jooq.codegen.tables.AV_CWMS_TS_ID2.AV_CWMS_TS_ID2;
+import static usace.cwms.db.jooq.codegen.tables.AV_LOCATION_LEVEL.AV_LOCATION_LEVEL;
+import static usace.cwms.db.jooq.codegen.tables.AV_TS_EXTENTS_UTC.AV_TS_EXTENTS_UTC;
+import static usace.cwms.db.jooq.codegen.tables.AV_TS_GRP_ASSGN.AV_TS_GRP_ASSGN;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.impl.DSL;
+
+/**
+ * Cheap queries that summarize when the data behind a request last changed.  The results are
+ * only meant to be compared with each other; a different token means the data may have
+ * changed, the same token means it has not.
+ *
+ * <p>Time series tokens come from the extents view, which records the last update time of each
+ * time series.  Location levels have no update time in the database so their token only
+ * reflects which levels and effective dates exist.
+ */
+public class ChangeTokenDao extends JooqDao<String> {
+
+    public ChangeTokenDao(DSLContext dsl) {
+        super(dsl);
+    }
+
+    /**
+     * @param office owning office, may be null to match any office
+     * @param tsId time series identifier
+     * @return a token for the time series data, null if the time series does not exist
+     */
+    public String timeSeriesToken(String office, String tsId) {
+        Condition condition = DSL.upper(AV_CWMS_TS_ID2.CWMS_TS_ID).eq(tsId.toUpperCase());
+        if (office != null && !office.isEmpty()) {
+            condition = condition.and(DSL.upper(AV_CWMS_TS_ID2.DB_OFFICE_ID).eq(office.toUpperCase()));
+        }
+        return extentsToken(condition);
+    }
+
+    /**
+     * @param tsIds time series identifiers, matched exactly as the recent values query does
+     * @return a token for the data of all the time series, null if none exist
+     */
+    public String timeSeriesToken(List<String> tsIds) {
+        return extentsToken(AV_CWMS_TS_ID2.CWMS_TS_ID.in(tsIds));
+    }
+
+    /**
+     * @return a token for the membership and data of a time series group, null if the group
+     *     has no time series
+     */
+    public String timeSeriesGroupToken(String office, String categoryId, String groupId) {
+        Condition condition = AV_TS_GRP_ASSGN.CATEGORY_ID.eq(categoryId)
+                .and(AV_TS_GRP_ASSGN.GROUP_ID.eq(groupId));
+        if (office != null) {
+            condition = condition.and(AV_TS_GRP_ASSGN.DB_OFFICE_ID.eq(office));
+        }
+        Record row = dsl.select(count(), sum(AV_TS_GRP_ASSGN.TS_CODE),
+                        max(AV_TS_EXTENTS_UTC.LAST_UPDATE))
+                .from(AV_TS_GRP_ASSGN)
+                .leftJoin(AV_TS_EXTENTS_UTC)
+                .on(AV_TS_EXTENTS_UTC.TS_CODE.coerce(BigDecimal.class).eq(AV_TS_GRP_ASSGN.TS_CODE))
+                .where(condition)
+                .fetchOne();
+        return toToken(row);
+    }
+
+    /**
+     * @param office owning office, may be null to match any office
+     * @param levelIdMask level id mask as accepted by the levels endpoint, may be null
+     * @return a token for the set of matching location levels and effective dates, null if
+     *     none match
+     */
+    public String locationLevelsToken(String office, String levelIdMask) {
+        Condition condition = DSL.noCondition();
+        if (office != null && !office.isEmpty()) {
+            condition = condition.and(DSL.upper(AV_LOCATION_LEVEL.OFFICE_ID).eq(office.toUpperCase()));
+        }
+        if (levelIdMask != null && !levelIdMask.isEmpty()) {
+            condition = condition.and(JooqDao.caseInsensitiveLikeRegex(
+                    AV_LOCATION_LEVEL.LOCATION_LEVEL_ID, levelIdMask));
+        }
+        Record row = dsl.select(count(), sum(AV_LOCATION_LEVEL.LOCATION_LEVEL_CODE),
+                        max(AV_LOCATION_LEVEL.LEVEL_DATE))
+                .from(AV_LOCATION_LEVEL)
+                .where(condition)
+                .fetchOne();
+        return toToken(row);
+    }
+
+    private String extentsToken(Condition condition) {
+        Record row = dsl.select(count(), sum(AV_CWMS_TS_ID2.TS_CODE),
+                        max(AV_TS_EXTENTS_UTC.LAST_UPDATE), max(AV_TS_EXTENTS_UTC.VERSION_TIME))
+                .from(AV_CWMS_TS_ID2)
+                .leftJoin(AV_TS_EXTENTS_UTC)
+                .on(AV_TS_EXTENTS_UTC.TS_CODE.coerce(BigDecimal.class).eq(AV_CWMS_TS_ID2.TS_CODE))
+                .where(condition)
+                .fetchOne();
+        return toToken(row);
+    }
+
+    /**
+     * The first column of every token query is a row count; nothing matched when it is zero.
+     */
+    private static String toToken(Record row) {
+        if (row == null || row.get(0, Integer.class) == 0) {
+            return null;
+        }
+        return row.intoStream()
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+    }
+}
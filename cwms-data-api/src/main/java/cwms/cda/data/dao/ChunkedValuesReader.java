@@ -0,0 +1,234 @@
+package cwms.cda.data.dao;
+
+import cwms.cda.data.dto.TimeSeries;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads a long time series window as consecutive time chunks, in order, with the next few
+ * chunks being queried while the current one is written out.  Each chunk is its own query so
+ * it runs on its own pooled connection.
+ *
+ * <p>Concurrency is bounded twice: a single request never has more than
+ * {@value #PER_REQUEST_KEY} chunks in flight, and all requests share one pool of
+ * {@value #MAX_THREADS_KEY} threads with a queue of the same size.  Once both are full the
+ * request thread queries the chunk itself, so the extra database load is capped no matter how
+ * many large requests arrive together.  The connection pool should be sized with that in mind.
+ * Every chunk in flight is held in memory, so chunks should not be much larger than needed to
+ * keep the database busy.
+ *
+ * <p>Chunking is off unless {@value #ENABLED_KEY} is set to true.
+ */
+final class ChunkedValuesReader {
+    public static final String ENABLED_KEY = "cwms.dataapi.timeseries.chunked.enabled";
+    public static final String CHUNK_DAYS_KEY = "cwms.dataapi.timeseries.chunked.days";
+    public static final String PER_REQUEST_KEY = "cwms.dataapi.timeseries.chunked.per.request";
+    public static final String MAX_THREADS_KEY = "cwms.dataapi.timeseries.chunked.threads";
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int THREADS = Math.max(1, Integer.getInteger(MAX_THREADS_KEY, 8));
+
+    private static final ExecutorService executor = new ThreadPoolExecutor(THREADS, THREADS,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(THREADS),
+            new DaemonThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+
+    /**
+     * Fetches the values of one chunk.
+     */
+    @FunctionalInterface
+    interface ChunkFetcher {
+        /**
+         * @param beginMillis start of the chunk, inclusive
+         * @param endMillis end of the chunk, inclusive only for the last chunk
+         * @param last whether this is the last chunk of the window
+         */
+        List<TimeSeries.Record> fetch(long beginMillis, long endMillis, boolean last);
+    }
+
+    private final long chunkMillis;
+    private final int perRequest;
+
+    ChunkedValuesReader(long chunkMillis, int perRequest) {
+        this.chunkMillis = chunkMillis;
+        this.perRequest = Math.max(1, perRequest);
+    }
+
+    /**
+     * @return a reader configured from system properties, or null if chunking is disabled
+     */
+    static ChunkedValuesReader fromSystemProperties() {
+        if (!Boolean.getBoolean(ENABLED_KEY)) {
+            return null;
+        }
+        return new ChunkedValuesReader(Long.getLong(CHUNK_DAYS_KEY, 30) * DAY_MILLIS,
+                Integer.getInteger(PER_REQUEST_KEY, 4));
+    }
+
+    /**
+     * Only windows that span more than one chunk are worth splitting.
+     */
+    boolean applies(long beginMillis, long endMillis) {
+        return endMillis - beginMillis > chunkMillis;
+    }
+
+    /**
+     * @param trim drop missing values before the first and after the last value present, as
+     *     retrieve_ts does for the whole window.  Chunks must be fetched untrimmed.
+     * @param trimLeading whether leading missing values are dropped.  False when continuing
+     *     from a page cursor, since the earlier values were already trimmed.
+     * @return the values of the whole window in time order.  Close it once done so chunks
+     *     that were not needed are dropped.
+     */
+    Values read(long beginMillis, long endMillis, boolean trim, boolean trimLeading,
+                ChunkFetcher fetcher) {
+        List<long[]> chunks = new ArrayList<>();
+        for (long start = beginMillis; start <= endMillis; start += chunkMillis) {
+            chunks.add(new long[]{start, Math.min(start + chunkMillis, endMillis)});
+            if (start + chunkMillis >= endMillis) {
+                break;
+            }
+        }
+        return new Values(chunks, trim, trim && trimLeading, fetcher);
+    }
+
+    /**
+     * The merged values of all chunks.  Chunks are submitted in order and only as many ahead
+     * of the one being read as the per request limit allows.
+     */
+    final class Values implements Iterator<TimeSeries.Record>, AutoCloseable {
+        private final List<long[]> chunks;
+        private final boolean trim;
+        private final ChunkFetcher fetcher;
+        private final Deque<Future<List<TimeSeries.Record>>> inFlight = new ArrayDeque<>();
+        private final Deque<TimeSeries.Record> ready = new ArrayDeque<>();
+        // missing values held back until a value present follows them
+        private final List<TimeSeries.Record> gap = new ArrayList<>();
+        private Iterator<TimeSeries.Record> current = Collections.emptyIterator();
+        private int submitted = 0;
+        private boolean leading;
+        private boolean done = false;
+
+        private Values(List<long[]> chunks, boolean trim, boolean leading, ChunkFetcher fetcher) {
+            this.chunks = chunks;
+            this.trim = trim;
+            this.leading = leading;
+            this.fetcher = fetcher;
+            submitAhead();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (ready.isEmpty() && !done) {
+                TimeSeries.Record value = nextFromChunks();
+                if (value == null) {
+                    done = true;
+                    gap.clear();
+                } else if (trim && value.getValue() == null) {
+                    if (!leading) {
+                        gap.add(value);
+                    }
+                } else {
+                    leading = false;
+                    ready.addAll(gap);
+                    gap.clear();
+                    ready.add(value);
+                }
+            }
+            return !ready.isEmpty();
+        }
+
+        @Override
+        public TimeSeries.Record next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return ready.poll();
+        }
+
+        /**
+         * Drops the chunks that are queued but not started.  Chunks already running finish on
+         * their own rather than being interrupted in the middle of a JDBC call.
+         */
+        @Override
+        public void close() {
+            done = true;
+            for (Future<?> future : inFlight) {
+                future.cancel(false);
+            }
+            inFlight.clear();
+        }
+
+        int chunksSubmitted() {
+            return submitted;
+        }
+
+        private TimeSeries.Record nextFromChunks() {
+            while (!current.hasNext()) {
+                Future<List<TimeSeries.Record>> future = inFlight.poll();
+                if (future == null) {
+                    return null;
+                }
+                current = get(future).iterator();
+                submitAhead();
+            }
+            return current.next();
+        }
+
+        private void submitAhead() {
+            while (inFlight.size() < perRequest && submitted < chunks.size()) {
+                long[] chunk = chunks.get(submitted);
+                boolean last = submitted == chunks.size() - 1;
+                inFlight.add(executor.submit(() -> fetcher.fetch(chunk[0], chunk[1], last)));
+                submitted++;
+            }
+        }
+
+        private List<TimeSeries.Record> get(Future<List<TimeSeries.Record>> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while retrieving time series values", e);
+            } catch (ExecutionException e) {
+                close();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException("Unable to retrieve time series chunk", cause);
+            } catch (CancellationException e) {
+                close();
+                throw new IllegalStateException("Time series chunk was cancelled", e);
+            }
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "cda-ts-chunk-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -23,6 +23,9 @@ import usace.cwms.db.jooq.codegen.tables.AV_OFFICE;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -37,6 +40,7 @@ public class ClobDao extends JooqDao<Clob> {
             + "from cwms_20.av_clob join cwms_20.av_office "
             + "on av_clob.office_code = av_office.office_code "
             + "where av_office.office_id = ? and av_clob.id = ?";
+    private static final String STORE_TEXT_CALL = "{call CWMS_20.CWMS_TEXT.STORE_TEXT(?,?,?,?,?)}";
 
     public ClobDao(DSLContext dsl) {
         super(dsl);
@@ -205,6 +209,49 @@ public class ClobDao extends JooqDao<Clob> {
             clob.getOfficeId()));
     }
 
+    /**
+     * Stores the text without holding it in memory.  It is copied into a temporary database
+     * LOB as it is read and that LOB is handed to the store procedure.
+     *
+     * @param content read to the end, not closed
+     */
+    public void create(String officeId, String id, String description, Reader content,
+                       boolean failIfExists) throws IOException {
+        try {
+            connection(dsl, c -> {
+                setOffice(c, officeId);
+                java.sql.Clob value = c.createClob();
+                try {
+                    try (Writer out = value.setCharacterStream(1)) {
+                        copy(content, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    try (CallableStatement stmt = c.prepareCall(STORE_TEXT_CALL)) {
+                        stmt.setClob(1, value);
+                        stmt.setString(2, id);
+                        stmt.setString(3, description);
+                        stmt.setString(4, getBoolean(failIfExists));
+                        stmt.setString(5, officeId);
+                        stmt.execute();
+                    }
+                } finally {
+                    value.free();
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void copy(Reader in, Writer out) throws IOException {
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+
     @NotNull
     public static String getBoolean(boolean failIfExists) {
         String pFailIfExists;
@@ -1,15 +1,12 @@
 package cwms.cda.data.dao;
 
-import static usace.cwms.db.jooq.codegen.tables.AV_DB_CHANGE_LOG.AV_DB_CHANGE_LOG;
-
 import cwms.cda.data.dto.CwmsDTO;
+import cwms.cda.datasource.ConnectionState;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 import org.jooq.DSLContext;
-import org.jooq.SQLDialect;
-import org.jooq.impl.DSL;
 import usace.cwms.db.dao.ifc.env.CwmsDbEnv;
 import usace.cwms.db.dao.util.services.CwmsDbServiceLookup;
 
@@ -18,26 +15,23 @@ public abstract class Dao<T> {
     public static final int CWMS_21_1_1 = 210101;
     public static final int CWMS_23_03_16 = 230316;
 
-    private int cwmsDbVersion;
     @SuppressWarnings("unused")
     protected DSLContext dsl;
 
     public Dao(DSLContext dsl) {
         this.dsl = dsl;
-        String version = dsl.connectionResult(c -> DSL.using(c,SQLDialect.ORACLE18C).select(AV_DB_CHANGE_LOG.VERSION)
-            .from(AV_DB_CHANGE_LOG)
-            .orderBy(AV_DB_CHANGE_LOG.VERSION_DATE.desc())
-            .limit(1)
-            .fetchOne().component1());
-        String[] parts = version.split("\\.");
-        cwmsDbVersion =
-            Integer.parseInt(parts[0]) * 10000
-            + Integer.parseInt(parts[1]) * 100
-            + Integer.parseInt(parts[2]);
+        SchemaCapabilities.recordSavedQuery();
     }
 
     public int getDbVersion() {
-        return cwmsDbVersion;
+        return getCapabilities().getVersion();
+    }
+
+    /**
+     * @return the capabilities of the connected schema, shared by every DAO
+     */
+    protected SchemaCapabilities getCapabilities() {
+        return SchemaCapabilities.get(dsl);
     }
 
 
@@ -52,8 +46,10 @@ public abstract class Dao<T> {
     }
 
     protected void setOffice(Connection c, String office) throws SQLException {
-        CwmsDbEnv db = CwmsDbServiceLookup.buildCwmsDb(CwmsDbEnv.class, c);
-        db.setSessionOfficeId(c,office);
+        ConnectionState.apply(c, ConnectionState.Setting.OFFICE, office, () -> {
+            CwmsDbEnv db = CwmsDbServiceLookup.buildCwmsDb(CwmsDbEnv.class, c);
+            db.setSessionOfficeId(c,office);
+        });
     }
 
 
@@ -1,37 +1,517 @@
 package cwms.cda.data.dao;
 
-import static cwms.cda.api.Controllers.NOT_SUPPORTED_YET;
-
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.data.dto.TimeSeries;
 import cwms.cda.data.dto.forecast.ForecastInstance;
+import cwms.cda.data.dto.forecast.ForecastSpec;
+import cwms.cda.formatters.json.JsonV2;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URLConnection;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.ResultQuery;
+import usace.cwms.db.dao.util.OracleTypeMap;
 
+/**
+ * Forecast instances and their file attachments.
+ *
+ * <p>The attachment is never part of an instance read from here.  Instances only carry the
+ * file name and description; the content is streamed by {@link #getFile} and stored by
+ * {@link #storeFile} through a temporary database LOB, so a large forecast file is not held
+ * in memory on either path.
+ */
 public class ForecastInstanceDao extends JooqDao<ForecastInstance> {
+    private static final TypeReference<Map<String, String>> INFO_MAP =
+            new TypeReference<Map<String, String>>() {};
+    private static final String DEFAULT_MEDIA_TYPE = "application/octet-stream";
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String INSTANCE_COLUMNS = "SELECT OFFICE_ID, FCST_SPEC_ID, "
+            + "FCST_DESIGNATOR, FCST_DATE_TIME, ISSUE_DATE_TIME, FIRST_DATE_TIME, "
+            + "LAST_DATE_TIME, MAX_AGE, TIME_SERIES_COUNT, NOTES, FCST_INFO, FILE_NAME, "
+            + "FILE_DESCRIPTION \n"
+            + "FROM CWMS_20.AV_FCST_INST \n";
+    private static final String INSTANCE_KEY = "WHERE upper(OFFICE_ID) = upper(?) "
+            + "AND upper(FCST_SPEC_ID) = upper(?) AND upper(FCST_DESIGNATOR) = upper(?) "
+            + "AND FCST_DATE_TIME = ? AND ISSUE_DATE_TIME = ?";
+    private static final String INSTANCE_QUERY = INSTANCE_COLUMNS + INSTANCE_KEY;
+    private static final String FILE_QUERY = "SELECT FILE_NAME, FILE_MEDIA_TYPE, FILE_DATA \n"
+            + "FROM CWMS_20.AV_FCST_INST \n" + INSTANCE_KEY;
+    // The values of all series of an instance come back on one cursor, ordered by series.
+    // The left join keeps series without values in the instance window.
+    private static final String TIME_SERIES_QUERY = "SELECT s.CWMS_TS_ID, s.UNIT_ID, "
+            + "s.INTERVAL_MINUTES, v.DATE_TIME, v.VALUE, v.QUALITY_CODE \n"
+            + "FROM (SELECT t.TS_CODE, t.CWMS_TS_ID, \n"
+            + "  CWMS_20.CWMS_UTIL.GET_DEFAULT_UNITS("
+            + "CWMS_20.CWMS_TS.GET_BASE_PARAMETER_ID(t.TS_CODE), ?) UNIT_ID, \n"
+            + "  CWMS_20.CWMS_TS.GET_TS_INTERVAL(t.CWMS_TS_ID) INTERVAL_MINUTES \n"
+            + "  FROM CWMS_20.AV_FCST_TIME_SERIES t \n"
+            + "  WHERE upper(t.OFFICE_ID) = upper(?) AND upper(t.FCST_SPEC_ID) = upper(?) "
+            + "AND upper(t.FCST_DESIGNATOR) = upper(?)) s \n"
+            + "LEFT JOIN CWMS_20.AV_TSV_DQU v ON v.TS_CODE = s.TS_CODE "
+            + "AND v.UNIT_ID = s.UNIT_ID AND v.VERSION_DATE = ? "
+            + "AND v.DATE_TIME >= ? AND v.DATE_TIME <= ? "
+            + "AND v.START_DATE <= ? AND v.END_DATE > ? \n"
+            + "ORDER BY s.CWMS_TS_ID, v.DATE_TIME";
+    private static final String DELETE_CALL = "begin CWMS_20.CWMS_FCST.DELETE_FCST("
+            + "p_fcst_spec_id => ?, p_fcst_designator => ?, p_forecast_date_time => ?, "
+            + "p_issue_date_time => ?, p_time_zone => 'UTC', p_office_id => ?); end;";
 
     public ForecastInstanceDao(DSLContext dsl) {
         super(dsl);
     }
 
+    /**
+     * Stores a new instance, including the attachment if the instance has file data.
+     */
     public void create(ForecastInstance forecastInst) {
-        throw new UnsupportedOperationException(NOT_SUPPORTED_YET);
+        store(forecastInst, true, false);
+    }
+
+    /**
+     * Updates an instance.  Fields that are not set keep their stored value.
+     */
+    public void update(ForecastInstance forecastInst) {
+        store(forecastInst, false, true);
+    }
+
+    private void store(ForecastInstance forecastInst, boolean failIfExists,
+                       boolean ignoreNulls) {
+        ForecastSpec spec = forecastInst.getSpec();
+        if (spec == null || spec.getOfficeId() == null || spec.getSpecId() == null) {
+            throw new IllegalArgumentException("A forecast instance requires a spec with an "
+                    + "office and spec id");
+        }
+        if (forecastInst.getDateTime() == null || forecastInst.getIssueDateTime() == null) {
+            throw new IllegalArgumentException("A forecast instance requires a date-time and "
+                    + "an issue-date-time");
+        }
+        String info = writeInfo(forecastInst.getMetadata());
+        byte[] fileData = forecastInst.getFileData();
+        InputStream content = fileData == null ? null : new ByteArrayInputStream(fileData);
+        try {
+            connection(dsl, c -> {
+                setOffice(c, spec.getOfficeId());
+                store(c, forecastInst, info, content, mediaType(forecastInst.getFilename(), null),
+                        failIfExists, ignoreNulls);
+            });
+        } catch (UncheckedIOException e) {
+            // a byte array does not fail to read
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Replaces the attachment of an existing instance, copying the content to the database
+     * as it is read.
+     *
+     * @param mediaType the media type of the content, guessed from the file name when null
+     * @param content read to the end, not closed
+     * @throws NotFoundException if there is no such instance
+     */
+    public void storeFile(String office, String name, String designator, Instant forecastDate,
+                          Instant issueDate, String filename, String description,
+                          String mediaType, InputStream content) throws IOException {
+        ForecastInstance forecastInst = new ForecastInstance.Builder()
+                .withSpec(new ForecastSpec.Builder()
+                        .withOfficeId(office)
+                        .withSpecId(name)
+                        .withDesignator(designator)
+                        .build())
+                .withDateTime(forecastDate)
+                .withIssueDateTime(issueDate)
+                .withFilename(filename)
+                .withFileDescription(description)
+                .build();
+        try {
+            connection(dsl, c -> {
+                setOffice(c, office);
+                try (PreparedStatement stmt = c.prepareStatement(INSTANCE_QUERY)) {
+                    setKey(stmt, 1, office, name, designator, forecastDate, issueDate);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw notFound(office, name, designator, forecastDate, issueDate);
+                        }
+                    }
+                }
+                store(c, forecastInst, null, content, mediaType(filename, mediaType), false,
+                        true);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void store(Connection c, ForecastInstance forecastInst, String info,
+                              InputStream content, String mediaType, boolean failIfExists,
+                              boolean ignoreNulls) throws SQLException {
+        ForecastSpec spec = forecastInst.getSpec();
+        java.sql.Blob value = null;
+        try {
+            if (content != null) {
+                value = c.createBlob();
+                try (OutputStream out = value.setBinaryStream(1)) {
+                    copy(content, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            try (CallableStatement stmt = c.prepareCall(storeCall(value != null))) {
+                int i = 1;
+                stmt.setString(i++, spec.getSpecId());
+                stmt.setString(i++, spec.getDesignator());
+                stmt.setTimestamp(i++, Timestamp.from(forecastInst.getDateTime()));
+                stmt.setTimestamp(i++, Timestamp.from(forecastInst.getIssueDateTime()));
+                stmt.setObject(i++, forecastInst.getMaxAge());
+                stmt.setString(i++, forecastInst.getNotes());
+                stmt.setString(i++, info);
+                if (value != null) {
+                    stmt.setString(i++, forecastInst.getFilename());
+                    stmt.setString(i++, forecastInst.getFileDescription());
+                    stmt.setString(i++, mediaType);
+                    stmt.setBlob(i++, value);
+                }
+                stmt.setString(i++, OracleTypeMap.formatBool(failIfExists));
+                stmt.setString(i++, OracleTypeMap.formatBool(ignoreNulls));
+                stmt.setString(i, spec.getOfficeId());
+                stmt.execute();
+            }
+        } finally {
+            if (value != null) {
+                value.free();
+            }
+        }
+    }
+
+    static String storeCall(boolean withFile) {
+        return "begin CWMS_20.CWMS_FCST.STORE_FCST("
+                + "p_fcst_spec_id => ?, p_fcst_designator => ?, p_forecast_date_time => ?, "
+                + "p_issue_date_time => ?, p_time_zone => 'UTC', p_max_age => ?, "
+                + "p_notes => ?, p_fcst_info => ?, "
+                + "p_fcst_file => " + (withFile ? "CWMS_20.BLOB_FILE_T(?, ?, ?, ?)" : "null")
+                + ", p_fail_if_exists => ?, p_ignore_nulls => ?, p_office_id => ?); end;";
     }
 
-    public List<ForecastInstance> getForecastInstances(String office, String name, String designator) {
-        throw new UnsupportedOperationException(NOT_SUPPORTED_YET);
+    /**
+     * @param office null for all offices
+     * @param name null for all specs
+     * @param designatorMask regular expression for the designator, null for any
+     */
+    public List<ForecastInstance> getForecastInstances(String office, String name,
+                                                       String designatorMask) {
+        StringBuilder queryStr = new StringBuilder(INSTANCE_COLUMNS).append("WHERE 1 = 1");
+        List<Object> binds = new ArrayList<>();
+        if (office != null) {
+            queryStr.append(" AND upper(OFFICE_ID) = upper(?)");
+            binds.add(office);
+        }
+        if (name != null) {
+            queryStr.append(" AND upper(FCST_SPEC_ID) = upper(?)");
+            binds.add(name);
+        }
+        if (designatorMask != null) {
+            queryStr.append(" AND REGEXP_LIKE(FCST_DESIGNATOR, ?, 'i')");
+            binds.add(designatorMask);
+        }
+        queryStr.append(" ORDER BY OFFICE_ID, FCST_SPEC_ID, FCST_DESIGNATOR, "
+                + "FCST_DATE_TIME, ISSUE_DATE_TIME");
+        ResultQuery<Record> query = dsl.resultQuery(queryStr.toString(), binds.toArray());
+        return query.fetch(ForecastInstanceDao::buildInstance);
     }
 
+    /**
+     * @throws NotFoundException if there is no such instance
+     */
     public ForecastInstance getForecastInstance(String office, String name, String designator,
-                                                String forecastDate, String issueDate) {
-        throw new UnsupportedOperationException(NOT_SUPPORTED_YET);
+                                                Instant forecastDate, Instant issueDate) {
+        ForecastInstance retval = dsl.resultQuery(INSTANCE_QUERY, office, name, designator,
+                        Timestamp.from(forecastDate), Timestamp.from(issueDate))
+                .fetchOne(ForecastInstanceDao::buildInstance);
+        if (retval == null) {
+            throw notFound(office, name, designator, forecastDate, issueDate);
+        }
+        return retval;
     }
 
-    public void update(ForecastInstance forecastInst) {
-        throw new UnsupportedOperationException(NOT_SUPPORTED_YET);
+    /**
+     * Hands the attachment of an instance to the consumer as a database LOB, which is only
+     * valid during the call.  As with {@link BlobDao#getBlob(String, String,
+     * BlobDao.BlobConsumer)} the stream can be passed on to the response so ranges are read
+     * from the database without reading the whole file.
+     *
+     * @throws NotFoundException if there is no such instance
+     */
+    public void getFile(String office, String name, String designator, Instant forecastDate,
+                        Instant issueDate, FileConsumer consumer) {
+        connection(dsl, c -> {
+            try (PreparedStatement stmt = c.prepareStatement(FILE_QUERY)) {
+                setKey(stmt, 1, office, name, designator, forecastDate, issueDate);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw notFound(office, name, designator, forecastDate, issueDate);
+                    }
+                    String filename = rs.getString("FILE_NAME");
+                    consumer.accept(rs.getBlob("FILE_DATA"),
+                            mediaType(filename, rs.getString("FILE_MEDIA_TYPE")), filename);
+                }
+            }
+        });
+    }
+
+    public void delete(String office, String name, String designator, Instant forecastDate,
+                       Instant issueDate) {
+        connection(dsl, c -> {
+            setOffice(c, office);
+            try (CallableStatement stmt = c.prepareCall(DELETE_CALL)) {
+                stmt.setString(1, name);
+                stmt.setString(2, designator);
+                stmt.setTimestamp(3, Timestamp.from(forecastDate));
+                stmt.setTimestamp(4, Timestamp.from(issueDate));
+                stmt.setString(5, office);
+                stmt.execute();
+            }
+        });
+    }
+
+    /**
+     * Reads the values of every time series of an instance from a single cursor.  The
+     * series are handed to the handler one after the other, in time series id order, each
+     * with the values stored for the forecast date within the first and last date of the
+     * instance.
+     *
+     * @param units EN or SI
+     * @throws NotFoundException if there is no such instance
+     */
+    public void streamTimeSeries(String office, String name, String designator,
+                                 Instant forecastDate, Instant issueDate, String units,
+                                 TimeSeriesValuesHandler handler) throws IOException {
+        ForecastInstance instance = getForecastInstance(office, name, designator, forecastDate,
+                issueDate);
+        Instant first = instance.getFirstDateTime() != null ? instance.getFirstDateTime()
+                : forecastDate;
+        Instant last = instance.getLastDateTime() != null ? instance.getLastDateTime() : first;
+        ZonedDateTime begin = first.atZone(ZoneOffset.UTC);
+        ZonedDateTime end = last.atZone(ZoneOffset.UTC);
+        Timestamp firstTs = Timestamp.from(first);
+        Timestamp lastTs = Timestamp.from(last);
+        String officeId = instance.getSpec().getOfficeId();
+
+        // The cursor keeps its connection until closed, which happens once the handler has
+        // written every series out.
+        try (Cursor<Record> cursor = dsl.resultQuery(TIME_SERIES_QUERY, units, office, name,
+                        designator, Timestamp.from(forecastDate), firstTs, lastTs, lastTs, firstTs)
+                .fetchSize(STREAM_FETCH_SIZE)
+                .fetchLazy()) {
+            forEachSeries(cursor.iterator(), (row, values) -> {
+                Number interval = row.get("INTERVAL_MINUTES", Number.class);
+                TimeSeries header = new TimeSeries(null, 0, null,
+                        row.get("CWMS_TS_ID", String.class), officeId, begin, end,
+                        row.get("UNIT_ID", String.class),
+                        Duration.ofMinutes(interval == null ? 0 : interval.longValue()));
+                handler.handle(header, values);
+            });
+        }
+    }
+
+    /**
+     * Splits rows ordered by CWMS_TS_ID into one value iterator per series.  A row without a
+     * DATE_TIME marks a series without values.  Values the consumer does not read are
+     * skipped.
+     */
+    static void forEachSeries(Iterator<? extends Record> rows, SeriesConsumer consumer)
+            throws IOException {
+        SeriesValues values = new SeriesValues(rows);
+        while (values.startNext()) {
+            consumer.accept(values.first, values);
+        }
     }
 
-    public void delete(String office, String name, String designator,
-                       String forecastDate, String issueDate) {
-        throw new UnsupportedOperationException(NOT_SUPPORTED_YET);
+    @FunctionalInterface
+    interface SeriesConsumer {
+        /**
+         * @param first the first row of the series, for the series level columns
+         */
+        void accept(Record first, Iterator<TimeSeries.Record> values) throws IOException;
     }
 
+    private static final class SeriesValues implements Iterator<TimeSeries.Record> {
+        private final Iterator<? extends Record> rows;
+        private Record current;
+        private Record first;
+        private String tsId;
+
+        SeriesValues(Iterator<? extends Record> rows) {
+            this.rows = rows;
+            current = rows.hasNext() ? rows.next() : null;
+        }
+
+        /**
+         * Skips what is left of the current series.
+         *
+         * @return false when there are no more series
+         */
+        boolean startNext() {
+            while (inSeries()) {
+                advance();
+            }
+            if (current == null) {
+                return false;
+            }
+            first = current;
+            tsId = tsId(current);
+            return true;
+        }
+
+        private boolean inSeries() {
+            return current != null && tsId != null && tsId.equals(tsId(current));
+        }
+
+        private void advance() {
+            current = rows.hasNext() ? rows.next() : null;
+        }
+
+        private static String tsId(Record row) {
+            return row.get("CWMS_TS_ID", String.class);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return inSeries() && current.get("DATE_TIME") != null;
+        }
+
+        @Override
+        public TimeSeries.Record next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Number quality = current.get("QUALITY_CODE", Number.class);
+            TimeSeries.Record retval = new TimeSeries.Record(
+                    current.get("DATE_TIME", Timestamp.class),
+                    current.get("VALUE", Double.class),
+                    quality == null ? 0 : quality.intValue());
+            advance();
+            return retval;
+        }
+    }
+
+    private static ForecastInstance buildInstance(Record r) {
+        ForecastSpec spec = new ForecastSpec.Builder()
+                .withOfficeId(r.get("OFFICE_ID", String.class))
+                .withSpecId(r.get("FCST_SPEC_ID", String.class))
+                .withDesignator(r.get("FCST_DESIGNATOR", String.class))
+                .build();
+        BigDecimal maxAge = r.get("MAX_AGE", BigDecimal.class);
+        BigDecimal count = r.get("TIME_SERIES_COUNT", BigDecimal.class);
+        return new ForecastInstance.Builder()
+                .withSpec(spec)
+                .withDateTime(toInstant(r.get("FCST_DATE_TIME", Timestamp.class)))
+                .withIssueDateTime(toInstant(r.get("ISSUE_DATE_TIME", Timestamp.class)))
+                .withFirstDateTime(toInstant(r.get("FIRST_DATE_TIME", Timestamp.class)))
+                .withLastDateTime(toInstant(r.get("LAST_DATE_TIME", Timestamp.class)))
+                .withMaxAge(maxAge == null ? null : maxAge.intValue())
+                .withTimeSeriesCount(count == null ? null : count.intValue())
+                .withNotes(r.get("NOTES", String.class))
+                .withMetadata(readInfo(r.get("FCST_INFO", String.class)))
+                .withFilename(r.get("FILE_NAME", String.class))
+                .withFileDescription(r.get("FILE_DESCRIPTION", String.class))
+                .build();
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    static String writeInfo(Map<String, String> metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        try {
+            return JsonV2.buildObjectMapper().writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to write forecast metadata", e);
+        }
+    }
+
+    static Map<String, String> readInfo(String info) {
+        if (info == null || info.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        ObjectMapper om = JsonV2.buildObjectMapper();
+        try {
+            return om.readValue(info, INFO_MAP);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored forecast metadata is not a JSON object", e);
+        }
+    }
+
+    static String mediaType(String filename, String mediaType) {
+        String retval = mediaType;
+        if (retval == null && filename != null) {
+            retval = URLConnection.guessContentTypeFromName(filename);
+        }
+        return retval == null ? DEFAULT_MEDIA_TYPE : retval;
+    }
+
+    private static void setKey(PreparedStatement stmt, int start, String office, String name,
+                               String designator, Instant forecastDate, Instant issueDate)
+            throws SQLException {
+        stmt.setString(start, office);
+        stmt.setString(start + 1, name);
+        stmt.setString(start + 2, designator);
+        stmt.setTimestamp(start + 3, Timestamp.from(forecastDate));
+        stmt.setTimestamp(start + 4, Timestamp.from(issueDate));
+    }
+
+    private static NotFoundException notFound(String office, String name, String designator,
+                                              Instant forecastDate, Instant issueDate) {
+        return new NotFoundException("Unable to find forecast instance " + name + " ("
+                + designator + ") of office " + office + " for forecast date " + forecastDate
+                + " issued " + issueDate);
+    }
+
+    private static long copy(@NotNull InputStream in, @NotNull OutputStream out)
+            throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) != -1) {
+            out.write(buffer, 0, bytesRead);
+            total += bytesRead;
+        }
+        return total;
+    }
+
+    @FunctionalInterface
+    public interface FileConsumer {
+        /**
+         * @param file null if the instance has no attachment
+         */
+        void accept(java.sql.Blob file, String mediaType, String filename) throws SQLException;
+    }
 }
@@ -33,11 +33,12 @@ import cwms.cda.api.errors.AlreadyExists;
 import cwms.cda.api.errors.InvalidItemException;
 import cwms.cda.api.errors.NotFoundException;
 import cwms.cda.datasource.ConnectionPreparingDataSource;
+import cwms.cda.datasource.ConnectionState;
+import cwms.cda.datasource.TimingDataSource;
 import cwms.cda.security.CwmsAuthException;
 import io.javalin.http.Context;
 import java.math.BigDecimal;
 import java.sql.Connection;
-import java.sql.SQLClientInfoException;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
@@ -64,6 +65,7 @@ public abstract class JooqDao<T> extends Dao<T> {
     private static final FluentLogger logger = FluentLogger.forEnclosingClass();
 
     static ExecuteListener listener = new ExceptionWrappingListener();
+    private static final ExecuteListener timingListener = new RequestTimingListener();
 
     public enum DeleteMethod {
         DELETE_ALL, DELETE_KEY, DELETE_DATA
@@ -80,7 +82,8 @@ public abstract class JooqDao<T> extends Dao<T> {
      * An ExecuteListener is also added to the DSLContext to wrap certain
      * recognized SQLExceptions in more specific CDA exception types.  This
      * enables ApiServlet to handle the exception specialization in a more
-     * generic way.
+     * generic way.  Connection waits and statement times are added to the
+     * {@link cwms.cda.RequestMetrics} of the request.
      *
      * @param ctx The current request context.
      * @return A DSLContext for the current request.
@@ -91,7 +94,7 @@ public abstract class JooqDao<T> extends Dao<T> {
         final DataSource dataSource = ctx.attribute(ApiServlet.DATA_SOURCE);
         if (dataSource != null) {
             DataSource wrappedDataSource = new ConnectionPreparingDataSource(connection ->
-                    setClientInfo(ctx, connection), dataSource);
+                    setClientInfo(ctx, connection), new TimingDataSource(dataSource));
             retVal = DSL.using(wrappedDataSource, SQLDialect.ORACLE18C);
         } else {
             // Some tests still use this method
@@ -101,7 +104,8 @@ public abstract class JooqDao<T> extends Dao<T> {
             retVal = getDslContext(database, officeId);
         }
 
-        retVal.configuration().set(new DefaultExecuteListenerProvider(listener));
+        retVal.configuration().set(new DefaultExecuteListenerProvider(listener),
+                new DefaultExecuteListenerProvider(timingListener));
 
         return retVal;
     }
@@ -117,18 +121,31 @@ public abstract class JooqDao<T> extends Dao<T> {
         // This method should probably be called from within a connection{  } block and jOOQ
         // code within the block should use the returned DSLContext or the connection.
         DSLContext dsl = DSL.using(connection, SQLDialect.ORACLE18C);
-        CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(dsl.configuration(), officeId);
+        dsl.configuration().set(new DefaultExecuteListenerProvider(timingListener));
+        try {
+            ConnectionState.apply(connection, ConnectionState.Setting.OFFICE, officeId,
+                    () -> CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(dsl.configuration(), officeId));
+        } catch (SQLException ex) {
+            throw new DataAccessException("Unable to set session office id to " + officeId, ex);
+        }
 
         return dsl;
     }
 
     private static Connection setClientInfo(Context ctx, Connection connection) {
+        String module = ctx.endpointHandlerPath();
+        String action = ctx.method();
+        String clientId = ctx.url().replace(ctx.path(), "") + ctx.contextPath();
         try {
-            connection.setClientInfo("OCSID.ECID", ApiServlet.APPLICATION_TITLE + " " + ApiServlet.VERSION);
-            connection.setClientInfo("OCSID.MODULE", ctx.endpointHandlerPath());
-            connection.setClientInfo("OCSID.ACTION", ctx.method());
-            connection.setClientInfo("OCSID.CLIENTID", ctx.url().replace(ctx.path(), "") + ctx.contextPath());
-        } catch (SQLClientInfoException ex) {
+            // A pooled connection usually served the same endpoint last time.
+            ConnectionState.apply(connection, ConnectionState.Setting.CLIENT_INFO,
+                    Arrays.asList(module, action, clientId), () -> {
+                connection.setClientInfo("OCSID.ECID", ApiServlet.APPLICATION_TITLE + " " + ApiServlet.VERSION);
+                connection.setClientInfo("OCSID.MODULE", module);
+                connection.setClientInfo("OCSID.ACTION", action);
+                connection.setClientInfo("OCSID.CLIENTID", clientId);
+            });
+        } catch (SQLException ex) {
             logger.atWarning()
                     .withCause(ex)
                     .log("Unable to set client info on connection.");
@@ -0,0 +1,203 @@
+package cwms.cda.data.dao;
+
+import static org.jooq.impl.DSL.partitionBy;
+import static org.jooq.impl.DSL.rank;
+import static org.jooq.impl.DSL.upper;
+import static usace.cwms.db.jooq.codegen.tables.AV_CWMS_TS_ID2.AV_CWMS_TS_ID2;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.CdaMetricsContextListener;
+import cwms.cda.data.dto.LatestValue;
+import cwms.cda.helpers.ExpiringCache;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import usace.cwms.db.jooq.codegen.tables.AV_TSV_DQU;
+import usace.cwms.db.jooq.codegen.udt.records.STR_TAB_T;
+
+/**
+ * Looks up the latest value of many time series at once.
+ *
+ * <p>The identifiers are bound as a single STR_TAB_T collection rather than an IN list, so the
+ * statement text, and with it the execution plan, is the same whatever the number of
+ * identifiers.  Results are kept for a few seconds keyed by the exact set of identifiers and
+ * the window, which covers dashboards that ask for the same set every minute from several
+ * clients.
+ */
+public class LatestValueDao extends JooqDao<LatestValue> {
+    public static final String CACHE_SIZE_KEY = "cwms.dataapi.timeseries.latest.cache.size";
+    public static final String CACHE_TTL_KEY = "cwms.dataapi.timeseries.latest.cache.ttl.seconds";
+
+    /**
+     * Identifiers longer than this can not be a time series and are reported as invalid
+     * without being looked up.
+     */
+    static final int MAX_ID_LENGTH = 256;
+
+    private static final ExpiringCache<String, List<LatestValue>> latestValues =
+        new ExpiringCache<>(CdaMetricsContextListener.METRIC_REGISTRY,
+                            MetricRegistry.name(LatestValueDao.class, "latest", "cache"),
+                            Integer.getInteger(CACHE_SIZE_KEY, 200),
+                            Duration.ofSeconds(Long.getLong(CACHE_TTL_KEY, 5L)));
+
+    private final ExpiringCache<String, List<LatestValue>> cache;
+
+    public LatestValueDao(DSLContext dsl) {
+        this(dsl, latestValues);
+    }
+
+    LatestValueDao(DSLContext dsl, ExpiringCache<String, List<LatestValue>> cache) {
+        super(dsl);
+        this.cache = cache;
+    }
+
+    /**
+     * @param office owning office, may be null to match any office
+     * @param unit only return values in this unit, may be null for every unit
+     * @param tsIds time series identifiers, matched without regard to case
+     * @param pastLimit values must be after this time
+     * @param futureLimit values must be before this time
+     * @return one entry per distinct requested identifier and matching office, in request
+     *     order.  Identifiers that match nothing are reported as not found.
+     */
+    public List<LatestValue> retrieveLatest(String office, String unit, Collection<String> tsIds,
+                                            Timestamp pastLimit, Timestamp futureLimit) {
+        Set<String> requested = new LinkedHashSet<>();
+        Set<String> invalid = new LinkedHashSet<>();
+        for (String tsId : tsIds) {
+            if (tsId == null || tsId.trim().isEmpty() || tsId.length() > MAX_ID_LENGTH) {
+                invalid.add(String.valueOf(tsId));
+            } else {
+                requested.add(tsId);
+            }
+        }
+
+        List<LatestValue> found = Collections.emptyList();
+        if (!requested.isEmpty()) {
+            String key = cacheKey(office, unit, requested, pastLimit, futureLimit);
+            found = cache.get(key, k -> Collections.unmodifiableList(
+                    queryLatest(office, unit, requested, pastLimit, futureLimit)));
+        }
+
+        Map<String, List<LatestValue>> byName = new LinkedHashMap<>();
+        for (LatestValue value : found) {
+            byName.computeIfAbsent(value.getName(), n -> new ArrayList<>()).add(value);
+        }
+
+        List<LatestValue> retval = new ArrayList<>(requested.size() + invalid.size());
+        for (String tsId : requested) {
+            List<LatestValue> values = byName.get(tsId);
+            if (values == null) {
+                retval.add(LatestValue.notFound(tsId));
+            } else {
+                retval.addAll(values);
+            }
+        }
+        for (String tsId : invalid) {
+            retval.add(LatestValue.invalid(tsId));
+        }
+        return retval;
+    }
+
+    /**
+     * Runs the set-based lookup.
+     *
+     * @return an entry for each requested identifier and office that exists, with the name
+     *     exactly as requested
+     */
+    protected List<LatestValue> queryLatest(String office, String unit, Set<String> tsIds,
+                                            Timestamp pastLimit, Timestamp futureLimit) {
+        AV_TSV_DQU tsv = AV_TSV_DQU.AV_TSV_DQU;
+        Table<?> requested = DSL.table(new STR_TAB_T(tsIds)).as("requested");
+        Field<String> requestedId = requested.field(0).coerce(String.class);
+
+        Condition idCondition = upper(AV_CWMS_TS_ID2.CWMS_TS_ID).eq(upper(requestedId));
+        if (office != null && !office.isEmpty()) {
+            idCondition = idCondition.and(upper(AV_CWMS_TS_ID2.DB_OFFICE_ID).eq(office.toUpperCase()));
+        }
+        Condition valueCondition = tsv.TS_CODE.eq(AV_CWMS_TS_ID2.TS_CODE.cast(Long.class))
+                .and(tsv.VALUE.isNotNull())
+                .and(tsv.DATE_TIME.lt(futureLimit))
+                .and(tsv.DATE_TIME.gt(pastLimit))
+                .and(tsv.START_DATE.le(futureLimit))
+                .and(tsv.END_DATE.gt(pastLimit));
+        if (unit != null && !unit.isEmpty()) {
+            valueCondition = valueCondition.and(tsv.UNIT_ID.eq(unit));
+        }
+
+        // Every unit's value at the latest time ranks first; a series without values in the
+        // window still produces one row, with null value columns, from the outer join.
+        Field<String> nameField = requestedId.as("requested_id");
+        Field<Integer> latestRank = rank()
+                .over(partitionBy(requestedId, AV_CWMS_TS_ID2.TS_CODE)
+                        .orderBy(tsv.DATE_TIME.desc().nullsLast()))
+                .as("latest_rank");
+        Table<?> ranked = dsl.select(nameField, AV_CWMS_TS_ID2.DB_OFFICE_ID, tsv.UNIT_ID,
+                        tsv.DATE_TIME, tsv.VALUE, tsv.QUALITY_CODE, latestRank)
+                .from(requested)
+                .join(AV_CWMS_TS_ID2).on(idCondition)
+                .leftJoin(tsv).on(valueCondition)
+                .asTable("ranked");
+
+        Map<String, List<LatestValue.Value>> values = new LinkedHashMap<>();
+        Map<String, String[]> names = new LinkedHashMap<>();
+        for (Record row : dsl.select(ranked.fields())
+                .from(ranked)
+                .where(ranked.field(latestRank).eq(1))
+                .fetch()) {
+            String name = row.get(ranked.field(nameField), String.class);
+            String officeId = row.get(ranked.field(AV_CWMS_TS_ID2.DB_OFFICE_ID), String.class);
+            String key = name + "|" + officeId;
+            names.putIfAbsent(key, new String[]{name, officeId});
+            List<LatestValue.Value> list = values.computeIfAbsent(key, k -> new ArrayList<>());
+            Timestamp dateTime = row.get(ranked.field(tsv.DATE_TIME), Timestamp.class);
+            // an alias of the same series can match the same name more than once
+            String unitId = row.get(ranked.field(tsv.UNIT_ID), String.class);
+            if (dateTime != null && list.stream().noneMatch(v -> v.getUnit().equals(unitId))) {
+                list.add(new LatestValue.Value(unitId, dateTime.toInstant(),
+                        row.get(ranked.field(tsv.VALUE), Double.class),
+                        row.get(ranked.field(tsv.QUALITY_CODE), Long.class)));
+            }
+        }
+
+        List<LatestValue> retval = new ArrayList<>(names.size());
+        for (Map.Entry<String, String[]> entry : names.entrySet()) {
+            List<LatestValue.Value> list = values.get(entry.getKey());
+            LatestValue.Status status = list.isEmpty() ? LatestValue.Status.NO_DATA
+                    : LatestValue.Status.OK;
+            retval.add(new LatestValue(entry.getValue()[0], entry.getValue()[1], status, list));
+        }
+        return retval;
+    }
+
+    /**
+     * The key covers the set of identifiers rather than their order, so reordered requests
+     * for the same series share an entry.
+     */
+    static String cacheKey(String office, String unit, Set<String> tsIds, Timestamp pastLimit,
+                           Timestamp futureLimit) {
+        StringBuilder builder = new StringBuilder()
+                .append(office == null ? "" : office.toUpperCase()).append('|')
+                .append(unit == null ? "" : unit).append('|')
+                .append(pastLimit.getTime()).append('|')
+                .append(futureLimit.getTime());
+        for (String tsId : new TreeSet<>(tsIds)) {
+            builder.append('|').append(tsId);
+        }
+        return builder.toString();
+    }
+}
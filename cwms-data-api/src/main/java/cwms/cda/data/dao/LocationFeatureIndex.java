@@ -0,0 +1,214 @@
+package cwms.cda.data.dao;
+
+import static org.jooq.impl.DSL.asterisk;
+import static usace.cwms.db.jooq.codegen.tables.AV_LOC.AV_LOC;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.CdaMetricsContextListener;
+import cwms.cda.helpers.ExpiringCache;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.geojson.Feature;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+
+/**
+ * The GeoJSON features of the locations of one office in one unit system, with a grid over
+ * their coordinates so bounding box and distance queries only look at nearby locations.
+ *
+ * <p>Indexes are kept for {@value #CACHE_TTL_KEY} seconds.  Storing, renaming or deleting a
+ * location through {@link LocationsDaoImpl} drops the indexes of its office; changes made
+ * elsewhere are picked up once the index expires.  The features are shared between requests
+ * and must not be modified.
+ */
+public final class LocationFeatureIndex {
+    public static final String CACHE_SIZE_KEY = "cwms.dataapi.location.index.cache.size";
+    public static final String CACHE_TTL_KEY = "cwms.dataapi.location.index.ttl.seconds";
+
+    static final double CELL_DEGREES = 0.5;
+    private static final int LONGITUDE_CELLS = (int) (360 / CELL_DEGREES);
+    private static final int LATITUDE_CELLS = (int) (180 / CELL_DEGREES);
+
+    private static final ExpiringCache<String, LocationFeatureIndex> indexes =
+        new ExpiringCache<>(CdaMetricsContextListener.METRIC_REGISTRY,
+                            MetricRegistry.name(LocationFeatureIndex.class, "cache"),
+                            Integer.getInteger(CACHE_SIZE_KEY, 200),
+                            Duration.ofSeconds(Long.getLong(CACHE_TTL_KEY, 600L)));
+
+    private final String[] locationIds;
+    private final Feature[] features;
+    private final double[] longitudes;
+    private final double[] latitudes;
+    private final int[] located;
+    private final Map<String, Integer> byId;
+    private final Map<Integer, int[]> cells;
+
+    /**
+     * @param longitudes NaN where the location has no coordinates
+     */
+    LocationFeatureIndex(List<String> locationIds, List<Feature> features, double[] longitudes,
+                         double[] latitudes) {
+        int size = locationIds.size();
+        this.locationIds = locationIds.toArray(new String[0]);
+        this.features = features.toArray(new Feature[0]);
+        this.longitudes = longitudes;
+        this.latitudes = latitudes;
+        byId = new HashMap<>(size * 2);
+        Map<Integer, List<Integer>> grid = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            byId.putIfAbsent(this.locationIds[i], i);
+            if (!Double.isNaN(longitudes[i]) && !Double.isNaN(latitudes[i])) {
+                grid.computeIfAbsent(cell(longitudes[i], latitudes[i]), k -> new ArrayList<>())
+                        .add(i);
+            }
+        }
+        cells = new HashMap<>(grid.size() * 2);
+        grid.forEach((cell, members) ->
+                cells.put(cell, members.stream().mapToInt(Integer::intValue).toArray()));
+        located = IntStream.range(0, size)
+                .filter(i -> !Double.isNaN(longitudes[i]) && !Double.isNaN(latitudes[i]))
+                .toArray();
+    }
+
+    /**
+     * @return the index for the office and unit system, loaded from AV_LOC if there is none
+     */
+    public static LocationFeatureIndex get(DSLContext dsl, String officeId, String unitSystem) {
+        return indexes.get(officeId + "/" + unitSystem, k -> load(dsl, officeId, unitSystem));
+    }
+
+    /**
+     * Drop the indexes of an office.
+     */
+    public static void invalidate(String officeId) {
+        String prefix = officeId + "/";
+        indexes.invalidateIf((k, index) -> k.regionMatches(true, 0, prefix, 0, prefix.length()));
+    }
+
+    public static void invalidateAll() {
+        indexes.invalidateAll();
+    }
+
+    static LocationFeatureIndex load(DSLContext dsl, String officeId, String unitSystem) {
+        List<Record> rows = dsl.select(asterisk())
+                .from(AV_LOC)
+                .where(AV_LOC.DB_OFFICE_ID.eq(officeId))
+                .and(AV_LOC.UNIT_SYSTEM.eq(unitSystem))
+                .orderBy(AV_LOC.LOCATION_ID)
+                .fetch()
+                .into(Record.class);
+        int size = rows.size();
+        List<String> locationIds = new ArrayList<>(size);
+        List<Feature> features = new ArrayList<>(size);
+        double[] longitudes = new double[size];
+        double[] latitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            Record row = rows.get(i);
+            locationIds.add(row.get(AV_LOC.LOCATION_ID));
+            features.add(LocationsDaoImpl.buildFeatureFromAvLocRecord(row));
+            Double longitude = row.getValue(AV_LOC.LONGITUDE, Double.class);
+            Double latitude = row.getValue(AV_LOC.LATITUDE, Double.class);
+            longitudes[i] = longitude == null ? Double.NaN : longitude;
+            latitudes[i] = latitude == null ? Double.NaN : latitude;
+        }
+        return new LocationFeatureIndex(locationIds, features, longitudes, latitudes);
+    }
+
+    public int size() {
+        return features.length;
+    }
+
+    public String getLocationId(int index) {
+        return locationIds[index];
+    }
+
+    public Feature getFeature(int index) {
+        return features[index];
+    }
+
+    /**
+     * @param filter where the locations have to be, null for anywhere; locations without
+     *               coordinates only match when there is no filter
+     * @param names location ids the locations have to have, null for any
+     * @return the positions of the matching locations in location id order, or nearest first
+     *         for a near filter
+     */
+    public int[] select(SpatialFilter filter, Collection<String> names) {
+        int[] retval;
+        if (filter == null) {
+            retval = names == null ? IntStream.range(0, features.length).toArray()
+                    : names.stream()
+                        .map(byId::get)
+                        .filter(i -> i != null)
+                        .mapToInt(Integer::intValue)
+                        .distinct()
+                        .sorted()
+                        .toArray();
+            return retval;
+        }
+        retval = candidates(filter)
+                .filter(i -> filter.matches(longitudes[i], latitudes[i]))
+                .filter(i -> names == null || names.contains(locationIds[i]))
+                .sorted()
+                .toArray();
+        if (filter.isNear()) {
+            retval = Arrays.stream(retval)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(
+                            i -> filter.distanceKm(longitudes[i], latitudes[i])))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        return retval;
+    }
+
+    /**
+     * @return the located positions in the cells the filter overlaps, or all of them when
+     *         that is fewer than the cells
+     */
+    private IntStream candidates(SpatialFilter filter) {
+        int minLat = latitudeCell(filter.getMinLatitude());
+        int maxLat = latitudeCell(filter.getMaxLatitude());
+        int minLon = longitudeCell(filter.getMinLongitude());
+        int maxLon = longitudeCell(filter.getMaxLongitude());
+        int lonCount = minLon <= maxLon ? maxLon - minLon + 1
+                : LONGITUDE_CELLS - minLon + maxLon + 1;
+        long cellCount = (long) lonCount * (maxLat - minLat + 1);
+        if (cellCount >= located.length) {
+            return Arrays.stream(located);
+        }
+        IntStream.Builder retval = IntStream.builder();
+        for (int lat = minLat; lat <= maxLat; lat++) {
+            for (int n = 0; n < lonCount; n++) {
+                int[] members = cells.get(lat * LONGITUDE_CELLS + (minLon + n) % LONGITUDE_CELLS);
+                if (members != null) {
+                    for (int member : members) {
+                        retval.add(member);
+                    }
+                }
+            }
+        }
+        return retval.build();
+    }
+
+    static int cell(double longitude, double latitude) {
+        return latitudeCell(latitude) * LONGITUDE_CELLS + longitudeCell(longitude);
+    }
+
+    private static int longitudeCell(double longitude) {
+        return Math.min(LONGITUDE_CELLS - 1, Math.max(0,
+                (int) Math.floor((longitude + 180.0) / CELL_DEGREES)));
+    }
+
+    private static int latitudeCell(double latitude) {
+        return Math.min(LATITUDE_CELLS - 1, Math.max(0,
+                (int) Math.floor((latitude + 90.0) / CELL_DEGREES)));
+    }
+}
@@ -380,6 +380,79 @@ public final class LocationGroupDao extends JooqDao<LocationGroup> {
         return collection;
     }
 
+    /**
+     * Only the assignments of the group are read from the database, the locations come from
+     * the {@link LocationFeatureIndex} of the office.
+     *
+     * @param filter where the locations have to be, null for anywhere
+     * @return the locations in attribute order, or nearest first for a near filter
+     */
+    public FeatureCollection buildFeatureCollectionForLocationGroup(String officeId,
+                                                                    String categoryId,
+                                                                    String groupId, String units,
+                                                                    SpatialFilter filter) {
+        if (filter == null) {
+            return buildFeatureCollectionForLocationGroup(officeId, categoryId, groupId, units);
+        }
+        AV_LOC_GRP_ASSGN alga = AV_LOC_GRP_ASSGN.AV_LOC_GRP_ASSGN;
+
+        Map<String, Record> assignments = new LinkedHashMap<>();
+        dsl.select(alga.LOCATION_ID, alga.CATEGORY_ID, alga.GROUP_ID, alga.ATTRIBUTE,
+                        alga.ALIAS_ID, alga.SHARED_REF_LOCATION_ID, alga.SHARED_ALIAS_ID)
+                .from(alga)
+                .where(alga.DB_OFFICE_ID.eq(officeId)
+                        .and(alga.CATEGORY_ID.eq(categoryId))
+                        .and(alga.GROUP_ID.eq(groupId)))
+                .orderBy(alga.ATTRIBUTE)
+                .forEach(r -> assignments.putIfAbsent(r.get(alga.LOCATION_ID), r));
+
+        LocationFeatureIndex index = LocationFeatureIndex.get(dsl, officeId, units);
+        int[] matches = index.select(filter, assignments.keySet());
+        List<Feature> features = new ArrayList<>(matches.length);
+        if (filter.isNear()) {
+            for (int match : matches) {
+                features.add(withGroupAssignment(index.getFeature(match),
+                        assignments.get(index.getLocationId(match))));
+            }
+        } else {
+            Map<String, Feature> located = new LinkedHashMap<>();
+            for (int match : matches) {
+                located.put(index.getLocationId(match), index.getFeature(match));
+            }
+            assignments.forEach((locationId, assignment) -> {
+                Feature feature = located.get(locationId);
+                if (feature != null) {
+                    features.add(withGroupAssignment(feature, assignment));
+                }
+            });
+        }
+        FeatureCollection collection = new FeatureCollection();
+        collection.setFeatures(features);
+
+        return collection;
+    }
+
+    /**
+     * @return a copy of the indexed feature with the assignment added to its properties
+     */
+    private static Feature withGroupAssignment(Feature located, Record assignment) {
+        AV_LOC_GRP_ASSGN alga = AV_LOC_GRP_ASSGN.AV_LOC_GRP_ASSGN;
+        Map<String, Object> grpProps = new LinkedHashMap<>();
+        for (TableField<?, ?> field : Arrays.asList(alga.CATEGORY_ID, alga.GROUP_ID,
+                alga.ATTRIBUTE, alga.ALIAS_ID, alga.SHARED_ALIAS_ID,
+                alga.SHARED_REF_LOCATION_ID)) {
+            grpProps.put(field.getName(), assignment.get(field));
+        }
+
+        Feature feature = new Feature();
+        feature.setId(located.getId());
+        feature.setGeometry(located.getGeometry());
+        Map<String, Object> props = new LinkedHashMap<>(located.getProperties());
+        props.put("avLocGrpAssgn", grpProps);
+        feature.setProperties(props);
+        return feature;
+    }
+
     /**
      * Delete a location group.
      * @param categoryId The category id to use for the query.
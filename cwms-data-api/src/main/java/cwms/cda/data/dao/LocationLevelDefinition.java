@@ -0,0 +1,252 @@
+package cwms.cda.data.dao;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What it takes to work out the values of a constant or seasonal location level without the
+ * database: each effective version of the level and the local time zone of its location.
+ *
+ * <p>A level that is backed by a time series, or has a virtual level of the same name, can
+ * only be worked out by the database; its definition only carries the time zone and
+ * {@link #isLocal()} is false.
+ */
+public final class LocationLevelDefinition {
+    private final ZoneId zoneId;
+    private final String unit;
+    private final List<Period> periods;
+
+    private LocationLevelDefinition(ZoneId zoneId, String unit, List<Period> periods) {
+        this.zoneId = zoneId;
+        this.unit = unit;
+        this.periods = periods;
+    }
+
+    /**
+     * @param unit the unit all period values are in
+     * @param periods the versions of the level, ordered by effective date
+     */
+    static LocationLevelDefinition local(ZoneId zoneId, String unit, List<Period> periods) {
+        return new LocationLevelDefinition(zoneId, unit,
+                Collections.unmodifiableList(new ArrayList<>(periods)));
+    }
+
+    static LocationLevelDefinition databaseOnly(ZoneId zoneId) {
+        return new LocationLevelDefinition(zoneId, null, null);
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    /**
+     * @return whether {@link #evaluate(long[])} can be used
+     */
+    public boolean isLocal() {
+        return periods != null;
+    }
+
+    /**
+     * @return the unit the evaluated values are in
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * @param times epoch milliseconds in ascending order
+     * @return the level at each time, NaN where no version of the level is in effect
+     */
+    public double[] evaluate(long[] times) {
+        double[] retval = new double[times.length];
+        int p = -1;
+        Cursor cursor = null;
+        for (int i = 0; i < times.length; i++) {
+            long time = times[i];
+            int current = periodAt(time, Math.max(p, 0));
+            if (current != p) {
+                p = current;
+                cursor = null;
+            }
+            Period period = p < 0 ? null : periods.get(p);
+            if (period == null || time >= period.expires) {
+                retval[i] = Double.NaN;
+            } else if (period.values == null) {
+                retval[i] = period.constant;
+            } else {
+                if (cursor == null) {
+                    cursor = new Cursor(period, zoneId, time);
+                }
+                retval[i] = cursor.valueAt(time);
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * @return the index of the last period in effect at the time, -1 if none is
+     */
+    private int periodAt(long time, int from) {
+        int retval = -1;
+        for (int i = from; i < periods.size() && periods.get(i).effective <= time; i++) {
+            retval = i;
+        }
+        return retval;
+    }
+
+    /**
+     * One effective version of a level.
+     */
+    static final class Period {
+        private final long effective;
+        private final long expires;
+        private final double constant;
+        private final long origin;
+        private final int intervalMonths;
+        private final long intervalMinutes;
+        private final boolean interpolate;
+        private final int[] offsetMonths;
+        private final long[] offsetMinutes;
+        private final double[] values;
+
+        private Period(long effective, long expires, double constant, long origin,
+                       int intervalMonths, long intervalMinutes, boolean interpolate,
+                       int[] offsetMonths, long[] offsetMinutes, double[] values) {
+            this.effective = effective;
+            this.expires = expires;
+            this.constant = constant;
+            this.origin = origin;
+            this.intervalMonths = intervalMonths;
+            this.intervalMinutes = intervalMinutes;
+            this.interpolate = interpolate;
+            this.offsetMonths = offsetMonths;
+            this.offsetMinutes = offsetMinutes;
+            this.values = values;
+        }
+
+        /**
+         * @param expires epoch milliseconds, null if it does not expire
+         */
+        static Period constant(long effective, Long expires, double value) {
+            return new Period(effective, expires == null ? Long.MAX_VALUE : expires, value, 0L,
+                    0, 0L, false, null, null, null);
+        }
+
+        /**
+         * @param origin start of one interval, epoch milliseconds
+         * @param offsetMonths calendar part of the offset of each value into the interval
+         * @param offsetMinutes time part of the offset of each value into the interval
+         * @param values the values, ordered by offset
+         */
+        @SuppressWarnings("java:S107") // one argument per part of the definition
+        static Period seasonal(long effective, Long expires, long origin, int intervalMonths,
+                               long intervalMinutes, boolean interpolate, int[] offsetMonths,
+                               long[] offsetMinutes, double[] values) {
+            if (values.length == 0 || (intervalMonths <= 0 && intervalMinutes <= 0)) {
+                throw new IllegalArgumentException("A seasonal level needs values and an "
+                        + "interval");
+            }
+            return new Period(effective, expires == null ? Long.MAX_VALUE : expires, Double.NaN,
+                    origin, intervalMonths, intervalMinutes, interpolate, offsetMonths,
+                    offsetMinutes, values);
+        }
+    }
+
+    /**
+     * Walks the seasonal values of a period along ascending times.  The times between two
+     * values only need the two breakpoints, so the calendar arithmetic is done once per value
+     * rather than once per time.  The arithmetic is on local date-times, so a value at six in
+     * the morning stays there on both sides of a daylight saving change.
+     */
+    private static final class Cursor {
+        private final Period period;
+        private final ZonedDateTime origin;
+        private final LocalDateTime localOrigin;
+        private long interval;
+        private int index;
+        private long from;
+        private long to;
+
+        Cursor(Period period, ZoneId zoneId, long time) {
+            this.period = period;
+            this.origin = Instant.ofEpochMilli(period.origin).atZone(zoneId);
+            this.localOrigin = origin.toLocalDateTime();
+            interval = intervalAt(time);
+            index = -1;
+            while (index + 1 < period.values.length && breakpoint(interval, index + 1) <= time) {
+                index++;
+            }
+            if (index < 0) {
+                // before the first value of this interval, carry on from the last of the one before
+                interval--;
+                index = period.values.length - 1;
+            }
+            from = breakpoint(interval, index);
+            to = next();
+        }
+
+        double valueAt(long time) {
+            while (time >= to) {
+                index++;
+                if (index == period.values.length) {
+                    index = 0;
+                    interval++;
+                }
+                from = to;
+                to = next();
+            }
+            double value = period.values[index];
+            if (!period.interpolate) {
+                return value;
+            }
+            double nextValue = period.values[(index + 1) % period.values.length];
+            return value + (nextValue - value) * (time - from) / (to - from);
+        }
+
+        private long next() {
+            return index + 1 < period.values.length ? breakpoint(interval, index + 1)
+                    : breakpoint(interval + 1, 0);
+        }
+
+        /**
+         * @return the number of the interval the time falls in, counted from the origin
+         */
+        private long intervalAt(long time) {
+            long retval;
+            if (period.intervalMonths > 0) {
+                ZonedDateTime at = Instant.ofEpochMilli(time).atZone(origin.getZone());
+                retval = Math.floorDiv(ChronoUnit.MONTHS.between(origin, at),
+                        period.intervalMonths);
+            } else {
+                retval = Math.floorDiv(time - period.origin, period.intervalMinutes * 60_000L);
+            }
+            while (toMillis(start(retval)) > time) {
+                retval--;
+            }
+            while (toMillis(start(retval + 1)) <= time) {
+                retval++;
+            }
+            return retval;
+        }
+
+        private LocalDateTime start(long interval) {
+            return localOrigin.plusMonths(interval * period.intervalMonths)
+                    .plusMinutes(interval * period.intervalMinutes);
+        }
+
+        private long breakpoint(long interval, int index) {
+            return toMillis(start(interval).plusMonths(period.offsetMonths[index])
+                    .plusMinutes(period.offsetMinutes[index]));
+        }
+
+        private long toMillis(LocalDateTime local) {
+            return local.atZone(origin.getZone()).toInstant().toEpochMilli();
+        }
+    }
+}
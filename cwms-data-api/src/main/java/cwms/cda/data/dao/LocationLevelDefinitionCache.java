@@ -0,0 +1,59 @@
+package cwms.cda.data.dao;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.CdaMetricsContextListener;
+import cwms.cda.helpers.ExpiringCache;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Location level definitions, so levels retrieved as time series can be worked out without
+ * asking the database for every time step.
+ *
+ * <p>Entries are keyed by office and level identifier without regard to case and expire after
+ * {@value #CACHE_TTL_KEY} seconds.  Changes made through {@link LocationLevelsDaoImpl} drop
+ * the affected entries immediately; changes made elsewhere are picked up once the entry
+ * expires.
+ */
+public final class LocationLevelDefinitionCache {
+    public static final String CACHE_SIZE_KEY = "cwms.dataapi.level.definition.cache.size";
+    public static final String CACHE_TTL_KEY = "cwms.dataapi.level.definition.cache.ttl.seconds";
+
+    private static final ExpiringCache<String, LocationLevelDefinition> definitions =
+        new ExpiringCache<>(CdaMetricsContextListener.METRIC_REGISTRY,
+                            MetricRegistry.name(LocationLevelDefinitionCache.class, "definition",
+                                    "cache"),
+                            Integer.getInteger(CACHE_SIZE_KEY, 1000),
+                            Duration.ofSeconds(Long.getLong(CACHE_TTL_KEY, 300L)));
+
+    private LocationLevelDefinitionCache() {
+    }
+
+    /**
+     * @param loader loads the definition when there is no valid entry
+     */
+    public static LocationLevelDefinition get(String office, String levelId,
+                                              Supplier<LocationLevelDefinition> loader) {
+        return definitions.get(key(office, levelId), k -> loader.get());
+    }
+
+    /**
+     * @param office owning office, null for every office
+     */
+    public static void invalidate(String office, String levelId) {
+        if (office == null) {
+            String keySuffix = "/" + levelId.toUpperCase();
+            definitions.invalidateIf((k, d) -> k.endsWith(keySuffix));
+        } else {
+            definitions.invalidate(key(office, levelId));
+        }
+    }
+
+    public static void invalidateAll() {
+        definitions.invalidateAll();
+    }
+
+    static String key(String office, String levelId) {
+        return office.toUpperCase() + "/" + levelId.toUpperCase();
+    }
+}
@@ -54,9 +54,12 @@ import org.jetbrains.annotations.Nullable;
 import org.jooq.Condition;
 import org.jooq.Configuration;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Record1;
-import org.jooq.SelectLimitPercentAfterOffsetStep;
+import org.jooq.Row3;
+import org.jooq.SelectForUpdateStep;
+import org.jooq.Table;
 import org.jooq.conf.ParamType;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
@@ -65,7 +68,6 @@ import usace.cwms.db.dao.ifc.level.CwmsDbLevel;
 import usace.cwms.db.dao.ifc.level.LocationLevelPojo;
 import usace.cwms.db.dao.util.OracleTypeMap;
 import usace.cwms.db.dao.util.services.CwmsDbServiceLookup;
-import usace.cwms.db.jooq.codegen.packages.CWMS_ENV_PACKAGE;
 import usace.cwms.db.jooq.codegen.packages.CWMS_LEVEL_PACKAGE;
 import usace.cwms.db.jooq.codegen.packages.CWMS_LOC_PACKAGE;
 import usace.cwms.db.jooq.codegen.packages.CWMS_UTIL_PACKAGE;
@@ -80,14 +82,19 @@ import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TimeZone;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleUnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -149,6 +156,9 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
             });
         } catch (DataAccessException ex) {
             throw new RuntimeException("Failed to store Location Level", ex);
+        } finally {
+            LocationLevelDefinitionCache.invalidate(locationLevel.getOfficeId(),
+                    locationLevel.getLocationLevelId());
         }
     }
 
@@ -245,6 +255,8 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
 
         } catch (DataAccessException ex) {
             throw new RuntimeException("Failed to delete Location Level ", ex);
+        } finally {
+            LocationLevelDefinitionCache.invalidate(officeId, locationLevelName);
         }
     }
 
@@ -252,6 +264,8 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
     public void renameLocationLevel(String oldLocationLevelName, String newLocationLevelName, String officeId) {
         CWMS_LEVEL_PACKAGE.call_RENAME_LOCATION_LEVEL(dsl.configuration(), oldLocationLevelName, newLocationLevelName,
             officeId);
+        LocationLevelDefinitionCache.invalidate(officeId, oldLocationLevelName);
+        LocationLevelDefinitionCache.invalidate(officeId, newLocationLevelName);
     }
 
     @Override
@@ -320,13 +334,13 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
                                             String datum, ZonedDateTime beginZdt,
                                             ZonedDateTime endZdt) {
         Integer total = null;
-        int offset = 0;
+        String pageKey = "";
 
         if (cursor != null && !cursor.isEmpty()) {
             String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
 
             if (parts.length > 2) {
-                offset = Integer.parseInt(parts[0]);
+                pageKey = parts[0];
                 if (!"null".equals(parts[1])) {
                     try {
                         total = Integer.valueOf(parts[1]);
@@ -363,29 +377,82 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
                     Timestamp.from(endZdt.toInstant())));
         }
 
-        Map<JDomLocationLevelImpl, JDomLocationLevelImpl> levelMap = new HashMap<>();
+        Row3<String, String, Timestamp> sortKey = DSL.row(DSL.upper(view.OFFICE_ID),
+                DSL.upper(view.LOCATION_LEVEL_ID), view.LEVEL_DATE);
+
+        Condition pageCondition = whereCondition;
+        if (!pageKey.isEmpty()) {
+            // seek past the last level of the previous page rather than counting rows with OFFSET
+            pageCondition = pageCondition.and(sortKey.gt(decodeLevelPageKey(pageKey)));
+        }
 
-        SelectLimitPercentAfterOffsetStep<Record> query = dsl.selectDistinct(asterisk())
+        SelectForUpdateStep<Record> query = dsl.selectDistinct(asterisk())
                 .from(view)
-                .where(whereCondition)
+                .where(pageCondition)
                 .orderBy(DSL.upper(view.OFFICE_ID), DSL.upper(view.LOCATION_LEVEL_ID),
                         view.LEVEL_DATE
                 )
-                .offset(offset)
                 .limit(pageSize);
 
         logger.fine(() -> "getLocationLevels query: " + query.getSQL(ParamType.INLINED));
 
-        List<LocationLevel> levels = query
-                .stream()
+        List<Record> rows = new ArrayList<>(query.fetch());
+
+        String nextPageKey = null;
+        if (!rows.isEmpty() && rows.size() == pageSize) {
+            // A level is made of several rows (seasonal values, attributes) that share a sort key.
+            // The next page seeks past the last key, so make sure all of its rows are on this page.
+            Record last = rows.get(rows.size() - 1);
+            rows.removeIf(r -> sameLevelKey(r, last));
+            rows.addAll(dsl.selectDistinct(asterisk())
+                    .from(view)
+                    .where(whereCondition)
+                    .and(sortKey.eq(DSL.row(last.get(view.OFFICE_ID).toUpperCase(),
+                            last.get(view.LOCATION_LEVEL_ID).toUpperCase(),
+                            last.get(view.LEVEL_DATE))))
+                    .fetch());
+            nextPageKey = encodeLevelPageKey(last);
+        }
+
+        Map<JDomLocationLevelImpl, JDomLocationLevelImpl> levelMap = new HashMap<>();
+        List<LocationLevel> levels = rows.stream()
                 .map(r -> toLocationLevel(r, levelMap))
                 .collect(toList());
 
-        LocationLevels.Builder builder = new LocationLevels.Builder(offset, pageSize, total);
+        LocationLevels.Builder builder = new LocationLevels.Builder(pageKey, pageSize, total);
         builder.addAll(levels);
+        builder.nextPageKey(nextPageKey);
         return builder.build();
     }
 
+    private static boolean sameLevelKey(Record a, Record b) {
+        usace.cwms.db.jooq.codegen.tables.AV_LOCATION_LEVEL view = AV_LOCATION_LEVEL;
+        return a.get(view.OFFICE_ID).equalsIgnoreCase(b.get(view.OFFICE_ID))
+                && a.get(view.LOCATION_LEVEL_ID).equalsIgnoreCase(b.get(view.LOCATION_LEVEL_ID))
+                && Objects.equals(a.get(view.LEVEL_DATE), b.get(view.LEVEL_DATE));
+    }
+
+    private static String encodeLevelPageKey(Record last) {
+        usace.cwms.db.jooq.codegen.tables.AV_LOCATION_LEVEL view = AV_LOCATION_LEVEL;
+        return CwmsDTOPaginated.encodeCursor(CwmsDTOPaginated.delimiter,
+                last.get(view.OFFICE_ID).toUpperCase(),
+                last.get(view.LOCATION_LEVEL_ID).toUpperCase(),
+                last.get(view.LEVEL_DATE).getTime());
+    }
+
+    private static Row3<String, String, Timestamp> decodeLevelPageKey(String pageKey) {
+        String[] parts = CwmsDTOPaginated.decodeCursor(pageKey);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid Location Levels Page Provided");
+        }
+        try {
+            Timestamp levelDate = new Timestamp(Long.parseLong(parts[2]));
+            return DSL.row(parts[0], parts[1], levelDate);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid Location Levels Page Provided", e);
+        }
+    }
+
     private LocationLevel toLocationLevel(Record r, Map<JDomLocationLevelImpl,
             JDomLocationLevelImpl> levelMap) {
         usace.cwms.db.jooq.codegen.tables.AV_LOCATION_LEVEL view = AV_LOCATION_LEVEL;
@@ -589,13 +656,40 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
             attributeValue = attribute.getValueBigDecimal();
             attributeUnits = attribute.getUnits();
         }
-        ZoneId locationZoneId = getLocationZoneId(levelRef.getLocationRef());
-        ZTSV_ARRAY specifiedTimes = buildTsvArray(start, end, interval, locationZoneId);
-        CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(dsl.configuration(), officeId);
+        LocationLevelDefinition definition = LocationLevelDefinitionCache.get(officeId,
+                locationLevelId, () -> loadDefinition(levelRef));
+        ZoneId locationZoneId = definition.getZoneId();
+        long[] times = buildTimes(start, end, interval, locationZoneId);
+
+        // Constant and seasonal levels are worked out here; the definition only holds the
+        // versions without an attribute, so levels with one are left to the database.
+        DoubleUnaryOperator conversion = attribute == null && definition.isLocal()
+                ? unitConversion(definition.getUnit(), levelUnits) : null;
+        if (conversion != null) {
+            double[] values = definition.evaluate(times);
+            boolean found = false;
+            for (int i = 0; i < values.length; i++) {
+                if (!Double.isNaN(values[i])) {
+                    values[i] = conversion.applyAsDouble(values[i]);
+                    found = true;
+                }
+            }
+            if (!found) {
+                throw new NotFoundException("No time series found for: " + levelRef + " between start time: " + start + " and end time: " + end);
+            }
+            return buildTimeSeries(levelRef, interval, times, values, new int[times.length],
+                    locationZoneId);
+        }
 
-        ZTSV_ARRAY locLvlValues = call_RETRIEVE_LOC_LVL_VALUES3(dsl.configuration(),
-                specifiedTimes, locationLevelId, levelUnits, attributeId, attributeValue, attributeUnits,
-                "UTC", officeId );
+        ZTSV_ARRAY specifiedTimes = buildTsvArray(times);
+        // The office has to be set on the same connection the retrieve runs on.
+        final String finalAttributeId = attributeId;
+        final Number finalAttributeValue = attributeValue;
+        final String finalAttributeUnits = attributeUnits;
+        ZTSV_ARRAY locLvlValues = connectionResult(dsl, c ->
+                call_RETRIEVE_LOC_LVL_VALUES3(getDslContext(c, officeId).configuration(),
+                        specifiedTimes, locationLevelId, levelUnits, finalAttributeId,
+                        finalAttributeValue, finalAttributeUnits, "UTC", officeId));
 
         if (locLvlValues.isEmpty()) {
             throw new NotFoundException("No time series found for: " + levelRef + " between start time: " + start + " and end time: " + end);
@@ -628,55 +722,256 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
         return OracleTypeMap.toZoneId(timeZone, locationRef.getLocationId());
     }
 
+    private LocationLevelDefinition loadDefinition(ILocationLevelRef levelRef) {
+        ZoneId zoneId = getLocationZoneId(levelRef.getLocationRef());
+        try {
+            return readDefinition(dsl, levelRef.getOfficeId(), levelRef.getLocationLevelId(),
+                    zoneId);
+        } catch (DataAccessException | IllegalArgumentException ex) {
+            logger.log(Level.FINE, ex, () -> "Location level " + levelRef.getLocationLevelId()
+                    + " will be evaluated by the database");
+            return LocationLevelDefinition.databaseOnly(zoneId);
+        }
+    }
+
+    /**
+     * Reads the versions of a level without an attribute, in SI units.  Anything this class
+     * cannot evaluate itself gives a definition that leaves the level to the database.
+     */
+    static LocationLevelDefinition readDefinition(DSLContext dsl, String officeId,
+                                                  String locationLevelId, ZoneId zoneId) {
+        usace.cwms.db.jooq.codegen.tables.AV_LOCATION_LEVEL view = AV_LOCATION_LEVEL;
+        // with the default precedence a virtual level hides a normal one of the same name
+        Table<Record> virtual = DSL.table(DSL.name("AV_VIRTUAL_LOCATION_LEVEL"));
+        boolean hasVirtual = dsl.fetchExists(dsl.selectOne()
+                .from(virtual)
+                .where(DSL.upper(DSL.field(DSL.name("OFFICE_ID"), String.class))
+                        .eq(officeId.toUpperCase()))
+                .and(DSL.upper(DSL.field(DSL.name("LOCATION_LEVEL_ID"), String.class))
+                        .eq(locationLevelId.toUpperCase())));
+        if (hasVirtual) {
+            return LocationLevelDefinition.databaseOnly(zoneId);
+        }
+
+        Field<Timestamp> expirationDate = DSL.field(DSL.name("EXPIRATION_DATE"), Timestamp.class);
+        List<Record> rows = dsl.select(view.LEVEL_DATE, expirationDate, view.LEVEL_UNIT,
+                        view.CONSTANT_LEVEL, view.INTERVAL_ORIGIN, view.CALENDAR_INTERVAL,
+                        view.TIME_INTERVAL, view.INTERPOLATE, view.CALENDAR_OFFSET,
+                        view.TIME_OFFSET, view.SEASONAL_LEVEL, view.TSID)
+                .from(view)
+                .where(DSL.upper(view.OFFICE_ID).eq(officeId.toUpperCase()))
+                .and(DSL.upper(view.LOCATION_LEVEL_ID).eq(locationLevelId.toUpperCase()))
+                .and(view.ATTRIBUTE_ID.isNull())
+                .and(view.UNIT_SYSTEM.eq("SI").or(view.TSID.isNotNull()))
+                .orderBy(view.LEVEL_DATE)
+                .fetch()
+                .into(Record.class);
+        if (rows.isEmpty()) {
+            return LocationLevelDefinition.databaseOnly(zoneId);
+        }
+
+        // one version per level date, seasonal levels have a row per value
+        Map<Timestamp, List<Record>> versions = new LinkedHashMap<>();
+        for (Record row : rows) {
+            if (row.get(view.TSID) != null) {
+                return LocationLevelDefinition.databaseOnly(zoneId);
+            }
+            versions.computeIfAbsent(row.get(view.LEVEL_DATE), k -> new ArrayList<>()).add(row);
+        }
+        String unit = rows.get(0).get(view.LEVEL_UNIT);
+        List<LocationLevelDefinition.Period> periods = new ArrayList<>();
+        for (Map.Entry<Timestamp, List<Record>> version : versions.entrySet()) {
+            List<Record> versionRows = version.getValue();
+            Record first = versionRows.get(0);
+            if (!unit.equals(first.get(view.LEVEL_UNIT))) {
+                return LocationLevelDefinition.databaseOnly(zoneId);
+            }
+            long effective = version.getKey().getTime();
+            Timestamp expiration = first.get(expirationDate);
+            Long expires = expiration == null ? null : expiration.getTime();
+            Double constant = first.get(view.CONSTANT_LEVEL);
+            if (constant != null) {
+                periods.add(LocationLevelDefinition.Period.constant(effective, expires, constant));
+                continue;
+            }
+            Timestamp origin = first.get(view.INTERVAL_ORIGIN);
+            if (origin == null) {
+                return LocationLevelDefinition.databaseOnly(zoneId);
+            }
+            versionRows.sort(Comparator
+                    .comparingInt((Record r) -> parseMonths(r.get(view.CALENDAR_OFFSET)))
+                    .thenComparingLong(r -> parseMinutes(r.get(view.TIME_OFFSET))));
+            int size = versionRows.size();
+            int[] offsetMonths = new int[size];
+            long[] offsetMinutes = new long[size];
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                Record row = versionRows.get(i);
+                Double value = row.get(view.SEASONAL_LEVEL);
+                if (value == null) {
+                    return LocationLevelDefinition.databaseOnly(zoneId);
+                }
+                offsetMonths[i] = parseMonths(row.get(view.CALENDAR_OFFSET));
+                offsetMinutes[i] = parseMinutes(row.get(view.TIME_OFFSET));
+                values[i] = value;
+            }
+            DayToSecond timeInterval = first.get(view.TIME_INTERVAL);
+            String interpolate = first.get(view.INTERPOLATE);
+            periods.add(LocationLevelDefinition.Period.seasonal(effective, expires,
+                    origin.getTime(), parseMonths(first.get(view.CALENDAR_INTERVAL)),
+                    timeInterval == null ? 0L : Math.round(timeInterval.getTotalMinutes()),
+                    interpolate == null || OracleTypeMap.parseBool(interpolate),
+                    offsetMonths, offsetMinutes, values));
+        }
+        return LocationLevelDefinition.local(zoneId, unit, periods);
+    }
+
+    private static final Pattern YEAR_TO_MONTH = Pattern.compile("\\s*([+-])?(\\d+)-(\\d+)\\s*");
+    private static final Pattern DAY_TO_SECOND =
+            Pattern.compile("\\s*([+-])?(\\d+) (\\d+):(\\d+)(?::(\\d+)(?:\\.\\d*)?)?\\s*");
+
+    /**
+     * @param yearToMonth an Oracle year to month interval, e.g. +01-06
+     * @return the interval in months, 0 if null
+     */
+    static int parseMonths(String yearToMonth) {
+        if (yearToMonth == null) {
+            return 0;
+        }
+        Matcher matcher = YEAR_TO_MONTH.matcher(yearToMonth);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unexpected calendar interval: " + yearToMonth);
+        }
+        int months = Integer.parseInt(matcher.group(2)) * 12 + Integer.parseInt(matcher.group(3));
+        return "-".equals(matcher.group(1)) ? -months : months;
+    }
+
+    /**
+     * @param dayToSecond an Oracle day to second interval, e.g. +000 06:30:00
+     * @return the interval in whole minutes, 0 if null
+     */
+    static long parseMinutes(String dayToSecond) {
+        if (dayToSecond == null) {
+            return 0L;
+        }
+        Matcher matcher = DAY_TO_SECOND.matcher(dayToSecond);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unexpected time interval: " + dayToSecond);
+        }
+        long minutes = Long.parseLong(matcher.group(2)) * 1440L
+                + Long.parseLong(matcher.group(3)) * 60L
+                + Long.parseLong(matcher.group(4));
+        return "-".equals(matcher.group(1)) ? -minutes : minutes;
+    }
+
+    /**
+     * Unit conversions of levels are linear, so they are reduced to a scale and an offset
+     * that are applied to each value.
+     *
+     * @return the conversion, or null if there is none or it is not linear
+     */
+    static DoubleUnaryOperator unitConversion(String fromUnit, String toUnit) {
+        if (fromUnit == null || toUnit == null) {
+            return null;
+        }
+        if (fromUnit.equals(toUnit)) {
+            return DoubleUnaryOperator.identity();
+        }
+        try {
+            if (!Units.canConvertBetweenUnits(fromUnit, toUnit)) {
+                return null;
+            }
+            double offset = Units.convertUnits(0.0, fromUnit, toUnit);
+            double scale = Units.convertUnits(1.0, fromUnit, toUnit) - offset;
+            double check = Units.convertUnits(1000.0, fromUnit, toUnit);
+            if (Math.abs(check - (1000.0 * scale + offset)) > 1e-9 * Math.max(1.0, Math.abs(check))) {
+                return null;
+            }
+            return value -> value * scale + offset;
+        } catch (RuntimeException ex) {
+            logger.log(Level.FINE, ex, () -> "No conversion from " + fromUnit + " to " + toUnit);
+            return null;
+        }
+    }
+
     private static TimeSeries buildTimeSeries(ILocationLevelRef levelRef, Interval interval,
                                               ZTSV_ARRAY locLvlValues, ZoneId locationTimeZone) {
+        int size = locLvlValues.size();
+        long[] times = new long[size];
+        double[] values = new double[size];
+        int[] qualities = new int[size];
+        for (int i = 0; i < size; i++) {
+            ZTSV_TYPE tsv = locLvlValues.get(i);
+            times[i] = tsv.getDATE_TIME().getTime();
+            Double value = tsv.getVALUE();
+            values[i] = value == null ? Double.NaN : value;
+            BigDecimal qualityCode = tsv.getQUALITY_CODE();
+            if (qualityCode != null) {
+                qualities[i] = qualityCode.intValue();
+            }
+        }
+        return buildTimeSeries(levelRef, interval, times, values, qualities, locationTimeZone);
+    }
+
+    /**
+     * @param values NaN where there is no value
+     */
+    private static TimeSeries buildTimeSeries(ILocationLevelRef levelRef, Interval interval,
+                                              long[] times, double[] values, int[] qualities,
+                                              ZoneId locationTimeZone) {
         String timeSeriesId = levelRef.getLocationRef().getLocationId() + "." + levelRef.getParameter().getParameter()
                 + "." + levelRef.getParameterType().getParameterType() + "." + interval.getInterval() + "."
                 + levelRef.getDuration().toString() + "." + levelRef.getSpecifiedLevel().getId();
-        int size = locLvlValues.size();
+        int size = times.length;
         String levelUnits = levelRef.getParameter().getUnitsString();
         String officeId = levelRef.getOfficeId();
-        Instant start = locLvlValues.get(0).getDATE_TIME().toInstant();
-        Instant end = locLvlValues.get(size - 1).getDATE_TIME().toInstant();
-        ZonedDateTime firstValueTime = ZonedDateTime.ofInstant(start, NumericalConstants.UTC_ZONEID);
-        ZonedDateTime lastValueTime = ZonedDateTime.ofInstant(end, NumericalConstants.UTC_ZONEID);
+        ZonedDateTime firstValueTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(times[0]),
+                NumericalConstants.UTC_ZONEID);
+        ZonedDateTime lastValueTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(times[size - 1]),
+                NumericalConstants.UTC_ZONEID);
         TimeSeries timeSeries = new TimeSeries(null, size, size, timeSeriesId,
                 officeId, firstValueTime, lastValueTime, levelUnits,
                 java.time.Duration.ofSeconds(interval.getSeconds()),
                 null, null, locationTimeZone.getId(), null, VersionType.UNVERSIONED);
-        for (ZTSV_TYPE tsv : locLvlValues) {
-            Timestamp dateTime = tsv.getDATE_TIME();
-            Double value = tsv.getVALUE();
-            if (value == null) {
-                value = NumericalConstants.HEC_UNDEFINED_DOUBLE;
-            }
-            BigDecimal qualityCode = tsv.getQUALITY_CODE();
-            int quality = 0;
-            if (qualityCode != null) {
-                quality = qualityCode.intValue();
-            }
-            timeSeries.addValue(dateTime, value, quality);
+        for (int i = 0; i < size; i++) {
+            double value = Double.isNaN(values[i]) ? NumericalConstants.HEC_UNDEFINED_DOUBLE
+                    : values[i];
+            timeSeries.addValue(new Timestamp(times[i]), value, qualities[i]);
         }
         return timeSeries;
     }
 
-    private ZTSV_ARRAY buildTsvArray(Instant start, Instant end, Interval interval, ZoneId locationTimeZone) {
-        ZTSV_ARRAY retVal = new ZTSV_ARRAY();
+    /**
+     * @return the time of each step from start to end inclusive, in epoch milliseconds
+     */
+    static long[] buildTimes(Instant start, Instant end, Interval interval, ZoneId locationTimeZone) {
         Interval iterateInterval = interval;
         if (interval.isIrregular()) {
             iterateInterval = IntervalFactory.findAny(isRegular().and(equalsName(interval.getInterval())))
                     .orElse(IntervalFactory.regular1Day());
         }
+        long[] retVal = new long[1024];
+        int size = 0;
         try {
-
             Instant time = start;
             while (time.isBefore(end) || time.equals(end)) {
-                retVal.add(new ZTSV_TYPE(Timestamp.from(time), null, null));
+                if (size == retVal.length) {
+                    retVal = Arrays.copyOf(retVal, size * 2);
+                }
+                retVal[size++] = time.toEpochMilli();
                 time = iterateInterval.getNextIntervalTime(time, locationTimeZone);
             }
         } catch (mil.army.usace.hec.metadata.DataSetIllegalArgumentException ex) {
             throw new IllegalArgumentException("Error building time series intervals for interval id: " + interval, ex);
         }
+        return Arrays.copyOf(retVal, size);
+    }
+
+    private static ZTSV_ARRAY buildTsvArray(long[] times) {
+        ZTSV_ARRAY retVal = new ZTSV_ARRAY();
+        for (long time : times) {
+            retVal.add(new ZTSV_TYPE(new Timestamp(time), null, null));
+        }
         return retVal;
     }
 }
@@ -0,0 +1,55 @@
+package cwms.cda.data.dao;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Outcome of one item of a bulk location load.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+public final class LocationStoreStatus {
+    public enum Status {
+        STORED,
+        RENAMED,
+        FAILED
+    }
+
+    private final int index;
+    private final String name;
+    private final Status status;
+    private final String message;
+
+    private LocationStoreStatus(int index, String name, Status status, String message) {
+        this.index = index;
+        this.name = name;
+        this.status = status;
+        this.message = message;
+    }
+
+    public static LocationStoreStatus stored(LocationUpsert item) {
+        return new LocationStoreStatus(item.getIndex(), item.getLocation().getName(),
+                item.getRenameFrom() == null ? Status.STORED : Status.RENAMED, null);
+    }
+
+    public static LocationStoreStatus failed(int index, String name, String message) {
+        return new LocationStoreStatus(index, name, Status.FAILED, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
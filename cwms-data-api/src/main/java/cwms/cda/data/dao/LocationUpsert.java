@@ -0,0 +1,35 @@
+package cwms.cda.data.dao;
+
+import cwms.cda.data.dto.Location;
+
+/**
+ * One item of a bulk location load: the location to store and, when it is being renamed, the
+ * name it is stored under now.
+ */
+public final class LocationUpsert {
+    private final int index;
+    private final Location location;
+    private final String renameFrom;
+
+    /**
+     * @param index position of the item in the request, reported back with its status
+     * @param renameFrom current name of the location, null to store it under its own name
+     */
+    public LocationUpsert(int index, Location location, String renameFrom) {
+        this.index = index;
+        this.location = location;
+        this.renameFrom = renameFrom;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+
+    public String getRenameFrom() {
+        return renameFrom;
+    }
+}
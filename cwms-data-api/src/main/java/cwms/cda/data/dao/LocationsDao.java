@@ -24,9 +24,11 @@
 
 package cwms.cda.data.dao;
 
+import cwms.cda.api.enums.TotalMode;
 import cwms.cda.data.dto.Catalog;
 import cwms.cda.data.dto.Location;
 import java.io.IOException;
+import java.util.List;
 import org.geojson.FeatureCollection;
 
 public interface LocationsDao {
@@ -42,9 +44,46 @@ public interface LocationsDao {
 
     void renameLocation(String oldLocationName, Location renamedLocation) throws IOException;
 
-    FeatureCollection buildFeatureCollection(String names, String units, String officeId);
+    /**
+     * Stores or renames every location of the batch.  A location that fails does not stop the
+     * others.
+     *
+     * @return the outcome of each item, in batch order
+     */
+    List<LocationStoreStatus> storeLocations(List<LocationUpsert> batch);
 
+    default FeatureCollection buildFeatureCollection(String names, String units,
+                                                     String officeId) {
+        return buildFeatureCollection(names, units, officeId, null);
+    }
+
+    /**
+     * @param names location ids separated by |, null for all
+     * @param filter where the locations have to be, null for anywhere
+     */
+    FeatureCollection buildFeatureCollection(String names, String units, String officeId,
+                                             SpatialFilter filter);
+
+    default Catalog getLocationCatalog(String cursor, int pageSize, String unitSystem,
+                                       String office, String idLike, String categoryLike,
+                                       String groupLike, String boundingOfficeLike) {
+        return getLocationCatalog(cursor, pageSize, unitSystem, office, idLike, categoryLike,
+                groupLike, boundingOfficeLike, TotalMode.EXACT);
+    }
+
+    /**
+     * @param totalMode how the total is worked out on the first page; later pages carry the
+     *     first page's total in their cursor
+     */
     Catalog getLocationCatalog(String cursor, int pageSize, String unitSystem, String office,
                                String idLike, String categoryLike, String groupLike,
-                               String boundingOfficeLike);
+                               String boundingOfficeLike, TotalMode totalMode);
+
+    /**
+     * Hands every entry matching the filters, with its aliases, to the handler, read with a
+     * single forward-only query instead of page by page.  No total is counted.
+     */
+    void exportLocationCatalog(String unitSystem, String office, String idLike,
+                               String categoryLike, String groupLike, String boundingOfficeLike,
+                               CatalogEntryHandler handler) throws IOException;
 }
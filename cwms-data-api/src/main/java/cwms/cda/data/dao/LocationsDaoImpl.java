@@ -42,6 +42,7 @@ import static org.jooq.impl.DSL.select;
 import static usace.cwms.db.jooq.codegen.tables.AV_LOC.AV_LOC;
 
 import cwms.cda.api.enums.Nation;
+import cwms.cda.api.enums.TotalMode;
 import cwms.cda.api.enums.Unit;
 import cwms.cda.api.errors.NotFoundException;
 import cwms.cda.data.dto.Catalog;
@@ -51,9 +52,12 @@ import cwms.cda.data.dto.catalog.LocationAlias;
 import cwms.cda.data.dto.catalog.LocationCatalogEntry;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -68,10 +72,13 @@ import org.jetbrains.annotations.NotNull;
 import org.jooq.CommonTableExpression;
 import org.jooq.Condition;
 import org.jooq.Configuration;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Record1;
+import org.jooq.ResultQuery;
+import org.jooq.SQLDialect;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectSeekStep3;
 import org.jooq.Table;
@@ -87,6 +94,7 @@ import usace.cwms.db.jooq.codegen.tables.AV_LOC2;
 public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao {
     private static final Logger logger = Logger.getLogger(LocationsDaoImpl.class.getName());
     private static final long DELETED_TS_MARKER = 0L;
+    private static final int EXPORT_FETCH_SIZE = 5000;
 
     public LocationsDaoImpl(DSLContext dsl) {
         super(dsl);
@@ -184,6 +192,7 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                 CWMS_LOC_PACKAGE.call_DELETE_LOCATION(configuration, locationName, DELETE_LOC.getRule(), officeId);
             }
         });
+        LocationFeatureIndex.invalidate(officeId);
     }
 
     @Override
@@ -193,23 +202,12 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
             connection(dsl, c -> {
                 setOffice(c,location);
                 CwmsDbLoc locJooq = CwmsDbServiceLookup.buildCwmsDb(CwmsDbLoc.class, c);
-                String elevationUnits = Unit.METER.getValue();
-                locJooq.store(c, location.getOfficeId(), location.getName(),
-                        location.getStateInitial(), location.getCountyName(),
-                        location.getTimezoneName(), location.getLocationType(),
-                        location.getLatitude(), location.getLongitude(), location.getElevation(),
-                        elevationUnits, location.getVerticalDatum(),
-                        location.getHorizontalDatum(), location.getPublicName(),
-                        location.getLongName(),
-                        location.getDescription(), location.getActive(),
-                        location.getLocationKind(), location.getMapLabel(),
-                        location.getPublishedLatitude(),
-                        location.getPublishedLongitude(), location.getBoundingOfficeId(),
-                        location.getNation().getName(), location.getNearestCity(), true);
-
+                store(locJooq, c, location);
             });
         } catch (DataAccessException ex) {
             throw new IOException("Failed to store Location", ex);
+        } finally {
+            LocationFeatureIndex.invalidate(location.getOfficeId());
         }
     }
 
@@ -221,49 +219,151 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
             connection(dsl, c -> {
                 setOffice(c,renamedLocation);
                 CwmsDbLoc locJooq = CwmsDbServiceLookup.buildCwmsDb(CwmsDbLoc.class, c);
-                String elevationUnits = Unit.METER.getValue();
-                locJooq.rename(c, renamedLocation.getOfficeId(), oldLocationName,
-                        renamedLocation.getName(), renamedLocation.getStateInitial(),
-                        renamedLocation.getCountyName(), renamedLocation.getTimezoneName(),
-                        renamedLocation.getLocationType(),
-                        renamedLocation.getLatitude(), renamedLocation.getLongitude(),
-                        renamedLocation.getElevation(), elevationUnits,
-                        renamedLocation.getVerticalDatum(), renamedLocation.getHorizontalDatum(),
-                        renamedLocation.getPublicName(),
-                        renamedLocation.getLongName(), renamedLocation.getDescription(),
-                        renamedLocation.getActive(), true);
+                rename(locJooq, c, oldLocationName, renamedLocation);
             });
         } catch (DataAccessException ex) {
             throw new IOException("Failed to rename Location", ex);
+        } finally {
+            LocationFeatureIndex.invalidate(renamedLocation.getOfficeId());
+            TimeSeriesIdentifierCache.invalidateLocation(renamedLocation.getOfficeId(),
+                    oldLocationName);
+        }
+    }
+
+    /**
+     * The whole batch is one transaction on one connection, the session office is only set
+     * when it changes from one item to the next.  A failing call is rolled back on its own by
+     * the database, so the item is reported and the rest of the batch is still committed.
+     */
+    @Override
+    public List<LocationStoreStatus> storeLocations(List<LocationUpsert> batch) {
+        List<LocationStoreStatus> retval = new ArrayList<>(batch.size());
+        connection(dsl, c -> {
+            CwmsDbLoc locJooq = CwmsDbServiceLookup.buildCwmsDb(CwmsDbLoc.class, c);
+            DSL.using(c, SQLDialect.ORACLE18C).transaction(trx -> {
+                String sessionOffice = null;
+                for (LocationUpsert item : batch) {
+                    Location location = item.getLocation();
+                    try {
+                        location.validate();
+                        if (!location.getOfficeId().equalsIgnoreCase(sessionOffice)) {
+                            setOffice(c, location);
+                            sessionOffice = location.getOfficeId();
+                        }
+                        if (item.getRenameFrom() == null) {
+                            store(locJooq, c, location);
+                        } else {
+                            rename(locJooq, c, item.getRenameFrom(), location);
+                        }
+                        retval.add(LocationStoreStatus.stored(item));
+                    } catch (SQLException | RuntimeException ex) {
+                        logger.log(Level.FINE, ex, () -> "Failed to store location "
+                                + location.getName());
+                        retval.add(LocationStoreStatus.failed(item.getIndex(),
+                                location.getName(), failureMessage(ex)));
+                    }
+                }
+            });
+        });
+        batch.stream()
+                .map(item -> item.getLocation().getOfficeId())
+                .filter(Objects::nonNull)
+                .map(String::toUpperCase)
+                .distinct()
+                .forEach(LocationFeatureIndex::invalidate);
+        batch.stream()
+                .filter(item -> item.getRenameFrom() != null)
+                .forEach(item -> TimeSeriesIdentifierCache.invalidateLocation(
+                        item.getLocation().getOfficeId(), item.getRenameFrom()));
+        return retval;
+    }
+
+    private static String failureMessage(Exception ex) {
+        Throwable cause = ex instanceof RuntimeException
+                ? wrapException((RuntimeException) ex) : ex;
+        if (cause instanceof DataAccessException && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause.getLocalizedMessage();
+    }
+
+    private static void store(CwmsDbLoc locJooq, Connection c, Location location)
+            throws SQLException {
+        String elevationUnits = Unit.METER.getValue();
+        locJooq.store(c, location.getOfficeId(), location.getName(),
+                location.getStateInitial(), location.getCountyName(),
+                location.getTimezoneName(), location.getLocationType(),
+                location.getLatitude(), location.getLongitude(), location.getElevation(),
+                elevationUnits, location.getVerticalDatum(),
+                location.getHorizontalDatum(), location.getPublicName(),
+                location.getLongName(),
+                location.getDescription(), location.getActive(),
+                location.getLocationKind(), location.getMapLabel(),
+                location.getPublishedLatitude(),
+                location.getPublishedLongitude(), location.getBoundingOfficeId(),
+                location.getNation().getName(), location.getNearestCity(), true);
     }
 
+    private static void rename(CwmsDbLoc locJooq, Connection c, String oldLocationName,
+                               Location renamedLocation) throws SQLException {
+        String elevationUnits = Unit.METER.getValue();
+        locJooq.rename(c, renamedLocation.getOfficeId(), oldLocationName,
+                renamedLocation.getName(), renamedLocation.getStateInitial(),
+                renamedLocation.getCountyName(), renamedLocation.getTimezoneName(),
+                renamedLocation.getLocationType(),
+                renamedLocation.getLatitude(), renamedLocation.getLongitude(),
+                renamedLocation.getElevation(), elevationUnits,
+                renamedLocation.getVerticalDatum(), renamedLocation.getHorizontalDatum(),
+                renamedLocation.getPublicName(),
+                renamedLocation.getLongName(), renamedLocation.getDescription(),
+                renamedLocation.getActive(), true);
+    }
+
+    /**
+     * Served from the {@link LocationFeatureIndex} of the office.  Without an office every
+     * office is read from AV_LOC, which only works without a filter.
+     */
     @Override
-    public FeatureCollection buildFeatureCollection(String names, String units, String officeId) {
+    public FeatureCollection buildFeatureCollection(String names, String units, String officeId,
+                                                    SpatialFilter filter) {
         if (!"EN".equals(units)) {
             units = "SI";
         }
 
-        SelectConditionStep<Record> selectQuery = dsl.select(asterisk())
-                .from(AV_LOC)
-                .where(AV_LOC.DB_OFFICE_ID.eq(officeId))
-                .and(AV_LOC.UNIT_SYSTEM.eq(units));
-
+        List<String> identifiers = null;
         if (names != null && !names.isEmpty()) {
-            List<String> identifiers = new ArrayList<>();
+            identifiers = new ArrayList<>();
             if (names.contains("|")) {
                 String[] namePieces = names.split("\\|");
                 identifiers.addAll(Arrays.asList(namePieces));
             } else {
                 identifiers.add(names);
             }
-
-            selectQuery = selectQuery.and(AV_LOC.LOCATION_ID.in(identifiers));
         }
 
-        List<Feature> features = selectQuery.stream()
-                .map(LocationsDaoImpl::buildFeatureFromAvLocRecord)
-                .collect(toList());
+        List<Feature> features;
+        if (officeId != null) {
+            LocationFeatureIndex index = LocationFeatureIndex.get(dsl, officeId, units);
+            features = Arrays.stream(index.select(filter, identifiers == null ? null
+                            : new HashSet<>(identifiers)))
+                    .mapToObj(index::getFeature)
+                    .collect(toList());
+        } else {
+            if (filter != null) {
+                throw new IllegalArgumentException("Locations can only be filtered by their "
+                        + "coordinates within an office");
+            }
+            SelectConditionStep<Record> selectQuery = dsl.select(asterisk())
+                    .from(AV_LOC)
+                    .where(AV_LOC.DB_OFFICE_ID.eq(officeId))
+                    .and(AV_LOC.UNIT_SYSTEM.eq(units));
+            if (identifiers != null) {
+                selectQuery = selectQuery.and(AV_LOC.LOCATION_ID.in(identifiers));
+            }
+            features = selectQuery.stream()
+                    .map(LocationsDaoImpl::buildFeatureFromAvLocRecord)
+                    .collect(toList());
+        }
         FeatureCollection collection = new FeatureCollection();
         collection.setFeatures(features);
 
@@ -311,7 +411,8 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
 
     @Override
     public Catalog getLocationCatalog(String page, int pageSize, String unitSystem, String office,
-                                      String idLike, String categoryLike, String groupLike, String boundingOfficeLike) {
+                                      String idLike, String categoryLike, String groupLike, String boundingOfficeLike,
+                                      TotalMode totalMode) {
 
         // Parse provided page and pull out the parameters
 
@@ -329,11 +430,13 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
             boundingOfficeLike = warnIfMismatch(BOUNDING_OFFICE_LIKE, catPage.getBoundingOfficeLike(), boundingOfficeLike);
         }
 
-        return getLocationCatalog(catPage, pageSize, unitSystem, office, idLike, categoryLike, groupLike, boundingOfficeLike);
+        return getLocationCatalog(catPage, pageSize, unitSystem, office, idLike, categoryLike, groupLike,
+                boundingOfficeLike, totalMode);
     }
 
     private Catalog getLocationCatalog(Catalog.CatalogPage catPage, int pageSize, String unitSystem, String office,
-                                      String idLike, String categoryLike, String groupLike, String boundingOfficeLike) {
+                                      String idLike, String categoryLike, String groupLike, String boundingOfficeLike,
+                                      TotalMode totalMode) {
 
         final AV_LOC2 avLoc2 = AV_LOC2.AV_LOC2;  // ref the view just shorten the jooq
         //Now querying against AV_LOC2 as it gives us back the same information as querying against
@@ -345,7 +448,7 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
         // "condition" needs to be used by the count query and the results query.
         Condition condition = buildWhereCondition(unitSystem, office, idLike, categoryLike, groupLike, boundingOfficeLike);
 
-        int total;
+        Integer total;
         String cursorLocation; // The location-id of the cursor in the results
         String cursorOffice; // If the user did not provide a value in the "office" filter then
         // results may contain locations from multiple offices. cursorOffice will track the office
@@ -357,8 +460,10 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
             SelectConditionStep<Record1<Integer>> count = dsl.select(count(asterisk()))
                 .from(avLoc2)
                 .where(condition);
-            logger.log(Level.FINER, () -> count.getSQL(ParamType.INLINED));
-            total = count.fetchOne().value1();
+            total = PageTotals.total(totalMode, () -> {
+                logger.log(Level.FINER, () -> count.getSQL(ParamType.INLINED));
+                return count.fetchOne().value1();
+            }, "locations", unitSystem, office, idLike, categoryLike, groupLike, boundingOfficeLike);
         } else {
             cursorLocation = catPage.getCursorId();
             cursorOffice = catPage.getCurOffice();
@@ -417,6 +522,49 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                  null, null, boundingOfficeLike);
     }
 
+    @Override
+    public void exportLocationCatalog(String unitSystem, String office, String idLike,
+                                      String categoryLike, String groupLike,
+                                      String boundingOfficeLike, CatalogEntryHandler handler)
+            throws IOException {
+        final AV_LOC2 avLoc2 = AV_LOC2.AV_LOC2;
+        final AV_LOC2 alias = avLoc2.as("alias");
+        Objects.requireNonNull(idLike, "A value must be provided for the idLike field. Specifiy .* if you don't care.");
+        Condition condition = buildWhereCondition(unitSystem, office, idLike, categoryLike,
+                groupLike, boundingOfficeLike);
+
+        // Each location is followed by its aliases, so an entry is complete as soon as the
+        // next location starts.
+        ResultQuery<Record> query = dsl.select(alias.fields())
+            .from(avLoc2)
+            .join(alias).on(alias.LOCATION_CODE.eq(avLoc2.LOCATION_CODE)
+                    .and(alias.UNIT_SYSTEM.eq(avLoc2.UNIT_SYSTEM)))
+            .where(condition.and(avLoc2.ALIASED_ITEM.isNull()))
+            .orderBy(avLoc2.DB_OFFICE_ID.asc(), avLoc2.LOCATION_ID.asc(),
+                    alias.ALIASED_ITEM.asc().nullsFirst());
+        logger.log(Level.FINER, () -> query.getSQL(ParamType.INLINED));
+
+        try (Cursor<Record> cursor = query.fetchSize(EXPORT_FETCH_SIZE).fetchLazy()) {
+            usace.cwms.db.jooq.codegen.tables.records.AV_LOC2 current = null;
+            Set<LocationAlias> aliases = new HashSet<>();
+            for (Record record : cursor) {
+                usace.cwms.db.jooq.codegen.tables.records.AV_LOC2 row = record.into(alias);
+                if (row.getALIASED_ITEM() != null) {
+                    aliases.add(buildLocationAlias(row));
+                    continue;
+                }
+                if (current != null) {
+                    handler.handle(buildCatalogEntry(current, aliases));
+                }
+                current = row;
+                aliases = new HashSet<>();
+            }
+            if (current != null) {
+                handler.handle(buildCatalogEntry(current, aliases));
+            }
+        }
+    }
+
     private static Condition addCursorConditions(Condition condition, String cursorOffice, String cursorLocation) {
         if (cursorOffice != null) {
             Condition officeEqualCur = DSL.upper(AV_LOC2.AV_LOC2.DB_OFFICE_ID).eq(cursorOffice.toUpperCase());
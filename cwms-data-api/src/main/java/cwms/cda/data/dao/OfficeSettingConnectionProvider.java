@@ -1,5 +1,6 @@
 package cwms.cda.data.dao;
 
+import cwms.cda.datasource.ConnectionState;
 import java.sql.Connection;
 import java.sql.SQLException;
 import javax.sql.DataSource;
@@ -23,19 +24,24 @@ class OfficeSettingConnectionProvider extends DataSourceConnectionProvider {
         Connection conn = super.acquire();
         try {
             DSLContext dsl = DSL.using(conn, SQLDialect.ORACLE18C);
-            CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(dsl.configuration(), officeId);
+            ConnectionState.apply(conn, ConnectionState.Setting.OFFICE, officeId,
+                    () -> CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(dsl.configuration(), officeId));
             return conn;
-        } catch (Exception e) {
-            try {
-                conn.close();
-            } catch (SQLException ex) {
-                e.addSuppressed(new DataAccessException("Trying to set the session office id to " + officeId + " caused an exception."
-                        + " Attempting to close the connection used in order to return it to the pool also triggered an exception.", ex));
-            }
-            throw e;
+        } catch (SQLException e) {
+            throw closeAfterFailure(conn, new DataAccessException(
+                    "Unable to set session office id to " + officeId, e));
+        } catch (RuntimeException e) {
+            throw closeAfterFailure(conn, e);
         }
     }
 
-
-
+    private RuntimeException closeAfterFailure(Connection conn, RuntimeException e) {
+        try {
+            conn.close();
+        } catch (SQLException ex) {
+            e.addSuppressed(new DataAccessException("Trying to set the session office id to " + officeId + " caused an exception."
+                    + " Attempting to close the connection used in order to return it to the pool also triggered an exception.", ex));
+        }
+        return e;
+    }
 }
@@ -0,0 +1,67 @@
+package cwms.cda.data.dao;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.CdaMetricsContextListener;
+import cwms.cda.api.enums.TotalMode;
+import cwms.cda.helpers.ExpiringCache;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Works out the total reported on the first page of a paged query.  Exact counts are kept
+ * for {@value #CACHE_TTL_KEY} seconds so an {@link TotalMode#ESTIMATED} total can reuse a
+ * recent count of the same filter instead of counting again.  Filters that include a time
+ * window should pass its bounds through {@link #windowKey(long)} so a window that moves with
+ * the clock still finds the recent count.
+ */
+final class PageTotals {
+    public static final String CACHE_SIZE_KEY = "cwms.dataapi.page.total.cache.size";
+    public static final String CACHE_TTL_KEY = "cwms.dataapi.page.total.cache.ttl.seconds";
+
+    private static final Duration TTL = Duration.ofSeconds(Long.getLong(CACHE_TTL_KEY, 600L));
+
+    private static final ExpiringCache<String, Integer> counts =
+        new ExpiringCache<>(CdaMetricsContextListener.METRIC_REGISTRY,
+                            MetricRegistry.name(PageTotals.class, "cache"),
+                            Integer.getInteger(CACHE_SIZE_KEY, 1000),
+                            TTL);
+
+    private PageTotals() {
+    }
+
+    /**
+     * @param mode null is treated as {@link TotalMode#EXACT}
+     * @param count runs the exact count
+     * @param filter everything that decides which rows are counted
+     * @return the total, or null for {@link TotalMode#NONE}
+     */
+    static Integer total(TotalMode mode, Supplier<Integer> count, Object... filter) {
+        if (mode == TotalMode.NONE) {
+            return null;
+        }
+        String key = Arrays.stream(filter)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        if (mode != TotalMode.ESTIMATED) {
+            counts.invalidate(key);
+        }
+        return counts.get(key, k -> count.get());
+    }
+
+    /**
+     * @param millis a bound of the time window
+     * @return the bound truncated to the cache lifetime, for use in the filter
+     */
+    static long windowKey(long millis) {
+        return windowKey(millis, TTL.toMillis());
+    }
+
+    static long windowKey(long millis, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            return millis;
+        }
+        return Math.floorDiv(millis, ttlMillis) * ttlMillis;
+    }
+}
@@ -1,5 +1,6 @@
 package cwms.cda.data.dao;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -12,8 +13,10 @@ import cwms.cda.data.dto.Pools;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Result;
+import org.jooq.Row6;
 import org.jooq.exception.TooManyRowsException;
 import org.jooq.impl.DSL;
 
@@ -177,7 +180,7 @@ public class PoolDao extends JooqDao<PoolType> {
 							   String bottomLevelMask, String topLevelMask, boolean includeExplicit,
 							   boolean includeImplicit, String officeIdMask) {
 		Integer total = null;
-		int offset = 0;
+		String pageKey = "";
 
 		AV_POOL view = AV_POOL.AV_POOL;
 
@@ -187,7 +190,7 @@ public class PoolDao extends JooqDao<PoolType> {
 			logger.fine( () -> "decoded cursor: " + Arrays.toString(parts));
 
 			if (parts.length > 2) {
-				offset = Integer.parseInt(parts[0]);
+				pageKey = parts[0];
 				if (!"null".equals(parts[1])) {
 					try {
 						total = Integer.valueOf(parts[1]);
@@ -202,17 +205,56 @@ public class PoolDao extends JooqDao<PoolType> {
 		List<String> types = getTypes(includeExplicit, includeImplicit);
 		Condition condition = getCondition(projectIdMask, poolNameMask, bottomLevelMask, topLevelMask, officeIdMask, types);
 
-		List<Pool> pools = dsl.select(DSL.asterisk()).from(view)
+		// Pools without an attribute sort last, same as Oracle's default for nulls in ascending order.
+		Field<Integer> attributeIsNull = DSL.when(view.ATTRIBUTE.isNull(), 1).otherwise(0);
+		Field<BigDecimal> attribute = DSL.coalesce(view.ATTRIBUTE.cast(BigDecimal.class), BigDecimal.ZERO);
+		Row6<String, String, String, Integer, BigDecimal, String> sortKey = DSL.row(view.DEFINITION_TYPE,
+				DSL.upper(view.OFFICE_ID), DSL.upper(view.PROJECT_ID), attributeIsNull, attribute,
+				DSL.upper(view.POOL_NAME));
+
+		if (!pageKey.isEmpty()) {
+			// seek past the last pool of the previous page rather than counting rows with OFFSET
+			condition = condition.and(sortKey.gt(decodePoolPageKey(pageKey)));
+		}
+
+		Result<Record> records = dsl.select(DSL.asterisk()).from(view)
 				.where(condition)
 				.orderBy(view.DEFINITION_TYPE,
-						DSL.upper(view.OFFICE_ID), DSL.upper(view.PROJECT_ID), view.ATTRIBUTE, DSL.upper(view.POOL_NAME))
-				.offset(offset)
+						DSL.upper(view.OFFICE_ID), DSL.upper(view.PROJECT_ID), attributeIsNull, attribute,
+						DSL.upper(view.POOL_NAME))
 				.limit(pageSize)
-				.stream().map(r -> toPool(r, true)).collect(toList());
+				.fetch();
 
-		Pools.Builder builder = new Pools.Builder(offset, pageSize, total);
+		List<Pool> pools = records.stream().map(r -> toPool(r, true)).collect(toList());
+
+		Pools.Builder builder = new Pools.Builder(pageKey, pageSize, total);
 		builder.addAll(pools);
+		if (!records.isEmpty() && records.size() == pageSize) {
+			builder.nextPageKey(encodePoolPageKey(records.get(records.size() - 1)));
+		}
 		return builder.build();
 	}
 
+	private static String encodePoolPageKey(Record last) {
+		AV_POOL view = AV_POOL.AV_POOL;
+		Number attribute = last.get(view.ATTRIBUTE.getName(), Number.class);
+		return Pools.encodeCursor(Pools.delimiter, last.get(view.DEFINITION_TYPE),
+				last.get(view.OFFICE_ID).toUpperCase(), last.get(view.PROJECT_ID).toUpperCase(),
+				attribute == null ? 1 : 0, attribute == null ? BigDecimal.ZERO : new BigDecimal(attribute.toString()),
+				last.get(view.POOL_NAME).toUpperCase());
+	}
+
+	private static Row6<String, String, String, Integer, BigDecimal, String> decodePoolPageKey(String pageKey) {
+		String[] parts = Pools.decodeCursor(pageKey);
+		if (parts.length != 6) {
+			throw new IllegalArgumentException("Invalid Pools Page Provided");
+		}
+		try {
+			return DSL.row(parts[0], parts[1], parts[2], Integer.valueOf(parts[3]), new BigDecimal(parts[4]),
+					parts[5]);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid Pools Page Provided", e);
+		}
+	}
+
 }
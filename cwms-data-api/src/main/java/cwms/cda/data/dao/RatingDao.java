@@ -41,6 +41,17 @@ public interface RatingDao {
     RatingSet retrieve(RatingSet.DatabaseLoadMethod method, String officeId, String specificationId,
                        Instant start, Instant end) throws IOException, RatingException;
 
+    /**
+     * Rates, or reverse rates, values with the eagerly loaded rating set for the
+     * specification, reusing a recently loaded set when there is one.
+     *
+     * @param times the time of each value in milliseconds since the epoch
+     * @param reverse when true the values are dependent values and are reverse rated
+     * @throws cwms.cda.api.errors.NotFoundException if there is no such rating
+     */
+    double[] rateCached(String officeId, String specificationId, long[] times, double[] values,
+                        boolean reverse) throws IOException, RatingException;
+
     String retrieveRatings(String format, String names, String unit, String datum, String office,
                            String start, String end, String timezone);
 
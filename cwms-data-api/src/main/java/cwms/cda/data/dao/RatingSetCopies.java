@@ -0,0 +1,60 @@
+package cwms.cda.data.dao;
+
+import hec.data.RatingException;
+import hec.data.cwmsRating.RatingSet;
+import hec.data.cwmsRating.io.RatingSetContainer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Copies of a cached rating set, one per concurrent evaluation.
+ *
+ * <p>A RatingSet is not made for concurrent use: it keeps evaluation state such as its
+ * rating time and default value time in plain fields, and rating does not synchronize.
+ * Instead of queueing every request for a popular rating behind one lock, each evaluation
+ * borrows a copy of its own.  Copies are made from the loaded set, which itself is never
+ * rated with, and up to {@value #MAX_IDLE} idle copies are kept for the next requests.
+ * A copy goes through the set's container form rather than XML, so making one costs a walk
+ * over the tables and no text.
+ */
+final class RatingSetCopies {
+    static final int MAX_IDLE = 4;
+
+    private final RatingSet template;
+    private final Deque<RatingSet> idle = new ArrayDeque<>(MAX_IDLE);
+
+    RatingSetCopies(RatingSet template) {
+        this.template = template;
+    }
+
+    /**
+     * @return a copy no other thread uses until it is released
+     */
+    RatingSet borrow() throws RatingException {
+        synchronized (idle) {
+            RatingSet copy = idle.poll();
+            if (copy != null) {
+                return copy;
+            }
+        }
+        RatingSetContainer data;
+        synchronized (template) {
+            data = template.getData();
+        }
+        return new RatingSet(data);
+    }
+
+    void release(RatingSet copy) {
+        synchronized (idle) {
+            if (idle.size() < MAX_IDLE) {
+                idle.push(copy);
+            }
+        }
+    }
+
+    int idleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+}
@@ -24,9 +24,13 @@
 
 package cwms.cda.data.dao;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import cwms.cda.CdaMetricsContextListener;
+import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.helpers.ExpiringCache;
 import hec.data.RatingException;
 import hec.data.cwmsRating.RatingSet;
 import mil.army.usace.hec.cwms.rating.io.jdbc.ConnectionProvider;
@@ -38,11 +42,28 @@ import usace.cwms.db.jooq.codegen.packages.CWMS_RATING_PACKAGE;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
+    private static final Logger logger = Logger.getLogger(RatingSetDao.class.getName());
 
+    public static final String CACHE_SIZE_KEY = "cwms.dataapi.rating.cache.size";
+    public static final String CACHE_TTL_KEY = "cwms.dataapi.rating.cache.ttl.seconds";
+
+    /**
+     * Eagerly loaded rating sets used for evaluating values, keyed by office and
+     * specification id.  Changes made through this instance drop the affected entries;
+     * changes made elsewhere are picked up once the entry expires.
+     */
+    private static final ExpiringCache<String, RatingSetCopies> ratingSets =
+        new ExpiringCache<>(CdaMetricsContextListener.METRIC_REGISTRY,
+                            MetricRegistry.name(RatingSetDao.class, "ratingset", "cache"),
+                            Integer.getInteger(CACHE_SIZE_KEY, 100),
+                            Duration.ofSeconds(Long.getLong(CACHE_TTL_KEY, 300L)));
 
     public RatingSetDao(DSLContext dsl) {
         super(dsl);
@@ -58,6 +79,7 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 CWMS_RATING_PACKAGE.call_STORE_RATINGS_XML__5(context.configuration(),
                         ratingSetXml, "T", storeTemplate ? "T" : "F");
             });
+            invalidateCached(ratingSetXml);
         } catch (DataAccessException ex) {
             Throwable cause = ex.getCause();
             if (cause instanceof RatingException) {
@@ -69,7 +91,10 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
 
     private static String extractOfficeId(String ratingSet) throws JsonProcessingException {
         XmlMapper xmlMapper = new XmlMapper();
-        JsonNode node = xmlMapper.readTree(ratingSet);
+        return extractOfficeId(xmlMapper.readTree(ratingSet));
+    }
+
+    private static String extractOfficeId(JsonNode node) {
         List<JsonNode> values = node.findValues("office-id");
         String office = "";
         if (!values.isEmpty()) {
@@ -124,6 +149,73 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
         return retval[0];
     }
 
+    @Override
+    public double[] rateCached(String officeId, String specificationId, long[] times,
+                               double[] values, boolean reverse)
+            throws IOException, RatingException {
+        RatingSetCopies copies;
+        try {
+            copies = ratingSets.get(cacheKey(officeId, specificationId), k -> {
+                try {
+                    RatingSet loaded = retrieve(RatingSet.DatabaseLoadMethod.EAGER, officeId,
+                            specificationId, null, null);
+                    return loaded == null ? null : new RatingSetCopies(loaded);
+                } catch (IOException | RatingException e) {
+                    throw new CachedLoadException(e);
+                }
+            });
+        } catch (CachedLoadException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RatingException) {
+                throw (RatingException) cause;
+            }
+            throw (IOException) cause;
+        }
+        if (copies == null) {
+            throw new NotFoundException("No rating " + specificationId + " found for office "
+                    + officeId);
+        }
+
+        RatingSet ratingSet = copies.borrow();
+        try {
+            return reverse ? ratingSet.reverseRate(times, values) : ratingSet.rate(times, values);
+        } finally {
+            copies.release(ratingSet);
+        }
+    }
+
+    private static String cacheKey(String officeId, String specificationId) {
+        return (officeId + "/" + specificationId).toUpperCase();
+    }
+
+    /**
+     * Drops cached rating sets for every specification in the stored document.  If no
+     * specification can be found everything cached for the office is dropped.  The document is
+     * already stored when this runs, so a document that cannot be read here drops the whole
+     * cache instead of failing the request.
+     */
+    private static void invalidateCached(String ratingSetXml) {
+        List<JsonNode> specIds;
+        String office;
+        try {
+            JsonNode node = new XmlMapper().readTree(ratingSetXml);
+            office = extractOfficeId(node);
+            specIds = node.findValues("rating-spec-id");
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.log(Level.WARNING, "Unable to find the stored rating specifications, "
+                    + "dropping all cached rating sets", e);
+            ratingSets.invalidateAll();
+            return;
+        }
+        if (specIds.isEmpty()) {
+            String prefix = cacheKey(office, "");
+            ratingSets.invalidateIf((k, v) -> k.startsWith(prefix));
+        }
+        for (JsonNode specId : specIds) {
+            ratingSets.invalidate(cacheKey(office, specId.asText()));
+        }
+    }
+
     // store/update
     @Override
     public void store(String ratingSetXml, boolean includeTemplate) throws IOException, RatingException {
@@ -134,6 +226,7 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 CWMS_RATING_PACKAGE.call_STORE_RATINGS_XML__5(context.configuration(),
                         ratingSetXml, "F", includeTemplate ? "T" : "F");
             });
+            invalidateCached(ratingSetXml);
         } catch (DataAccessException ex) {
             Throwable cause = ex.getCause();
             if (cause instanceof RatingException) {
@@ -153,6 +246,7 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 endDate, "UTC", officeId
             )
         );
+        ratingSets.invalidate(cacheKey(officeId, specificationId));
     }
 
 
@@ -165,6 +259,15 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 timezone, office);
     }
 
+    /**
+     * Carries checked loader failures out of the cache.
+     */
+    private static final class CachedLoadException extends RuntimeException {
+        private CachedLoadException(Exception cause) {
+            super(cause);
+        }
+    }
+
     private static final class RatingConnectionProvider implements ConnectionProvider {
         private final Connection c;
 
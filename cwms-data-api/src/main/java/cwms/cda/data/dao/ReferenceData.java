@@ -0,0 +1,240 @@
+package cwms.cda.data.dao;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.CdaMetricsContextListener;
+import cwms.cda.data.dto.County;
+import cwms.cda.data.dto.Office;
+import cwms.cda.data.dto.State;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+/**
+ * Snapshot of the reference data that hardly ever changes: offices, states, counties, units,
+ * parameters and time zones.
+ *
+ * <p>One snapshot is shared by the whole process.  It is loaded when the servlet starts and
+ * replaced in the background every {@value #REFRESH_KEY} seconds, so those endpoints are served
+ * from memory without taking a connection.  Each response body is rendered once per snapshot
+ * and kept with a strong ETag.  Until the first load succeeds {@link #current()} is null and
+ * the endpoints read the database as before.
+ */
+public final class ReferenceData {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    public static final String REFRESH_KEY = "cwms.dataapi.reference.refresh.seconds";
+
+    /**
+     * The formats CWMS_CAT renders units, parameters and time zones in.
+     */
+    static final List<String> CATALOG_FORMATS = Arrays.asList("json", "tab", "csv", "xml",
+            "wml2");
+
+    private static final int MAX_BODIES = 256;
+
+    private static final Counter loads = CdaMetricsContextListener.METRIC_REGISTRY.counter(
+            MetricRegistry.name(ReferenceData.class, "loads"));
+    private static final Counter renders = CdaMetricsContextListener.METRIC_REGISTRY.counter(
+            MetricRegistry.name(ReferenceData.class, "renders"));
+
+    private static volatile ReferenceData current;
+    private static ScheduledExecutorService refresher;
+
+    private final List<Office> offices;
+    private final List<Office> officesWithData;
+    private final List<State> states;
+    private final List<County> counties;
+    private final Map<String, String> units;
+    private final Map<String, String> parameters;
+    private final Map<String, String> timeZones;
+    private final ConcurrentMap<String, Body> bodies = new ConcurrentHashMap<>();
+
+    ReferenceData(List<Office> offices, List<Office> officesWithData, List<State> states,
+                  List<County> counties, Map<String, String> units,
+                  Map<String, String> parameters, Map<String, String> timeZones) {
+        this.offices = Collections.unmodifiableList(offices);
+        this.officesWithData = Collections.unmodifiableList(officesWithData);
+        this.states = Collections.unmodifiableList(states);
+        this.counties = Collections.unmodifiableList(counties);
+        this.units = units;
+        this.parameters = parameters;
+        this.timeZones = timeZones;
+    }
+
+    /**
+     * @return the loaded snapshot, or null if none has been loaded yet
+     */
+    public static ReferenceData current() {
+        return current;
+    }
+
+    /**
+     * Load the snapshot now and keep it current until {@link #stopRefresh()}.
+     * Failures are logged; the previous snapshot stays in use until a refresh succeeds.
+     */
+    public static synchronized void startRefresh(DataSource dataSource) {
+        stopRefresh();
+        long period = Math.max(1, Long.getLong(REFRESH_KEY, 3600L));
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cda-reference-data");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(() -> refresh(dataSource), 0, period, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopRefresh() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    private static void refresh(DataSource dataSource) {
+        try {
+            current = load(DSL.using(dataSource, SQLDialect.ORACLE18C));
+        } catch (RuntimeException ex) {
+            logger.atWarning().withCause(ex).log("Unable to refresh reference data");
+        }
+    }
+
+    static ReferenceData load(DSLContext dsl) {
+        OfficeDao officeDao = new OfficeDao(dsl);
+        List<Office> offices = officeDao.getOffices(false);
+        List<Office> officesWithData = officeDao.getOffices(true);
+        List<State> states = new StateDao(dsl).getStates();
+        List<County> counties = new CountyDao(dsl).getCounties();
+
+        UnitsDao unitsDao = new UnitsDao(dsl);
+        ParameterDao parameterDao = new ParameterDao(dsl);
+        TimeZoneDao timeZoneDao = new TimeZoneDao(dsl);
+        Map<String, String> units = new HashMap<>();
+        Map<String, String> parameters = new HashMap<>();
+        Map<String, String> timeZones = new HashMap<>();
+        for (String format : CATALOG_FORMATS) {
+            loadFormat(units, format, () -> unitsDao.getUnits(format));
+            loadFormat(parameters, format, () -> parameterDao.getParameters(format));
+            loadFormat(timeZones, format, () -> timeZoneDao.getTimeZones(format));
+        }
+
+        loads.inc();
+        logger.atInfo().log("Loaded reference data: %d offices, %d states, %d counties",
+                offices.size(), states.size(), counties.size());
+        return new ReferenceData(offices, officesWithData, states, counties, units, parameters,
+                timeZones);
+    }
+
+    /**
+     * A format the schema cannot render is left out and keeps being read from the database,
+     * where it fails the same way it always did.
+     */
+    private static void loadFormat(Map<String, String> target, String format,
+                                   Supplier<String> loader) {
+        try {
+            target.put(format, loader.get());
+        } catch (RuntimeException ex) {
+            logger.atFine().withCause(ex).log("Reference data not available as %s", format);
+        }
+    }
+
+    public List<Office> getOffices(boolean hasData) {
+        return hasData ? officesWithData : offices;
+    }
+
+    public Optional<Office> getOfficeById(String officeId) {
+        return offices.stream()
+                .filter(office -> office.getName().equalsIgnoreCase(officeId))
+                .findFirst();
+    }
+
+    public List<State> getStates() {
+        return states;
+    }
+
+    public List<County> getCounties() {
+        return counties;
+    }
+
+    /**
+     * @return the units as CWMS_CAT renders them, or null if not loaded in this format
+     */
+    public String getUnits(String format) {
+        return units.get(format);
+    }
+
+    public String getParameters(String format) {
+        return parameters.get(format);
+    }
+
+    public String getTimeZones(String format) {
+        return timeZones.get(format);
+    }
+
+    /**
+     * @param key what is rendered, including everything the body depends on
+     * @param renderer called the first time the key is asked for in this snapshot
+     */
+    public Body render(String key, Supplier<String> renderer) {
+        Body retval = bodies.get(key);
+        if (retval == null) {
+            renders.inc();
+            retval = new Body(renderer.get());
+            // keys come from request headers, so only so many are kept
+            if (bodies.size() < MAX_BODIES) {
+                bodies.putIfAbsent(key, retval);
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * A rendered response and the ETag that goes with it.
+     */
+    public static final class Body {
+        private final String content;
+        private final String etag;
+
+        Body(String content) {
+            this.content = content;
+            this.etag = etag(content);
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        static String etag(String content) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+                return "\"" + String.format("%064x", new BigInteger(1, hash)).substring(0, 32)
+                        + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package cwms.cda.data.dao;
+
+import cwms.cda.RequestMetrics;
+import org.jooq.ExecuteContext;
+import org.jooq.Query;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultExecuteListener;
+
+/**
+ * Adds the execution time of each statement to the metrics of the current request.  The
+ * statement is only rendered with its bind values inlined if the request is logged as slow.
+ */
+class RequestTimingListener extends DefaultExecuteListener {
+    private static final String START = RequestTimingListener.class.getName() + ".start";
+
+    @Override
+    public void executeStart(ExecuteContext ctx) {
+        if (RequestMetrics.current() != null) {
+            ctx.data(START, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void executeEnd(ExecuteContext ctx) {
+        Object start = ctx.data(START);
+        RequestMetrics metrics = RequestMetrics.current();
+        if (start == null || metrics == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - (Long) start;
+        Query query = ctx.query();
+        String sql = ctx.sql();
+        SQLDialect dialect = ctx.dialect();
+        metrics.addStatement(nanos, () -> query != null
+                ? DSL.using(dialect).renderInlined(query)
+                : sql);
+    }
+}
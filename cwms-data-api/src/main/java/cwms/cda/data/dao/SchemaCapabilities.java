@@ -0,0 +1,161 @@
+package cwms.cda.data.dao;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.name;
+import static org.jooq.impl.DSL.table;
+import static usace.cwms.db.jooq.codegen.tables.AV_DB_CHANGE_LOG.AV_DB_CHANGE_LOG;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.CdaMetricsContextListener;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+/**
+ * What the connected CWMS schema supports: its version and the behaviours that depend on it.
+ *
+ * <p>One instance is shared by the whole process.  It is loaded when the servlet starts, or by
+ * the first DAO that needs it, and refreshed in the background every
+ * {@value #REFRESH_KEY} seconds so a schema upgrade is noticed without a restart.  DAOs used
+ * to query the version each time one was created; the {@code queries_saved} counter records
+ * how many of those queries no longer happen.
+ */
+public final class SchemaCapabilities {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    public static final String REFRESH_KEY = "cwms.dataapi.schema.refresh.seconds";
+
+    private static final Counter queriesSaved = CdaMetricsContextListener.METRIC_REGISTRY.counter(
+            MetricRegistry.name(SchemaCapabilities.class, "version", "queries_saved"));
+    private static final Counter loads = CdaMetricsContextListener.METRIC_REGISTRY.counter(
+            MetricRegistry.name(SchemaCapabilities.class, "loads"));
+
+    private static volatile SchemaCapabilities current;
+    private static ScheduledExecutorService refresher;
+
+    private final int version;
+    private final boolean cwmsEnvMultiOfficeAuthFix;
+
+    SchemaCapabilities(int version, boolean cwmsEnvMultiOfficeAuthFix) {
+        this.version = version;
+        this.cwmsEnvMultiOfficeAuthFix = cwmsEnvMultiOfficeAuthFix;
+    }
+
+    /**
+     * @param dsl used to load the capabilities if they have not been loaded yet
+     * @return the capabilities of the connected schema
+     */
+    public static SchemaCapabilities get(DSLContext dsl) {
+        SchemaCapabilities retval = current;
+        if (retval == null) {
+            synchronized (SchemaCapabilities.class) {
+                retval = current;
+                if (retval == null) {
+                    retval = load(dsl);
+                    current = retval;
+                }
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * Called each time a DAO is created, which is when the version used to be queried.
+     */
+    static void recordSavedQuery() {
+        queriesSaved.inc();
+    }
+
+    /**
+     * Load the capabilities now and keep them current until {@link #stopRefresh()}.
+     * Failures are logged; the previous capabilities stay in use until a refresh succeeds.
+     */
+    public static synchronized void startRefresh(DataSource dataSource) {
+        stopRefresh();
+        long period = Math.max(1, Long.getLong(REFRESH_KEY, 3600L));
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cda-schema-capabilities");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(() -> refresh(dataSource), 0, period, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopRefresh() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    private static void refresh(DataSource dataSource) {
+        try {
+            current = load(DSL.using(dataSource, SQLDialect.ORACLE18C));
+        } catch (RuntimeException ex) {
+            logger.atWarning().withCause(ex).log("Unable to refresh schema capabilities");
+        }
+    }
+
+    private static SchemaCapabilities load(DSLContext dsl) {
+        SchemaCapabilities retval = dsl.connectionResult(c -> {
+            DSLContext using = DSL.using(c, SQLDialect.ORACLE18C);
+            String version = using.select(AV_DB_CHANGE_LOG.VERSION)
+                    .from(AV_DB_CHANGE_LOG)
+                    .orderBy(AV_DB_CHANGE_LOG.VERSION_DATE.desc())
+                    .limit(1)
+                    .fetchOne().component1();
+            // The fix added an office parameter to set_session_user_direct.  Checking the
+            // signature avoids calling it, which would change the session user.
+            boolean authFix = using.fetchExists(using.selectOne()
+                    .from(table(name("ALL_ARGUMENTS")))
+                    .where(field(name("OWNER")).eq("CWMS_20"))
+                    .and(field(name("PACKAGE_NAME")).eq("CWMS_ENV"))
+                    .and(field(name("OBJECT_NAME")).eq("SET_SESSION_USER_DIRECT"))
+                    .and(field(name("POSITION")).eq(2)));
+            return new SchemaCapabilities(parseVersion(version), authFix);
+        });
+        loads.inc();
+        logger.atInfo().log("CWMS schema version %d, multi-office auth fix: %s",
+                retval.version, retval.cwmsEnvMultiOfficeAuthFix);
+        return retval;
+    }
+
+    /**
+     * @param version dotted version, e.g. 23.03.16
+     * @return the version as a number comparable with the constants in {@link Dao}
+     */
+    static int parseVersion(String version) {
+        String[] parts = version.split("\\.");
+        return Integer.parseInt(parts[0]) * 10000
+                + Integer.parseInt(parts[1]) * 100
+                + Integer.parseInt(parts[2]);
+    }
+
+    /**
+     * Forget the loaded capabilities so the next use loads them again.
+     */
+    static void clear() {
+        current = null;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public boolean isAtLeast(int version) {
+        return this.version >= version;
+    }
+
+    /**
+     * @return whether cwms_env.set_session_user_direct accepts an office
+     */
+    public boolean hasCwmsEnvMultiOfficeAuthFix() {
+        return cwmsEnvMultiOfficeAuthFix;
+    }
+}
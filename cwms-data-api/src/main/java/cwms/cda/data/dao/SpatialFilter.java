@@ -0,0 +1,178 @@
+package cwms.cda.data.dao;
+
+/**
+ * Selects locations by their coordinates: either those inside a bounding box or those within
+ * a distance of a point.  Longitudes and latitudes are in decimal degrees.
+ */
+public final class SpatialFilter {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private final double minLongitude;
+    private final double minLatitude;
+    private final double maxLongitude;
+    private final double maxLatitude;
+    private final double centerLongitude;
+    private final double centerLatitude;
+    private final double radiusKm;
+
+    private SpatialFilter(double minLongitude, double minLatitude, double maxLongitude,
+                          double maxLatitude, double centerLongitude, double centerLatitude,
+                          double radiusKm) {
+        this.minLongitude = minLongitude;
+        this.minLatitude = minLatitude;
+        this.maxLongitude = maxLongitude;
+        this.maxLatitude = maxLatitude;
+        this.centerLongitude = centerLongitude;
+        this.centerLatitude = centerLatitude;
+        this.radiusKm = radiusKm;
+    }
+
+    /**
+     * @param bbox min-longitude,min-latitude,max-longitude,max-latitude as in GeoJSON; a box
+     *             crossing the antimeridian has a min-longitude greater than its max-longitude
+     * @param near longitude,latitude,radius in kilometers
+     * @return the filter, null if neither is given
+     * @throws IllegalArgumentException if both are given or either is malformed
+     */
+    public static SpatialFilter parse(String bbox, String near) {
+        boolean hasBox = bbox != null && !bbox.isEmpty();
+        boolean hasNear = near != null && !near.isEmpty();
+        if (hasBox && hasNear) {
+            throw new IllegalArgumentException("Only one of bbox and near can be given");
+        }
+        if (hasBox) {
+            double[] box = numbers(bbox, 4, "bbox");
+            return boundingBox(box[0], box[1], box[2], box[3]);
+        } else if (hasNear) {
+            double[] point = numbers(near, 3, "near");
+            return near(point[0], point[1], point[2]);
+        }
+        return null;
+    }
+
+    public static SpatialFilter boundingBox(double minLongitude, double minLatitude,
+                                            double maxLongitude, double maxLatitude) {
+        checkLongitude(minLongitude);
+        checkLongitude(maxLongitude);
+        checkLatitude(minLatitude);
+        checkLatitude(maxLatitude);
+        if (minLatitude > maxLatitude) {
+            throw new IllegalArgumentException("bbox min-latitude is above its max-latitude");
+        }
+        return new SpatialFilter(minLongitude, minLatitude, maxLongitude, maxLatitude,
+                Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    public static SpatialFilter near(double longitude, double latitude, double radiusKm) {
+        checkLongitude(longitude);
+        checkLatitude(latitude);
+        if (!(radiusKm > 0)) {
+            throw new IllegalArgumentException("near radius has to be more than 0 km");
+        }
+        double latitudeSpan = radiusKm / KM_PER_DEGREE;
+        double minLatitude = Math.max(-90.0, latitude - latitudeSpan);
+        double maxLatitude = Math.min(90.0, latitude + latitudeSpan);
+        double minLongitude = -180.0;
+        double maxLongitude = 180.0;
+        double cos = Math.cos(Math.toRadians(Math.max(Math.abs(minLatitude),
+                Math.abs(maxLatitude))));
+        double longitudeSpan = cos > 0 ? latitudeSpan / cos : 360.0;
+        if (longitudeSpan < 180.0) {
+            minLongitude = wrap(longitude - longitudeSpan);
+            maxLongitude = wrap(longitude + longitudeSpan);
+        }
+        return new SpatialFilter(minLongitude, minLatitude, maxLongitude, maxLatitude,
+                longitude, latitude, radiusKm);
+    }
+
+    /**
+     * @return whether matches are ordered by their distance, nearest first
+     */
+    public boolean isNear() {
+        return !Double.isNaN(radiusKm);
+    }
+
+    public boolean matches(double longitude, double latitude) {
+        if (latitude < minLatitude || latitude > maxLatitude || !inLongitudes(longitude)) {
+            return false;
+        }
+        return !isNear() || distanceKm(longitude, latitude) <= radiusKm;
+    }
+
+    /**
+     * @return the great circle distance from the center of a near filter
+     */
+    public double distanceKm(double longitude, double latitude) {
+        double dLat = Math.toRadians(latitude - centerLatitude);
+        double dLon = Math.toRadians(longitude - centerLongitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(centerLatitude)) * Math.cos(Math.toRadians(latitude))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private boolean inLongitudes(double longitude) {
+        if (minLongitude <= maxLongitude) {
+            return longitude >= minLongitude && longitude <= maxLongitude;
+        }
+        return longitude >= minLongitude || longitude <= maxLongitude;
+    }
+
+    double getMinLongitude() {
+        return minLongitude;
+    }
+
+    double getMinLatitude() {
+        return minLatitude;
+    }
+
+    double getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    double getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    private static double wrap(double longitude) {
+        if (longitude < -180.0) {
+            return longitude + 360.0;
+        } else if (longitude > 180.0) {
+            return longitude - 360.0;
+        }
+        return longitude;
+    }
+
+    private static double[] numbers(String value, int count, String name) {
+        String[] parts = value.split(",");
+        if (parts.length != count) {
+            throw new IllegalArgumentException(name + " takes " + count
+                    + " comma separated numbers");
+        }
+        double[] retval = new double[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                retval[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(name + " takes " + count
+                    + " comma separated numbers", ex);
+        }
+        return retval;
+    }
+
+    private static void checkLongitude(double longitude) {
+        if (!(longitude >= -180.0 && longitude <= 180.0)) {
+            throw new IllegalArgumentException("Longitude " + longitude + " is not within "
+                    + "-180 and 180");
+        }
+    }
+
+    private static void checkLatitude(double latitude) {
+        if (!(latitude >= -90.0 && latitude <= 90.0)) {
+            throw new IllegalArgumentException("Latitude " + latitude + " is not within "
+                    + "-90 and 90");
+        }
+    }
+}
@@ -74,46 +74,57 @@ public class StreamDao extends JooqDao<Stream> {
         Set<Stream> retVal = new HashSet<>();
 
         while (result.next()) {
-            String officeId = result.getString("OFFICE_ID");
-            String streamId = result.getString("STREAM_ID");
             String receivingStreamId = result.getString("FLOWS_INTO_STREAM");
             if (receivingStreamId != null && receivingStreamId.equals(parentStreamId)) {
-                Double confluenceStation = null;
-                Object confluenceObject = result.getObject("FLOWS_INTO_STATION");
-                if (confluenceObject instanceof Double) {
-                    confluenceStation = (Double) confluenceObject;
-                }
-                String confluenceBank = result.getString("FLOWS_INTO_BANK");
-                String divertingStreamId = result.getString("DIVERTS_FROM_STREAM");
-                Double diversionStation = null;
-                Object diversionObject = result.getObject("DIVERTS_FROM_STATION");
-                if (diversionObject instanceof Double) {
-                    diversionStation = (Double) diversionObject;
-                }
-                String diversionBank = result.getString("DIVERTS_FROM_BANK");
-                Double streamLength = toDouble(result.getBigDecimal("STREAM_LENGTH"));
-                boolean startsDownstream = result.getBoolean("STATIONING_STARTS_DS");
-                Double averageSlope = toDouble(result.getBigDecimal("AVERAGE_SLOPE"));
-                String comment = result.getString("COMMENTS");
-                Stream stream = new Stream.Builder(streamId, startsDownstream, streamLength,
-                        officeId)
-                        .withDivertingStreamId(divertingStreamId)
-                        .withDiversionStation(diversionStation)
-                        .withDiversionBank(diversionBank)
-                        .withReceivingStreamId(receivingStreamId)
-                        .withConfluenceStation(confluenceStation)
-                        .withConfluenceBank(confluenceBank)
-                        .withComment(comment)
-                        .withAverageSlope(averageSlope)
+                Stream stream = buildStream(result);
+                String officeId = stream.getOfficeId();
+                String streamId = stream.getStreamName();
+                retVal.add(new Stream.Builder(stream)
                         .withStreamLocations(getStreamLocationsOnStream(streamId, unitSystem,
                                 officeId))
                         .withTributaries(getTributaries(streamId, unitSystem, officeId))
                         .withStreamReaches(getReaches(streamId, officeId))
-                        .build();
-                retVal.add(stream);
+                        .build());
             }
         }
 
         return retVal;
     }
+
+    /**
+     * @param result row of a stream catalog
+     * @return the stream without its locations, reaches and tributaries
+     */
+    static Stream buildStream(ResultSet result) throws SQLException {
+        String officeId = result.getString("OFFICE_ID");
+        String streamId = result.getString("STREAM_ID");
+        String receivingStreamId = result.getString("FLOWS_INTO_STREAM");
+        Double confluenceStation = null;
+        Object confluenceObject = result.getObject("FLOWS_INTO_STATION");
+        if (confluenceObject instanceof Double) {
+            confluenceStation = (Double) confluenceObject;
+        }
+        String confluenceBank = result.getString("FLOWS_INTO_BANK");
+        String divertingStreamId = result.getString("DIVERTS_FROM_STREAM");
+        Double diversionStation = null;
+        Object diversionObject = result.getObject("DIVERTS_FROM_STATION");
+        if (diversionObject instanceof Double) {
+            diversionStation = (Double) diversionObject;
+        }
+        String diversionBank = result.getString("DIVERTS_FROM_BANK");
+        Double streamLength = toDouble(result.getBigDecimal("STREAM_LENGTH"));
+        boolean startsDownstream = result.getBoolean("STATIONING_STARTS_DS");
+        Double averageSlope = toDouble(result.getBigDecimal("AVERAGE_SLOPE"));
+        String comment = result.getString("COMMENTS");
+        return new Stream.Builder(streamId, startsDownstream, streamLength, officeId)
+                .withDivertingStreamId(divertingStreamId)
+                .withDiversionStation(diversionStation)
+                .withDiversionBank(diversionBank)
+                .withReceivingStreamId(receivingStreamId)
+                .withConfluenceStation(confluenceStation)
+                .withConfluenceBank(confluenceBank)
+                .withComment(comment)
+                .withAverageSlope(averageSlope)
+                .build();
+    }
 }
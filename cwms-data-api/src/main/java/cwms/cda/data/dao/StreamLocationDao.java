@@ -37,7 +37,7 @@ public class StreamLocationDao extends JooqDao<StreamLocation> {
         return buildStreamLocations(resultSetRef.get());
     }
 
-    private Set<StreamLocation> buildStreamLocations(ResultSet rs) throws SQLException {
+    static Set<StreamLocation> buildStreamLocations(ResultSet rs) throws SQLException {
         Set<StreamLocation> retVal = new HashSet<>();
         while (rs.next()) {
             String locationId = rs.getString("LOCATION_ID");
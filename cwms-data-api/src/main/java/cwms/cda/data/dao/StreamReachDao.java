@@ -25,7 +25,7 @@ public class StreamReachDao extends JooqDao<StreamReach> {
         return buildReachesFromResultSet(resultSetRef.get());
     }
 
-    private Set<StreamReach> buildReachesFromResultSet(ResultSet rs) throws SQLException {
+    static Set<StreamReach> buildReachesFromResultSet(ResultSet rs) throws SQLException {
         Set<StreamReach> retVal = new HashSet<>();
 
         while (rs.next()) {
@@ -1,8 +1,11 @@
 package cwms.cda.data.dao;
 
+import cwms.cda.api.enums.TotalMode;
 import cwms.cda.data.dto.Catalog;
 import cwms.cda.data.dto.RecentValue;
 import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesStoreResult;
+import java.io.IOException;
 import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -12,9 +15,31 @@ public interface TimeSeriesDao {
 
     Catalog getTimeSeriesCatalog(String cursor, int pageSize, String office);
 
+    default Catalog getTimeSeriesCatalog(String cursor, int pageSize, String office,
+                                         String idLike, String locCategoryLike,
+                                         String locGroupLike, String tsCategoryLike,
+                                         String tsGroupLike, String boundingOfficeLike) {
+        return getTimeSeriesCatalog(cursor, pageSize, office, idLike, locCategoryLike,
+                locGroupLike, tsCategoryLike, tsGroupLike, boundingOfficeLike, TotalMode.EXACT);
+    }
+
+    /**
+     * @param totalMode how the total is worked out on the first page; later pages carry the
+     *     first page's total in their cursor
+     */
     Catalog getTimeSeriesCatalog(String cursor, int pageSize, String office, String idLike,
                                  String locCategoryLike, String locGroupLike,
-                                 String tsCategoryLike, String tsGroupLike, String boundingOfficeLike);
+                                 String tsCategoryLike, String tsGroupLike,
+                                 String boundingOfficeLike, TotalMode totalMode);
+
+    /**
+     * Hands every entry matching the filters to the handler, read with a single forward-only
+     * query instead of page by page.  No total is counted.
+     */
+    void exportTimeSeriesCatalog(String office, String idLike, String locCategoryLike,
+                                 String locGroupLike, String tsCategoryLike, String tsGroupLike,
+                                 String boundingOfficeLike, CatalogEntryHandler handler)
+            throws IOException;
 
     void create(TimeSeries input);
 
@@ -25,11 +50,40 @@ public interface TimeSeriesDao {
     void store(TimeSeries timeSeries, boolean createAsLrts,
                StoreRule replaceAll, boolean overrideProtection);
 
+    /**
+     * Stores many time series in one call, reporting success or failure for each series
+     * rather than failing the whole batch.
+     */
+    List<TimeSeriesStoreResult> storeMulti(List<TimeSeries> series, boolean createAsLrts,
+                                           StoreRule storeRule, boolean overrideProtection);
+
     void delete(String officeId, String tsId, TimeSeriesDeleteOptions options);
 
+    default TimeSeries getTimeseries(String cursor, int pageSize, String names, String office,
+                                     String unit, ZonedDateTime begin, ZonedDateTime end,
+                                     ZonedDateTime versionDate, boolean trim) {
+        return getTimeseries(cursor, pageSize, names, office, unit, begin, end, versionDate,
+                trim, TotalMode.EXACT);
+    }
+
+    /**
+     * @param totalMode how the total is worked out on the first page; later pages carry the
+     *     first page's total in their cursor
+     */
     TimeSeries getTimeseries(String cursor, int pageSize, String names, String office,
                              String unit, ZonedDateTime begin, ZonedDateTime end,
-                             ZonedDateTime versionDate, boolean trim);
+                             ZonedDateTime versionDate, boolean trim, TotalMode totalMode);
+
+    /**
+     * Retrieves the same data as {@link #getTimeseries(String, int, String, String, String,
+     * ZonedDateTime, ZonedDateTime, ZonedDateTime, boolean, TotalMode)} but hands the values to the
+     * handler while they are read from the database rather than collecting them on the
+     * returned object.  At most one page of values is held in memory.
+     */
+    void streamTimeseries(String cursor, int pageSize, String names, String office,
+                          String unit, ZonedDateTime begin, ZonedDateTime end,
+                          ZonedDateTime versionDate, boolean trim, TotalMode totalMode,
+                          TimeSeriesValuesHandler handler) throws IOException;
 
     String getTimeseries(String format, String names, String office, String unit, String datum,
                          ZonedDateTime begin, ZonedDateTime end, ZoneId timezone);
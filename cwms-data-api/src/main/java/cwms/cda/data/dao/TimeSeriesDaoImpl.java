@@ -11,12 +11,14 @@ import static org.jooq.impl.DSL.select;
 import static usace.cwms.db.jooq.codegen.tables.AV_CWMS_TS_ID2.AV_CWMS_TS_ID2;
 import static usace.cwms.db.jooq.codegen.tables.AV_TS_EXTENTS_UTC.AV_TS_EXTENTS_UTC;
 
+import cwms.cda.api.enums.TotalMode;
 import cwms.cda.api.enums.VersionType;
 import cwms.cda.data.dto.Catalog;
 import cwms.cda.data.dto.CwmsDTOPaginated;
 import cwms.cda.data.dto.RecentValue;
 import cwms.cda.data.dto.TimeSeries;
 import cwms.cda.data.dto.TimeSeriesExtents;
+import cwms.cda.data.dto.TimeSeriesStoreResult;
 import cwms.cda.data.dto.Tsv;
 import cwms.cda.data.dto.TsvDqu;
 import cwms.cda.data.dto.TsvDquId;
@@ -24,7 +26,10 @@ import cwms.cda.data.dto.TsvId;
 import cwms.cda.data.dto.VerticalDatumInfo;
 import cwms.cda.data.dto.catalog.CatalogEntry;
 import cwms.cda.data.dto.catalog.TimeseriesCatalogEntry;
+import cwms.cda.formatters.xml.JaxbContextCache;
+import java.io.IOException;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Connection;
@@ -43,9 +48,14 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
@@ -53,6 +63,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jooq.CommonTableExpression;
 import org.jooq.Condition;
 import org.jooq.Configuration;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.JoinType;
@@ -62,6 +73,7 @@ import org.jooq.Record1;
 import org.jooq.Record3;
 import org.jooq.Record7;
 import org.jooq.Result;
+import org.jooq.ResultQuery;
 import org.jooq.SQL;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectHavingStep;
@@ -71,6 +83,7 @@ import org.jooq.Table;
 import org.jooq.conf.ParamType;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
+import org.jooq.impl.DataSourceConnectionProvider;
 import org.jooq.impl.SQLDataType;
 import usace.cwms.db.dao.ifc.ts.CwmsDbTs;
 import usace.cwms.db.dao.util.OracleTypeMap;
@@ -89,6 +102,8 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
 
     public static final boolean OVERRIDE_PROTECTION = true;
     public static final int TS_ID_MISSING_CODE = 20001;
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final int EXPORT_FETCH_SIZE = 5000;
 
 
     public TimeSeriesDaoImpl(DSLContext dsl) {
@@ -112,8 +127,135 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     public TimeSeries getTimeseries(String page, int pageSize, String names, String office,
                                        String units,
                                        ZonedDateTime beginTime, ZonedDateTime endTime,
-                                    ZonedDateTime versionDate, boolean shouldTrim) {
-        TimeSeries retVal = null;
+                                    ZonedDateTime versionDate, boolean shouldTrim,
+                                    TotalMode totalMode) {
+        return retrieveTimeseries(page, pageSize, names, office, units, beginTime, endTime,
+                versionDate, shouldTrim, totalMode, (timeseries, query, window) -> {
+                    query.fetchInto(tsRecord -> timeseries.addValue(
+                                    tsRecord.value1(),
+                                    tsRecord.value2(),
+                                    tsRecord.value3().intValue()
+                            )
+                    );
+                    return timeseries;
+                });
+    }
+
+    /**
+     * Chunks run on separate connections, so they are only used when the DSLContext hands out
+     * pooled connections rather than wrapping a single one.
+     */
+    private ChunkedValuesReader getChunkedValuesReader() {
+        if (!(dsl.configuration().connectionProvider() instanceof DataSourceConnectionProvider)) {
+            return null;
+        }
+        return ChunkedValuesReader.fromSystemProperties();
+    }
+
+    @Override
+    public void streamTimeseries(String page, int pageSize, String names, String office,
+                                 String units, ZonedDateTime beginTime, ZonedDateTime endTime,
+                                 ZonedDateTime versionDate, boolean shouldTrim,
+                                 TotalMode totalMode, TimeSeriesValuesHandler handler)
+            throws IOException {
+        try {
+            retrieveTimeseries(page, pageSize, names, office, units, beginTime, endTime,
+                    versionDate, shouldTrim, totalMode, (timeseries, query, window) -> {
+                        // Requests for all values of a long window can be read in chunks on
+                        // several connections.  A bounded page stops after pageSize + 1 values,
+                        // which one cursor reads as fast as chunks would.
+                        ChunkedValuesReader chunked = getChunkedValuesReader();
+                        if (timeseries.getPageSize() < 0 && chunked != null
+                                && chunked.applies(window.beginMillis, window.endMillis)) {
+                            try (ChunkedValuesReader.Values values = chunked.read(
+                                    window.beginMillis, window.endMillis, window.trim,
+                                    window.firstPage, (begin, end, last) ->
+                                            window.chunks.query(begin, end, last)
+                                                    .fetch(TimeSeriesDaoImpl::toRecord))) {
+                                handler.handle(timeseries, pageValues(timeseries, values));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            return null;
+                        }
+                        // The cursor keeps its connection until closed, which happens once the
+                        // handler has written everything out.
+                        try (Cursor<Record3<Timestamp, Double, BigDecimal>> cursor =
+                                     query.fetchSize(STREAM_FETCH_SIZE).fetchLazy()) {
+                            handler.handle(timeseries, pageValues(timeseries,
+                                    new MappingIterator(cursor.iterator())));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return null;
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Sets the page markers on the header and returns the values to be written for this page.
+     * A bounded page is read ahead so the next page marker is known before anything is
+     * written; an unbounded request only reads the first value ahead and leaves the rest
+     * on the cursor.
+     */
+    private static Iterator<TimeSeries.Record> pageValues(TimeSeries header,
+                                                          Iterator<TimeSeries.Record> rows) {
+        int pageSize = header.getPageSize();
+        if (pageSize > 0) {
+            List<TimeSeries.Record> buffer = new ArrayList<>();
+            while (buffer.size() < pageSize && rows.hasNext()) {
+                buffer.add(rows.next());
+            }
+            Timestamp first = buffer.isEmpty() ? null : buffer.get(0).getDateTime();
+            Timestamp next = rows.hasNext() ? rows.next().getDateTime() : null;
+            header.setPageBounds(first, next);
+            return buffer.iterator();
+        }
+
+        if (!rows.hasNext()) {
+            return Collections.emptyIterator();
+        }
+        TimeSeries.Record first = rows.next();
+        header.setPageBounds(first.getDateTime(), null);
+        return Stream.concat(Stream.of(first), StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false))
+                .iterator();
+    }
+
+    /**
+     * Converts cursor rows to records as they are read.
+     */
+    private static final class MappingIterator implements Iterator<TimeSeries.Record> {
+        private final Iterator<Record3<Timestamp, Double, BigDecimal>> rows;
+
+        private MappingIterator(Iterator<Record3<Timestamp, Double, BigDecimal>> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public TimeSeries.Record next() {
+            return toRecord(rows.next());
+        }
+    }
+
+    private static TimeSeries.Record toRecord(Record3<Timestamp, Double, BigDecimal> tsRecord) {
+        return new TimeSeries.Record(tsRecord.value1(), tsRecord.value2(),
+                tsRecord.value3().intValue());
+    }
+
+    private <R> R retrieveTimeseries(String page, int pageSize, String names, String office,
+                                     String units,
+                                     ZonedDateTime beginTime, ZonedDateTime endTime,
+                                     ZonedDateTime versionDate, boolean shouldTrim,
+                                     TotalMode totalMode, ValuesReader<R> valuesReader) {
+        R retVal = null;
         String cursor = null;
         Timestamp tsCursor = null;
         Integer total = null;
@@ -135,7 +277,9 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 tsCursor = Timestamp.from(Instant.ofEpochMilli(Long.parseLong(parts[0])));
 
                 if (parts.length > 2) {
-                    total = Integer.parseInt(parts[1]);
+                    // Only the first page works out the total, later pages reuse it.
+                    totalMode = TotalMode.NONE;
+                    total = "null".equals(parts[1]) ? null : Integer.parseInt(parts[1]);
                 }
 
                 // Use the pageSize from the original cursor, for consistent paging
@@ -217,10 +361,7 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         Long beginTimeMilli = beginTime.toInstant().toEpochMilli();
         Long endTimeMilli = endTime.toInstant().toEpochMilli();
         String trim = OracleTypeMap.formatBool(shouldTrim);
-        String startInclusive = "T";
         String endInclusive = "T";
-        String previous = "F";
-        String next = "F";
         Long versionDateMilli = null;
         String maxVersion = null;
 
@@ -230,124 +371,102 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
             maxVersion = "T";
         }
 
-        // Query based on versionDate or query max aggregate
-        // to_timestamp will allow null in the next schema release
-        if (versionDate != null) {
-            retrieveSelectData = DSL.sql(
-                    "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,cwms_20.cwms_util.to_timestamp(?),cwms_20.cwms_util.to_timestamp(?),"
-                            + "'UTC',?,?,?,?,?,cwms_20.cwms_util.to_timestamp(?),?,?) ) retrieveTs",
-                    tsId, unit, beginTimeMilli, endTimeMilli,
-                    trim, startInclusive, endInclusive, previous, next, versionDateMilli, maxVersion, officeId);
-        } else {
-            retrieveSelectData = DSL.sql(
-                    "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,cwms_20.cwms_util.to_timestamp(?),cwms_20.cwms_util.to_timestamp(?),"
-                            + "'UTC',?,?,?,?,?,?,?,?) ) retrieveTs",
-                    tsId, unit, beginTimeMilli, endTimeMilli,
-                    trim, startInclusive, endInclusive, previous, next, versionDateMilli, maxVersion,officeId);
-}
-
-        Field<String> tzName;
-        if (this.getDbVersion() >= Dao.CWMS_21_1_1) {
-            tzName = AV_CWMS_TS_ID2.TIME_ZONE_ID;
+        // With the identifier already resolved the values query binds the results instead of
+        // calling the lookup functions again.
+        TimeSeriesIdentifierCache.Metadata metadata = TimeSeriesIdentifierCache.get(office,
+                names, () -> loadIdentifierMetadata(dsl, names, office));
+        final Field<String> dataTsId = metadata == null ? tsId : DSL.val(metadata.getTsId());
+        final Field<String> dataUnit = metadata == null ? unit
+                : DSL.val(metadata.getUnits(units), String.class);
+        final Field<String> dataOfficeId = metadata == null ? officeId
+                : DSL.val(metadata.getOfficeId());
+
+        retrieveSelectData = retrieveTsOutTab(dataTsId, dataUnit, dataOfficeId, beginTimeMilli,
+                endTimeMilli, trim, endInclusive, versionDateMilli, maxVersion);
+
+        TimeSeries timeseries;
+        if (metadata != null) {
+            timeseries = buildHeader(metadata, recordCursor, recordPageSize, total, totalMode,
+                    units,
+                    beginTime, endTime, versionDate, beginTimeMilli, endTimeMilli, trim,
+                    versionDateMilli, maxVersion);
         } else {
-            tzName = DSL.inline(null, SQLDataType.VARCHAR);
-        }
-
+            Field<String> tzName;
+            if (this.getDbVersion() >= Dao.CWMS_21_1_1) {
+                tzName = AV_CWMS_TS_ID2.TIME_ZONE_ID;
+            } else {
+                tzName = DSL.inline(null, SQLDataType.VARCHAR);
+            }
 
-        Field<Integer> totalField;
-        if (total != null) {
-            totalField = DSL.val(total).as("TOTAL");
-        } else {
-            // If we don't know the total, fetch it from the database (only for first fetch).
-            // Total is only an estimate, as it can change if fetching current data,
-            // or the timeseries otherwise changes between queries.
-
-            SelectJoinStep<Record3<Timestamp, Double, Integer>> retrieveSelectCount = null;
-
-            // Query based on versionDate or query max aggregate
-            // to_timestamp will allow null in the next schema release
-            if(versionDate != null) {
-                retrieveSelectCount = select(
-                        dateTimeCol, valueCol, qualityCol
-                ).from(DSL.sql(
-                        "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,cwms_20.cwms_util.to_timestamp(?),cwms_20.cwms_util.to_timestamp(?),"
-                                + "'UTC',?,?,?,?,?,cwms_20.cwms_util.to_timestamp(?),?,?) ) retrieveTsTotal",
-                        valid.field("tsid", String.class),
-                        valid.field("units", String.class),
-                        beginTimeMilli,
-                        endTimeMilli,
-                        trim, startInclusive, endInclusive, previous, next, versionDateMilli, maxVersion,
-                        valid.field("office_id", String.class)
-                ));
+            Field<Integer> totalField;
+            if (total != null) {
+                totalField = DSL.val(total).as("TOTAL");
+            } else if (totalMode == TotalMode.NONE) {
+                totalField = DSL.inline(null, SQLDataType.INTEGER).as("TOTAL");
             } else {
-                retrieveSelectCount = select(
-                        dateTimeCol, valueCol, qualityCol
-                ).from(DSL.sql(
-                        "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,cwms_20.cwms_util.to_timestamp(?),cwms_20.cwms_util.to_timestamp(?),"
-                                + "'UTC',?,?,?,?,?,?,?,?) ) retrieveTsTotal",
-                        valid.field("tsid", String.class),
-                        valid.field("units", String.class),
-                        beginTimeMilli,
-                        endTimeMilli,
-                        trim, startInclusive, endInclusive, previous, next, versionDateMilli, maxVersion,
-                        valid.field("office_id", String.class)
-                ));
+                // If we don't know the total, fetch it from the database (only for first fetch).
+                // Total is only an estimate, as it can change if fetching current data,
+                // or the timeseries otherwise changes between queries.
+                totalField = DSL.selectCount()
+                        .from(DSL.table(retrieveCountSelect(valid.field("tsid", String.class),
+                                valid.field("units", String.class),
+                                valid.field("office_id", String.class), beginTimeMilli,
+                                endTimeMilli, trim, versionDateMilli, maxVersion)))
+                        .asField("TOTAL");
             }
 
-            totalField = DSL.selectCount().from(DSL.table(retrieveSelectCount)).asField("TOTAL");
-        }
-
-        SelectJoinStep<?> metadataQuery =
-                dsl.with(valid)
-                        .select(
-                                valid.field("tsid", String.class).as("NAME"),
-                                valid.field("office_id", String.class).as("office_id"),
-                                valid.field("units", String.class).as("units"),
-                                valid.field("interval", BigDecimal.class).as("interval"),
-                                valid.field("loc_part", String.class).as("loc_part"),
-                                valid.field("parm_part", String.class).as("parm_part"),
-                                DSL.choose(valid.field("parm_part", String.class))
-                                        .when(
-                                                "ELEV",
-                                                CWMS_LOC_PACKAGE.call_GET_VERTICAL_DATUM_INFO_F__2(
-                                                        valid.field("loc_part", String.class),
-                                                        valid.field("units", String.class),
-                                                        valid.field("office_id", String.class)))
-                                        .otherwise("")
-                                        .as("VERTICAL_DATUM"),
-                                totalField,
-                                AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
-                                AV_CWMS_TS_ID2.TIME_ZONE_ID
-                        )
-                        .from(valid)
-                        .leftOuterJoin(AV_CWMS_TS_ID2)
-                        .on(
-                                AV_CWMS_TS_ID2.DB_OFFICE_ID.eq(valid.field("office_id",
-                                                String.class))
-                                        .and(AV_CWMS_TS_ID2.TS_CODE.eq(valid.field("tscode",
-                                                BigDecimal.class)))
-                                        .and(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull())
-                        );
+            SelectJoinStep<?> metadataQuery =
+                    dsl.with(valid)
+                            .select(
+                                    valid.field("tsid", String.class).as("NAME"),
+                                    valid.field("office_id", String.class).as("office_id"),
+                                    valid.field("units", String.class).as("units"),
+                                    valid.field("interval", BigDecimal.class).as("interval"),
+                                    valid.field("loc_part", String.class).as("loc_part"),
+                                    valid.field("parm_part", String.class).as("parm_part"),
+                                    DSL.choose(valid.field("parm_part", String.class))
+                                            .when(
+                                                    "ELEV",
+                                                    CWMS_LOC_PACKAGE.call_GET_VERTICAL_DATUM_INFO_F__2(
+                                                            valid.field("loc_part", String.class),
+                                                            valid.field("units", String.class),
+                                                            valid.field("office_id", String.class)))
+                                            .otherwise("")
+                                            .as("VERTICAL_DATUM"),
+                                    totalField,
+                                    AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
+                                    AV_CWMS_TS_ID2.TIME_ZONE_ID
+                            )
+                            .from(valid)
+                            .leftOuterJoin(AV_CWMS_TS_ID2)
+                            .on(
+                                    AV_CWMS_TS_ID2.DB_OFFICE_ID.eq(valid.field("office_id",
+                                                    String.class))
+                                            .and(AV_CWMS_TS_ID2.TS_CODE.eq(valid.field("tscode",
+                                                    BigDecimal.class)))
+                                            .and(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull())
+                            );
 
-        logger.fine(() -> metadataQuery.getSQL(ParamType.INLINED));
-
-        VersionType finalDateVersionType = getVersionType(dsl, names, office, versionDate != null);
-        TimeSeries timeseries = metadataQuery.fetchOne(tsMetadata -> {
-            String vert = (String) tsMetadata.getValue("VERTICAL_DATUM");
-            VerticalDatumInfo verticalDatumInfo = parseVerticalDatumInfo(vert);
-
-            return new TimeSeries(recordCursor, recordPageSize, tsMetadata.getValue("TOTAL",
-                    Integer.class), tsMetadata.getValue("NAME", String.class),
-                    tsMetadata.getValue("office_id", String.class),
-                    beginTime, endTime, tsMetadata.getValue("units", String.class),
-                    Duration.ofMinutes(tsMetadata.get("interval") == null ? 0 :
-                            tsMetadata.getValue("interval", Long.class)),
-                    verticalDatumInfo,
-                    tsMetadata.getValue(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET).longValue(),
-                    tsMetadata.getValue(tzName),
-                    versionDate, finalDateVersionType
-            );
-        });
+            logger.fine(() -> metadataQuery.getSQL(ParamType.INLINED));
+
+            VersionType finalDateVersionType = getVersionType(dsl, names, office, versionDate != null);
+            timeseries = metadataQuery.fetchOne(tsMetadata -> {
+                String vert = (String) tsMetadata.getValue("VERTICAL_DATUM");
+                VerticalDatumInfo verticalDatumInfo = parseVerticalDatumInfo(vert);
+
+                return new TimeSeries(recordCursor, recordPageSize, tsMetadata.getValue("TOTAL",
+                        Integer.class), tsMetadata.getValue("NAME", String.class),
+                        tsMetadata.getValue("office_id", String.class),
+                        beginTime, endTime, tsMetadata.getValue("units", String.class),
+                        Duration.ofMinutes(tsMetadata.get("interval") == null ? 0 :
+                                tsMetadata.getValue("interval", Long.class)),
+                        verticalDatumInfo,
+                        tsMetadata.getValue(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET).longValue(),
+                        tsMetadata.getValue(tzName),
+                        versionDate, finalDateVersionType
+                );
+            });
+        }
 
         if (pageSize != 0) {
             SelectConditionStep<Record3<Timestamp, Double, BigDecimal>> query =
@@ -372,25 +491,238 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
 
             logger.fine(() -> query.getSQL(ParamType.INLINED));
 
-            query.fetchInto(tsRecord -> timeseries.addValue(
-                            tsRecord.getValue(dateTimeCol),
-                            tsRecord.getValue(valueCol),
-                            tsRecord.getValue(qualityNormCol).intValue()
-                    )
-            );
-
-            retVal = timeseries;
+            final Long chunkVersionDateMilli = versionDateMilli;
+            final String chunkMaxVersion = maxVersion;
+            final Timestamp chunkCursor = tsCursor;
+            ChunkQueries chunks = (chunkBegin, chunkEnd, last) -> {
+                // Chunks are never trimmed individually, that would drop missing values at
+                // every chunk boundary.  The merged result is trimmed instead.
+                SQL chunkData = retrieveTsOutTab(dataTsId, dataUnit, dataOfficeId, chunkBegin, chunkEnd,
+                        "F", last ? "T" : "F", chunkVersionDateMilli, chunkMaxVersion);
+                return dsl.select(dateTimeCol, valueCol, qualityNormCol).from(chunkData);
+            };
+            retVal = valuesReader.read(timeseries, query, new ValuesWindow(
+                    chunkCursor == null ? beginTimeMilli : chunkCursor.getTime(), endTimeMilli,
+                    shouldTrim, chunkCursor == null, chunks));
         }
 
         return retVal;
     }
 
+    /**
+     * Builds the retrieve_ts_out_tab table function call for a window of one time series.
+     * The start of the window is always inclusive.
+     */
+    private static SQL retrieveTsOutTab(Field<String> tsId, Field<String> unit,
+                                        Field<String> officeId, long beginTimeMilli,
+                                        long endTimeMilli, String trim, String endInclusive,
+                                        Long versionDateMilli, String maxVersion) {
+        String startInclusive = "T";
+        String previous = "F";
+        String next = "F";
+        // Query based on versionDate or query max aggregate
+        // to_timestamp will allow null in the next schema release
+        if (versionDateMilli != null) {
+            return DSL.sql(
+                    "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,cwms_20.cwms_util.to_timestamp(?),cwms_20.cwms_util.to_timestamp(?),"
+                            + "'UTC',?,?,?,?,?,cwms_20.cwms_util.to_timestamp(?),?,?) ) retrieveTs",
+                    tsId, unit, beginTimeMilli, endTimeMilli,
+                    trim, startInclusive, endInclusive, previous, next, versionDateMilli, maxVersion, officeId);
+        } else {
+            return DSL.sql(
+                    "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,cwms_20.cwms_util.to_timestamp(?),cwms_20.cwms_util.to_timestamp(?),"
+                            + "'UTC',?,?,?,?,?,?,?,?) ) retrieveTs",
+                    tsId, unit, beginTimeMilli, endTimeMilli,
+                    trim, startInclusive, endInclusive, previous, next, versionDateMilli, maxVersion, officeId);
+        }
+    }
+
+    /**
+     * Counts the values retrieve_ts_out_tab returns for the whole requested window.
+     */
+    private static SelectJoinStep<Record3<Timestamp, Double, Integer>> retrieveCountSelect(
+            Field<String> tsId, Field<String> unit, Field<String> officeId, long beginTimeMilli,
+            long endTimeMilli, String trim, Long versionDateMilli, String maxVersion) {
+        Field<Timestamp> dateTimeCol = field("DATE_TIME", Timestamp.class).as("DATE_TIME");
+        Field<Double> valueCol = field("VALUE", Double.class).as("VALUE");
+        Field<Integer> qualityCol = field("QUALITY_CODE", Integer.class).as("QUALITY_CODE");
+        String startInclusive = "T";
+        String endInclusive = "T";
+        String previous = "F";
+        String next = "F";
+
+        // Query based on versionDate or query max aggregate
+        // to_timestamp will allow null in the next schema release
+        if (versionDateMilli != null) {
+            return select(dateTimeCol, valueCol, qualityCol).from(DSL.sql(
+                    "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,cwms_20.cwms_util.to_timestamp(?),cwms_20.cwms_util.to_timestamp(?),"
+                            + "'UTC',?,?,?,?,?,cwms_20.cwms_util.to_timestamp(?),?,?) ) retrieveTsTotal",
+                    tsId, unit, beginTimeMilli, endTimeMilli,
+                    trim, startInclusive, endInclusive, previous, next, versionDateMilli, maxVersion,
+                    officeId));
+        } else {
+            return select(dateTimeCol, valueCol, qualityCol).from(DSL.sql(
+                    "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,cwms_20.cwms_util.to_timestamp(?),cwms_20.cwms_util.to_timestamp(?),"
+                            + "'UTC',?,?,?,?,?,?,?,?) ) retrieveTsTotal",
+                    tsId, unit, beginTimeMilli, endTimeMilli,
+                    trim, startInclusive, endInclusive, previous, next, versionDateMilli, maxVersion,
+                    officeId));
+        }
+    }
+
+    /**
+     * Builds the header from cached identifier metadata.  Only the total, on the first page
+     * unless it is estimated or not wanted, and the vertical datum of elevations still need the database.
+     */
+    @SuppressWarnings("java:S107")
+    private TimeSeries buildHeader(TimeSeriesIdentifierCache.Metadata metadata, String cursor,
+                                   int pageSize, Integer total, TotalMode totalMode,
+                                   String units,
+                                   ZonedDateTime beginTime, ZonedDateTime endTime,
+                                   ZonedDateTime versionDate, long beginTimeMilli,
+                                   long endTimeMilli, String trim, Long versionDateMilli,
+                                   String maxVersion) {
+        String unit = metadata.getUnits(units);
+        if (total == null) {
+            total = PageTotals.total(totalMode,
+                    () -> dsl.fetchValue(DSL.selectCount().from(DSL.table(retrieveCountSelect(
+                            DSL.val(metadata.getTsId()), DSL.val(unit, String.class),
+                            DSL.val(metadata.getOfficeId()), beginTimeMilli, endTimeMilli,
+                            trim, versionDateMilli, maxVersion)))),
+                    "timeseries", metadata.getOfficeId(), metadata.getTsId(), unit,
+                    PageTotals.windowKey(beginTimeMilli), PageTotals.windowKey(endTimeMilli),
+                    trim, versionDateMilli, maxVersion);
+        }
+
+        VerticalDatumInfo verticalDatumInfo = null;
+        if ("ELEV".equals(metadata.getParameterId())) {
+            verticalDatumInfo = parseVerticalDatumInfo(dsl.fetchValue(select(
+                    CWMS_LOC_PACKAGE.call_GET_VERTICAL_DATUM_INFO_F__2(
+                            DSL.val(metadata.getLocationId()), DSL.val(unit, String.class),
+                            DSL.val(metadata.getOfficeId())))));
+        }
+
+        VersionType versionType;
+        if (versionDate != null) {
+            versionType = VersionType.SINGLE_VERSION;
+        } else if (metadata.isVersioned()) {
+            versionType = VersionType.MAX_AGGREGATE;
+        } else {
+            versionType = VersionType.UNVERSIONED;
+        }
+
+        BigDecimal interval = metadata.getIntervalMinutes();
+        return new TimeSeries(cursor, pageSize, total, metadata.getTsId(),
+                metadata.getOfficeId(), beginTime, endTime, unit,
+                Duration.ofMinutes(interval == null ? 0 : interval.longValue()),
+                verticalDatumInfo, metadata.getIntervalUtcOffset(), metadata.getTimeZoneId(),
+                versionDate, versionType);
+    }
+
+    /**
+     * Resolves everything the retrieval needs to know about a time series identifier in one
+     * query, plus the versioned check.  Fails the same way the uncached retrieval does if the
+     * identifier does not exist.
+     */
+    static TimeSeriesIdentifierCache.Metadata loadIdentifierMetadata(DSLContext dsl,
+                                                                     String names,
+                                                                     String office) {
+        final Field<String> officeId = CWMS_UTIL_PACKAGE.call_GET_DB_OFFICE_ID(DSL.val(office));
+        Table<Record3<BigDecimal, String, String>> validTs =
+                select(CWMS_TS_PACKAGE.call_GET_TS_CODE__2(DSL.val(names), officeId).as("tscode"),
+                        CWMS_TS_PACKAGE.call_GET_TS_ID__2(DSL.val(names), officeId).as("tsid"),
+                        officeId.as("office_id")
+                ).asTable("validts");
+        Field<BigDecimal> tsCode = validTs.field("tscode", BigDecimal.class);
+        Field<String> tsId = validTs.field("tsid", String.class);
+        Field<String> validOffice = validTs.field("office_id", String.class);
+        Field<String> loc = CWMS_UTIL_PACKAGE.call_SPLIT_TEXT(tsId,
+                DSL.val(BigInteger.valueOf(1L)), DSL.val("."), DSL.val(BigInteger.valueOf(6L)));
+        Field<String> param = DSL.upper(CWMS_UTIL_PACKAGE.call_SPLIT_TEXT(tsId,
+                DSL.val(BigInteger.valueOf(2L)), DSL.val("."), DSL.val(BigInteger.valueOf(6L))));
+        Field<String> baseParameter = CWMS_TS_PACKAGE.call_GET_BASE_PARAMETER_ID(tsCode);
+        Field<String> tzName = SchemaCapabilities.get(dsl).isAtLeast(Dao.CWMS_21_1_1)
+                ? AV_CWMS_TS_ID2.TIME_ZONE_ID : DSL.inline(null, SQLDataType.VARCHAR);
+
+        Record row = dsl.select(tsCode, tsId, validOffice,
+                        loc.as("loc_part"),
+                        param.as("parm_part"),
+                        CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(baseParameter, DSL.val("EN"))
+                                .as("en_units"),
+                        CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(baseParameter, DSL.val("SI"))
+                                .as("si_units"),
+                        CWMS_TS_PACKAGE.call_GET_TS_INTERVAL__2(tsId).as("interval"),
+                        AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
+                        tzName.as("time_zone"),
+                        CWMS_LOC_PACKAGE.call_GET_LOCAL_TIMEZONE__2(loc, validOffice)
+                                .as("location_time_zone"))
+                .from(validTs)
+                .leftOuterJoin(AV_CWMS_TS_ID2)
+                .on(AV_CWMS_TS_ID2.DB_OFFICE_ID.eq(validOffice)
+                        .and(AV_CWMS_TS_ID2.TS_CODE.eq(tsCode))
+                        .and(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull()))
+                .fetchOne();
+
+        String canonicalId = row.get(tsId);
+        String canonicalOffice = row.get(validOffice);
+        Number utcOffset = row.get(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET);
+        return new TimeSeriesIdentifierCache.Metadata(row.get(tsCode), canonicalId,
+                canonicalOffice, row.get("loc_part", String.class),
+                row.get("parm_part", String.class), row.get("en_units", String.class),
+                row.get("si_units", String.class), row.get("interval", BigDecimal.class),
+                utcOffset == null ? null : utcOffset.longValue(),
+                row.get("time_zone", String.class),
+                row.get("location_time_zone", String.class),
+                isVersioned(dsl, canonicalId, canonicalOffice));
+    }
+
+    /**
+     * Reads the values of a time series once its header has been built.
+     */
+    @FunctionalInterface
+    private interface ValuesReader<R> {
+        /**
+         * @param query values for the whole requested page on one cursor
+         * @param window the same values described as a time window that can be read in chunks
+         */
+        R read(TimeSeries timeseries, ResultQuery<Record3<Timestamp, Double, BigDecimal>> query,
+               ValuesWindow window);
+    }
+
+    @FunctionalInterface
+    private interface ChunkQueries {
+        ResultQuery<Record3<Timestamp, Double, BigDecimal>> query(long beginMillis,
+                                                                  long endMillis, boolean last);
+    }
+
+    private static final class ValuesWindow {
+        private final long beginMillis;
+        private final long endMillis;
+        private final boolean trim;
+        private final boolean firstPage;
+        private final ChunkQueries chunks;
+
+        private ValuesWindow(long beginMillis, long endMillis, boolean trim, boolean firstPage,
+                             ChunkQueries chunks) {
+            this.beginMillis = beginMillis;
+            this.endMillis = endMillis;
+            this.trim = trim;
+            this.firstPage = firstPage;
+            this.chunks = chunks;
+        }
+    }
+
     public static String parseLocFromTimeSeriesId(String tsId) {
         String[] parts = tsId.split("\\.");
         return parts[0];
     }
 
     public static String getTimeZoneId(DSLContext dsl, String tsId, String officeId) {
+        TimeSeriesIdentifierCache.Metadata metadata = TimeSeriesIdentifierCache.get(officeId,
+                tsId, () -> loadIdentifierMetadata(dsl, tsId, officeId));
+        if (metadata != null) {
+            return metadata.getLocationTimeZoneId();
+        }
         return dsl.connectionResult(c -> {
             Configuration config = getDslContext(c, officeId).configuration();
             String locationId = TimeSeriesDaoImpl.parseLocFromTimeSeriesId(tsId);
@@ -402,7 +734,10 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         VersionType dateVersionType;
 
         if (!dateProvided) {
-            boolean isVersioned = isVersioned(dsl, names, office);
+            TimeSeriesIdentifierCache.Metadata metadata = TimeSeriesIdentifierCache.get(office,
+                    names, () -> loadIdentifierMetadata(dsl, names, office));
+            boolean isVersioned = metadata != null ? metadata.isVersioned()
+                    : isVersioned(dsl, names, office);
 
             if (isVersioned) {
                 dateVersionType = VersionType.MAX_AGGREGATE;
@@ -439,7 +774,7 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         VerticalDatumInfo retVal = null;
         if (body != null && !body.isEmpty()) {
             try {
-                JAXBContext jaxbContext = JAXBContext.newInstance(VerticalDatumInfo.class);
+                JAXBContext jaxbContext = JaxbContextCache.getContext(VerticalDatumInfo.class);
                 Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
                 retVal = (VerticalDatumInfo) unmarshaller.unmarshal(new StringReader(body));
             } catch (JAXBException e) {
@@ -457,55 +792,34 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     @Override
     public Catalog getTimeSeriesCatalog(String page, int pageSize, String office,
                                         String idLike, String locCategoryLike, String locGroupLike,
-                                        String tsCategoryLike, String tsGroupLike, String boundingOfficeLike) {
-        int total;
+                                        String tsCategoryLike, String tsGroupLike, String boundingOfficeLike,
+                                        TotalMode totalMode) {
+        Integer total;
         String tsCursor = "*";
         String searchOffice = office;
         String curOffice = null;
         Catalog.CatalogPage catPage = null;
 
-        Condition locJoinCondition = AV_LOC2.AV_LOC2.DB_OFFICE_ID.eq(AV_CWMS_TS_ID2.DB_OFFICE_ID)
-                .and(AV_LOC2.AV_LOC2.LOCATION_CODE.eq(AV_CWMS_TS_ID2.LOCATION_CODE.coerce(AV_LOC2.AV_LOC2.LOCATION_CODE)))
-                .and(AV_LOC2.AV_LOC2.ALIASED_ITEM.isNull());
-
+        Condition locJoinCondition = catalogLocationJoin();
 
         if (page == null || page.isEmpty()) {
 
-            Condition condition = caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.CWMS_TS_ID, idLike)
-                    .and(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull());
-            if (searchOffice != null) {
-                condition = condition.and(DSL.upper(AV_CWMS_TS_ID2.DB_OFFICE_ID).eq(searchOffice.toUpperCase()));
-            }
-
-            if (locCategoryLike != null) {
-                condition = condition.and(caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.LOC_ALIAS_CATEGORY, locCategoryLike));
-            }
-
-            if (locGroupLike != null) {
-                condition = condition.and(caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.LOC_ALIAS_GROUP, locGroupLike));
-            }
-
-            if (tsCategoryLike != null) {
-                condition = condition.and(caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.TS_ALIAS_CATEGORY, tsCategoryLike));
-            }
-
-            if (tsGroupLike != null) {
-                condition = condition.and(caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.TS_ALIAS_GROUP, tsGroupLike));
-            }
+            Condition condition = catalogCondition(searchOffice, idLike, locCategoryLike,
+                    locGroupLike, tsCategoryLike, tsGroupLike, boundingOfficeLike);
 
             SelectJoinStep<Record1<Integer>> selectCountFrom;
             if (boundingOfficeLike == null) {
                 selectCountFrom = dsl.select(count(asterisk())).from(AV_CWMS_TS_ID2);
             } else {
-                condition = condition.and(caseInsensitiveLikeRegex(AV_LOC2.AV_LOC2.BOUNDING_OFFICE_ID, boundingOfficeLike));
-                condition = condition.and(AV_LOC2.AV_LOC2.UNIT_SYSTEM.eq("EN"));
-
                 selectCountFrom = dsl.select(count(asterisk()))
                         .from(AV_CWMS_TS_ID2)
                         .innerJoin(AV_LOC2.AV_LOC2)
                         .on(locJoinCondition);
             }
-            total = selectCountFrom.where(condition).fetchOne().value1();
+            total = PageTotals.total(totalMode,
+                    () -> selectCountFrom.where(condition).fetchOne().value1(),
+                    "timeseries-catalog", searchOffice, idLike, locCategoryLike, locGroupLike,
+                    tsCategoryLike, tsGroupLike, boundingOfficeLike);
         } else {
             logger.fine("getting non-default page");
             // Information provided by the page value overrides anything provided
@@ -608,33 +922,14 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         // NOTE: leave as separate, eventually this will include aliases which
         // will at extra rows per TS
         LinkedHashMap<String, TimeseriesCatalogEntry.Builder> tsIdExtentMap = new LinkedHashMap<>();
+        boolean withTimeZone = this.getDbVersion() > Dao.CWMS_21_1_1;
         result.forEach(row -> {
             String officeTsId = row.get(AV_CWMS_TS_ID2.DB_OFFICE_ID)
                     + "/"
                     + row.get(AV_CWMS_TS_ID2.CWMS_TS_ID);
-            if (!tsIdExtentMap.containsKey(officeTsId)) {
-                TimeseriesCatalogEntry.Builder builder = new TimeseriesCatalogEntry.Builder()
-                        .officeId(row.get(AV_CWMS_TS_ID2.DB_OFFICE_ID))
-                        .cwmsTsId(row.get(AV_CWMS_TS_ID2.CWMS_TS_ID))
-                        .units(row.get(AV_CWMS_TS_ID2.UNIT_ID))
-                        .interval(row.get(AV_CWMS_TS_ID2.INTERVAL_ID))
-                        .intervalOffset(row.get(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET));
-                if (this.getDbVersion() > Dao.CWMS_21_1_1) {
-                    builder.timeZone(row.get("TIME_ZONE_ID", String.class));
-                }
-                tsIdExtentMap.put(officeTsId, builder);
-            }
-
-            if (row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME) != null) {
-                //tsIdExtentMap.get(tsId)
-                TimeSeriesExtents extents =
-                        new TimeSeriesExtents(row.get(AV_TS_EXTENTS_UTC.VERSION_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.LATEST_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.LAST_UPDATE)
-                        );
-                tsIdExtentMap.get(officeTsId).withExtent(extents);
-            }
+            TimeseriesCatalogEntry.Builder builder = tsIdExtentMap.computeIfAbsent(officeTsId,
+                    k -> catalogEntryBuilder(row, withTimeZone));
+            addCatalogExtents(builder, row);
         });
 
         List<? extends CatalogEntry> entries = tsIdExtentMap.entrySet().stream()
@@ -646,6 +941,130 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 tsCategoryLike, tsGroupLike);
     }
 
+    @Override
+    public void exportTimeSeriesCatalog(String office, String idLike, String locCategoryLike,
+                                        String locGroupLike, String tsCategoryLike,
+                                        String tsGroupLike, String boundingOfficeLike,
+                                        CatalogEntryHandler handler) throws IOException {
+        boolean withTimeZone = this.getDbVersion() >= Dao.CWMS_21_1_1;
+        SelectQuery<Record> query = dsl.selectQuery();
+        query.addSelect(AV_CWMS_TS_ID2.DB_OFFICE_ID);
+        query.addSelect(AV_CWMS_TS_ID2.CWMS_TS_ID);
+        query.addSelect(AV_CWMS_TS_ID2.UNIT_ID);
+        query.addSelect(AV_CWMS_TS_ID2.INTERVAL_ID);
+        query.addSelect(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET);
+        if (withTimeZone) {
+            query.addSelect(AV_CWMS_TS_ID2.TIME_ZONE_ID);
+        }
+        query.addSelect(AV_TS_EXTENTS_UTC.VERSION_TIME);
+        query.addSelect(AV_TS_EXTENTS_UTC.EARLIEST_TIME);
+        query.addSelect(AV_TS_EXTENTS_UTC.LATEST_TIME);
+        query.addSelect(AV_TS_EXTENTS_UTC.LAST_UPDATE);
+        if (boundingOfficeLike != null) {
+            query.addFrom(AV_CWMS_TS_ID2.innerJoin(AV_LOC2.AV_LOC2).on(catalogLocationJoin()));
+        } else {
+            query.addFrom(AV_CWMS_TS_ID2);
+        }
+        query.addJoin(AV_TS_EXTENTS_UTC, JoinType.LEFT_OUTER_JOIN,
+                AV_TS_EXTENTS_UTC.TS_CODE.eq(AV_CWMS_TS_ID2.TS_CODE.coerce(AV_TS_EXTENTS_UTC.TS_CODE)));
+        query.addConditions(catalogCondition(office, idLike, locCategoryLike, locGroupLike,
+                tsCategoryLike, tsGroupLike, boundingOfficeLike));
+        query.addOrderBy(DSL.upper(AV_CWMS_TS_ID2.DB_OFFICE_ID), DSL.upper(AV_CWMS_TS_ID2.CWMS_TS_ID));
+        logger.fine(() -> query.getSQL(ParamType.INLINED));
+
+        // Rows arrive ordered by time series, one per extent, so an entry is complete as soon
+        // as the next time series starts.
+        try (Cursor<Record> cursor = query.fetchSize(EXPORT_FETCH_SIZE).fetchLazy()) {
+            String currentTsId = null;
+            TimeseriesCatalogEntry.Builder current = null;
+            for (Record row : cursor) {
+                String officeTsId = row.get(AV_CWMS_TS_ID2.DB_OFFICE_ID)
+                        + "/"
+                        + row.get(AV_CWMS_TS_ID2.CWMS_TS_ID);
+                if (!officeTsId.equals(currentTsId)) {
+                    if (current != null) {
+                        handler.handle(current.build());
+                    }
+                    current = catalogEntryBuilder(row, withTimeZone);
+                    currentTsId = officeTsId;
+                }
+                addCatalogExtents(current, row);
+            }
+            if (current != null) {
+                handler.handle(current.build());
+            }
+        }
+    }
+
+    private static Condition catalogLocationJoin() {
+        return AV_LOC2.AV_LOC2.DB_OFFICE_ID.eq(AV_CWMS_TS_ID2.DB_OFFICE_ID)
+                .and(AV_LOC2.AV_LOC2.LOCATION_CODE.eq(AV_CWMS_TS_ID2.LOCATION_CODE.coerce(AV_LOC2.AV_LOC2.LOCATION_CODE)))
+                .and(AV_LOC2.AV_LOC2.ALIASED_ITEM.isNull());
+    }
+
+    /**
+     * Filters of the time series catalog.  The bounding office filter needs
+     * {@link #catalogLocationJoin()}.
+     */
+    private static Condition catalogCondition(String office, String idLike,
+                                              String locCategoryLike, String locGroupLike,
+                                              String tsCategoryLike, String tsGroupLike,
+                                              String boundingOfficeLike) {
+        Condition condition = caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.CWMS_TS_ID, idLike)
+                .and(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull());
+        if (office != null) {
+            condition = condition.and(DSL.upper(AV_CWMS_TS_ID2.DB_OFFICE_ID).eq(office.toUpperCase()));
+        }
+
+        if (locCategoryLike != null) {
+            condition = condition.and(caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.LOC_ALIAS_CATEGORY, locCategoryLike));
+        }
+
+        if (locGroupLike != null) {
+            condition = condition.and(caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.LOC_ALIAS_GROUP, locGroupLike));
+        }
+
+        if (tsCategoryLike != null) {
+            condition = condition.and(caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.TS_ALIAS_CATEGORY, tsCategoryLike));
+        }
+
+        if (tsGroupLike != null) {
+            condition = condition.and(caseInsensitiveLikeRegex(AV_CWMS_TS_ID2.TS_ALIAS_GROUP, tsGroupLike));
+        }
+
+        if (boundingOfficeLike != null) {
+            condition = condition.and(caseInsensitiveLikeRegex(AV_LOC2.AV_LOC2.BOUNDING_OFFICE_ID, boundingOfficeLike));
+            condition = condition.and(AV_LOC2.AV_LOC2.UNIT_SYSTEM.eq("EN"));
+        }
+        return condition;
+    }
+
+    private static TimeseriesCatalogEntry.Builder catalogEntryBuilder(Record row,
+                                                                      boolean withTimeZone) {
+        TimeseriesCatalogEntry.Builder builder = new TimeseriesCatalogEntry.Builder()
+                .officeId(row.get(AV_CWMS_TS_ID2.DB_OFFICE_ID))
+                .cwmsTsId(row.get(AV_CWMS_TS_ID2.CWMS_TS_ID))
+                .units(row.get(AV_CWMS_TS_ID2.UNIT_ID))
+                .interval(row.get(AV_CWMS_TS_ID2.INTERVAL_ID))
+                .intervalOffset(row.get(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET));
+        if (withTimeZone) {
+            builder.timeZone(row.get("TIME_ZONE_ID", String.class));
+        }
+        return builder;
+    }
+
+    private static void addCatalogExtents(TimeseriesCatalogEntry.Builder builder, Record row) {
+        if (row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME) != null) {
+            TimeSeriesExtents extents =
+                    new TimeSeriesExtents(row.get(AV_TS_EXTENTS_UTC.VERSION_TIME),
+                            row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME),
+                            row.get(AV_TS_EXTENTS_UTC.LATEST_TIME),
+                            row.get(AV_TS_EXTENTS_UTC.LAST_UPDATE)
+                    );
+            builder.withExtent(extents);
+        }
+    }
+
 
     // Finds the single most recent TsvDqu within the time window.
     public TsvDqu findMostRecent(String tOfficeId, String tsId, String unit,
@@ -948,10 +1367,123 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         });
     }
 
+    /**
+     * Stores several time series on a single connection.  The series are grouped by office
+     * so the session office is only set once per office.  A failure storing one series does
+     * not stop the others from being stored.
+     *
+     * @return one result per input series, in the same order as the input
+     */
+    @Override
+    public List<TimeSeriesStoreResult> storeMulti(List<TimeSeries> series, boolean createAsLrts,
+                                                  StoreRule storeRule, boolean overrideProtection) {
+        TimeSeriesStoreResult[] results = new TimeSeriesStoreResult[series.size()];
+        Map<String, List<Integer>> indicesByOffice = new LinkedHashMap<>();
+        for (int i = 0; i < series.size(); i++) {
+            TimeSeries input = series.get(i);
+            String problem = checkStorable(input);
+            if (problem != null) {
+                results[i] = TimeSeriesStoreResult.failed(input.getName(), input.getOfficeId(),
+                        problem);
+            } else {
+                indicesByOffice.computeIfAbsent(input.getOfficeId(), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        connection(dsl, connection -> {
+            for (Map.Entry<String, List<Integer>> entry : indicesByOffice.entrySet()) {
+                String officeId = entry.getKey();
+                try {
+                    setOffice(connection, officeId);
+                } catch (SQLException | RuntimeException e) {
+                    String message = storeFailureMessage(e);
+                    logger.log(Level.WARNING, e, () -> "Unable to set session office " + officeId);
+                    for (int i : entry.getValue()) {
+                        results[i] = TimeSeriesStoreResult.failed(series.get(i).getName(),
+                                officeId, message);
+                    }
+                    continue;
+                }
+                for (int i : entry.getValue()) {
+                    TimeSeries input = series.get(i);
+                    Timestamp versionDate = null;
+                    if (input.getVersionDate() != null) {
+                        versionDate = Timestamp.from(input.getVersionDate().toInstant());
+                    }
+                    try {
+                        storeValues(connection, officeId, input.getName(), input.getUnits(),
+                                versionDate, input.getValues(), createAsLrts, storeRule,
+                                overrideProtection);
+                        results[i] = TimeSeriesStoreResult.stored(input.getName(), officeId);
+                    } catch (SQLException | RuntimeException e) {
+                        logger.log(Level.WARNING, e, () -> "Unable to store " + input.getName()
+                                + " for office " + officeId);
+                        results[i] = TimeSeriesStoreResult.failed(input.getName(), officeId,
+                                storeFailureMessage(e));
+                    }
+                }
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * @return why the series cannot be stored, or null if it can be attempted
+     */
+    static String checkStorable(TimeSeries input) {
+        if (input.getOfficeId() == null || input.getOfficeId().trim().isEmpty()) {
+            return "Office id is required.";
+        }
+        if (input.getName() == null || input.getName().trim().isEmpty()) {
+            return "Time series name is required.";
+        }
+        if (input.getUnits() == null || input.getUnits().trim().isEmpty()) {
+            return "Units are required.";
+        }
+        List<TimeSeries.Record> values = input.getValues();
+        if (values != null) {
+            for (TimeSeries.Record value : values) {
+                if (value.getDateTime() == null) {
+                    return "Every value needs a date-time.";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps a store failure to a message that is safe to return to the caller.  The database
+     * error itself is only logged.
+     */
+    static String storeFailureMessage(Exception e) {
+        RuntimeException input = e instanceof RuntimeException
+                ? (RuntimeException) e
+                : new DataAccessException(e.getMessage(), e);
+        if (isCantSetSessionNoPermissions(input)) {
+            return "User not authorized for this office.";
+        } else if (isNotFound(input)) {
+            return "Time series, location or office does not exist.";
+        } else if (isInvalidItem(input)) {
+            return "Invalid time series, unit or value.";
+        }
+        return "Unable to store time series.";
+    }
+
     private void store(Connection connection, String officeId, String tsId, String units,
                        Timestamp versionDate, List<TimeSeries.Record> values, boolean createAsLrts,
                        StoreRule storeRule, boolean overrideProtection) throws SQLException {
         setOffice(connection,officeId);
+        storeValues(connection, officeId, tsId, units, versionDate, values, createAsLrts,
+                storeRule, overrideProtection);
+    }
+
+    /**
+     * Same as store but expects the session office to already be set on the connection.
+     */
+    private void storeValues(Connection connection, String officeId, String tsId, String units,
+                             Timestamp versionDate, List<TimeSeries.Record> values,
+                             boolean createAsLrts, StoreRule storeRule,
+                             boolean overrideProtection) throws SQLException {
         CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
 
         final int count = values == null ? 0 : values.size();
@@ -987,6 +1519,8 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                     throw e;
                 }
             }
+            // the cached metadata says whether values are read by version date
+            TimeSeriesIdentifierCache.invalidate(officeId, tsId);
         }
 
         tsDao.store(connection, officeId, tsId, units, timeArray, valueArray, qualityArray, count,
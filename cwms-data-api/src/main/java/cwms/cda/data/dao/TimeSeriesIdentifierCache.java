@@ -0,0 +1,189 @@
+package cwms.cda.data.dao;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.CdaMetricsContextListener;
+import cwms.cda.helpers.ExpiringCache;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Resolved metadata of time series identifiers, so retrieving values does not have to call the
+ * identifier and unit lookup functions of the database on every request.
+ *
+ * <p>Entries are keyed by office and identifier as requested, without regard to case, and
+ * expire after {@value #CACHE_TTL_KEY} seconds.  Changes made through
+ * {@link TimeSeriesIdentifierDescriptorDao}, marking a time series versioned while storing and
+ * renaming a location drop the affected entries immediately; changes made elsewhere are picked
+ * up once the entry expires.  Lookups without an office are not cached
+ * since the office would come from the database session.
+ */
+public final class TimeSeriesIdentifierCache {
+    public static final String CACHE_SIZE_KEY = "cwms.dataapi.timeseries.identifier.cache.size";
+    public static final String CACHE_TTL_KEY = "cwms.dataapi.timeseries.identifier.cache.ttl.seconds";
+
+    private static final ExpiringCache<String, Metadata> identifiers =
+        new ExpiringCache<>(CdaMetricsContextListener.METRIC_REGISTRY,
+                            MetricRegistry.name(TimeSeriesIdentifierCache.class, "identifier", "cache"),
+                            Integer.getInteger(CACHE_SIZE_KEY, 5000),
+                            Duration.ofSeconds(Long.getLong(CACHE_TTL_KEY, 600L)));
+
+    private TimeSeriesIdentifierCache() {
+    }
+
+    /**
+     * @param office owning office, null to skip the cache
+     * @param tsId time series identifier as requested
+     * @param loader loads the metadata when there is no valid entry
+     * @return the metadata, or null if office is null
+     */
+    public static Metadata get(String office, String tsId, Supplier<Metadata> loader) {
+        if (office == null || office.isEmpty()) {
+            return null;
+        }
+        return identifiers.get(key(office, tsId), k -> loader.get());
+    }
+
+    /**
+     * Drop the entries for a time series, whether they were requested by its identifier or
+     * by an alias.
+     *
+     * @param office owning office, null for every office
+     */
+    public static void invalidate(String office, String tsId) {
+        String keySuffix = "/" + tsId.toUpperCase();
+        identifiers.invalidateIf((k, m) -> {
+            boolean sameOffice = office == null || m.getOfficeId().equalsIgnoreCase(office);
+            return sameOffice && (k.endsWith(keySuffix) || m.getTsId().equalsIgnoreCase(tsId));
+        });
+    }
+
+    /**
+     * Drop the entries of every time series at a location and its sub-locations, as renaming
+     * the location renames them all.
+     *
+     * @param office owning office, null for every office
+     */
+    public static void invalidateLocation(String office, String locationId) {
+        String subPrefix = locationId.toUpperCase() + "-";
+        identifiers.invalidateIf((k, m) -> {
+            boolean sameOffice = office == null || m.getOfficeId().equalsIgnoreCase(office);
+            String location = m.getLocationId() == null ? "" : m.getLocationId().toUpperCase();
+            return sameOffice && (location.equalsIgnoreCase(locationId)
+                    || location.startsWith(subPrefix));
+        });
+    }
+
+    public static void invalidateAll() {
+        identifiers.invalidateAll();
+    }
+
+    static String key(String office, String tsId) {
+        return office.toUpperCase() + "/" + tsId.toUpperCase();
+    }
+
+    /**
+     * What the retrieval query needs to know about one time series identifier.
+     */
+    public static final class Metadata {
+        private final BigDecimal tsCode;
+        private final String tsId;
+        private final String officeId;
+        private final String locationId;
+        private final String parameterId;
+        private final String englishUnits;
+        private final String siUnits;
+        private final BigDecimal intervalMinutes;
+        private final Long intervalUtcOffset;
+        private final String timeZoneId;
+        private final String locationTimeZoneId;
+        private final boolean versioned;
+
+        @SuppressWarnings("java:S107") // one field per resolved value
+        Metadata(BigDecimal tsCode, String tsId, String officeId, String locationId,
+                 String parameterId, String englishUnits, String siUnits,
+                 BigDecimal intervalMinutes, Long intervalUtcOffset, String timeZoneId,
+                 String locationTimeZoneId, boolean versioned) {
+            this.tsCode = tsCode;
+            this.tsId = tsId;
+            this.officeId = officeId;
+            this.locationId = locationId;
+            this.parameterId = parameterId;
+            this.englishUnits = englishUnits;
+            this.siUnits = siUnits;
+            this.intervalMinutes = intervalMinutes;
+            this.intervalUtcOffset = intervalUtcOffset;
+            this.timeZoneId = timeZoneId;
+            this.locationTimeZoneId = locationTimeZoneId;
+            this.versioned = versioned;
+        }
+
+        public BigDecimal getTsCode() {
+            return tsCode;
+        }
+
+        /**
+         * @return the identifier as stored in the database
+         */
+        public String getTsId() {
+            return tsId;
+        }
+
+        public String getOfficeId() {
+            return officeId;
+        }
+
+        public String getLocationId() {
+            return locationId;
+        }
+
+        /**
+         * @return the parameter part of the identifier in upper case
+         */
+        public String getParameterId() {
+            return parameterId;
+        }
+
+        /**
+         * @param units a unit system (EN or SI) or a unit
+         * @return the default unit of the parameter for a unit system, otherwise units itself
+         */
+        public String getUnits(String units) {
+            if ("EN".equalsIgnoreCase(units)) {
+                return englishUnits;
+            } else if ("SI".equalsIgnoreCase(units)) {
+                return siUnits;
+            }
+            return units;
+        }
+
+        /**
+         * @return the interval in minutes, null for irregular time series
+         */
+        public BigDecimal getIntervalMinutes() {
+            return intervalMinutes;
+        }
+
+        public Long getIntervalUtcOffset() {
+            return intervalUtcOffset;
+        }
+
+        /**
+         * @return the time zone of the time series, null before schema 21.1.1
+         */
+        public String getTimeZoneId() {
+            return timeZoneId;
+        }
+
+        /**
+         * @return the local time zone of the location
+         */
+        public String getLocationTimeZoneId() {
+            return locationTimeZoneId;
+        }
+
+        public boolean isVersioned() {
+            return versioned;
+        }
+    }
+}
@@ -180,6 +180,7 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.updateTsId(connection, office, timeseriesId, utcOffsetMinutes, intervalForward, intervalBackward, activeFlag);
         });
+        TimeSeriesIdentifierCache.invalidate(office, timeseriesId);
 
     }
 
@@ -193,6 +194,8 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
                         officeId);
             }
         });
+        TimeSeriesIdentifierCache.invalidate(officeId, origId);
+        TimeSeriesIdentifierCache.invalidate(officeId, newId);
         
     }
 
@@ -219,6 +222,7 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.deleteAll(connection, officeId, tsId);
         });
+        TimeSeriesIdentifierCache.invalidate(officeId, tsId);
     }
 
     public void deleteData(String officeId, String tsId) {
@@ -235,5 +239,6 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.deleteKey(connection, officeId, tsId);
         });
+        TimeSeriesIdentifierCache.invalidate(officeId, tsId);
     }
 }
@@ -0,0 +1,16 @@
+package cwms.cda.data.dao;
+
+import cwms.cda.data.dto.TimeSeries;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Receives a time series whose values are read from the database while they are
+ * being consumed.  The header carries the metadata and page markers but no values;
+ * the iterator is only valid for the duration of the call.
+ */
+@FunctionalInterface
+public interface TimeSeriesValuesHandler {
+
+    void handle(TimeSeries header, Iterator<TimeSeries.Record> values) throws IOException;
+}
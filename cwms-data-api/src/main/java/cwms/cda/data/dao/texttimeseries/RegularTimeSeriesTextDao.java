@@ -6,6 +6,7 @@ import cwms.cda.api.enums.VersionType;
 import cwms.cda.data.dao.ClobDao;
 import cwms.cda.data.dao.JooqDao;
 import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.data.dto.CwmsDTOPaginated;
 import cwms.cda.data.dto.texttimeseries.RegularTextTimeSeriesRow;
 import cwms.cda.data.dto.texttimeseries.TextTimeSeries;
 import cwms.cda.helpers.ReplaceUtils;
@@ -20,6 +21,7 @@ import usace.cwms.db.jooq.codegen.packages.CWMS_LOC_PACKAGE;
 import usace.cwms.db.jooq.codegen.packages.CWMS_TEXT_PACKAGE;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URLEncoder;
 import java.sql.CallableStatement;
 import java.sql.Clob;
@@ -33,6 +35,7 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.TimeZone;
 
 import static java.lang.String.format;
@@ -60,6 +63,10 @@ public final class RegularTimeSeriesTextDao extends JooqDao {
 
 
 
+    private static final String RETRIEVE_TS_TEXT_CALL =
+            "{call CWMS_TEXT.RETRIEVE_TS_TEXT(?,?,?,?,?,?,?,?,?,?,?)}";
+    private static final int STREAM_FETCH_SIZE = 100;
+
     private static final int TEXT_DOES_NOT_EXIST_ERROR_CODE = 20034;
     private static final int TEXT_ID_DOES_NOT_EXIST_ERROR_CODE = 20001;
 
@@ -94,7 +101,7 @@ public final class RegularTimeSeriesTextDao extends JooqDao {
             // Making the call from jOOQ package codegen does not work
             // b/c jOOQ MockResultSet eagerly loads the CLOB
             // we want to only load CLOB's under kiloByteLimit size.
-            try (CallableStatement stmt = conn.prepareCall("{call CWMS_TEXT.RETRIEVE_TS_TEXT(?,?,?,?,?,?,?,?,?,?,?)}")) {
+            try (CallableStatement stmt = conn.prepareCall(RETRIEVE_TS_TEXT_CALL)) {
                 parameterizeRetrieveTsText(stmt, tsId, textMask, startTime, endTime, versionDate, officeId);
                 stmt.execute();
                 List<RegularTextTimeSeriesRow> rows = new ArrayList<>();
@@ -108,17 +115,58 @@ public final class RegularTimeSeriesTextDao extends JooqDao {
                 }
                 return rows;
             } catch (SQLException e) {
-                if (e.getErrorCode() == TEXT_DOES_NOT_EXIST_ERROR_CODE || e.getErrorCode() == TEXT_ID_DOES_NOT_EXIST_ERROR_CODE) {
-                    NoDataFoundException ex = new NoDataFoundException("No data found for text timeseries: " + tsId);
-                    ex.initCause(e);
-                    throw ex;
-                } else {
-                    throw new DataAccessException("Error retrieving text time series: " + tsId, e);
-                }
+                throw retrieveFailed(tsId, e);
             }
         });
     }
 
+    /**
+     * Hands the rows to the handler as they are read from the RETRIEVE_TS_TEXT cursor instead
+     * of collecting them first.  Texts over the limit are not read at all, the row carries a
+     * url to them instead.
+     *
+     * @param header office, name and version date of the rows to read
+     * @param skip rows at startTime already returned on earlier pages
+     * @param pageSize the most rows to hand over, zero or less for all of them.  When there are
+     *     more, {@link TextTimeSeriesRows#getNextPage()} holds the cursor to carry on from.
+     */
+    public void streamRows(TextTimeSeries header, String textMask,
+            Instant startTime, int skip, Instant endTime, int kiloByteLimit, int pageSize,
+            ReplaceUtils.OperatorBuilder urlBuilder, TextTimeSeriesRowsHandler handler)
+            throws IOException {
+        String tsId = header.getName();
+        try {
+            connection(dsl, conn -> {
+                try (CallableStatement stmt = conn.prepareCall(RETRIEVE_TS_TEXT_CALL)) {
+                    parameterizeRetrieveTsText(stmt, tsId, textMask, startTime, endTime,
+                            header.getVersionDate(), header.getOfficeId());
+                    stmt.execute();
+                    try (ResultSet rs = (ResultSet) stmt.getObject(1)) {
+                        rs.setFetchSize(STREAM_FETCH_SIZE);
+                        handler.handle(header, new CursorRows(rs, tsId, startTime, skip,
+                                kiloByteLimit * 1024L / 2, pageSize, urlBuilder));
+                    }
+                } catch (SQLException e) {
+                    throw retrieveFailed(tsId, e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static RuntimeException retrieveFailed(String tsId, SQLException e) {
+        if (e.getErrorCode() == TEXT_DOES_NOT_EXIST_ERROR_CODE || e.getErrorCode() == TEXT_ID_DOES_NOT_EXIST_ERROR_CODE) {
+            NoDataFoundException ex = new NoDataFoundException("No data found for text timeseries: " + tsId);
+            ex.initCause(e);
+            return ex;
+        } else {
+            return new DataAccessException("Error retrieving text time series: " + tsId, e);
+        }
+    }
+
     private static void parameterizeRetrieveTsText(CallableStatement stmt, String tsId, String textMask,
             Instant pStartTime, Instant pEndTime, Instant pVersionDate,
             String officeId) throws SQLException {
@@ -135,7 +183,7 @@ public final class RegularTimeSeriesTextDao extends JooqDao {
         stmt.setString(11, officeId);
     }
 
-    private RegularTextTimeSeriesRow buildRow(ResultSet rs, long characterLimit,
+    private static RegularTextTimeSeriesRow buildRow(ResultSet rs, long characterLimit,
             ReplaceUtils.OperatorBuilder urlBuilder) throws SQLException, IOException {
         //Implementation will change with new CWMS schema
         //https://www.hec.usace.army.mil/confluence/display/CWMS/2024-02-29+Task2A+Text-ts+and+Binary-ts+Design
@@ -147,18 +195,123 @@ public final class RegularTimeSeriesTextDao extends JooqDao {
                 .withFilename(dateTime.getEpochSecond() + ".txt")
                 .withMediaType("text/plain");
         Clob clob = rs.getClob(TEXT);
-        if (clob.length() > characterLimit) {
-            String textId = rs.getString(TEXT_ID);
-            String url = urlBuilder.build().apply(dateTime.toString())
-                    //Hard-coding for now. Will be removed with schema update
-                    + format("&%s=%s", Controllers.CLOB_ID, URLEncoder.encode(textId, "UTF-8"));
-            builder.withValueUrl(url);
-        } else {
-            builder.withTextValue(ClobDao.readFully(clob));
+        try {
+            if (clob.length() > characterLimit) {
+                String textId = rs.getString(TEXT_ID);
+                String url = urlBuilder.build().apply(dateTime.toString())
+                        //Hard-coding for now. Will be removed with schema update
+                        + format("&%s=%s", Controllers.CLOB_ID, URLEncoder.encode(textId, "UTF-8"));
+                builder.withValueUrl(url);
+            } else {
+                builder.withTextValue(ClobDao.readFully(clob));
+            }
+        } finally {
+            // release the locator now rather than when the cursor closes
+            clob.free();
         }
         return builder.build();
     }
 
+    /**
+     * Builds each row when it is asked for.  Past the page size one more row is read, only
+     * for its date_time, which becomes the start of the next page.  Several rows can share a
+     * date_time, so the cursor also holds how many rows at that date_time were already
+     * returned, and the next page skips them.
+     */
+    static final class CursorRows implements TextTimeSeriesRows {
+        private final ResultSet rs;
+        private final String tsId;
+        private final Instant startTime;
+        private final long characterLimit;
+        private final int pageSize;
+        private final ReplaceUtils.OperatorBuilder urlBuilder;
+        private int skip;
+        private int count;
+        private Boolean hasNext;
+        private String nextPage;
+        // date_time of the last row returned or skipped and how many rows in a row had it
+        private Instant lastDateTime;
+        private int sameDateTime;
+
+        CursorRows(ResultSet rs, String tsId, Instant startTime, int skip, long characterLimit,
+                   int pageSize, ReplaceUtils.OperatorBuilder urlBuilder) {
+            this.rs = rs;
+            this.tsId = tsId;
+            this.startTime = startTime;
+            this.skip = skip;
+            this.characterLimit = characterLimit;
+            this.pageSize = pageSize;
+            this.urlBuilder = urlBuilder;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNext == null) {
+                try {
+                    boolean more = rs.next();
+                    while (more && skip > 0 && dateTime().equals(startTime)) {
+                        skip--;
+                        seen(startTime);
+                        more = rs.next();
+                    }
+                    skip = 0;
+                    if (more && pageSize > 0 && count >= pageSize) {
+                        Instant next = dateTime();
+                        int offset = next.equals(lastDateTime) ? sameDateTime : 0;
+                        nextPage = CwmsDTOPaginated.encodeCursor(CwmsDTOPaginated.delimiter,
+                                next.toEpochMilli(), offset, pageSize);
+                        more = false;
+                    }
+                    hasNext = more;
+                } catch (SQLException e) {
+                    throw retrieveFailed(tsId, e);
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public RegularTextTimeSeriesRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNext = null;
+            count++;
+            try {
+                RegularTextTimeSeriesRow row = buildRow(rs, characterLimit, urlBuilder);
+                seen(row.getDateTime());
+                return row;
+            } catch (SQLException e) {
+                throw retrieveFailed(tsId, e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public String getNextPage() {
+            return nextPage;
+        }
+
+        @Override
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        private Instant dateTime() throws SQLException {
+            return rs.getTimestamp(DATE_TIME, UTC_CALENDAR).toInstant();
+        }
+
+        private void seen(Instant dateTime) {
+            if (dateTime.equals(lastDateTime)) {
+                sameDateTime++;
+            } else {
+                lastDateTime = dateTime;
+                sameDateTime = 1;
+            }
+        }
+    }
+
     @NotNull
     public static String sanitizeFilename(@Nullable String inputName) {
         String retval = inputName == null ? "" : inputName.trim();
@@ -0,0 +1,23 @@
+package cwms.cda.data.dao.texttimeseries;
+
+import cwms.cda.data.dto.texttimeseries.RegularTextTimeSeriesRow;
+import java.util.Iterator;
+
+/**
+ * Rows of a text time series read from the database cursor while they are being consumed.
+ * Only valid for the duration of the {@link TextTimeSeriesRowsHandler} call.
+ */
+public interface TextTimeSeriesRows extends Iterator<RegularTextTimeSeriesRow> {
+
+    /**
+     * @return the cursor of the page following these rows, or null if there is none.  Only
+     *     known once every row has been read.
+     */
+    String getNextPage();
+
+    /**
+     * @return the page size in effect, which comes from the page cursor once paging has
+     *     started.  Zero or less when not paging.
+     */
+    int getPageSize();
+}
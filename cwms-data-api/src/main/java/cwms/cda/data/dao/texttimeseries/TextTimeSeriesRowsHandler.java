@@ -0,0 +1,14 @@
+package cwms.cda.data.dao.texttimeseries;
+
+import cwms.cda.data.dto.texttimeseries.TextTimeSeries;
+import java.io.IOException;
+
+/**
+ * Receives a text time series whose rows are read from the database while they are being
+ * consumed.  The header carries the metadata but no rows.
+ */
+@FunctionalInterface
+public interface TextTimeSeriesRowsHandler {
+
+    void handle(TextTimeSeries header, TextTimeSeriesRows rows) throws IOException;
+}
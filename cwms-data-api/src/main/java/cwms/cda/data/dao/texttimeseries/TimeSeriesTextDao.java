@@ -3,6 +3,7 @@ package cwms.cda.data.dao.texttimeseries;
 import cwms.cda.api.enums.VersionType;
 import cwms.cda.data.dao.JooqDao;
 import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.data.dto.CwmsDTOPaginated;
 import cwms.cda.data.dto.texttimeseries.RegularTextTimeSeriesRow;
 import cwms.cda.data.dto.texttimeseries.TextTimeSeries;
 import cwms.cda.helpers.ReplaceUtils;
@@ -10,6 +11,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jooq.DSLContext;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
@@ -44,6 +46,45 @@ public final class TimeSeriesTextDao extends JooqDao<TextTimeSeries> {
                 .build();
     }
 
+    /**
+     * Like {@link #retrieveFromDao} but the rows are handed to the handler as they are read.
+     *
+     * @param page cursor from a previous page, null for the first one.  Paging is over
+     *     date_time: the next page starts at the first row not yet returned, counted from
+     *     the rows at its date_time.
+     * @param pageSize the most rows per page, zero or less for all of them
+     */
+    public void streamFromDao(@NotNull String officeId, @NotNull String tsId,
+            String textMask, @NotNull Instant startTime, @NotNull Instant endTime,
+            @Nullable Instant versionDate, int kiloByteLimit, @Nullable String page,
+            int pageSize, ReplaceUtils.OperatorBuilder urlBuilder,
+            TextTimeSeriesRowsHandler handler) throws IOException {
+        Instant begin = startTime;
+        int skip = 0;
+        if (page != null && !page.isEmpty()) {
+            String[] parts = CwmsDTOPaginated.decodeCursor(page);
+            if (parts.length != 2 && parts.length != 3) {
+                throw new IllegalArgumentException("Invalid page cursor: " + page);
+            }
+            begin = Instant.ofEpochMilli(Long.parseLong(parts[0]));
+            if (parts.length == 3) {
+                skip = Integer.parseInt(parts[1]);
+            }
+            pageSize = Integer.parseInt(parts[parts.length - 1]);
+        }
+
+        VersionType versionType = TimeSeriesDaoImpl.getVersionType(dsl, tsId, officeId, versionDate != null);
+        String timeZoneId = TimeSeriesDaoImpl.getTimeZoneId(dsl, tsId, officeId);
+        TextTimeSeries header = new TextTimeSeries.Builder()
+                .withOfficeId(officeId)
+                .withName(tsId)
+                .withVersionDate(versionDate)
+                .withDateVersionType(versionType)
+                .withTimeZone(timeZoneId)
+                .build();
+        getRegularDao().streamRows(header, textMask, begin, skip, endTime, kiloByteLimit,
+                pageSize, urlBuilder, handler);
+    }
 
     public void create(TextTimeSeries tts, boolean replaceAll) {
         Instant versionDate = tts.getVersionDate();
@@ -38,12 +38,12 @@ public class Catalog extends CwmsDTOPaginated {
     private Catalog() {
     }
 
-    public Catalog(String page, int total, int pageSize, List<? extends CatalogEntry> entries) {
+    public Catalog(String page, Integer total, int pageSize, List<? extends CatalogEntry> entries) {
         this(page, total, pageSize, entries, null, null, null, null, null, null, null);
     }
 
     @SuppressWarnings("java:S107") // This just has this many parameters.
-    public Catalog(String page, int total, int pageSize, List<? extends CatalogEntry> entries,
+    public Catalog(String page, Integer total, int pageSize, List<? extends CatalogEntry> entries,
                    String office,
                    String idLike, String locCategoryLike, String locGroupLike,
                    String tsCategoryLike,
@@ -52,7 +52,7 @@ public class Catalog extends CwmsDTOPaginated {
     }
 
     @SuppressWarnings("java:S107") // This just has this many parameters.
-    public Catalog(String page, int total, int pageSize, List<? extends CatalogEntry> entries,
+    public Catalog(String page, Integer total, int pageSize, List<? extends CatalogEntry> entries,
                    String office,
                    String idLike, String locCategoryLike, String locGroupLike,
                    String tsCategoryLike,
@@ -101,7 +101,7 @@ public class Catalog extends CwmsDTOPaginated {
         private final String tsCategoryLike;
         private final String tsGroupLike;
         private final String boundingOfficeLike;
-        private int total;
+        private Integer total;
         private int pageSize;
 
         public CatalogPage(String page) {
@@ -121,7 +121,7 @@ public class Catalog extends CwmsDTOPaginated {
             tsCategoryLike = nullOrVal(parts[5]);
             tsGroupLike = nullOrVal(parts[6]);
             boundingOfficeLike = nullOrVal(parts[7]);
-            total = Integer.parseInt(parts[8]);
+            total = "null".equals(parts[8]) ? null : Integer.parseInt(parts[8]);
             pageSize = Integer.parseInt(parts[9]);
         }
 
@@ -166,7 +166,10 @@ public class Catalog extends CwmsDTOPaginated {
             return pageSize;
         }
 
-        public int getTotal() {
+        /**
+         * @return the total carried over from the first page, null if it was not counted
+         */
+        public Integer getTotal() {
             return total;
         }
 
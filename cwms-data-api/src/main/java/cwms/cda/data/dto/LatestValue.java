@@ -0,0 +1,122 @@
+package cwms.cda.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import cwms.cda.api.errors.FieldException;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.json.JsonV2;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Latest value of one requested time series.  Every requested identifier gets an entry, so a
+ * caller can tell an unknown identifier from a series with no recent data without the whole
+ * request failing.
+ */
+@Schema(description = "Latest value of a single time series in a bulk latest value request")
+@FormattableWith(contentType = Formats.JSONV2, formatter = JsonV2.class)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LatestValue implements CwmsDTOBase {
+
+    public enum Status {
+        /** At least one value was found in the window. */
+        OK,
+        /** The time series exists but has no values in the window. */
+        NO_DATA,
+        /** No time series with this identifier exists. */
+        NOT_FOUND,
+        /** The identifier was not looked up because it is not a valid identifier. */
+        INVALID
+    }
+
+    private String name;
+    private String officeId;
+    private Status status;
+    private List<Value> values;
+
+    @SuppressWarnings("unused") // required so Jackson can initialize
+    private LatestValue() {
+    }
+
+    public LatestValue(String name, String officeId, Status status, List<Value> values) {
+        this.name = name;
+        this.officeId = officeId;
+        this.status = status;
+        this.values = values == null || values.isEmpty() ? null
+                : Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    public static LatestValue notFound(String name) {
+        return new LatestValue(name, null, Status.NOT_FOUND, null);
+    }
+
+    public static LatestValue invalid(String name) {
+        return new LatestValue(name, null, Status.INVALID, null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOfficeId() {
+        return officeId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the values at the latest time, one per unit; null unless the status is OK
+     */
+    public List<Value> getValues() {
+        return values;
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        // Nothing to validate
+    }
+
+    @JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Value {
+        private String unit;
+        private Instant dateTime;
+        private Double value;
+        private Long qualityCode;
+
+        @SuppressWarnings("unused") // required so Jackson can initialize
+        private Value() {
+        }
+
+        public Value(String unit, Instant dateTime, Double value, Long qualityCode) {
+            this.unit = unit;
+            this.dateTime = dateTime;
+            this.value = value;
+            this.qualityCode = qualityCode;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public Instant getDateTime() {
+            return dateTime;
+        }
+
+        public Double getValue() {
+            return value;
+        }
+
+        public Long getQualityCode() {
+            return qualityCode;
+        }
+    }
+}
@@ -31,12 +31,12 @@ public class LocationLevels extends CwmsDTOPaginated {
     private LocationLevels() {
     }
 
-    private int offset;
-
-    public LocationLevels(int offset, int pageSize, Integer total) {
-        super(Integer.toString(offset), pageSize, total);
+    /**
+     * @param pageKey encoded key of the last row of the previous page, empty for the first page
+     */
+    public LocationLevels(String pageKey, int pageSize, Integer total) {
+        super(pageKey, pageSize, total);
         levels = new ArrayList<>();
-        this.offset = offset;
     }
 
     public List<LocationLevel> getLevels() {
@@ -47,16 +47,24 @@ public class LocationLevels extends CwmsDTOPaginated {
     public static class Builder {
         private LocationLevels workingLevels;
 
-        public Builder(int offset, int pageSize, Integer total) {
-            workingLevels = new LocationLevels(offset, pageSize, total);
+        private String nextPageKey;
+
+        public Builder(String pageKey, int pageSize, Integer total) {
+            workingLevels = new LocationLevels(pageKey, pageSize, total);
         }
 
-        public LocationLevels build() {
-            if (this.workingLevels.levels.size() == this.workingLevels.pageSize) {
+        /**
+         * Sets the encoded key of the last row on this page.  The next page starts after it.
+         * Leave unset when there is no more data.
+         */
+        public Builder nextPageKey(String key) {
+            this.nextPageKey = key;
+            return this;
+        }
 
-                String cursor =
-                        Integer.toString(this.workingLevels.offset + this.workingLevels.levels.size());
-                this.workingLevels.nextPage = encodeCursor(cursor,
+        public LocationLevels build() {
+            if (nextPageKey != null) {
+                this.workingLevels.nextPage = encodeCursor(nextPageKey,
                         this.workingLevels.pageSize,
                         this.workingLevels.total);
             } else {
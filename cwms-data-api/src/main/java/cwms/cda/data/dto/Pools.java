@@ -31,12 +31,12 @@ public class Pools extends CwmsDTOPaginated {
     private Pools() {
     }
 
-    private int offset;
-
-    public Pools(int offset, int pageSize, Integer total) {
-        super(Integer.toString(offset), pageSize, total);
+    /**
+     * @param pageKey encoded key of the last row of the previous page, empty for the first page
+     */
+    public Pools(String pageKey, int pageSize, Integer total) {
+        super(pageKey, pageSize, total);
         pools = new ArrayList<>();
-        this.offset = offset;
     }
 
     public List<Pool> getPools() {
@@ -47,16 +47,24 @@ public class Pools extends CwmsDTOPaginated {
     public static class Builder {
         private Pools workingPools;
 
-        public Builder(int offset, int pageSize, Integer total) {
-            workingPools = new Pools(offset, pageSize, total);
+        private String nextPageKey;
+
+        public Builder(String pageKey, int pageSize, Integer total) {
+            workingPools = new Pools(pageKey, pageSize, total);
         }
 
-        public Pools build() {
-            if (this.workingPools.pools.size() == this.workingPools.pageSize) {
+        /**
+         * Sets the encoded key of the last row on this page.  The next page starts after it.
+         * Leave unset when there is no more data.
+         */
+        public Builder nextPageKey(String key) {
+            this.nextPageKey = key;
+            return this;
+        }
 
-                String cursor =
-                        Integer.toString(this.workingPools.offset + this.workingPools.pools.size());
-                this.workingPools.nextPage = encodeCursor(cursor,
+        public Pools build() {
+            if (nextPageKey != null) {
+                this.workingPools.nextPage = encodeCursor(nextPageKey,
                         this.workingPools.pageSize,
                         this.workingPools.total);
             } else {
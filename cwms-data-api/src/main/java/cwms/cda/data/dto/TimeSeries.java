@@ -235,6 +235,22 @@ public class TimeSeries extends CwmsDTOPaginated {
         }
     }
 
+    /**
+     * Sets the page markers for a time series whose values are written straight to the
+     * client instead of being collected through {@link #addValue(Timestamp, Double, int)}.
+     *
+     * @param first date-time of the first value of this page, may be null if there are no values
+     * @param next date-time of the first value of the next page, null if this is the last page
+     */
+    public void setPageBounds(Timestamp first, Timestamp next) {
+        if ((page == null || page.isEmpty()) && first != null) {
+            page = encodeCursor(String.format("%d", first.getTime()), pageSize, total);
+        }
+        if (next != null) {
+            nextPage = encodeCursor(String.format("%d", next.toInstant().toEpochMilli()), pageSize, total);
+        }
+    }
+
     private List<Column> getColumnDescriptor(String format) {
         List<Column> columns = new ArrayList<>();
 
@@ -304,7 +320,7 @@ public class TimeSeries extends CwmsDTOPaginated {
         @SuppressWarnings("unused") // required so JAXB can initialize and marshal
         private Record() {}
 
-        protected Record(Timestamp dateTime, Double value, int qualityCode) {
+        public Record(Timestamp dateTime, Double value, int qualityCode) {
             this.dateTime = dateTime;
             this.value = value;
             this.qualityCode = qualityCode;
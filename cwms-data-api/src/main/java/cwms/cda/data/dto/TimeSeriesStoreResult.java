@@ -0,0 +1,64 @@
+package cwms.cda.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import cwms.cda.api.errors.FieldException;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.json.JsonV2;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Outcome of storing one series as part of a bulk time series store.
+ */
+@Schema(description = "Result of storing a single time series in a bulk store request")
+@FormattableWith(contentType = Formats.JSONV2, formatter = JsonV2.class)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TimeSeriesStoreResult implements CwmsDTOBase {
+    private String name;
+    private String officeId;
+    private boolean stored;
+    private String message;
+
+    @SuppressWarnings("unused") // required so Jackson can initialize
+    private TimeSeriesStoreResult() {
+    }
+
+    public TimeSeriesStoreResult(String name, String officeId, boolean stored, String message) {
+        this.name = name;
+        this.officeId = officeId;
+        this.stored = stored;
+        this.message = message;
+    }
+
+    public static TimeSeriesStoreResult stored(String name, String officeId) {
+        return new TimeSeriesStoreResult(name, officeId, true, null);
+    }
+
+    public static TimeSeriesStoreResult failed(String name, String officeId, String message) {
+        return new TimeSeriesStoreResult(name, officeId, false, message);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOfficeId() {
+        return officeId;
+    }
+
+    public boolean isStored() {
+        return stored;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        // Nothing to validate
+    }
+}
@@ -0,0 +1,74 @@
+package cwms.cda.data.dto.rating;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import cwms.cda.api.errors.FieldException;
+import cwms.cda.data.dto.CwmsDTOBase;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.json.JsonV2;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Values run through a rating, along with the inputs they were computed from.
+ */
+@Schema(description = "Result of rating or reverse rating a set of values")
+@FormattableWith(contentType = Formats.JSON, formatter = JsonV2.class)
+@FormattableWith(contentType = Formats.JSONV2, formatter = JsonV2.class)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+public class RatedValues implements CwmsDTOBase {
+    private String officeId;
+    private String ratingId;
+    private boolean reverse;
+    @Schema(description = "Time the rating was evaluated at for each value")
+    private List<Instant> times;
+    private List<Double> values;
+    @Schema(description = "Rated values, in the same order as the input.  Values outside the "
+            + "rating are null.")
+    private List<Double> ratedValues;
+
+    @SuppressWarnings("unused") // required so Jackson can initialize
+    private RatedValues() {
+    }
+
+    public RatedValues(String officeId, String ratingId, boolean reverse, List<Instant> times,
+                       List<Double> values, List<Double> ratedValues) {
+        this.officeId = officeId;
+        this.ratingId = ratingId;
+        this.reverse = reverse;
+        this.times = times;
+        this.values = values;
+        this.ratedValues = ratedValues;
+    }
+
+    public String getOfficeId() {
+        return officeId;
+    }
+
+    public String getRatingId() {
+        return ratingId;
+    }
+
+    public boolean isReverse() {
+        return reverse;
+    }
+
+    public List<Instant> getTimes() {
+        return times;
+    }
+
+    public List<Double> getValues() {
+        return values;
+    }
+
+    public List<Double> getRatedValues() {
+        return ratedValues;
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        // Nothing to validate
+    }
+}
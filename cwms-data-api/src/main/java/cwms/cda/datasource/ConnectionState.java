@@ -0,0 +1,128 @@
+package cwms.cda.datasource;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.CdaMetricsContextListener;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Remembers the session settings last applied to each physical database connection, so a
+ * pooled connection that already has the right office, user or client info is not set up
+ * again on every checkout.
+ *
+ * <p>Everything in CDA that changes these settings has to go through {@link #apply} or call
+ * {@link #forget} afterwards, otherwise a later preparation could be skipped wrongly.  Setting
+ * the user also forgets the office, since cwms_env may reset it.  Tracking can be turned off
+ * with {@value #TRACKING_KEY}=false.
+ */
+public final class ConnectionState {
+    public static final String TRACKING_KEY = "cwms.dataapi.connection.state.tracking";
+
+    /**
+     * A session setting that is applied to a connection.
+     */
+    public enum Setting {
+        OFFICE("office"),
+        USER("user"),
+        CLIENT_INFO("client_info");
+
+        private final Counter skipped;
+        private final Counter executed;
+
+        Setting(String metricName) {
+            MetricRegistry metrics = CdaMetricsContextListener.METRIC_REGISTRY;
+            skipped = metrics.counter(MetricRegistry.name(ConnectionState.class, metricName, "skipped"));
+            executed = metrics.counter(MetricRegistry.name(ConnectionState.class, metricName, "executed"));
+        }
+    }
+
+    /**
+     * Applies a setting to a connection.
+     */
+    @FunctionalInterface
+    public interface SettingAction {
+        void apply() throws SQLException;
+    }
+
+    private static final boolean TRACKING = Boolean.parseBoolean(
+            System.getProperty(TRACKING_KEY, "true"));
+
+    // Weak keys so connections the pool throws away are dropped with it.
+    private static final Map<Connection, Map<Setting, Object>> states =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ConnectionState() {
+    }
+
+    /**
+     * Runs the action unless the connection is known to have this value already.
+     *
+     * @param connection connection as handed out by the pool
+     * @param setting which setting the action changes
+     * @param value the value the action sets, compared with equals
+     * @param action sets the value; if it fails everything known about the connection is
+     *     forgotten
+     */
+    public static void apply(Connection connection, Setting setting, Object value,
+                             SettingAction action) throws SQLException {
+        Connection physical = TRACKING ? physical(connection) : null;
+        if (physical != null) {
+            Map<Setting, Object> state = states.get(physical);
+            if (state != null && state.containsKey(setting)
+                    && Objects.equals(state.get(setting), value)) {
+                setting.skipped.inc();
+                return;
+            }
+        }
+
+        try {
+            action.apply();
+        } catch (SQLException | RuntimeException e) {
+            if (physical != null) {
+                states.remove(physical);
+            }
+            throw e;
+        }
+        setting.executed.inc();
+
+        if (physical != null) {
+            synchronized (states) {
+                Map<Setting, Object> state = states.computeIfAbsent(physical,
+                        c -> new EnumMap<>(Setting.class));
+                state.put(setting, value);
+                if (setting == Setting.USER) {
+                    state.remove(Setting.OFFICE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget everything about a connection, for code that changes its session state
+     * directly.
+     */
+    public static void forget(Connection connection) {
+        Connection physical = physical(connection);
+        if (physical != null) {
+            states.remove(physical);
+        }
+    }
+
+    /**
+     * Pools hand out a new proxy on each checkout, so state is kept against the connection
+     * underneath.  Connections that can not be unwrapped are not tracked.
+     */
+    private static Connection physical(Connection connection) {
+        try {
+            return connection.unwrap(Connection.class);
+        } catch (SQLException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package cwms.cda.datasource;
+
+import cwms.cda.RequestMetrics;
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+/**
+ * Adds the time spent waiting for a connection from the pool to the metrics of the current
+ * request.
+ */
+public class TimingDataSource extends DelegatingDataSource {
+
+    public TimingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return getDelegate().getConnection();
+        } finally {
+            RequestMetrics.recordConnectionWait(start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return getDelegate().getConnection(username, password);
+        } finally {
+            RequestMetrics.recordConnectionWait(start);
+        }
+    }
+}
@@ -24,8 +24,13 @@
 
 package cwms.cda.formatters;
 
+import cwms.cda.RequestMetrics;
 import cwms.cda.data.dto.CwmsDTOBase;
 import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.json.JsonV2TimeSeriesWriter;
+import cwms.cda.formatters.xml.XMLv2TimeSeriesWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -53,13 +58,15 @@ public class Formats {
     public static final String GEOJSON = "application/geo+json";
     public static final String PGJSON = "application/vnd.pg+json";
     public static final String NAMED_PGJSON = "application/vnd.named+pg+json";
+    public static final String NDJSON = "application/x-ndjson";
 
 
     private static final List<ContentType> contentTypeList = new ArrayList<>();
 
     static {
         contentTypeList.addAll(
-                Stream.of(JSON, XML, XMLV2, WML2, JSONV2, TAB, CSV, GEOJSON, PGJSON, NAMED_PGJSON)
+                Stream.of(JSON, XML, XMLV2, WML2, JSONV2, TAB, CSV, GEOJSON, PGJSON, NAMED_PGJSON,
+                                NDJSON)
                         .map(ContentType::new)
                         .collect(Collectors.toList()));
     }
@@ -75,11 +82,19 @@ public class Formats {
         typeMap.put("geojson", Formats.GEOJSON);
         typeMap.put("pgjson", Formats.PGJSON);
         typeMap.put("named-pgjson", Formats.NAMED_PGJSON);
+        typeMap.put("ndjson", Formats.NDJSON);
     }
 
 
     private final Map<ContentType, Map<Class<? extends CwmsDTOBase>, OutputFormatter>> formatters = new LinkedHashMap<>();
 
+    private static final List<TimeSeriesStreamWriter> timeSeriesWriters = new ArrayList<>();
+
+    static {
+        timeSeriesWriters.add(new JsonV2TimeSeriesWriter());
+        timeSeriesWriters.add(new XMLv2TimeSeriesWriter());
+    }
+
     private static final Formats formats = new Formats();
 
     private Formats() {
@@ -101,6 +116,20 @@ public class Formats {
 
     }
 
+    private void writeFormatted(ContentType type, CwmsDTOBase toFormat, OutputStream out)
+            throws IOException {
+        Objects.requireNonNull(toFormat, "Object to be formatted should not be null");
+        OutputFormatter outputFormatter = getOutputFormatter(type, toFormat.getClass());
+
+        if (outputFormatter != null) {
+            outputFormatter.format(toFormat, out);
+        } else {
+            String message = String.format("No Format for this content-type and data-type : (%s, %s)",
+                    type.toString(), toFormat.getClass().getName());
+            throw new FormattingException(message);
+        }
+    }
+
     private String getFormatted(ContentType type, List<? extends CwmsDTOBase> dtos, Class<?
             extends CwmsDTOBase> rootType) throws FormattingException {
         for (ContentType key : formatters.keySet()) {
@@ -146,12 +175,51 @@ public class Formats {
     }
 
     public static String format(ContentType type, CwmsDTOBase toFormat) throws FormattingException {
-        return formats.getFormatted(type, toFormat);
+        long start = System.nanoTime();
+        try {
+            return formats.getFormatted(type, toFormat);
+        } finally {
+            RequestMetrics.recordFormatting(start);
+        }
+    }
+
+    /**
+     * Writes the formatted dto straight to the stream instead of returning it as a String.
+     */
+    public static void format(ContentType type, CwmsDTOBase toFormat, OutputStream out)
+            throws IOException, FormattingException {
+        long start = System.nanoTime();
+        try {
+            formats.writeFormatted(type, toFormat, out);
+        } finally {
+            RequestMetrics.recordFormatting(start);
+        }
     }
 
     public static String format(ContentType type, List<? extends CwmsDTOBase> toFormat, Class<?
             extends CwmsDTOBase> rootType) throws FormattingException {
-        return formats.getFormatted(type, toFormat, rootType);
+        long start = System.nanoTime();
+        try {
+            return formats.getFormatted(type, toFormat, rootType);
+        } finally {
+            RequestMetrics.recordFormatting(start);
+        }
+    }
+
+    /**
+     * Returns a writer that can stream a time series in the given content type.
+     *
+     * @param type requested content type
+     * @return the writer, or null if time series cannot be streamed in this content type
+     */
+    public static TimeSeriesStreamWriter getTimeSeriesStreamWriter(ContentType type) {
+        // writer type first, so an unversioned request does not match a versioned writer
+        for (TimeSeriesStreamWriter writer : timeSeriesWriters) {
+            if (new ContentType(writer.getContentType()).equals(type)) {
+                return writer;
+            }
+        }
+        return null;
     }
 
 
@@ -1,5 +1,8 @@
 package cwms.cda.formatters;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import cwms.cda.data.dto.CwmsDTOBase;
@@ -8,4 +11,12 @@ public interface OutputFormatter {
     public String getContentType();
     public String format(CwmsDTOBase dto);
     public String format(List<? extends CwmsDTOBase> dtoList);
+
+    /**
+     * Writes the formatted dto to the stream as UTF-8.  Formatters that can render directly to
+     * a stream should override this to avoid building the whole body as a String first.
+     */
+    default void format(CwmsDTOBase dto, OutputStream out) throws IOException {
+        out.write(format(dto).getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,18 @@
+package cwms.cda.formatters;
+
+import cwms.cda.data.dto.TimeSeries;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Writes a time series directly to an output stream, taking the values from an iterator
+ * instead of {@link TimeSeries#getValues()}.  The output matches what the regular
+ * {@link OutputFormatter} for the same content type produces.
+ */
+public interface TimeSeriesStreamWriter {
+    String getContentType();
+
+    void write(TimeSeries header, Iterator<TimeSeries.Record> values, OutputStream out)
+            throws IOException;
+}
@@ -25,6 +25,7 @@
 package cwms.cda.formatters.json;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -37,6 +38,8 @@ import cwms.cda.formatters.FormattingException;
 import cwms.cda.formatters.OutputFormatter;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -88,6 +91,16 @@ public class JsonV2 implements OutputFormatter {
         }
     }
 
+    @Override
+    public void format(CwmsDTOBase dto, OutputStream out) throws IOException {
+        try {
+            // the response stream is closed by the container, not by the formatter
+            om.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, dto);
+        } catch (JsonProcessingException e) {
+            throw new FormattingException("Could not format :" + dto, e);
+        }
+    }
+
     @Override
     public String format(List<? extends CwmsDTOBase> dtoList) {
         try {
@@ -0,0 +1,65 @@
+package cwms.cda.formatters.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import cwms.cda.data.dao.texttimeseries.TextTimeSeriesRows;
+import cwms.cda.data.dto.texttimeseries.TextTimeSeries;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Streaming counterpart of {@link JsonV2} for text time series.  The header fields and each
+ * row are rendered by the same ObjectMapper so they match the non-streaming output.  When
+ * paging, the page size and next page are written after the rows since the next page is only
+ * known once they have all been read.
+ */
+public class JsonV2TextTimeSeriesWriter {
+    static final String VALUES = "regular-text-values";
+    static final String PAGE_SIZE = "page-size";
+    static final String NEXT_PAGE = "next-page";
+
+    private final ObjectMapper om;
+    private final ObjectWriter rowWriter;
+
+    public JsonV2TextTimeSeriesWriter() {
+        this.om = JsonV2.buildObjectMapper();
+        this.rowWriter = om.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void write(TextTimeSeries header, TextTimeSeriesRows rows, OutputStream out)
+            throws IOException {
+        ObjectNode tree = om.valueToTree(header);
+        tree.remove(VALUES);
+
+        try (JsonGenerator gen = om.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // the caller owns the stream
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            Iterator<Map.Entry<String, JsonNode>> fields = tree.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                gen.writeFieldName(field.getKey());
+                om.writeTree(gen, field.getValue());
+            }
+            gen.writeArrayFieldStart(VALUES);
+            while (rows.hasNext()) {
+                rowWriter.writeValue(gen, rows.next());
+            }
+            gen.writeEndArray();
+            if (rows.getPageSize() > 0) {
+                gen.writeNumberField(PAGE_SIZE, rows.getPageSize());
+                if (rows.getNextPage() != null) {
+                    gen.writeStringField(NEXT_PAGE, rows.getNextPage());
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
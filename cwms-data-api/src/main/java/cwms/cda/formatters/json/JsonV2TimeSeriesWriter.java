@@ -0,0 +1,76 @@
+package cwms.cda.formatters.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.TimeSeriesStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Streaming counterpart of {@link JsonV2} for time series.  The header fields are
+ * rendered by the same ObjectMapper so they match the non-streaming output; only
+ * the values array is written record by record.
+ */
+public class JsonV2TimeSeriesWriter implements TimeSeriesStreamWriter {
+    private static final String VALUES = "values";
+
+    private final ObjectMapper om;
+
+    public JsonV2TimeSeriesWriter() {
+        this.om = JsonV2.buildObjectMapper();
+    }
+
+    @Override
+    public String getContentType() {
+        return Formats.JSONV2;
+    }
+
+    @Override
+    public void write(TimeSeries header, Iterator<TimeSeries.Record> values, OutputStream out)
+            throws IOException {
+        // header has no values of its own, so the tree is small
+        ObjectNode tree = om.valueToTree(header);
+
+        try (JsonGenerator gen = om.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // the caller owns the stream
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            Iterator<Map.Entry<String, JsonNode>> fields = tree.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                gen.writeFieldName(field.getKey());
+                if (VALUES.equals(field.getKey())) {
+                    writeValues(gen, values);
+                } else {
+                    om.writeTree(gen, field.getValue());
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeValues(JsonGenerator gen, Iterator<TimeSeries.Record> values)
+            throws IOException {
+        gen.writeStartArray();
+        while (values.hasNext()) {
+            TimeSeries.Record value = values.next();
+            gen.writeStartArray();
+            gen.writeNumber(value.getDateTime().getTime());
+            if (value.getValue() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(value.getValue());
+            }
+            gen.writeNumber(value.getQualityCode());
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+    }
+}
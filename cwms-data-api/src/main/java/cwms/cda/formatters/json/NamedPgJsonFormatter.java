@@ -54,6 +54,17 @@ public class NamedPgJsonFormatter implements OutputFormatter {
         return retVal.toString();
     }
 
+    /**
+     * Format a graph that was already built, such as a cached basin graph or part of one.
+     */
+    public String format(String name, Graph graph) {
+        try {
+            return formatNamedGraph(name, graph);
+        } catch (JsonProcessingException e) {
+            throw new FormattingException(e.getMessage());
+        }
+    }
+
     private String formatNamedGraph(String name, Graph graph) throws JsonProcessingException {
         String retVal = getDefaultNamedPgJson(name);
         if (!graph.isEmpty()) {
@@ -0,0 +1,24 @@
+package cwms.cda.formatters.json;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes newline delimited JSON: one object per line, serialized the same way as the
+ * version 2 JSON format.  The stream is left open so objects can be written as they are read.
+ */
+public class NdJsonWriter {
+    private static final ObjectWriter writer = JsonV2.buildObjectMapper().writer();
+
+    private final OutputStream out;
+
+    public NdJsonWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public void write(Object value) throws IOException {
+        out.write(writer.writeValueAsBytes(value));
+        out.write('\n');
+    }
+}
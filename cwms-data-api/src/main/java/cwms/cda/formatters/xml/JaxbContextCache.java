@@ -0,0 +1,115 @@
+package cwms.cda.formatters.xml;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Holds one JAXBContext per bound class for the life of the application, along with a small
+ * pool of marshallers for each context.  Creating a JAXBContext walks the whole class graph
+ * and is far more expensive than the marshalling itself.
+ *
+ * <p>Contexts are thread safe, marshallers are not; a marshaller must be returned with
+ * {@link #release(Class, boolean, Marshaller)} by the thread that borrowed it and not used
+ * afterwards.
+ */
+public final class JaxbContextCache {
+    static final int MAX_POOLED_PER_CLASS = 16;
+    public static final String FORMATTED_OUTPUT_PROPERTY = "cwms.dataapi.xml.formatted";
+
+    private static final Map<Class<?>, JAXBContext> contexts = new ConcurrentHashMap<>();
+    private static final Map<PoolKey, Pool> pools = new ConcurrentHashMap<>();
+
+    private JaxbContextCache() {
+    }
+
+    /**
+     * Whether XML formatters indent their output by default.  Indenting is on unless the
+     * {@value #FORMATTED_OUTPUT_PROPERTY} system property is set to false.
+     */
+    public static boolean isFormattedOutput() {
+        return Boolean.parseBoolean(System.getProperty(FORMATTED_OUTPUT_PROPERTY, "true"));
+    }
+
+    public static JAXBContext getContext(Class<?> klass) throws JAXBException {
+        JAXBContext context = contexts.get(klass);
+        if (context == null) {
+            // Two threads may both build the context the first time; only one is kept.
+            JAXBContext created = JAXBContext.newInstance(klass);
+            context = contexts.putIfAbsent(klass, created);
+            if (context == null) {
+                context = created;
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Takes a marshaller for the class from the pool, creating one if none are free.
+     *
+     * @param klass class the context is bound to
+     * @param formatted whether the marshaller indents its output
+     */
+    public static Marshaller borrow(Class<?> klass, boolean formatted) throws JAXBException {
+        Pool pool = pools.computeIfAbsent(new PoolKey(klass, formatted), k -> new Pool());
+        Marshaller marshaller = pool.marshallers.poll();
+        if (marshaller != null) {
+            pool.size.decrementAndGet();
+            return marshaller;
+        }
+        marshaller = getContext(klass).createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formatted);
+        return marshaller;
+    }
+
+    public static void release(Class<?> klass, boolean formatted, Marshaller marshaller) {
+        Pool pool = pools.get(new PoolKey(klass, formatted));
+        if (pool != null && pool.size.incrementAndGet() <= MAX_POOLED_PER_CLASS) {
+            pool.marshallers.offer(marshaller);
+        } else if (pool != null) {
+            pool.size.decrementAndGet();
+        }
+    }
+
+    public static Unmarshaller createUnmarshaller(Class<?> klass) throws JAXBException {
+        return getContext(klass).createUnmarshaller();
+    }
+
+    private static final class Pool {
+        private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+    }
+
+    private static final class PoolKey {
+        private final Class<?> klass;
+        private final boolean formatted;
+
+        private PoolKey(Class<?> klass, boolean formatted) {
+            this.klass = klass;
+            this.formatted = formatted;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PoolKey)) {
+                return false;
+            }
+            PoolKey other = (PoolKey) o;
+            return formatted == other.formatted && klass.equals(other.klass);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * klass.hashCode() + Boolean.hashCode(formatted);
+        }
+    }
+}
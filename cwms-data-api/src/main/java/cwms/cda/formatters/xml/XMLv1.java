@@ -5,21 +5,28 @@ import cwms.cda.data.dto.Office;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.OutputFormatter;
 import io.javalin.http.InternalServerErrorResponse;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
+import javax.xml.transform.Result;
+import javax.xml.transform.stream.StreamResult;
 
 public class XMLv1 implements OutputFormatter {
     private static final Logger logger = Logger.getLogger(XMLv1.class.getName());
 
+    private final boolean formatted;
+
     public XMLv1() {
+        this(JaxbContextCache.isFormattedOutput());
+    }
 
+    public XMLv1(boolean formatted) {
+        this.formatted = formatted;
     }
 
     @Override
@@ -29,19 +36,22 @@ public class XMLv1 implements OutputFormatter {
 
     @Override
     public String format(CwmsDTOBase dto) {
-        try {
-            final JAXBContext context = JAXBContext.newInstance(dto.getClass());
-            final Marshaller mar = context.createMarshaller();
-            mar.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+        StringWriter sw = new StringWriter();
+        marshal(dto, new StreamResult(sw));
+        return sw.toString();
+    }
 
-            StringWriter sw = new StringWriter();
-            PrintWriter pw = new PrintWriter(sw);
+    @Override
+    public void format(CwmsDTOBase dto, OutputStream out) {
+        marshal(dto, new StreamResult(out));
+    }
+
+    private void marshal(CwmsDTOBase dto, Result result) {
+        try {
             if (dto instanceof Office) {
-                mar.marshal(new XMLv1Office(Arrays.asList((Office) dto)), pw);
-                return sw.toString();
+                marshal(new XMLv1Office(Arrays.asList((Office) dto)), result);
             } else {
-                mar.marshal(dto, pw);
-                return sw.toString();
+                marshal((Object) dto, result);
             }
         } catch (JAXBException jaxb) {
             String msg = dto != null ?
@@ -53,19 +63,22 @@ public class XMLv1 implements OutputFormatter {
         }
     }
 
+    private void marshal(Object jaxbElement, Result result) throws JAXBException {
+        Marshaller mar = JaxbContextCache.borrow(jaxbElement.getClass(), formatted);
+        try {
+            mar.marshal(jaxbElement, result);
+        } finally {
+            JaxbContextCache.release(jaxbElement.getClass(), formatted, mar);
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked") // we're ALWAYS checking before conversion in this function
     public String format(List<? extends CwmsDTOBase> dtoList) {
         try {
-            final JAXBContext context = JAXBContext.newInstance(dtoList.getClass());
-            final Marshaller mar = context.createMarshaller();
-            mar.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-
-            StringWriter sw = new StringWriter();
-            PrintWriter pw = new PrintWriter(sw);
-
             if (!dtoList.isEmpty() && dtoList.get(0) instanceof Office) {
-                mar.marshal(new XMLv1Office((List<Office>) dtoList), pw);
+                StringWriter sw = new StringWriter();
+                marshal(new XMLv1Office((List<Office>) dtoList), new StreamResult(sw));
                 return sw.toString();
             }
         } catch (Exception err) {
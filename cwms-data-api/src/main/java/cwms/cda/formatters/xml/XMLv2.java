@@ -4,19 +4,29 @@ import cwms.cda.data.dto.CwmsDTOBase;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.OutputFormatter;
 import io.javalin.http.InternalServerErrorResponse;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 
 public class XMLv2 implements OutputFormatter {
     private static final Logger logger = Logger.getLogger(XMLv2.class.getName());
 
+    private final boolean formatted;
+
     public XMLv2() {
+        this(JaxbContextCache.isFormattedOutput());
+    }
+
+    /**
+     * @param formatted indent the output.  Unformatted output is smaller and cheaper to
+     *                  produce, which suits clients that never look at it by eye.
+     */
+    public XMLv2(boolean formatted) {
+        this.formatted = formatted;
     }
 
     @Override
@@ -27,24 +37,42 @@ public class XMLv2 implements OutputFormatter {
     @Override
     public String format(CwmsDTOBase dto) {
         try {
-            final JAXBContext context = JAXBContext.newInstance(dto.getClass());
-            final Marshaller mar = context.createMarshaller();
-            mar.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-
             StringWriter sw = new StringWriter();
-            PrintWriter pw = new PrintWriter(sw);
-            mar.marshal(dto, pw);
+            Marshaller mar = JaxbContextCache.borrow(dto.getClass(), formatted);
+            try {
+                mar.marshal(dto, sw);
+            } finally {
+                JaxbContextCache.release(dto.getClass(), formatted, mar);
+            }
             return sw.toString();
         } catch (JAXBException jaxb) {
-            String msg = dto != null ?
-                    "Error rendering '" + dto + "' to XML"
-                    :
-                    "Null element passed to formatter";
-            logger.log(Level.WARNING, msg, jaxb);
-            throw new InternalServerErrorResponse("Invalid Parameters");
+            throw renderError(dto, jaxb);
+        }
+    }
+
+    @Override
+    public void format(CwmsDTOBase dto, OutputStream out) {
+        try {
+            Marshaller mar = JaxbContextCache.borrow(dto.getClass(), formatted);
+            try {
+                mar.marshal(dto, out);
+            } finally {
+                JaxbContextCache.release(dto.getClass(), formatted, mar);
+            }
+        } catch (JAXBException jaxb) {
+            throw renderError(dto, jaxb);
         }
     }
 
+    private static InternalServerErrorResponse renderError(CwmsDTOBase dto, Exception jaxb) {
+        String msg = dto != null ?
+                "Error rendering '" + dto + "' to XML"
+                :
+                "Null element passed to formatter";
+        logger.log(Level.WARNING, msg, jaxb);
+        return new InternalServerErrorResponse("Invalid Parameters");
+    }
+
     @Override
     public String format(List<? extends CwmsDTOBase> dtoList) {
         throw new UnsupportedOperationException("Unable to process your request");
@@ -0,0 +1,116 @@
+package cwms.cda.formatters.xml;
+
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.TimeSeriesStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.dom.DOMResult;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Streaming counterpart of {@link XMLv2} for time series.  The header is marshalled by
+ * JAXB into a small DOM and copied out through StAX; the values element is written
+ * record by record.
+ */
+public class XMLv2TimeSeriesWriter implements TimeSeriesStreamWriter {
+    private static final String VALUES = "values";
+    private static final XMLOutputFactory outputFactory = XMLOutputFactory.newFactory();
+
+    @Override
+    public String getContentType() {
+        return Formats.XMLV2;
+    }
+
+    @Override
+    public void write(TimeSeries header, Iterator<TimeSeries.Record> values, OutputStream out)
+            throws IOException {
+        try {
+            DOMResult dom = new DOMResult();
+            Marshaller mar = JaxbContextCache.borrow(TimeSeries.class, false);
+            try {
+                mar.marshal(header, dom);
+            } finally {
+                JaxbContextCache.release(TimeSeries.class, false, mar);
+            }
+            Node root = ((Document) dom.getNode()).getDocumentElement();
+
+            XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement(root.getNodeName());
+            writeAttributes(writer, root);
+            for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE && VALUES.equals(child.getNodeName())) {
+                    writeValues(writer, values);
+                } else {
+                    writeNode(writer, child);
+                }
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+            writer.close();
+        } catch (JAXBException | XMLStreamException e) {
+            throw new IOException("Error rendering time series " + header.getName() + " to XML", e);
+        }
+    }
+
+    private static void writeValues(XMLStreamWriter writer, Iterator<TimeSeries.Record> values)
+            throws XMLStreamException {
+        writer.writeStartElement(VALUES);
+        while (values.hasNext()) {
+            TimeSeries.Record value = values.next();
+            writer.writeStartElement("record");
+            writeElement(writer, "date-time", Long.toString(value.getDateTime().getTime()));
+            if (value.getValue() != null) {
+                writeElement(writer, "value", DatatypeConverter.printDouble(value.getValue()));
+            }
+            writeElement(writer, "quality-code", Integer.toString(value.getQualityCode()));
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+
+    private static void writeElement(XMLStreamWriter writer, String name, String text)
+            throws XMLStreamException {
+        writer.writeStartElement(name);
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+    }
+
+    private static void writeNode(XMLStreamWriter writer, Node node) throws XMLStreamException {
+        switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                writer.writeStartElement(node.getNodeName());
+                writeAttributes(writer, node);
+                for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    writeNode(writer, child);
+                }
+                writer.writeEndElement();
+                break;
+            case Node.TEXT_NODE:
+            case Node.CDATA_SECTION_NODE:
+                writer.writeCharacters(node.getNodeValue());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void writeAttributes(XMLStreamWriter writer, Node node) throws XMLStreamException {
+        NamedNodeMap attributes = node.getAttributes();
+        for (int i = 0; attributes != null && i < attributes.getLength(); i++) {
+            Node attribute = attributes.item(i);
+            writer.writeAttribute(attribute.getNodeName(), attribute.getNodeValue());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package cwms.cda.helpers;
+
+import java.io.IOException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Keeps track of how many bytes are written to the output stream of a response, for the
+ * request metrics.  Anything written through {@link #getWriter()} is not counted.
+ */
+public class CountingResponse extends HttpServletResponseWrapper {
+    private CountingServletOutputStream out;
+
+    public CountingResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (out == null) {
+            out = new CountingServletOutputStream(super.getOutputStream());
+        }
+        return out;
+    }
+
+    public long getCount() {
+        return out == null ? 0 : out.count;
+    }
+
+    private static final class CountingServletOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private long count = 0;
+
+        CountingServletOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package cwms.cda.helpers;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Small bounded cache where entries expire a fixed time after they were loaded.
+ * Least recently used entries are dropped once the size limit is reached.
+ * Loader failures are not cached, and neither are values whose load was under way when
+ * entries were invalidated, since those may have been read before the change.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ExpiringCache<K, V> {
+
+    private final long ttlMillis;
+    private final Map<K, Entry<V>> entries;
+    private final Counter hits;
+    private final Counter misses;
+    // bumped by every invalidation, guarded by entries
+    private long generation = 0;
+
+    /**
+     * @param metrics registry for the hit and miss counters
+     * @param metricName base name; counters are registered as name.hits and name.misses
+     * @param maxSize maximum number of entries kept
+     * @param ttl how long an entry stays valid after it was loaded
+     */
+    public ExpiringCache(MetricRegistry metrics, String metricName, int maxSize, Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = metrics.counter(name(metricName, "hits"));
+        this.misses = metrics.counter(name(metricName, "misses"));
+    }
+
+    /**
+     * Returns the cached value for the key, calling the loader if there is no valid entry.
+     * The loader runs outside the cache lock so a slow load does not block other keys.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expires > now) {
+                hits.inc();
+                return entry.value;
+            }
+            loadGeneration = generation;
+        }
+        misses.inc();
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (entries) {
+                if (generation == loadGeneration) {
+                    entries.put(key, new Entry<>(value, now + ttlMillis));
+                }
+            }
+        }
+        return value;
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+            generation++;
+        }
+    }
+
+    /**
+     * Removes every entry matching the predicate.
+     */
+    public void invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+        synchronized (entries) {
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Entry<V>> e = it.next();
+                if (predicate.test(e.getKey(), e.getValue().value)) {
+                    it.remove();
+                }
+            }
+            generation++;
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            generation++;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expires;
+
+        private Entry(V value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package cwms.cda.helpers;
+
+import cwms.cda.api.errors.NotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the parts of resumable uploads on local disk until the upload is complete.  Parts are
+ * appended in order: each one states the offset it starts at, which has to be the number of
+ * bytes already received.  A client that lost its connection asks for the current size and
+ * carries on from there.  Uploads not touched for {@value #TTL_KEY} hours are removed, and no
+ * upload may grow past {@value #MAX_SIZE_KEY} bytes.
+ */
+public class UploadStaging {
+    private static final Logger logger = Logger.getLogger(UploadStaging.class.getName());
+
+    public static final String DIRECTORY_KEY = "cwms.dataapi.upload.directory";
+    public static final String TTL_KEY = "cwms.dataapi.upload.ttl.hours";
+    public static final String MAX_SIZE_KEY = "cwms.dataapi.upload.max.bytes";
+    public static final long DEFAULT_MAX_SIZE = 1024L * 1024L * 1024L;
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}");
+    private static final String SUFFIX = ".part";
+
+    private final Path directory;
+    private final Duration ttl;
+    private final long maxSize;
+
+    public UploadStaging(Path directory, Duration ttl) {
+        this(directory, ttl, DEFAULT_MAX_SIZE);
+    }
+
+    public UploadStaging(Path directory, Duration ttl, long maxSize) {
+        this.directory = directory;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+    }
+
+    public static UploadStaging fromSystemProperties() {
+        String configured = System.getProperty(DIRECTORY_KEY);
+        Path directory = configured != null ? Paths.get(configured)
+                : Paths.get(System.getProperty("java.io.tmpdir"), "cda-uploads");
+        return new UploadStaging(directory, Duration.ofHours(Long.getLong(TTL_KEY, 24L)),
+                Long.getLong(MAX_SIZE_KEY, DEFAULT_MAX_SIZE));
+    }
+
+    /**
+     * @return the id of a new, empty upload
+     */
+    public String begin() throws IOException {
+        Files.createDirectories(directory);
+        removeExpired();
+        String uploadId = UUID.randomUUID().toString();
+        Files.createFile(file(uploadId));
+        return uploadId;
+    }
+
+    /**
+     * @return the number of bytes received so far
+     * @throws NotFoundException if there is no such upload
+     */
+    public long size(String uploadId) throws IOException {
+        try {
+            return Files.size(file(uploadId));
+        } catch (NoSuchFileException e) {
+            throw notFound(uploadId);
+        }
+    }
+
+    /**
+     * Appends the part to the upload.
+     *
+     * @param offset where the part starts, must equal the bytes already received
+     * @return the number of bytes received including this part
+     * @throws OffsetMismatchException if the offset is not the current size; nothing is written
+     * @throws UploadTooLargeException if the part would take the upload past the maximum size;
+     *     the upload is left as it was
+     * @throws PartInProgressException if another part of the same upload is being written
+     */
+    public long append(String uploadId, long offset, InputStream part) throws IOException {
+        try (FileChannel channel = FileChannel.open(file(uploadId), StandardOpenOption.WRITE);
+             FileLock ignored = lock(channel, uploadId)) {
+            long size = channel.size();
+            if (offset != size) {
+                throw new OffsetMismatchException(uploadId, size);
+            }
+            channel.position(size);
+            OutputStream out = Channels.newOutputStream(channel);
+            byte[] buffer = new byte[8192];
+            long written = 0;
+            int read;
+            while ((read = part.read(buffer)) != -1) {
+                written += read;
+                if (size + written > maxSize) {
+                    channel.truncate(size);
+                    throw new UploadTooLargeException(uploadId, maxSize);
+                }
+                out.write(buffer, 0, read);
+            }
+            return channel.size();
+        } catch (NoSuchFileException e) {
+            throw notFound(uploadId);
+        }
+    }
+
+    /**
+     * Parts are written one at a time.  A second part arriving while one is still being
+     * written is refused rather than queued, the client has to ask for the size anyway.
+     */
+    private static FileLock lock(FileChannel channel, String uploadId) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new PartInProgressException(uploadId);
+        }
+        return lock;
+    }
+
+    /**
+     * @return the content received so far; the caller closes it
+     */
+    public InputStream open(String uploadId) throws IOException {
+        try {
+            return Files.newInputStream(file(uploadId));
+        } catch (NoSuchFileException e) {
+            throw notFound(uploadId);
+        }
+    }
+
+    public void delete(String uploadId) throws IOException {
+        Files.deleteIfExists(file(uploadId));
+    }
+
+    private void removeExpired() {
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path part : parts) {
+                if (Files.getLastModifiedTime(part).toMillis() < cutoff) {
+                    Files.deleteIfExists(part);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Unable to remove expired uploads from " + directory, e);
+        }
+    }
+
+    private Path file(String uploadId) {
+        if (uploadId == null || !UPLOAD_ID.matcher(uploadId).matches()) {
+            throw notFound(uploadId);
+        }
+        return directory.resolve(uploadId + SUFFIX);
+    }
+
+    private static NotFoundException notFound(String uploadId) {
+        return new NotFoundException("No upload " + uploadId + " in progress");
+    }
+
+    /**
+     * A part did not start where the upload currently ends.
+     */
+    public static class OffsetMismatchException extends IllegalStateException {
+        private final long size;
+
+        public OffsetMismatchException(String uploadId, long size) {
+            super("Upload " + uploadId + " has " + size + " bytes, parts must start there");
+            this.size = size;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * The upload would grow past the configured maximum.
+     */
+    public static class UploadTooLargeException extends IllegalStateException {
+        private final long maxSize;
+
+        public UploadTooLargeException(String uploadId, long maxSize) {
+            super("Upload " + uploadId + " would be larger than " + maxSize + " bytes");
+            this.maxSize = maxSize;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+    }
+
+    /**
+     * Another part of the upload is still being written.
+     */
+    public static class PartInProgressException extends IllegalStateException {
+        public PartInProgressException(String uploadId) {
+            super("A part of upload " + uploadId + " is still being written");
+        }
+    }
+}
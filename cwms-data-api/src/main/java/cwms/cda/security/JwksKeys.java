@@ -0,0 +1,173 @@
+package cwms.cda.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.flogger.FluentLogger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The public keys of a realm, read from its JWKS url.
+ *
+ * <p>The keys are refreshed in the background and replaced as a whole, so looking up a key
+ * never waits on the identity provider.  Only a key id that is not known yet, as happens when
+ * the realm rotates its keys, refreshes on the calling thread; those refreshes are at least
+ * {@value #MIN_REFRESH_MILLIS} ms apart and done by one thread at a time.  A failed refresh
+ * keeps the previous keys.  The refresh thread runs until {@link #stop()} or
+ * {@link #stopAll()}.
+ */
+final class JwksKeys {
+    private static final FluentLogger log = FluentLogger.forEnclosingClass();
+
+    static final long MIN_REFRESH_MILLIS = 30_000L;
+    private static final int TIMEOUT_MILLIS = 10_000;
+    private static final Set<JwksKeys> running = ConcurrentHashMap.newKeySet();
+
+    private final URL jwksUrl;
+    private final KeyFactory keyFactory;
+    private final Object refreshLock = new Object();
+    private final ScheduledExecutorService refresher;
+    private volatile Map<String, Key> keys = Collections.emptyMap();
+    private volatile long lastRefresh;
+
+    /**
+     * @param refreshMinutes how often the keys are read again
+     */
+    JwksKeys(URL jwksUrl, int refreshMinutes) {
+        this.jwksUrl = jwksUrl;
+        try {
+            keyFactory = KeyFactory.getInstance("RSA");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Unable to initialize key factory.", ex);
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cda-jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, 0, Math.max(1, refreshMinutes),
+                TimeUnit.MINUTES);
+        running.add(this);
+    }
+
+    /**
+     * @return the key, or null if the realm does not have it
+     */
+    Key get(String keyId) {
+        Key key = keys.get(keyId);
+        if (key == null) {
+            synchronized (refreshLock) {
+                // whoever waited here while another thread refreshed finds the new keys
+                key = keys.get(keyId);
+                if (key == null
+                        && System.currentTimeMillis() - lastRefresh >= MIN_REFRESH_MILLIS) {
+                    log.atInfo().log("Key '%s' is not known, checking %s", keyId, jwksUrl);
+                    refresh();
+                    key = keys.get(keyId);
+                }
+            }
+        }
+        return key;
+    }
+
+    void stop() {
+        running.remove(this);
+        refresher.shutdownNow();
+    }
+
+    boolean isStopped() {
+        return refresher.isShutdown();
+    }
+
+    /**
+     * Stops the refresh of every realm, for when the application shuts down.
+     */
+    static void stopAll() {
+        for (JwksKeys keys : running) {
+            keys.stop();
+        }
+    }
+
+    private void refresh() {
+        synchronized (refreshLock) {
+            try {
+                keys = fetch();
+            } catch (IOException ex) {
+                log.atSevere().withCause(ex).log("Unable to update key. Will continue to use previous key.");
+            } catch (InvalidKeySpecException ex) {
+                log.atSevere().withCause(ex).log("New Public Key was not valid. Will continue to use previous key.");
+            } catch (RuntimeException ex) {
+                log.atSevere().withCause(ex).log("Unable to read keys from %s. Will continue to use previous key.", jwksUrl);
+            }
+            lastRefresh = System.currentTimeMillis();
+        }
+    }
+
+    private Map<String, Key> fetch() throws IOException, InvalidKeySpecException {
+        HttpURLConnection http = null;
+        try {
+            http = (HttpURLConnection) jwksUrl.openConnection();
+            http.setRequestMethod("GET");
+            http.setInstanceFollowRedirects(true);
+            http.setConnectTimeout(TIMEOUT_MILLIS);
+            http.setReadTimeout(TIMEOUT_MILLIS);
+            int status = http.getResponseCode();
+            if (status != 200) {
+                throw new IOException("Unable to retrieve actual keys. Response code " + status);
+            }
+            try (InputStream in = http.getInputStream()) {
+                return parse(new ObjectMapper().readTree(in), keyFactory);
+            }
+        } finally {
+            if (http != null) {
+                http.disconnect();
+            }
+        }
+    }
+
+    /**
+     * @param jwks a JSON Web Key Set
+     * @return the RSA keys of the set by key id
+     */
+    static Map<String, Key> parse(JsonNode jwks, KeyFactory keyFactory)
+            throws InvalidKeySpecException {
+        JsonNode keys = jwks.get("keys");
+        if (keys == null || !keys.isArray()) {
+            throw new IllegalArgumentException("No keys in the key set");
+        }
+        Map<String, Key> retval = new HashMap<>();
+        // https://datatracker.ietf.org/doc/id/draft-jones-json-web-key-01.html#RFC4648
+        Base64.Decoder b64 = Base64.getUrlDecoder();
+        for (JsonNode key : keys) {
+            JsonNode kty = key.get("kty");
+            if (kty != null && !"RSA".equals(kty.textValue())) {
+                continue; // we only deal with RSA keys right now.
+            }
+            String kid = key.get("kid").textValue();
+            String nStr = key.get("n").textValue();
+            String eStr = key.get("e").textValue();
+            log.atInfo().log("Loading Key %s with parameters (n,e) -> (%s,%s)", kid, nStr, eStr);
+            BigInteger n = new BigInteger(1, b64.decode(nStr));
+            BigInteger e = new BigInteger(1, b64.decode(eStr));
+            retval.put(kid, keyFactory.generatePublic(new RSAPublicKeySpec(n, e)));
+        }
+        return Collections.unmodifiableMap(retval);
+    }
+}
@@ -1,17 +1,17 @@
 package cwms.cda.security;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.flogger.FluentLogger;
 import cwms.cda.ApiServlet;
+import cwms.cda.CdaMetricsContextListener;
 import cwms.cda.data.dao.AuthDao;
 import cwms.cda.data.dao.JooqDao;
+import cwms.cda.helpers.ExpiringCache;
 import cwms.cda.spi.CdaAccessManager;
 import io.javalin.core.security.RouteRole;
 import io.javalin.http.Context;
 import io.javalin.http.Handler;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.JwtParser;
@@ -20,18 +20,13 @@ import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 import java.io.IOException;
 import java.math.BigInteger;
-import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
-import java.security.KeyFactory;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.RSAPublicKeySpec;
-import java.time.ZonedDateTime;
-import java.util.Base64;
-import java.util.Base64.Decoder;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
+import java.util.Date;
 import java.util.Set;
 import javax.servlet.http.HttpServletResponse;
 import org.jetbrains.annotations.NotNull;
@@ -42,6 +37,14 @@ import org.jetbrains.annotations.NotNull;
 public class OpenIDAccessManager extends CdaAccessManager {
     private static final FluentLogger log = FluentLogger.forEnclosingClass();
     public static final String AUTHORIZATION = "Authorization";
+    public static final String TOKEN_CACHE_SIZE_KEY = "cwms.dataapi.access.openid.token.cache.size";
+    public static final String TOKEN_CACHE_TTL_KEY = "cwms.dataapi.access.openid.token.cache.seconds";
+
+    private final ExpiringCache<String, VerifiedToken> verifiedTokens =
+        new ExpiringCache<>(CdaMetricsContextListener.METRIC_REGISTRY,
+                            MetricRegistry.name(OpenIDAccessManager.class, "token", "cache"),
+                            Integer.getInteger(TOKEN_CACHE_SIZE_KEY, 10000),
+                            Duration.ofSeconds(Long.getLong(TOKEN_CACHE_TTL_KEY, 300L)));
     private JwtParser jwtParser = null;
     private OpenIDConfig config = null;
 
@@ -68,8 +71,7 @@ public class OpenIDAccessManager extends CdaAccessManager {
 
     private DataApiPrincipal getUserFromToken(Context ctx) throws CwmsAuthException {
         try {
-            Jws<Claims> token = jwtParser.parseClaimsJws(getToken(ctx));
-            String username = token.getBody().get("preferred_username",String.class);
+            String username = verify(getToken(ctx)).getUsername();
             AuthDao dao = AuthDao.getInstance(JooqDao.getDslContext(ctx),ctx.attribute(ApiServlet.OFFICE_ID));
             String edipiStr = username.substring(username.lastIndexOf(".") + 1);
             long edipi = Long.parseLong(edipiStr);
@@ -79,6 +81,38 @@ public class OpenIDAccessManager extends CdaAccessManager {
         }
     }
 
+    /**
+     * Checking the signature is the expensive part of a request, so tokens that passed are
+     * remembered by their digest until they expire or {@value #TOKEN_CACHE_TTL_KEY} seconds
+     * have passed, whichever is first.
+     */
+    VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken retval = verifiedTokens.get(digest, k -> parse(token));
+        if (retval.isExpired(System.currentTimeMillis())) {
+            verifiedTokens.invalidate(digest);
+            retval = parse(token); // fails as expired
+        }
+        return retval;
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(claims.get("preferred_username", String.class),
+                expiration == null ? Long.MAX_VALUE : expiration.getTime());
+    }
+
+    static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return String.format("%064x", new BigInteger(1, hash));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     private String getToken(Context ctx) {
         String header = ctx.header(AUTHORIZATION);
         if (header == null) {
@@ -106,6 +140,13 @@ public class OpenIDAccessManager extends CdaAccessManager {
         return "OpenIDConnect";
     }
 
+    /**
+     * Stops the background refresh of the realm keys of every instance.
+     */
+    public static void stopRefresh() {
+        JwksKeys.stopAll();
+    }
+
     @Override
     public boolean canAuth(Context ctx, Set<RouteRole> roles) {
         String header = ctx.header(AUTHORIZATION);
@@ -117,70 +158,10 @@ public class OpenIDAccessManager extends CdaAccessManager {
 
 
     private static class UrlResolver extends SigningKeyResolverAdapter {
-        private final URL jwksUrl;
-        private ZonedDateTime lastCheck;
-        private final Map<String,Key> realmPublicKeys = new HashMap<>();
-        private final int realmPublicKeyTimeoutMinutes;
-        private KeyFactory keyFactory = null;
+        private final JwksKeys realmPublicKeys;
 
         public UrlResolver(URL jwksUrl, int keyTimeoutMinutes) {
-            this.jwksUrl = jwksUrl;
-            this.realmPublicKeyTimeoutMinutes = keyTimeoutMinutes;
-            try {
-                keyFactory = KeyFactory.getInstance("RSA");
-            } catch (NoSuchAlgorithmException ex) {
-                log.atSevere().withCause(ex).log("Unable to initialize key factory.");
-            }
-        }
-
-        /**
-         * TODO: This needs more, some configurations may be more complex (like the
-         * authelia test environment) than others.
-         */
-        private void updateKey() {
-            if (realmPublicKeys.isEmpty() || ZonedDateTime.now().isAfter(lastCheck.plusMinutes(realmPublicKeyTimeoutMinutes))) {
-                log.atInfo().log("Checking for new key at %s",jwksUrl);
-                try {
-                    realmPublicKeys.clear();
-                    updateSigningKey();
-                } catch (IOException ex) {
-                    log.atSevere().withCause(ex).log("Unable to update key. Will continue to use previous key.");
-                } catch (InvalidKeySpecException ex) {
-                    log.atSevere().withCause(ex).log("New Public Key was not valid. Will continue to use previous key.");
-                }
-                lastCheck = ZonedDateTime.now();
-            }
-        }
-
-        private void updateSigningKey() throws IOException, InvalidKeySpecException {
-            HttpURLConnection http = null;
-            try {
-                http = (HttpURLConnection)jwksUrl.openConnection();
-                http.setRequestMethod("GET");
-                http.setInstanceFollowRedirects(true);
-                int status = http.getResponseCode();
-                if (status == 200) {
-                    ObjectMapper mapper = new ObjectMapper();
-                    JsonNode keys = mapper.readTree(http.getInputStream()).get("keys");
-                    for (JsonNode key: keys) {
-                        String kid = key.get("kid").textValue();
-                        Decoder b64 = Base64.getUrlDecoder(); // https://datatracker.ietf.org/doc/id/draft-jones-json-web-key-01.html#RFC4648
-                        String nStr = key.get("n").textValue();
-                        String eStr = key.get("e").textValue();
-                        log.atInfo().log("Loading Key %s with parameters (n,e) -> (%s,%s)",kid,nStr,eStr);
-                        BigInteger n = new BigInteger(1,b64.decode(nStr));
-                        BigInteger e = new BigInteger(1,b64.decode(eStr));
-                        Key pubKey = keyFactory.generatePublic(new RSAPublicKeySpec(n, e));
-                        realmPublicKeys.put(kid,pubKey);
-                    }
-                } else {
-                    log.atSevere().log("Unable to retrieve actual keys. Response code %d",status);
-                }
-            } finally {
-                if (http != null) {
-                    http.disconnect();
-                }
-            }
+            realmPublicKeys = new JwksKeys(jwksUrl, keyTimeoutMinutes);
         }
 
         @Override
@@ -189,7 +170,6 @@ public class OpenIDAccessManager extends CdaAccessManager {
                 log.atWarning().log("Request with invalid algorithm '%s'",header.getAlgorithm());
                 return null; // we only deal with RSA keys right now.
             }
-            updateKey();
             Key key = realmPublicKeys.get(header.getKeyId());
             if (key == null) {
                 log.atSevere().log("Key not found for id '%s'",header.getKeyId());
@@ -197,4 +177,28 @@ public class OpenIDAccessManager extends CdaAccessManager {
             return key;
         }
     }
+
+    /**
+     * The part of a verified token that is needed again.
+     */
+    static final class VerifiedToken {
+        private final String username;
+        private final long expires;
+
+        /**
+         * @param expires epoch milliseconds, Long.MAX_VALUE if the token does not expire
+         */
+        VerifiedToken(String username, long expires) {
+            this.username = username;
+            this.expires = expires;
+        }
+
+        String getUsername() {
+            return username;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expires;
+        }
+    }
 }
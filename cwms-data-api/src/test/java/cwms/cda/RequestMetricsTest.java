@@ -0,0 +1,65 @@
+package cwms.cda;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class RequestMetricsTest {
+
+    @Test
+    void testNamesAreSanitized() {
+        assertEquals("get_timeseries_timeseries",
+                RequestMetrics.routeName("GET", "/timeseries/{timeseries}"));
+        assertEquals("get_unmatched", RequestMetrics.routeName("GET", null));
+        assertEquals("application_json_version_2",
+                RequestMetrics.formatName("application/json;version=2; charset=utf-8"));
+        assertEquals("none", RequestMetrics.formatName(null));
+    }
+
+    @Test
+    void testOnlyTheSlowestStatementsAreKept() {
+        RequestMetrics metrics = new RequestMetrics(System.nanoTime());
+        for (long nanos : new long[]{5, 1, 9, 3, 7}) {
+            metrics.addStatement(nanos, () -> "select " + nanos);
+        }
+        assertEquals(5, metrics.getStatementCount());
+        assertEquals(25, metrics.getJdbcNanos());
+        assertEquals(Arrays.asList(9L, 7L, 5L), metrics.getSlowestNanos());
+    }
+
+    @Test
+    void testCurrentRequestCollectsTimes() {
+        RequestMetrics metrics = RequestMetrics.begin();
+        try {
+            assertSame(metrics, RequestMetrics.current());
+            long start = System.nanoTime() - 1_000;
+            RequestMetrics.recordConnectionWait(start);
+            RequestMetrics.recordFormatting(start);
+            assertEquals(true, metrics.getConnectionWaitNanos() >= 1_000);
+            assertEquals(true, metrics.getFormattingNanos() >= 1_000);
+        } finally {
+            RequestMetrics.end();
+        }
+        assertNull(RequestMetrics.current());
+    }
+
+    @Test
+    void testFinishRecordsPerRouteAndFormat() {
+        MetricRegistry registry = new MetricRegistry();
+        RequestMetrics metrics = new RequestMetrics(System.nanoTime());
+        metrics.addStatement(1_000, () -> "select 1 from dual");
+        metrics.finish(registry, "GET", "/offices/{office}", "application/json", 200, 42,
+                "http://localhost/cwms-data/offices/SWT");
+
+        String base = "cwms.dataapi.requests.get_offices_office.application_json.";
+        assertEquals(1, registry.timer(base + "total").getCount());
+        assertEquals(1, registry.timer(base + "jdbc").getCount());
+        assertEquals(1, registry.timer(base + "connection_wait").getCount());
+        assertEquals(1, registry.timer(base + "formatting").getCount());
+        assertEquals(42, registry.histogram(base + "bytes").getSnapshot().getMax());
+    }
+}
@@ -0,0 +1,167 @@
+package cwms.cda.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.api.errors.NotModifiedException;
+import cwms.cda.data.dao.ChangeTokenDao;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import java.util.LinkedHashMap;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+
+class ChangeTokenEtagHandlerTest {
+
+    private static final String URI = "/cwms-data/timeseries";
+    private static final String QUERY = "name=BIGH.Stage.Inst.1Hour.0.Raw&office=SWT";
+
+    private static Context buildContext(HttpServletResponse response, String method,
+                                        String ifNoneMatch) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getRequestURI()).thenReturn(URI);
+        when(request.getQueryString()).thenReturn(QUERY);
+        when(request.getHeader(Header.ACCEPT)).thenReturn("application/json;version=2");
+        when(request.getHeader(Header.IF_NONE_MATCH)).thenReturn(ifNoneMatch);
+        return new Context(request, response, new LinkedHashMap<>());
+    }
+
+    private static ChangeTokenEtagHandler handler(ChangeTokenDao dao) {
+        return new ChangeTokenEtagHandler(new MetricRegistry(), "test",
+                (ctx, d) -> d.timeSeriesToken(ctx.queryParam("office"), ctx.queryParam("name"))) {
+            @Override
+            protected DSLContext getDslContext(Context ctx) {
+                return mock(DSLContext.class);
+            }
+
+            @Override
+            protected ChangeTokenDao getChangeTokenDao(DSLContext dsl) {
+                return dao;
+            }
+        };
+    }
+
+    private static String currentEtag() {
+        return ChangeTokenEtagHandler.etag("1|42|2024-01-01 00:00:00.0", URI, QUERY,
+                "application/json;version=2");
+    }
+
+    @Test
+    void testMatchingEtagIsNotModified() {
+        ChangeTokenDao dao = mock(ChangeTokenDao.class);
+        when(dao.timeSeriesToken("SWT", "BIGH.Stage.Inst.1Hour.0.Raw"))
+                .thenReturn("1|42|2024-01-01 00:00:00.0");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        Context ctx = buildContext(response, "GET", "W/" + currentEtag());
+
+        NotModifiedException ex = assertThrows(NotModifiedException.class,
+                () -> handler(dao).handle(ctx));
+        assertEquals(currentEtag(), ex.getEtag());
+    }
+
+    @Test
+    void testChangedTokenSetsNewEtag() throws Exception {
+        ChangeTokenDao dao = mock(ChangeTokenDao.class);
+        when(dao.timeSeriesToken("SWT", "BIGH.Stage.Inst.1Hour.0.Raw"))
+                .thenReturn("1|42|2024-01-02 00:00:00.0");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        Context ctx = buildContext(response, "GET", currentEtag());
+
+        handler(dao).handle(ctx);
+
+        String expected = ChangeTokenEtagHandler.etag("1|42|2024-01-02 00:00:00.0", URI, QUERY,
+                "application/json;version=2");
+        assertNotEquals(currentEtag(), expected);
+        verify(response).setHeader(Header.ETAG, expected);
+    }
+
+    @Test
+    void testOnlyGetIsChecked() throws Exception {
+        ChangeTokenDao dao = mock(ChangeTokenDao.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        Context ctx = buildContext(response, "POST", "*");
+
+        handler(dao).handle(ctx);
+
+        verify(dao, never()).timeSeriesToken(any(), anyString());
+        verify(response, never()).setHeader(any(), any());
+    }
+
+    @Test
+    void testUnconditionalGetSkipsTheToken() throws Exception {
+        ChangeTokenDao dao = mock(ChangeTokenDao.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        Context ctx = buildContext(response, "GET", null);
+
+        handler(dao).handle(ctx);
+
+        verify(dao, never()).timeSeriesToken(any(), anyString());
+        verify(response, never()).setHeader(any(), any());
+    }
+
+    @Test
+    void testUnboundedLevelsGetNoToken() {
+        ChangeTokenDao dao = mock(ChangeTokenDao.class);
+
+        assertNull(ChangeTokenEtagHandler.levelsToken(timeSeriesContext("unit=EN"), dao));
+        verify(dao, never()).locationLevelsToken(any(), any());
+
+        when(dao.locationLevelsToken("SWT", null)).thenReturn("3|42|2024-01-01 00:00:00.0");
+        assertTrue(ChangeTokenEtagHandler.levelsToken(timeSeriesContext("office=SWT"), dao)
+                .endsWith("|3|42|2024-01-01 00:00:00.0"));
+    }
+
+    @Test
+    void testMovingWindowGetsNoEtag() {
+        ChangeTokenDao dao = mock(ChangeTokenDao.class);
+        ChangeTokenEtagHandler.ChangeTokenSource source = ChangeTokenEtagHandler::timeSeriesToken;
+
+        assertNull(source.token(timeSeriesContext("name=A&office=SWT"), dao));
+        assertNull(source.token(timeSeriesContext(
+                "name=A&office=SWT&begin=PT-24H&end=2024-01-02T00:00:00Z"), dao));
+        assertNull(source.token(timeSeriesContext(
+                "name=A&office=SWT&begin=2024-01-01T00:00:00Z"), dao));
+        verify(dao, never()).timeSeriesToken(any(), anyString());
+
+        when(dao.timeSeriesToken("SWT", "A")).thenReturn("1|42|2024-01-01 00:00:00.0");
+        assertEquals("1|42|2024-01-01 00:00:00.0", source.token(timeSeriesContext(
+                "name=A&office=SWT&begin=2024-01-01T00:00:00Z&end=2024-01-02T00:00:00Z"), dao));
+    }
+
+    @Test
+    void testIsFixedTime() {
+        assertTrue(ChangeTokenEtagHandler.isFixedTime("2024-01-01T00:00:00Z"));
+        assertFalse(ChangeTokenEtagHandler.isFixedTime("PT-24H"));
+        assertFalse(ChangeTokenEtagHandler.isFixedTime("P1D"));
+        assertFalse(ChangeTokenEtagHandler.isFixedTime(null));
+    }
+
+    private static Context timeSeriesContext(String query) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getQueryString()).thenReturn(query);
+        return new Context(request, mock(HttpServletResponse.class), new LinkedHashMap<>());
+    }
+
+    @Test
+    void testMatches() {
+        assertTrue(ChangeTokenEtagHandler.matches("\"a\", \"b\"", "\"b\""));
+        assertTrue(ChangeTokenEtagHandler.matches("*", "\"b\""));
+        assertFalse(ChangeTokenEtagHandler.matches("\"a\"", "\"b\""));
+        assertFalse(ChangeTokenEtagHandler.matches(null, "\"b\""));
+    }
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.codahale.metrics.MetricRegistry;
@@ -23,6 +24,7 @@ import io.javalin.plugin.json.JsonMapperKt;
 import java.util.HashMap;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.jooq.DSLContext;
 import org.junit.jupiter.api.Test;
 
 public class ClobControllerTest extends ControllerTest {
@@ -58,6 +60,33 @@ public class ClobControllerTest extends ControllerTest {
     }
 
 
+    @Test
+    void unknown_charset_returns_415() throws Exception {
+        ClobController controller = new ClobController(new MetricRegistry()) {
+            @Override
+            protected DSLContext getDslContext(Context ctx) {
+                return mock(DSLContext.class);
+            }
+        };
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        HashMap<String, Object> attributes = new HashMap<>();
+        attributes.put(ContextUtil.maxRequestSizeKey, Integer.MAX_VALUE);
+        attributes.put(JsonMapperKt.JSON_MAPPER_KEY, new JavalinJackson());
+
+        when(request.getInputStream()).thenReturn(new TestServletInputStream("some text"));
+        when(request.getContentType()).thenReturn("text/plain; charset=no-such-charset");
+        when(request.getCharacterEncoding()).thenReturn("no-such-charset");
+        when(request.getQueryString()).thenReturn("office=SPK&clob-id=TEST_CLOB");
+
+        Context context = ContextUtil.init(request, response, "*", new HashMap<>(),
+                HandlerType.POST, attributes);
+
+        controller.create(context);
+
+        verify(response).setStatus(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+    }
+
     @Test
     void testDeserialize() throws JsonProcessingException {
         String input = "{\"office-id\":\"MYOFFICE\",\"id\":\"MYID\",\"description\":\"MYDESC\","
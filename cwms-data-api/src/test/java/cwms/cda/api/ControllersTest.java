@@ -8,21 +8,35 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.codahale.metrics.MetricRegistry;
+import cwms.cda.ApiServlet;
 import cwms.cda.api.enums.VersionType;
 import cwms.cda.api.errors.RequiredQueryParameterException;
 import cwms.cda.data.dao.JooqDao;
 import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.json.NdJsonWriter;
+import cwms.cda.helpers.CountingOutputStream;
+import fixtures.TestHttpServletResponse;
 import io.javalin.core.util.Header;
 import io.javalin.core.validation.JavalinValidation;
 import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.util.ContextUtil;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.jooq.exception.DataAccessException;
 import org.junit.jupiter.api.Test;
 
 class ControllersTest {
@@ -339,4 +353,42 @@ class ControllersTest {
 
 
 
-}
\ No newline at end of file
+
+    private static Context streamingContext(HttpServletRequest request) {
+        when(request.getRequestURL())
+                .thenReturn(new StringBuffer("http://localhost/cwms-data/catalog/TIMESERIES"));
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(ContextUtil.maxRequestSizeKey, Integer.MAX_VALUE);
+        return ContextUtil.init(request, new TestHttpServletResponse(), "*", new HashMap<>(),
+                HandlerType.GET, attributes);
+    }
+
+    @Test
+    void testStreamedResponseFailingAfterTheFirstRecordIsAborted() throws IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        Context ctx = streamingContext(request);
+        CountingOutputStream out = new CountingOutputStream(ctx.res.getOutputStream());
+        NdJsonWriter writer = new NdJsonWriter(out);
+        DataAccessException failure = new DataAccessException("cursor closed");
+
+        Controllers.writeStreamed(ctx, out, () -> {
+            writer.write(Collections.singletonMap("name", "first"));
+            throw failure;
+        });
+
+        assertTrue(out.getCount() > 0);
+        verify(request).setAttribute(ApiServlet.ABORTED_RESPONSE, failure);
+    }
+
+    @Test
+    void testStreamedResponseFailingBeforeAnyOutputIsRethrown() throws IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        Context ctx = streamingContext(request);
+        CountingOutputStream out = new CountingOutputStream(ctx.res.getOutputStream());
+
+        assertThrows(DataAccessException.class, () -> Controllers.writeStreamed(ctx, out, () -> {
+            throw new DataAccessException("no connection");
+        }));
+        verify(request, never()).setAttribute(eq(ApiServlet.ABORTED_RESPONSE), any());
+    }
+}
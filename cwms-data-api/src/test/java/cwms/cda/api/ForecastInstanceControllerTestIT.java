@@ -4,6 +4,8 @@ import static cwms.cda.security.KeyAccessManager.AUTH_HEADER;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import cwms.cda.formatters.Formats;
@@ -22,6 +24,7 @@ import org.junit.jupiter.api.Test;
 public class ForecastInstanceControllerTestIT extends DataApiTestIT {
     private static final String OFFICE = "SPK";
     private static final String SPEC_ID = "test-spec";
+    private static final String DESIGNATOR = "designator";
     private static final String locationId = "FcstInstTestLoc";
     private static final String forecastDate = "2021-06-21T14:00:10+00:00";
     private static final String issueDate = "2022-05-22T12:03:40+00:00";
@@ -48,12 +51,13 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
             .queryParam(Controllers.OFFICE, OFFICE)
             .queryParam(Controllers.NAME, SPEC_ID)
             .queryParam(Controllers.LOCATION_ID, locationId)
+            .queryParam(Controllers.DESIGNATOR, DESIGNATOR)
             .queryParam(Controllers.FORECAST_DATE, forecastDate)
             .queryParam(Controllers.ISSUE_DATE, issueDate)
         .when()
             .redirects().follow(true)
             .redirects().max(3)
-            .get(PATH)
+            .get(PATH + SPEC_ID)
         .then()
             .log().ifValidationFails(LogDetail.ALL,true)
         .assertThat()
@@ -103,17 +107,18 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
                 .queryParam(Controllers.OFFICE, OFFICE)
                 .queryParam(Controllers.NAME, SPEC_ID)
                 .queryParam(Controllers.LOCATION_ID, locationId)
+                .queryParam(Controllers.DESIGNATOR, DESIGNATOR)
                 .queryParam(Controllers.FORECAST_DATE, forecastDate)
                 .queryParam(Controllers.ISSUE_DATE, issueDate)
             .when()
                 .redirects().follow(true)
                 .redirects().max(3)
-                .get(PATH)
+                .get(PATH + SPEC_ID)
             .then()
                 .log().ifValidationFails(LogDetail.ALL,true)
             .assertThat()
                 .statusCode(is(HttpServletResponse.SC_OK))
-                .body("spec-id", equalTo("test-spec"))
+                .body("spec.spec-id", equalTo("test-spec"))
                 .body("date-time", equalTo(1624284010000L))
                 .body("issue-date-time", equalTo(1653221020000L))
                 .body("first-date-time", equalTo(1692702150000L))
@@ -126,10 +131,29 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
                 .body("metadata.key3", equalTo("value3"))
                 .body("filename", equalTo("testFilename.txt"))
                 .body("file-description", equalTo( "test file description"))
-                .body("file-data", equalTo("dGVzdCBmaWxlIGNvbnRlbnQ="))
+                .body("file-data", nullValue())
+                .body("file-data-url", notNullValue())
         ;
 
-
+        // Step 4)
+        // Retrieve part of the file, "test file content"
+        given()
+                .log().ifValidationFails(LogDetail.ALL,true)
+                .queryParam(Controllers.OFFICE, OFFICE)
+                .queryParam(Controllers.DESIGNATOR, DESIGNATOR)
+                .queryParam(Controllers.FORECAST_DATE, forecastDate)
+                .queryParam(Controllers.ISSUE_DATE, issueDate)
+                .header("Range", "bytes=5-8")
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .get(PATH + SPEC_ID + "/file-data")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL,true)
+            .assertThat()
+                .statusCode(is(HttpServletResponse.SC_PARTIAL_CONTENT))
+                .body(equalTo("file"))
+        ;
     }
 
     @Test
@@ -175,17 +199,18 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
                 .queryParam(Controllers.OFFICE, OFFICE)
                 .queryParam(Controllers.NAME, SPEC_ID)
                 .queryParam(Controllers.LOCATION_ID, locationId)
+                .queryParam(Controllers.DESIGNATOR, DESIGNATOR)
                 .queryParam(Controllers.FORECAST_DATE, forecastDate)
                 .queryParam(Controllers.ISSUE_DATE, issueDate)
                 .when()
                 .redirects().follow(true)
                 .redirects().max(3)
-                .get(PATH)
+                .get(PATH + SPEC_ID)
                 .then()
                 .log().ifValidationFails(LogDetail.ALL,true)
                 .assertThat()
                 .statusCode(is(HttpServletResponse.SC_OK))
-                .body("spec-id", equalTo("test-spec"))
+                .body("spec.spec-id", equalTo("test-spec"))
                 .body("date-time", equalTo(1624284010000L))
                 .body("issue-date-time", equalTo(1653221020000L))
                 .body("first-date-time", equalTo(1692702150000L))
@@ -198,7 +223,8 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
                 .body("metadata.key3", equalTo("value3"))
                 .body("filename", equalTo("testFilename.txt"))
                 .body("file-description", equalTo( "test file description"))
-                .body("file-data", equalTo("dGVzdCBmaWxlIGNvbnRlbnQ="))
+                .body("file-data", nullValue())
+                .body("file-data-url", notNullValue())
         ;
 
         // Step 3)
@@ -210,6 +236,7 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
                 .queryParam(Controllers.OFFICE, OFFICE)
                 .queryParam(Controllers.NAME, SPEC_ID)
                 .queryParam(Controllers.LOCATION_ID, locationId)
+                .queryParam(Controllers.DESIGNATOR, DESIGNATOR)
                 .queryParam(Controllers.FORECAST_DATE, forecastDate)
                 .queryParam(Controllers.ISSUE_DATE, issueDate)
         .when()
@@ -229,12 +256,13 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
                 .queryParam(Controllers.OFFICE, OFFICE)
                 .queryParam(Controllers.NAME, SPEC_ID)
                 .queryParam(Controllers.LOCATION_ID, locationId)
+                .queryParam(Controllers.DESIGNATOR, DESIGNATOR)
                 .queryParam(Controllers.FORECAST_DATE, forecastDate)
                 .queryParam(Controllers.ISSUE_DATE, issueDate)
             .when()
                 .redirects().follow(true)
                 .redirects().max(3)
-                .get(PATH)
+                .get(PATH + SPEC_ID)
             .then()
                 .log().ifValidationFails(LogDetail.ALL,true)
             .assertThat()
@@ -262,12 +290,13 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
                 .queryParam(Controllers.OFFICE, OFFICE)
                 .queryParam(Controllers.NAME, SPEC_ID)
                 .queryParam(Controllers.LOCATION_ID, locationId)
+                .queryParam(Controllers.DESIGNATOR, DESIGNATOR)
                 .queryParam(Controllers.FORECAST_DATE, forecastDate)
                 .queryParam(Controllers.ISSUE_DATE, issueDate)
             .when()
                 .redirects().follow(true)
                 .redirects().max(3)
-                .get(PATH)
+                .get(PATH + SPEC_ID)
             .then()
                 .log().ifValidationFails(LogDetail.ALL,true)
             .assertThat()
@@ -306,17 +335,18 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
                 .queryParam(Controllers.OFFICE, OFFICE)
                 .queryParam(Controllers.NAME, SPEC_ID)
                 .queryParam(Controllers.LOCATION_ID, locationId)
+                .queryParam(Controllers.DESIGNATOR, DESIGNATOR)
                 .queryParam(Controllers.FORECAST_DATE, forecastDate)
                 .queryParam(Controllers.ISSUE_DATE, issueDate)
                 .when()
                 .redirects().follow(true)
                 .redirects().max(3)
-                .get(PATH)
+                .get(PATH + SPEC_ID)
                 .then()
                 .log().ifValidationFails(LogDetail.ALL,true)
                 .assertThat()
                 .statusCode(is(HttpServletResponse.SC_OK))
-                .body("spec-id", equalTo("test-spec"))
+                .body("spec.spec-id", equalTo("test-spec"))
                 .body("date-time", equalTo(1624284010000L))
                 .body("issue-date-time", equalTo(1653221020000L))
                 .body("first-date-time", equalTo(1692702150000L))
@@ -329,7 +359,8 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
                 .body("metadata.key3", equalTo("value3"))
                 .body("filename", equalTo("testFilename.txt"))
                 .body("file-description", equalTo( "test file description"))
-                .body("file-data", equalTo("dGVzdCBmaWxlIGNvbnRlbnQ="))
+                .body("file-data", nullValue())
+                .body("file-data-url", notNullValue())
         ;
 
         // Step 4)
@@ -362,18 +393,19 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
                 .queryParam(Controllers.OFFICE, OFFICE)
                 .queryParam(Controllers.NAME, SPEC_ID)
                 .queryParam(Controllers.LOCATION_ID, locationId)
+                .queryParam(Controllers.DESIGNATOR, DESIGNATOR)
                 .queryParam(Controllers.FORECAST_DATE, forecastDate)
                 .queryParam(Controllers.ISSUE_DATE, issueDate)
             .when()
                 .redirects().follow(true)
                 .redirects().max(3)
-                .get(PATH)
+                .get(PATH + SPEC_ID)
             .then()
                 .log().ifValidationFails(LogDetail.ALL,true)
             .assertThat()
                 .statusCode(is(HttpServletResponse.SC_OK))
                 // this part the same
-                .body("spec-id", equalTo("test-spec"))
+                .body("spec.spec-id", equalTo("test-spec"))
                 .body("date-time", equalTo(1624284010000L))
                 .body("issue-date-time", equalTo(1653221020000L))
                 .body("first-date-time", equalTo(1692702150000L))
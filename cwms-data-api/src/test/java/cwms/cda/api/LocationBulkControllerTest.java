@@ -0,0 +1,170 @@
+package cwms.cda.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import cwms.cda.data.dao.LocationStoreStatus;
+import cwms.cda.data.dao.LocationUpsert;
+import cwms.cda.data.dao.LocationsDao;
+import cwms.cda.formatters.Formats;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.Test;
+
+class LocationBulkControllerTest extends ControllerTest {
+
+    private final ObjectMapper om = LocationController.getObjectMapperForFormat(Formats.JSON);
+
+    private JsonNode location() throws IOException {
+        return om.readTree(loadResourceAsString("cwms/cda/api/location_create_spk.json"));
+    }
+
+    @Test
+    void testItemIsStoredUnderItsOwnName() throws IOException {
+        LocationUpsert upsert = LocationBulkController.toUpsert(om, 3, location());
+
+        assertEquals(3, upsert.getIndex());
+        assertEquals("LOC_TEST", upsert.getLocation().getName());
+        assertEquals("SPK", upsert.getLocation().getOfficeId());
+        assertNull(upsert.getRenameFrom());
+    }
+
+    @Test
+    void testRenameFromIsTakenOutOfTheLocation() throws IOException {
+        ObjectNode item = (ObjectNode) location();
+        item.put(LocationBulkController.RENAME_FROM, "OLD_NAME");
+
+        LocationUpsert upsert = LocationBulkController.toUpsert(om, 0, item);
+
+        assertEquals("OLD_NAME", upsert.getRenameFrom());
+        assertEquals("LOC_TEST", upsert.getLocation().getName());
+        assertEquals("OLD_NAME", item.get(LocationBulkController.RENAME_FROM).asText());
+    }
+
+    @Test
+    void testItemThatIsNotAnObjectIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationBulkController.toUpsert(om, 0, om.getNodeFactory().arrayNode()));
+    }
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    private LocationsDao storingDao() {
+        LocationsDao dao = mock(LocationsDao.class);
+        when(dao.storeLocations(anyList())).thenAnswer(invocation -> {
+            List<LocationUpsert> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return batch.stream().map(LocationStoreStatus::stored).collect(Collectors.toList());
+        });
+        return dao;
+    }
+
+    private ObjectNode location(int index) throws IOException {
+        ObjectNode item = (ObjectNode) location();
+        item.put("name", "LOC_" + index);
+        return item;
+    }
+
+    private JsonNode load(String body, int batchSize, LocationsDao dao) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator gen = om.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartArray();
+            LocationBulkController.load(om, new ByteArrayInputStream(
+                    body.getBytes(StandardCharsets.UTF_8)), batchSize, dao, gen);
+            gen.writeEndArray();
+        }
+        return om.readTree(out.toByteArray());
+    }
+
+    private static List<String> statuses(JsonNode written) {
+        List<String> statuses = new ArrayList<>();
+        for (int i = 0; i < written.size(); i++) {
+            assertEquals(i, written.get(i).get("index").asInt());
+            statuses.add(written.get(i).get("status").asText());
+        }
+        return statuses;
+    }
+
+    @Test
+    void testItemsAreStoredInBatches() throws IOException {
+        ArrayNode items = om.createArrayNode();
+        for (int i = 0; i < 5; i++) {
+            items.add(location(i));
+        }
+
+        JsonNode written = load(items.toString(), 2, storingDao());
+
+        assertEquals(Arrays.asList(2, 2, 1), batchSizes);
+        assertEquals(5, written.size());
+        assertEquals("LOC_4", written.get(4).get("name").asText());
+
+        batchSizes.clear();
+        items.remove(4);
+        load(items.toString(), 2, storingDao());
+        assertEquals(Arrays.asList(2, 2), batchSizes);
+    }
+
+    @Test
+    void testUnreadableItemsAreReportedInRequestOrder() throws IOException {
+        ArrayNode items = om.createArrayNode();
+        items.add(location(0));
+        items.add(42);
+        items.add(location(2));
+        items.add("not a location");
+        items.add(location(4));
+
+        JsonNode written = load(items.toString(), 2, storingDao());
+
+        assertEquals(Arrays.asList(2, 1), batchSizes);
+        assertEquals(Arrays.asList("STORED", "FAILED", "STORED", "FAILED", "STORED"),
+                statuses(written));
+    }
+
+    @Test
+    void testItemsBeforeASyntaxErrorAreStored() throws IOException {
+        String body = "[" + location(0) + ", {\"name\": ";
+
+        JsonNode written = load(body, 10, storingDao());
+
+        assertEquals(Arrays.asList("STORED", "FAILED"), statuses(written));
+        assertTrue(written.get(1).get("message").asText().startsWith("Unreadable from here on"));
+    }
+
+    @Test
+    void testFailedBatchFailsTheRestOfTheRequest() throws IOException {
+        LocationsDao dao = mock(LocationsDao.class);
+        when(dao.storeLocations(anyList())).thenAnswer(invocation -> {
+            batchSizes.add(1);
+            throw new DataAccessException("connection lost");
+        });
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            body.append(location(i)).append('\n');
+        }
+
+        JsonNode written = load(body.toString(), 2, dao);
+
+        assertEquals(1, batchSizes.size());
+        assertEquals(Arrays.asList("FAILED", "FAILED", "FAILED", "FAILED", "FAILED"),
+                statuses(written));
+        assertEquals(LocationBulkController.NOT_STORED, written.get(4).get("message").asText());
+    }
+}
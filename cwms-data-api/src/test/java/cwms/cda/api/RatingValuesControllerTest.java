@@ -0,0 +1,146 @@
+package cwms.cda.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.data.dao.RatingDao;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.json.JsonV2;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import mil.army.usace.hec.metadata.constants.NumericalConstants;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+
+class RatingValuesControllerTest {
+
+    private static final String RATING_ID = "BIGH.Stage;Flow.COE.Production";
+
+    private static Context buildContext(HttpServletResponse response, String query) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        final Map<String, ?> map = new LinkedHashMap<>();
+        when(request.getQueryString()).thenReturn(query);
+        when(request.getHeader(Header.ACCEPT)).thenReturn(Formats.JSONV2);
+        return new Context(request, response, map);
+    }
+
+    private static RatingValuesController controller(RatingDao dao, boolean reverse) {
+        return new RatingValuesController(new MetricRegistry(), reverse) {
+            @Override
+            protected DSLContext getDslContext(Context ctx) {
+                return null;
+            }
+
+            @NotNull
+            @Override
+            protected RatingDao getRatingDao(DSLContext dsl) {
+                return dao;
+            }
+        };
+    }
+
+    @Test
+    void testRateUsesCachedRatingSet() throws Exception {
+        RatingDao dao = mock(RatingDao.class);
+        when(dao.rateCached(eq("SWT"), eq(RATING_ID), any(long[].class),
+                eq(new double[]{1.0, 2.0}), eq(false)))
+                .thenReturn(new double[]{10.0, NumericalConstants.HEC_UNDEFINED_DOUBLE});
+
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        Context ctx = buildContext(response, "office=SWT&values=1.0,2.0");
+        controller(dao, false).handle(ctx, RATING_ID);
+
+        verify(response).setStatus(200);
+        JsonNode result = JsonV2.buildObjectMapper().readTree(ctx.resultString());
+        assertEquals(RATING_ID, result.get("rating-id").asText());
+        assertEquals(10.0, result.get("rated-values").get(0).asDouble());
+        assertTrue(result.get("rated-values").get(1).isNull());
+    }
+
+    @Test
+    void testReverseRate() throws Exception {
+        RatingDao dao = mock(RatingDao.class);
+        when(dao.rateCached(eq("SWT"), eq(RATING_ID), any(long[].class),
+                eq(new double[]{100.0}), eq(true)))
+                .thenReturn(new double[]{3.5});
+
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        Context ctx = buildContext(response, "office=SWT&values=100");
+        controller(dao, true).handle(ctx, RATING_ID);
+
+        JsonNode result = JsonV2.buildObjectMapper().readTree(ctx.resultString());
+        assertTrue(result.get("reverse").asBoolean());
+        assertEquals(3.5, result.get("rated-values").get(0).asDouble());
+    }
+
+    @Test
+    void testMissingRatingIsNotFound() throws Exception {
+        RatingDao dao = mock(RatingDao.class);
+        when(dao.rateCached(eq("SWT"), eq(RATING_ID), any(long[].class), any(double[].class),
+                eq(false))).thenThrow(new NotFoundException("no rating"));
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        Context ctx = buildContext(response, "office=SWT&values=1");
+
+        assertThrows(NotFoundException.class, () -> controller(dao, false).handle(ctx, RATING_ID));
+    }
+
+    @Test
+    void testEachValueHasItsOwnTime() throws Exception {
+        long[] expected = {
+            Instant.parse("2023-01-01T00:00:00Z").toEpochMilli(),
+            Instant.parse("2023-07-01T06:00:00Z").toEpochMilli()
+        };
+        RatingDao dao = mock(RatingDao.class);
+        when(dao.rateCached(eq("SWT"), eq(RATING_ID), eq(expected),
+                eq(new double[]{1.0, 2.0}), eq(false)))
+                .thenReturn(new double[]{10.0, 20.0});
+
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        Context ctx = buildContext(response, "office=SWT&values=1,2"
+                + "&times=2023-01-01T00:00:00Z,2023-07-01T06:00:00Z");
+        controller(dao, false).handle(ctx, RATING_ID);
+
+        JsonNode result = JsonV2.buildObjectMapper().readTree(ctx.resultString());
+        assertEquals(2, result.get("times").size());
+        assertEquals(20.0, result.get("rated-values").get(1).asDouble());
+    }
+
+    @Test
+    void testTimesMustMatchValues() {
+        RatingDao dao = mock(RatingDao.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+
+        Context tooFew = buildContext(response, "office=SWT&values=1,2&times=2023-01-01T00:00:00Z");
+        assertThrows(IllegalArgumentException.class,
+                () -> controller(dao, false).handle(tooFew, RATING_ID));
+
+        Context both = buildContext(response, "office=SWT&values=1"
+                + "&times=2023-01-01T00:00:00Z&at=2023-01-01T00:00:00Z");
+        assertThrows(IllegalArgumentException.class,
+                () -> controller(dao, false).handle(both, RATING_ID));
+    }
+
+    @Test
+    void testParseValues() {
+        assertArrayEquals(new double[]{1.0, 2.5, -3.0},
+                RatingValuesController.parseValues("1, 2.5,-3"));
+        assertThrows(IllegalArgumentException.class,
+                () -> RatingValuesController.parseValues("1,abc"));
+    }
+}
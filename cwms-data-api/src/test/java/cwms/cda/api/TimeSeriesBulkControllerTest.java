@@ -0,0 +1,136 @@
+package cwms.cda.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.data.dao.StoreRule;
+import cwms.cda.data.dao.TimeSeriesDao;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesStoreResult;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.json.JsonV2;
+import io.javalin.http.Context;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesBulkControllerTest {
+
+    private static final ZonedDateTime BEGIN = ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]");
+
+    private static TimeSeries buildTimeSeries(String office, String name) {
+        TimeSeries ts = new TimeSeries(null, -1, 0, name, office, BEGIN, BEGIN.plusHours(2), "ft",
+                Duration.ofHours(1));
+        for (int i = 0; i < 3; i++) {
+            ts.addValue(Timestamp.from(BEGIN.plusHours(i).toInstant()), 10.0 + i, 0);
+        }
+        return ts;
+    }
+
+    @Test
+    void testDeserializeList() throws IOException {
+        ObjectMapper om = JsonV2.buildObjectMapper();
+        List<TimeSeries> input = Arrays.asList(buildTimeSeries("SPK", "A.Elev.Inst.1Hour.0.raw"),
+                buildTimeSeries("SWT", "B.Elev.Inst.1Hour.0.raw"));
+        byte[] body = om.writeValueAsBytes(input);
+
+        List<TimeSeries> actual = TimeSeriesBulkController.deserializeTimeSeries(
+                new ByteArrayInputStream(body));
+
+        assertEquals(2, actual.size());
+        assertEquals("SWT", actual.get(1).getOfficeId());
+        assertEquals(input.get(0).getValues(), actual.get(0).getValues());
+    }
+
+    @Test
+    void testPartialFailureReportsEachSeries() throws IOException {
+        List<TimeSeries> input = Arrays.asList(buildTimeSeries("SPK", "A.Elev.Inst.1Hour.0.raw"),
+                buildTimeSeries("SPK", "B.Elev.Inst.1Hour.0.raw"));
+        byte[] body = JsonV2.buildObjectMapper().writeValueAsBytes(input);
+
+        TimeSeriesDao dao = mock(TimeSeriesDao.class);
+        when(dao.storeMulti(anyList(), eq(false), eq(StoreRule.REPLACE_ALL), eq(true)))
+                .thenReturn(Arrays.asList(
+                        TimeSeriesStoreResult.stored("A.Elev.Inst.1Hour.0.raw", "SPK"),
+                        TimeSeriesStoreResult.failed("B.Elev.Inst.1Hour.0.raw", "SPK", "bad unit")));
+
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+        final Map<String, ?> map = new LinkedHashMap<>();
+        when(request.getContentType()).thenReturn(Formats.JSONV2);
+        when(request.getQueryString()).thenReturn("override-protection=true");
+        when(request.getInputStream()).thenReturn(servletInputStream(body));
+
+        Context ctx = new Context(request, response, map);
+        TimeSeriesBulkController controller = new TimeSeriesBulkController(new MetricRegistry()) {
+            @Override
+            protected DSLContext getDslContext(Context ctx) {
+                return null;
+            }
+
+            @NotNull
+            @Override
+            protected TimeSeriesDao getTimeSeriesDao(DSLContext dsl) {
+                return dao;
+            }
+        };
+
+        controller.handle(ctx);
+
+        verify(response).setStatus(TimeSeriesBulkController.SC_MULTI_STATUS);
+        JsonNode results = JsonV2.buildObjectMapper().readTree(ctx.resultString());
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).get("stored").asBoolean());
+        assertFalse(results.get(1).get("stored").asBoolean());
+        assertEquals("bad unit", results.get(1).get("message").asText());
+        assertEquals("SPK", results.get(1).get("office-id").asText());
+    }
+
+    private static ServletInputStream servletInputStream(byte[] body) {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+        };
+    }
+}
@@ -14,6 +14,7 @@ import static org.mockito.Mockito.when;
 import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.api.enums.TotalMode;
 import cwms.cda.data.dao.TimeSeriesDao;
 import cwms.cda.data.dto.TimeSeries;
 import cwms.cda.formatters.Formats;
@@ -58,10 +59,11 @@ class TimeSeriesControllerTest extends ControllerTest {
         //    ZonedDateTime end,
         //    ZonedDateTime versionDate
         //    boolean trim
+        //    TotalMode totalMode
 
         when(
                 dao.getTimeseries(eq(""), eq(500), eq(tsId), eq(officeId), eq("EN"),
-                         isNotNull(), isNotNull(), isNull(), eq(false) )).thenReturn(expected);
+                         isNotNull(), isNotNull(), isNull(), eq(false), eq(TotalMode.EXACT))).thenReturn(expected);
 
 
         // build mock request and response
@@ -107,7 +109,7 @@ class TimeSeriesControllerTest extends ControllerTest {
         // Check that the controller accessed our mock dao in the expected way
         verify(dao, times(1)).
                 getTimeseries(eq(""), eq(500), eq(tsId), eq(officeId), eq("EN"),
-                         isNotNull(), isNotNull(), isNull(), eq(false));
+                         isNotNull(), isNotNull(), isNull(), eq(false), eq(TotalMode.EXACT));
 
         // Make sure controller thought it was happy
         verify(response).setStatus(200);
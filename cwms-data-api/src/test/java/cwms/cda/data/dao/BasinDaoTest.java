@@ -0,0 +1,101 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import cwms.cda.api.graph.Node;
+import cwms.cda.api.graph.basinconnectivity.BasinConnectivityGraph;
+import cwms.cda.api.graph.basinconnectivity.BasinNetwork;
+import cwms.cda.data.dto.basinconnectivity.Basin;
+import cwms.cda.data.dto.basinconnectivity.Stream;
+import cwms.cda.data.dto.basinconnectivity.StreamLocation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class BasinDaoTest {
+
+    private static final String OFFICE = "SWT";
+
+    /**
+     * MAIN runs from station 100 down to MOUTH at 0 with DAM at 80.  TRIB joins it at station
+     * 50 and has GAGE at station 10.
+     */
+    private static BasinConnectivityGraph buildGraph() {
+        Stream main = new Stream.Builder("MAIN", true, 100.0, OFFICE).build();
+        Stream trib = new Stream.Builder("TRIB", true, 20.0, OFFICE)
+                .withReceivingStreamId("main")
+                .withConfluenceStation(50.0)
+                .withConfluenceBank("L")
+                .build();
+        Map<String, Stream> streams = BasinDao.assembleStreams(Arrays.asList(main, trib),
+                Arrays.asList(location("MOUTH", "MAIN", 0.0),
+                        location("DAM", "MAIN", 80.0),
+                        location("GAGE", "TRIB", 10.0)),
+                Collections.emptyList());
+
+        Stream primary = streams.get(BasinDao.key(OFFICE, "MAIN"));
+        assertEquals(1, primary.getTributaries().size());
+        assertEquals(1, primary.getTributaries().get(0).getStreamLocations().size());
+
+        Basin basin = new Basin.Builder("BASIN", OFFICE).withPrimaryStream(primary).build();
+        return new BasinNetwork(Collections.singletonList(basin)).getGraph("basin", null);
+    }
+
+    private static StreamLocation location(String locationId, String streamId, double station) {
+        return new StreamLocation.Builder(locationId, streamId, station, "L", OFFICE).build();
+    }
+
+    private static Set<String> nodeIds(BasinConnectivityGraph graph) {
+        Set<String> retval = new TreeSet<>();
+        for (Node node : graph.getNodes()) {
+            retval.add(node.getId());
+        }
+        return retval;
+    }
+
+    @Test
+    void testUpstreamOfMouthIsTheWholeBasin() {
+        BasinConnectivityGraph graph = buildGraph();
+        BasinConnectivityGraph upstream = graph.upstreamOf("mouth");
+
+        assertEquals(nodeIds(graph), nodeIds(upstream));
+        assertEquals(graph.getEdges().size(), upstream.getEdges().size());
+    }
+
+    @Test
+    void testTraversalStaysOnItsSideOfTheLocation() {
+        BasinConnectivityGraph graph = buildGraph();
+
+        assertEquals(new TreeSet<>(Arrays.asList("GAGE", "TRIB-Node-20.0")),
+                nodeIds(graph.upstreamOf("GAGE")));
+        assertEquals(new TreeSet<>(Arrays.asList("GAGE", "MAIN-Node-50.0", "MOUTH")),
+                nodeIds(graph.downstreamOf("GAGE")));
+
+        BasinConnectivityGraph downstreamOfDam = graph.downstreamOf("DAM");
+        assertEquals(new TreeSet<>(Arrays.asList("DAM", "MAIN-Node-50.0", "MOUTH")),
+                nodeIds(downstreamOfDam));
+        assertEquals(2, downstreamOfDam.getEdges().size());
+    }
+
+    @Test
+    void testUnknownLocationIsNotTraversed() {
+        assertNull(buildGraph().upstreamOf("NOWHERE"));
+    }
+
+    @Test
+    void testStreamFlowingIntoItselfIsNotItsOwnTributary() {
+        Stream loop = new Stream.Builder("LOOP", false, 10.0, OFFICE)
+                .withReceivingStreamId("LOOP")
+                .withConfluenceStation(5.0)
+                .withConfluenceBank("L")
+                .build();
+        Map<String, Stream> streams = BasinDao.assembleStreams(Collections.singletonList(loop),
+                Collections.emptyList(), Collections.emptyList());
+
+        assertEquals(0, streams.get(BasinDao.key(OFFICE, "LOOP")).getTributaries().size());
+    }
+}
@@ -0,0 +1,112 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.TimeSeries;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+
+class ChunkedValuesReaderTest {
+
+    /**
+     * One value per millisecond; values in [nullBefore, nullAfter) are present, the rest missing.
+     */
+    private static ChunkedValuesReader.ChunkFetcher hourly(long nullBefore, long nullAfter) {
+        return (begin, end, last) -> {
+            try {
+                // finish out of order so the merge has to put them back
+                Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<TimeSeries.Record> values = new ArrayList<>();
+            long stop = last ? end : end - 1;
+            for (long t = begin; t <= stop; t++) {
+                Double value = t >= nullBefore && t < nullAfter ? (double) t : null;
+                values.add(new TimeSeries.Record(new Timestamp(t), value, 0));
+            }
+            return values;
+        };
+    }
+
+    private static List<TimeSeries.Record> readAll(ChunkedValuesReader.Values values) {
+        List<TimeSeries.Record> all = new ArrayList<>();
+        try (ChunkedValuesReader.Values open = values) {
+            open.forEachRemaining(all::add);
+        }
+        return all;
+    }
+
+    @Test
+    void testChunksAreMergedInOrderWithoutOverlap() {
+        ChunkedValuesReader reader = new ChunkedValuesReader(10, 3);
+
+        List<TimeSeries.Record> values = readAll(reader.read(0, 95, false, true,
+                hourly(0, Long.MAX_VALUE)));
+
+        assertEquals(96, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i, values.get(i).getDateTime().getTime());
+        }
+    }
+
+    @Test
+    void testOnlyPerRequestChunksAreReadAhead() {
+        ChunkedValuesReader reader = new ChunkedValuesReader(10, 2);
+
+        ChunkedValuesReader.Values values = reader.read(0, 1000, false, true,
+                hourly(0, Long.MAX_VALUE));
+        assertEquals(2, values.chunksSubmitted());
+
+        for (int i = 0; i < 15; i++) {
+            values.next();
+        }
+        values.close();
+        assertEquals(3, values.chunksSubmitted());
+        assertFalse(values.hasNext());
+    }
+
+    @Test
+    void testTrimAppliesToWholeWindowOnly() {
+        ChunkedValuesReader reader = new ChunkedValuesReader(10, 4);
+
+        List<TimeSeries.Record> values = readAll(reader.read(0, 59, true, true, hourly(15, 42)));
+
+        assertEquals(15, values.get(0).getDateTime().getTime());
+        assertEquals(41, values.get(values.size() - 1).getDateTime().getTime());
+        assertEquals(27, values.size());
+    }
+
+    @Test
+    void testLeadingValuesKeptAfterCursor() {
+        ChunkedValuesReader reader = new ChunkedValuesReader(10, 4);
+
+        List<TimeSeries.Record> values = readAll(reader.read(0, 59, true, false, hourly(15, 42)));
+
+        assertEquals(0, values.get(0).getDateTime().getTime());
+        assertEquals(41, values.get(values.size() - 1).getDateTime().getTime());
+    }
+
+    @Test
+    void testChunkFailureIsRethrown() {
+        ChunkedValuesReader reader = new ChunkedValuesReader(10, 2);
+
+        assertThrows(IllegalStateException.class, () -> readAll(reader.read(0, 100, false, true,
+                (begin, end, last) -> {
+                    throw new IllegalStateException("boom");
+                })));
+    }
+
+    @Test
+    void testApplies() {
+        ChunkedValuesReader reader = new ChunkedValuesReader(10, 2);
+        assertFalse(reader.applies(0, 10));
+        assertTrue(reader.applies(0, 11));
+    }
+}
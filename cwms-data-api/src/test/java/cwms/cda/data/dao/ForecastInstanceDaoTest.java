@@ -0,0 +1,124 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.TimeSeries;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+
+class ForecastInstanceDaoTest {
+    private static final Field<String> TS_ID = DSL.field("CWMS_TS_ID", String.class);
+    private static final Field<Timestamp> DATE_TIME = DSL.field("DATE_TIME", Timestamp.class);
+    private static final Field<Double> VALUE = DSL.field("VALUE", Double.class);
+    private static final Field<Integer> QUALITY = DSL.field("QUALITY_CODE", Integer.class);
+
+    private static Record row(String tsId, Long millis, Double value) {
+        DSLContext dsl = DSL.using(SQLDialect.DEFAULT);
+        Record retval = dsl.newRecord(TS_ID, DATE_TIME, VALUE, QUALITY);
+        retval.set(TS_ID, tsId);
+        retval.set(DATE_TIME, millis == null ? null : new Timestamp(millis));
+        retval.set(VALUE, value);
+        retval.set(QUALITY, millis == null ? null : 3);
+        return retval;
+    }
+
+    private static Map<String, List<Double>> group(List<Record> rows, int readPerSeries)
+            throws Exception {
+        Map<String, List<Double>> retval = new LinkedHashMap<>();
+        ForecastInstanceDao.forEachSeries(rows.iterator(), (first, values) -> {
+            List<Double> read = new ArrayList<>();
+            retval.put(first.get(TS_ID), read);
+            while (values.hasNext() && read.size() < readPerSeries) {
+                TimeSeries.Record value = values.next();
+                assertEquals(3, value.getQualityCode());
+                read.add(value.getValue());
+            }
+        });
+        return retval;
+    }
+
+    @Test
+    void testRowsAreSplitBySeries() throws Exception {
+        List<Record> rows = new ArrayList<>();
+        rows.add(row("A.Flow.Inst.1Hour.0.Fcst-1", 0L, 1.0));
+        rows.add(row("A.Flow.Inst.1Hour.0.Fcst-1", 3_600_000L, 2.0));
+        rows.add(row("A.Flow.Inst.1Hour.0.Fcst-2", null, null));
+        rows.add(row("A.Flow.Inst.1Hour.0.Fcst-3", 0L, null));
+        rows.add(row("A.Flow.Inst.1Hour.0.Fcst-3", 3_600_000L, 4.0));
+
+        Map<String, List<Double>> series = group(rows, Integer.MAX_VALUE);
+
+        assertEquals(3, series.size());
+        assertEquals(2, series.get("A.Flow.Inst.1Hour.0.Fcst-1").size());
+        assertTrue(series.get("A.Flow.Inst.1Hour.0.Fcst-2").isEmpty());
+        List<Double> third = series.get("A.Flow.Inst.1Hour.0.Fcst-3");
+        assertNull(third.get(0));
+        assertEquals(4.0, third.get(1));
+    }
+
+    @Test
+    void testUnreadValuesAreSkipped() throws Exception {
+        List<Record> rows = new ArrayList<>();
+        rows.add(row("A", 0L, 1.0));
+        rows.add(row("A", 1L, 2.0));
+        rows.add(row("A", 2L, 3.0));
+        rows.add(row("B", 0L, 4.0));
+
+        Map<String, List<Double>> series = group(rows, 1);
+
+        assertEquals(2, series.size());
+        assertEquals(1.0, series.get("A").get(0));
+        assertEquals(4.0, series.get("B").get(0));
+    }
+
+    @Test
+    void testNoRows() throws Exception {
+        Iterator<Record> none = new ArrayList<Record>().iterator();
+        ForecastInstanceDao.forEachSeries(none, (first, values) -> {
+            throw new AssertionError("there are no series");
+        });
+    }
+
+    @Test
+    void testMetadataRoundTrip() {
+        Map<String, String> metadata = new LinkedHashMap<>();
+        metadata.put("key1", "value1");
+        metadata.put("model", "HEC-RAS \"6.4\"");
+        String info = ForecastInstanceDao.writeInfo(metadata);
+        assertEquals(metadata, ForecastInstanceDao.readInfo(info));
+        assertNull(ForecastInstanceDao.writeInfo(null));
+        assertTrue(ForecastInstanceDao.readInfo(null).isEmpty());
+    }
+
+    @Test
+    void testMediaType() {
+        assertEquals("text/plain", ForecastInstanceDao.mediaType("forecast.txt", null));
+        assertEquals("application/zip", ForecastInstanceDao.mediaType("forecast.txt",
+                "application/zip"));
+        assertEquals("application/octet-stream", ForecastInstanceDao.mediaType(null, null));
+    }
+
+    @Test
+    void testStoreCallBindsTheFileOnlyWhenThereIsOne() {
+        assertEquals(10, count(ForecastInstanceDao.storeCall(false)));
+        assertEquals(14, count(ForecastInstanceDao.storeCall(true)));
+        assertFalse(ForecastInstanceDao.storeCall(false).contains("BLOB_FILE_T"));
+    }
+
+    private static long count(String sql) {
+        return sql.chars().filter(c -> c == '?').count();
+    }
+}
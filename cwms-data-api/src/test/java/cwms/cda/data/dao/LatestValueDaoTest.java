@@ -0,0 +1,102 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.data.dto.LatestValue;
+import cwms.cda.helpers.ExpiringCache;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+
+class LatestValueDaoTest {
+
+    private static final Timestamp PAST = Timestamp.from(Instant.parse("2024-01-01T00:00:00Z"));
+    private static final Timestamp FUTURE = Timestamp.from(Instant.parse("2024-01-29T00:00:00Z"));
+
+    private static final String FOUND = "BIGH.Stage.Inst.1Hour.0.Raw";
+    private static final String EMPTY = "BIGH.Flow.Inst.1Hour.0.Raw";
+    private static final String MISSING = "NOPE.Stage.Inst.1Hour.0.Raw";
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private LatestValueDao buildDao() {
+        DSLContext dsl = mock(DSLContext.class);
+        ExpiringCache<String, List<LatestValue>> cache = new ExpiringCache<>(new MetricRegistry(),
+                "test", 10, Duration.ofMinutes(1));
+        return new LatestValueDao(dsl, cache) {
+            @Override
+            protected List<LatestValue> queryLatest(String office, String unit, Set<String> tsIds,
+                                                    Timestamp pastLimit, Timestamp futureLimit) {
+                queries.incrementAndGet();
+                List<LatestValue> retval = new ArrayList<>();
+                if (tsIds.contains(FOUND)) {
+                    retval.add(new LatestValue(FOUND, "SWT", LatestValue.Status.OK,
+                            Collections.singletonList(new LatestValue.Value("ft",
+                                    Instant.parse("2024-01-15T12:00:00Z"), 4.5, 0L))));
+                }
+                if (tsIds.contains(EMPTY)) {
+                    retval.add(new LatestValue(EMPTY, "SWT", LatestValue.Status.NO_DATA, null));
+                }
+                return retval;
+            }
+        };
+    }
+
+    @Test
+    void testEveryIdentifierGetsAStatus() {
+        List<LatestValue> latest = buildDao().retrieveLatest("SWT", null,
+                Arrays.asList(MISSING, FOUND, " ", EMPTY, FOUND), PAST, FUTURE);
+
+        assertEquals(4, latest.size());
+        assertEquals(MISSING, latest.get(0).getName());
+        assertEquals(LatestValue.Status.NOT_FOUND, latest.get(0).getStatus());
+        assertEquals(LatestValue.Status.OK, latest.get(1).getStatus());
+        assertEquals(4.5, latest.get(1).getValues().get(0).getValue());
+        assertEquals(LatestValue.Status.NO_DATA, latest.get(2).getStatus());
+        assertNull(latest.get(2).getValues());
+        assertEquals(LatestValue.Status.INVALID, latest.get(3).getStatus());
+    }
+
+    @Test
+    void testSameSetIsServedFromCache() {
+        LatestValueDao dao = buildDao();
+
+        dao.retrieveLatest("SWT", null, Arrays.asList(FOUND, EMPTY), PAST, FUTURE);
+        List<LatestValue> latest = dao.retrieveLatest("SWT", null, Arrays.asList(EMPTY, FOUND),
+                PAST, FUTURE);
+        assertEquals(1, queries.get());
+        assertEquals(EMPTY, latest.get(0).getName());
+
+        dao.retrieveLatest("SWT", "m", Arrays.asList(FOUND, EMPTY), PAST, FUTURE);
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void testOnlyInvalidIdentifiersSkipTheQuery() {
+        List<LatestValue> latest = buildDao().retrieveLatest(null, null,
+                Collections.singletonList(""), PAST, FUTURE);
+
+        assertEquals(0, queries.get());
+        assertEquals(LatestValue.Status.INVALID, latest.get(0).getStatus());
+    }
+
+    @Test
+    void testCacheKeyIgnoresOrder() {
+        Set<String> forward = new LinkedHashSet<>(Arrays.asList("A", "B"));
+        Set<String> reverse = new LinkedHashSet<>(Arrays.asList("B", "A"));
+        assertEquals(LatestValueDao.cacheKey("swt", null, forward, PAST, FUTURE),
+                LatestValueDao.cacheKey("SWT", null, reverse, PAST, FUTURE));
+    }
+}
@@ -0,0 +1,104 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.geojson.Feature;
+import org.junit.jupiter.api.Test;
+
+class LocationFeatureIndexTest {
+
+    private static final List<String> IDS = Arrays.asList("DAVIS", "FOLSOM", "OROVILLE",
+            "TOKYO", "FIJI", "NOWHERE");
+    private static final double[] LONGITUDES = {-121.74, -121.16, -121.49, 139.69, 179.9,
+        Double.NaN};
+    private static final double[] LATITUDES = {38.54, 38.68, 39.51, 35.69, -17.7, Double.NaN};
+
+    private static LocationFeatureIndex index() {
+        List<Feature> features = new ArrayList<>();
+        for (String id : IDS) {
+            Feature feature = new Feature();
+            feature.setId(id);
+            features.add(feature);
+        }
+        return new LocationFeatureIndex(IDS, features, LONGITUDES, LATITUDES);
+    }
+
+    @Test
+    void testBoundingBox() {
+        LocationFeatureIndex index = index();
+        assertArrayEquals(new int[]{0, 1}, index.select(
+                SpatialFilter.parse("-122,38,-121,39", null), null));
+        assertArrayEquals(new int[]{1}, index.select(SpatialFilter.parse("-122,38,-121,39", null),
+                Collections.singleton("FOLSOM")));
+    }
+
+    @Test
+    void testBoundingBoxAcrossTheAntimeridian() {
+        assertArrayEquals(new int[]{4}, index().select(
+                SpatialFilter.boundingBox(179, -20, -179, -10), null));
+    }
+
+    @Test
+    void testNearIsOrderedByDistance() {
+        // Sacramento: Davis is about 20 km away, Folsom about 35 km and Oroville about 100 km
+        assertArrayEquals(new int[]{0, 1}, index().select(
+                SpatialFilter.parse(null, "-121.49,38.58,50"), null));
+        assertArrayEquals(new int[]{0, 1, 2}, index().select(
+                SpatialFilter.near(-121.49, 38.58, 150), null));
+    }
+
+    @Test
+    void testWithoutFilterEveryLocationMatches() {
+        LocationFeatureIndex index = index();
+        assertEquals(6, index.select(null, null).length);
+        assertArrayEquals(new int[]{0, 5}, index.select(null,
+                new HashSet<>(Arrays.asList("NOWHERE", "DAVIS", "ELSEWHERE"))));
+    }
+
+    @Test
+    void testGridFindsWhatAFullScanFinds() {
+        Random random = new Random(42);
+        int size = 5000;
+        List<String> ids = new ArrayList<>();
+        List<Feature> features = new ArrayList<>();
+        double[] longitudes = new double[size];
+        double[] latitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            ids.add("LOC" + i);
+            features.add(new Feature());
+            longitudes[i] = -125 + random.nextDouble() * 60;
+            latitudes[i] = 25 + random.nextDouble() * 25;
+        }
+        LocationFeatureIndex index = new LocationFeatureIndex(ids, features, longitudes,
+                latitudes);
+        for (SpatialFilter filter : Arrays.asList(SpatialFilter.boundingBox(-100, 30, -99, 31.5),
+                SpatialFilter.near(-90, 40, 40))) {
+            int[] expected = IntStream.range(0, size)
+                    .filter(i -> filter.matches(longitudes[i], latitudes[i]))
+                    .toArray();
+            int[] found = index.select(filter, null);
+            Arrays.sort(found);
+            assertArrayEquals(expected, found);
+        }
+    }
+
+    @Test
+    void testFilterParsing() {
+        assertNull(SpatialFilter.parse(null, ""));
+        assertThrows(IllegalArgumentException.class,
+                () -> SpatialFilter.parse("1,2,3,4", "1,2,3"));
+        assertThrows(IllegalArgumentException.class, () -> SpatialFilter.parse("1,2,3", null));
+        assertThrows(IllegalArgumentException.class, () -> SpatialFilter.parse("0,50,1,40", null));
+        assertThrows(IllegalArgumentException.class, () -> SpatialFilter.parse(null, "0,0,-1"));
+    }
+}
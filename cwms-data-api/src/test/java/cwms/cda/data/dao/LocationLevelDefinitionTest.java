@@ -0,0 +1,144 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.DoubleUnaryOperator;
+import org.junit.jupiter.api.Test;
+
+class LocationLevelDefinitionTest {
+
+    private static final ZoneId ZONE = ZoneId.of("US/Central");
+    private static final long DAY = 86_400_000L;
+
+    private static long at(int year, int month, int day) {
+        return ZonedDateTime.of(year, month, day, 0, 0, 0, 0, ZONE).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 100 from January 1st, 200 from July 1st, every year since 2000.
+     */
+    private static LocationLevelDefinition.Period yearly(long effective, boolean interpolate) {
+        return LocationLevelDefinition.Period.seasonal(effective, null, at(2000, 1, 1), 12, 0L,
+                interpolate, new int[]{0, 6}, new long[]{0L, 0L}, new double[]{100.0, 200.0});
+    }
+
+    @Test
+    void testConstantLevelChangesWithEffectiveDate() {
+        LocationLevelDefinition definition = LocationLevelDefinition.local(ZONE, "m",
+                Arrays.asList(LocationLevelDefinition.Period.constant(at(2020, 1, 1), null, 1.0),
+                        LocationLevelDefinition.Period.constant(at(2021, 1, 1), at(2022, 1, 1),
+                                2.0)));
+        double[] values = definition.evaluate(new long[]{at(2019, 6, 1), at(2020, 6, 1),
+            at(2021, 1, 1), at(2021, 12, 31), at(2022, 1, 1)});
+
+        assertTrue(Double.isNaN(values[0]));
+        assertEquals(1.0, values[1]);
+        assertEquals(2.0, values[2]);
+        assertEquals(2.0, values[3]);
+        assertTrue(Double.isNaN(values[4]), "expired");
+    }
+
+    @Test
+    void testSeasonalLevelSteps() {
+        LocationLevelDefinition definition = LocationLevelDefinition.local(ZONE, "m",
+                Collections.singletonList(yearly(at(2000, 1, 1), false)));
+        double[] values = definition.evaluate(new long[]{at(2023, 3, 1), at(2023, 7, 1),
+            at(2023, 12, 31), at(2024, 1, 1)});
+
+        assertEquals(100.0, values[0]);
+        assertEquals(200.0, values[1]);
+        assertEquals(200.0, values[2]);
+        assertEquals(100.0, values[3]);
+    }
+
+    @Test
+    void testSeasonalLevelInterpolatesAcrossIntervals() {
+        LocationLevelDefinition definition = LocationLevelDefinition.local(ZONE, "m",
+                Collections.singletonList(yearly(at(2000, 1, 1), true)));
+        long jul1 = at(2023, 7, 1);
+        long jan1 = at(2024, 1, 1);
+        long middle = jul1 + (jan1 - jul1) / 2;
+        long start = at(2023, 1, 1);
+        long quarter = start + (jul1 - start) / 4;
+        double[] values = definition.evaluate(new long[]{quarter, jul1, middle, jan1});
+
+        assertEquals(125.0, values[0], 1e-9);
+        assertEquals(200.0, values[1], 1e-9);
+        assertEquals(150.0, values[2], 1e-9, "back towards January's value");
+        assertEquals(100.0, values[3], 1e-9);
+    }
+
+    @Test
+    void testTimesBeforeTheFirstOffsetUseThePreviousInterval() {
+        // one value at 6 in the morning of each day
+        LocationLevelDefinition.Period daily = LocationLevelDefinition.Period.seasonal(
+                at(2000, 1, 1), null, at(2000, 1, 1), 0, 1440L, false, new int[]{0, 0},
+                new long[]{360L, 1080L}, new double[]{1.0, 2.0});
+        LocationLevelDefinition definition = LocationLevelDefinition.local(ZONE, "m",
+                Collections.singletonList(daily));
+        long day = at(2023, 3, 1);
+        double[] values = definition.evaluate(new long[]{day, day + DAY / 2, day + DAY});
+
+        assertEquals(2.0, values[0]);
+        assertEquals(1.0, values[1]);
+        assertEquals(2.0, values[2]);
+    }
+
+    @Test
+    void testDailyValuesKeepTheirLocalTimeAcrossDaylightSaving() {
+        // origin in standard time, one value at 6 in the morning and one at 6 in the evening
+        LocationLevelDefinition.Period daily = LocationLevelDefinition.Period.seasonal(
+                at(2000, 1, 1), null, at(2023, 3, 1), 0, 1440L, false, new int[]{0, 0},
+                new long[]{360L, 1080L}, new double[]{1.0, 2.0});
+        LocationLevelDefinition definition = LocationLevelDefinition.local(ZONE, "m",
+                Collections.singletonList(daily));
+        long[] times = {local(2023, 3, 12, 5, 59), local(2023, 3, 12, 6, 0),
+            local(2023, 3, 13, 6, 0), local(2023, 7, 1, 17, 59), local(2023, 7, 1, 18, 0),
+            local(2023, 11, 5, 5, 59), local(2023, 11, 5, 6, 0)};
+        double[] values = definition.evaluate(times);
+
+        assertEquals(2.0, values[0]);
+        assertEquals(1.0, values[1], "the morning the clocks go forward");
+        assertEquals(1.0, values[2]);
+        assertEquals(1.0, values[3]);
+        assertEquals(2.0, values[4]);
+        assertEquals(2.0, values[5]);
+        assertEquals(1.0, values[6], "the morning the clocks go back");
+    }
+
+    private static long local(int year, int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, ZONE).toInstant()
+                .toEpochMilli();
+    }
+
+    @Test
+    void testDatabaseOnlyDefinitionIsNotLocal() {
+        assertFalse(LocationLevelDefinition.databaseOnly(ZONE).isLocal());
+    }
+
+    @Test
+    void testIntervalParsing() {
+        assertEquals(12, LocationLevelsDaoImpl.parseMonths("+01-00"));
+        assertEquals(18, LocationLevelsDaoImpl.parseMonths("1-6"));
+        assertEquals(0, LocationLevelsDaoImpl.parseMonths(null));
+        assertEquals(1440L + 390L, LocationLevelsDaoImpl.parseMinutes("+000000001 06:30:00.000000000"));
+        assertEquals(30L, LocationLevelsDaoImpl.parseMinutes("0 0:30:0"));
+    }
+
+    @Test
+    void testUnitConversionIsLinear() {
+        DoubleUnaryOperator feet = LocationLevelsDaoImpl.unitConversion("m", "ft");
+        assertEquals(3.28083989501, feet.applyAsDouble(1.0), 1e-6);
+        DoubleUnaryOperator fahrenheit = LocationLevelsDaoImpl.unitConversion("C", "F");
+        assertEquals(212.0, fahrenheit.applyAsDouble(100.0), 1e-6);
+        assertNull(LocationLevelsDaoImpl.unitConversion("m", "cfs"));
+    }
+}
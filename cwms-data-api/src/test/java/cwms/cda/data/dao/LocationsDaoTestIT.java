@@ -0,0 +1,59 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.api.DataApiTestIT;
+import cwms.cda.api.LocationController;
+import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.data.dto.Location;
+import cwms.cda.formatters.Formats;
+import fixtures.CwmsDataApiSetupCallback;
+import java.util.Arrays;
+import java.util.List;
+import mil.army.usace.hec.test.database.CwmsDatabaseContainer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("integration")
+class LocationsDaoTestIT extends DataApiTestIT {
+
+    private static Location location(String name) throws Exception {
+        ObjectMapper om = LocationController.getObjectMapperForFormat(Formats.JSON);
+        Location template = om.readValue(
+                readResourceFile("cwms/cda/api/location_create_spk.json"), Location.class);
+        return new Location.Builder(template).withName(name).build();
+    }
+
+    @Test
+    void testFailedItemDoesNotRollBackTheBatch() throws Exception {
+        List<LocationUpsert> batch = Arrays.asList(
+                new LocationUpsert(0, location("BULK_LOC_1"), null),
+                new LocationUpsert(1, location("BULK_LOC_2"), "BULK_LOC_DOES_NOT_EXIST"),
+                new LocationUpsert(2, location("BULK_LOC_3"), null));
+
+        CwmsDatabaseContainer<?> db = CwmsDataApiSetupCallback.getDatabaseLink();
+        db.connection(c -> {
+            LocationsDao dao = new LocationsDaoImpl(dslContext(c, "SPK"));
+            try {
+                List<LocationStoreStatus> statuses = dao.storeLocations(batch);
+
+                assertEquals(LocationStoreStatus.Status.STORED, statuses.get(0).getStatus());
+                assertEquals(LocationStoreStatus.Status.FAILED, statuses.get(1).getStatus());
+                assertEquals(LocationStoreStatus.Status.STORED, statuses.get(2).getStatus());
+
+                assertNotNull(dao.getLocation("BULK_LOC_1", "EN", "SPK"));
+                assertNotNull(dao.getLocation("BULK_LOC_3", "EN", "SPK"));
+                assertThrows(NotFoundException.class,
+                        () -> dao.getLocation("BULK_LOC_2", "EN", "SPK"));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            } finally {
+                dao.deleteLocation("BULK_LOC_1", "SPK");
+                dao.deleteLocation("BULK_LOC_3", "SPK");
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import cwms.cda.api.enums.TotalMode;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class PageTotalsTest {
+
+    private final AtomicInteger counts = new AtomicInteger();
+
+    private Integer total(TotalMode mode, String filter) {
+        return PageTotals.total(mode, () -> 10 * counts.incrementAndGet(),
+                PageTotalsTest.class.getName(), filter);
+    }
+
+    @Test
+    void testNoneDoesNotCount() {
+        assertNull(total(TotalMode.NONE, "none"));
+        assertEquals(0, counts.get());
+    }
+
+    @Test
+    void testEstimatedReusesTheLastExactCount() {
+        assertEquals(10, total(TotalMode.EXACT, "a.*"));
+        assertEquals(10, total(TotalMode.ESTIMATED, "a.*"));
+        assertEquals(1, counts.get());
+
+        assertEquals(20, total(TotalMode.EXACT, "a.*"));
+        assertEquals(20, total(TotalMode.ESTIMATED, "a.*"));
+        assertEquals(30, total(TotalMode.ESTIMATED, "b.*"));
+        assertEquals(3, counts.get());
+    }
+
+    @Test
+    void testMovingWindowSharesKeyWithinTtl() {
+        long ttl = 600_000L;
+        long begin = 1_700_000_100_000L;
+        assertEquals(PageTotals.windowKey(begin, ttl), PageTotals.windowKey(begin + 5_000, ttl));
+        assertEquals(PageTotals.windowKey(begin, ttl) + ttl,
+                PageTotals.windowKey(begin + ttl, ttl));
+        assertEquals(-ttl, PageTotals.windowKey(-1, ttl));
+        assertEquals(begin + 1, PageTotals.windowKey(begin + 1, 0));
+    }
+
+    @Test
+    void testModeNames() {
+        assertEquals(TotalMode.EXACT, TotalMode.totalModeFor(null));
+        assertEquals(TotalMode.ESTIMATED, TotalMode.totalModeFor("estimated"));
+    }
+}
@@ -0,0 +1,34 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+import hec.data.cwmsRating.RatingSet;
+import org.junit.jupiter.api.Test;
+
+class RatingSetCopiesTest {
+
+    @Test
+    void testReleasedCopiesAreReused() throws Exception {
+        RatingSetCopies copies = new RatingSetCopies(mock(RatingSet.class));
+        RatingSet first = mock(RatingSet.class);
+        RatingSet second = mock(RatingSet.class);
+
+        copies.release(first);
+        copies.release(second);
+
+        assertSame(second, copies.borrow());
+        assertSame(first, copies.borrow());
+        assertEquals(0, copies.idleCount());
+    }
+
+    @Test
+    void testIdleCopiesAreBounded() {
+        RatingSetCopies copies = new RatingSetCopies(mock(RatingSet.class));
+        for (int i = 0; i < RatingSetCopies.MAX_IDLE + 3; i++) {
+            copies.release(mock(RatingSet.class));
+        }
+        assertEquals(RatingSetCopies.MAX_IDLE, copies.idleCount());
+    }
+}
@@ -0,0 +1,76 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.Office;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ReferenceDataTest {
+
+    private static ReferenceData snapshot() {
+        Office spk = new Office("SPK", "Sacramento District", "DIS", "SPD");
+        Office swt = new Office("SWT", "Tulsa District", "DIS", "SWD");
+        Map<String, String> units = new HashMap<>();
+        units.put("json", "{\"units\":[]}");
+        return new ReferenceData(Arrays.asList(spk, swt), Collections.singletonList(spk),
+                Collections.emptyList(), Collections.emptyList(), units, new HashMap<>(),
+                new HashMap<>());
+    }
+
+    @Test
+    void testBodyIsRenderedOncePerKey() {
+        ReferenceData snapshot = snapshot();
+        AtomicInteger renders = new AtomicInteger();
+
+        ReferenceData.Body first = snapshot.render("offices|json", () -> {
+            renders.incrementAndGet();
+            return "[\"SPK\",\"SWT\"]";
+        });
+        ReferenceData.Body second = snapshot.render("offices|json", () -> {
+            renders.incrementAndGet();
+            return "something else";
+        });
+
+        assertSame(first, second);
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void testEtagIsStrongAndFollowsTheContent() {
+        String etag = ReferenceData.Body.etag("[\"SPK\"]");
+
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertFalse(etag.startsWith("W/"));
+        assertEquals(etag, ReferenceData.Body.etag("[\"SPK\"]"));
+        assertNotEquals(etag, ReferenceData.Body.etag("[\"SWT\"]"));
+    }
+
+    @Test
+    void testOfficesComeFromTheSnapshot() {
+        ReferenceData snapshot = snapshot();
+
+        assertEquals(2, snapshot.getOffices(false).size());
+        assertEquals(1, snapshot.getOffices(true).size());
+        assertEquals("SWT", snapshot.getOfficeById("swt").get().getName());
+        assertFalse(snapshot.getOfficeById("NWDP").isPresent());
+    }
+
+    @Test
+    void testFormatNotLoadedIsLeftToTheDatabase() {
+        ReferenceData snapshot = snapshot();
+
+        assertEquals("{\"units\":[]}", snapshot.getUnits("json"));
+        assertNull(snapshot.getUnits("wml2"));
+        assertNull(snapshot.getParameters("json"));
+    }
+}
@@ -0,0 +1,55 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SchemaCapabilitiesTest {
+
+    @AfterEach
+    void clear() {
+        SchemaCapabilities.clear();
+    }
+
+    @Test
+    void testParseVersion() {
+        assertEquals(Dao.CWMS_23_03_16, SchemaCapabilities.parseVersion("23.03.16"));
+        assertEquals(Dao.CWMS_21_1_1, SchemaCapabilities.parseVersion("21.1.1"));
+        assertEquals(Dao.CWMS_18_1_8, SchemaCapabilities.parseVersion("18.1.8"));
+    }
+
+    @Test
+    void testIsAtLeast() {
+        SchemaCapabilities capabilities = new SchemaCapabilities(Dao.CWMS_21_1_1, false);
+        assertTrue(capabilities.isAtLeast(Dao.CWMS_18_1_8));
+        assertTrue(capabilities.isAtLeast(Dao.CWMS_21_1_1));
+        assertFalse(capabilities.isAtLeast(Dao.CWMS_23_03_16));
+    }
+
+    @Test
+    void testLoadedOnceForAllDaos() {
+        SchemaCapabilities loaded = new SchemaCapabilities(Dao.CWMS_23_03_16, true);
+        DSLContext dsl = mock(DSLContext.class);
+        when(dsl.connectionResult(any())).thenReturn(loaded);
+
+        ChangeTokenDao first = new ChangeTokenDao(dsl);
+        ChangeTokenDao second = new ChangeTokenDao(dsl);
+        verify(dsl, never()).connectionResult(any());
+
+        assertEquals(Dao.CWMS_23_03_16, first.getDbVersion());
+        assertEquals(Dao.CWMS_23_03_16, second.getDbVersion());
+        assertSame(loaded, second.getCapabilities());
+        verify(dsl, times(1)).connectionResult(any());
+    }
+}
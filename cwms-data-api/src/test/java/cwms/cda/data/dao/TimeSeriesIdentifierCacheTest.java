@@ -0,0 +1,99 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesIdentifierCacheTest {
+
+    private static final String TS_ID = "BIGH.Stage.Inst.1Hour.0.Raw";
+    private static final String ALIAS = "BIGH-Alias.Stage.Inst.1Hour.0.Raw";
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void clear() {
+        TimeSeriesIdentifierCache.invalidateAll();
+    }
+
+    private TimeSeriesIdentifierCache.Metadata load() {
+        loads.incrementAndGet();
+        return new TimeSeriesIdentifierCache.Metadata(BigDecimal.valueOf(42), TS_ID, "SWT", "BIGH",
+                "STAGE", "ft", "m", BigDecimal.valueOf(60), 0L, "UTC", "US/Central", false);
+    }
+
+    @Test
+    void testLoadedOncePerIdentifier() {
+        TimeSeriesIdentifierCache.Metadata first = TimeSeriesIdentifierCache.get("SWT", TS_ID, this::load);
+        TimeSeriesIdentifierCache.Metadata second = TimeSeriesIdentifierCache.get("swt",
+                TS_ID.toLowerCase(), this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testNoOfficeIsNotCached() {
+        assertNull(TimeSeriesIdentifierCache.get(null, TS_ID, this::load));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testInvalidateDropsAliasEntries() {
+        TimeSeriesIdentifierCache.get("SWT", TS_ID, this::load);
+        TimeSeriesIdentifierCache.get("SWT", ALIAS, this::load);
+        assertEquals(2, loads.get());
+
+        TimeSeriesIdentifierCache.invalidate("SWT", TS_ID);
+
+        TimeSeriesIdentifierCache.get("SWT", TS_ID, this::load);
+        TimeSeriesIdentifierCache.get("SWT", ALIAS, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testInvalidateOtherOfficeKeepsEntry() {
+        TimeSeriesIdentifierCache.get("SWT", TS_ID, this::load);
+        TimeSeriesIdentifierCache.invalidate("SPK", TS_ID);
+        TimeSeriesIdentifierCache.get("SWT", TS_ID, this::load);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testInvalidateLocationDropsSubLocations() {
+        TimeSeriesIdentifierCache.get("SWT", TS_ID, this::load);
+        TimeSeriesIdentifierCache.get("SWT", "BIGH-Gate.Opening.Inst.1Hour.0.Raw",
+                () -> metadata("BIGH-Gate.Opening.Inst.1Hour.0.Raw", "BIGH-Gate"));
+        TimeSeriesIdentifierCache.get("SWT", "BIGHORN.Stage.Inst.1Hour.0.Raw",
+                () -> metadata("BIGHORN.Stage.Inst.1Hour.0.Raw", "BIGHORN"));
+        assertEquals(3, loads.get());
+
+        TimeSeriesIdentifierCache.invalidateLocation("SWT", "bigh");
+
+        TimeSeriesIdentifierCache.get("SWT", TS_ID, this::load);
+        TimeSeriesIdentifierCache.get("SWT", "BIGH-Gate.Opening.Inst.1Hour.0.Raw",
+                () -> metadata("BIGH-Gate.Opening.Inst.1Hour.0.Raw", "BIGH-Gate"));
+        TimeSeriesIdentifierCache.get("SWT", "BIGHORN.Stage.Inst.1Hour.0.Raw",
+                () -> metadata("BIGHORN.Stage.Inst.1Hour.0.Raw", "BIGHORN"));
+        assertEquals(5, loads.get());
+    }
+
+    private TimeSeriesIdentifierCache.Metadata metadata(String tsId, String location) {
+        loads.incrementAndGet();
+        return new TimeSeriesIdentifierCache.Metadata(BigDecimal.valueOf(43), tsId, "SWT", location,
+                "STAGE", "ft", "m", BigDecimal.valueOf(60), 0L, "UTC", "US/Central", false);
+    }
+
+    @Test
+    void testUnits() {
+        TimeSeriesIdentifierCache.Metadata metadata = load();
+        assertEquals("ft", metadata.getUnits("EN"));
+        assertEquals("m", metadata.getUnits("si"));
+        assertEquals("cfs", metadata.getUnits("cfs"));
+    }
+}
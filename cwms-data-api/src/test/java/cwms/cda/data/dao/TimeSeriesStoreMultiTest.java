@@ -0,0 +1,61 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import cwms.cda.data.dto.TimeSeries;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesStoreMultiTest {
+
+    private static final ZonedDateTime BEGIN = ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]");
+
+    private static TimeSeries series(String office, String name, String units) {
+        return new TimeSeries(null, -1, 0, name, office, BEGIN, BEGIN.plusHours(2), units,
+                Duration.ofHours(1));
+    }
+
+    @Test
+    void testSeriesAreCheckedBeforeStoring() {
+        TimeSeries valid = series("SPK", "A.Elev.Inst.1Hour.0.raw", "ft");
+        valid.addValue(Timestamp.from(BEGIN.toInstant()), 1.0, 0);
+        assertNull(TimeSeriesDaoImpl.checkStorable(valid));
+
+        assertEquals("Office id is required.",
+                TimeSeriesDaoImpl.checkStorable(series(null, "A.Elev.Inst.1Hour.0.raw", "ft")));
+        assertEquals("Time series name is required.",
+                TimeSeriesDaoImpl.checkStorable(series("SPK", " ", "ft")));
+        assertEquals("Units are required.",
+                TimeSeriesDaoImpl.checkStorable(series("SPK", "A.Elev.Inst.1Hour.0.raw", null)));
+
+        TimeSeries noDate = series("SPK", "A.Elev.Inst.1Hour.0.raw", "ft");
+        noDate.addValue(Timestamp.from(BEGIN.toInstant()), 1.0, 0);
+        noDate.addValue(null, 2.0, 0);
+        assertEquals("Every value needs a date-time.", TimeSeriesDaoImpl.checkStorable(noDate));
+    }
+
+    @Test
+    void testDatabaseErrorsAreNotPassedOn() {
+        SQLException notFound = new SQLException(
+                "ORA-20001: TS_ID_NOT_FOUND: The timeseries identifier \"X\" was not found",
+                "72000", 20001);
+        assertEquals("Time series, location or office does not exist.",
+                TimeSeriesDaoImpl.storeFailureMessage(notFound));
+
+        SQLException other = new SQLException("ORA-06502: PL/SQL: numeric or value error",
+                "65000", 6502);
+        String message = TimeSeriesDaoImpl.storeFailureMessage(
+                new DataAccessException("wrapped", other));
+        assertEquals("Unable to store time series.", message);
+        assertFalse(message.contains("ORA-"));
+
+        assertEquals("Unable to store time series.",
+                TimeSeriesDaoImpl.storeFailureMessage(new NullPointerException()));
+    }
+}
@@ -1,7 +1,23 @@
 package cwms.cda.data.dao.texttimeseries;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import cwms.cda.data.dto.CwmsDTOPaginated;
+import java.io.StringReader;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 class RegularTimeSeriesTextDaoTest {
@@ -63,4 +79,59 @@ class RegularTimeSeriesTextDaoTest {
         assertEquals("file_name_with_._period.txt", RegularTimeSeriesTextDao.sanitizeFilename("file_name_with_._period"));
         assertEquals("file_name_with_-_hyphen.txt", RegularTimeSeriesTextDao.sanitizeFilename("file_name_with_-_hyphen"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPagingOverRowsSharingADateTime() throws SQLException {
+        Instant first = Instant.parse("2024-01-01T00:00:00Z");
+        Instant shared = Instant.parse("2024-01-01T01:00:00Z");
+        Instant last = Instant.parse("2024-01-01T02:00:00Z");
+        List<Instant> dates = Arrays.asList(first, shared, shared, shared, shared, shared, last);
+
+        List<String> texts = new ArrayList<>();
+        Instant begin = first;
+        int skip = 0;
+        int pages = 0;
+        String nextPage;
+        do {
+            RegularTimeSeriesTextDao.CursorRows rows = new RegularTimeSeriesTextDao.CursorRows(
+                    resultSet(dates, begin), "TEST.Text.Inst.1Hour.0.MockTest", begin, skip,
+                    1024, 2, null);
+            rows.forEachRemaining(row -> texts.add(row.getTextValue()));
+            nextPage = rows.getNextPage();
+            if (nextPage != null) {
+                String[] parts = CwmsDTOPaginated.decodeCursor(nextPage);
+                assertEquals(3, parts.length);
+                begin = Instant.ofEpochMilli(Long.parseLong(parts[0]));
+                skip = Integer.parseInt(parts[1]);
+                assertEquals(2, Integer.parseInt(parts[2]));
+            }
+            pages++;
+        } while (nextPage != null && pages < 10);
+
+        assertEquals(Arrays.asList("row 0", "row 1", "row 2", "row 3", "row 4", "row 5",
+                "row 6"), texts);
+        assertEquals(4, pages);
+    }
+
+    /**
+     * The rows RETRIEVE_TS_TEXT would return from begin on, each with text "row n".
+     */
+    private static ResultSet resultSet(List<Instant> dates, Instant begin) throws SQLException {
+        AtomicInteger current = new AtomicInteger(-1);
+        while (current.get() + 1 < dates.size() && dates.get(current.get() + 1).isBefore(begin)) {
+            current.incrementAndGet();
+        }
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenAnswer(i -> current.incrementAndGet() < dates.size());
+        when(rs.getTimestamp(anyString(), any(Calendar.class)))
+                .thenAnswer(i -> Timestamp.from(dates.get(current.get())));
+        when(rs.getClob(anyString())).thenAnswer(i -> {
+            Clob clob = mock(Clob.class);
+            String text = "row " + current.get();
+            when(clob.length()).thenReturn((long) text.length());
+            when(clob.getCharacterStream()).thenReturn(new StringReader(text));
+            return clob;
+        });
+        return rs;
+    }
+}
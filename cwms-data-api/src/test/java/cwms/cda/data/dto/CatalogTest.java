@@ -46,4 +46,13 @@ class CatalogTest
 		assertNull(page.getSearchOffice());
 		assertEquals(page.getCurOffice(),fromString.getCurOffice());
 	}
+
+	@Test
+	void test_catalog_page_without_total() {
+		final CatalogPage page = new CatalogPage("SPK/a", null, ".*", null, null, null, null, null);
+		final String pageString = Catalog.encodeCursor(page.toString(), 10, null);
+		final CatalogPage fromString = new CatalogPage(pageString);
+		assertNull(fromString.getTotal());
+		assertEquals(10, fromString.getPageSize());
+	}
 }
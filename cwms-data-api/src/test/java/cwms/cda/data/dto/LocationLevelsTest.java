@@ -0,0 +1,32 @@
+package cwms.cda.data.dto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class LocationLevelsTest {
+
+    @Test
+    void testLastPageHasNoNextPage() {
+        LocationLevels levels = new LocationLevels.Builder("", 10, null).build();
+
+        assertNotNull(levels.getPage());
+        assertNull(levels.getNextPage());
+    }
+
+    @Test
+    void testNextPageCarriesKey() {
+        String key = CwmsDTOPaginated.encodeCursor(CwmsDTOPaginated.delimiter,
+                "SWT", "KEYS.ELEV.INST.0.TOP OF FLOOD", 1600000000000L);
+        LocationLevels levels = new LocationLevels.Builder("", 10, 42)
+                .nextPageKey(key)
+                .build();
+
+        String[] parts = CwmsDTOPaginated.decodeCursor(levels.getNextPage());
+        assertArrayEquals(new String[]{key, "42", "10"}, parts);
+        assertArrayEquals(new String[]{"SWT", "KEYS.ELEV.INST.0.TOP OF FLOOD", "1600000000000"},
+                CwmsDTOPaginated.decodeCursor(parts[0]));
+    }
+}
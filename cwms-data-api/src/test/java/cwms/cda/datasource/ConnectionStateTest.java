@@ -0,0 +1,77 @@
+package cwms.cda.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ConnectionStateTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private static Connection pooled(Connection physical) throws SQLException {
+        Connection proxy = mock(Connection.class);
+        when(proxy.unwrap(Connection.class)).thenReturn(physical);
+        return proxy;
+    }
+
+    private void apply(Connection conn, ConnectionState.Setting setting, Object value)
+            throws SQLException {
+        ConnectionState.apply(conn, setting, value, calls::incrementAndGet);
+    }
+
+    @Test
+    void testSameValueOnSamePhysicalConnectionIsSkipped() throws SQLException {
+        Connection physical = mock(Connection.class);
+
+        apply(pooled(physical), ConnectionState.Setting.OFFICE, "SWT");
+        apply(pooled(physical), ConnectionState.Setting.OFFICE, "SWT");
+        assertEquals(1, calls.get());
+
+        apply(pooled(physical), ConnectionState.Setting.OFFICE, "SPK");
+        apply(pooled(mock(Connection.class)), ConnectionState.Setting.OFFICE, "SPK");
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testSettingUserForgetsOffice() throws SQLException {
+        Connection physical = mock(Connection.class);
+
+        apply(pooled(physical), ConnectionState.Setting.OFFICE, "SWT");
+        apply(pooled(physical), ConnectionState.Setting.USER, "q0hectest");
+        apply(pooled(physical), ConnectionState.Setting.OFFICE, "SWT");
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testFailureAndForgetCauseTheNextCallToRun() throws SQLException {
+        Connection physical = mock(Connection.class);
+
+        apply(pooled(physical), ConnectionState.Setting.CLIENT_INFO, "a");
+        assertThrows(SQLException.class, () -> ConnectionState.apply(pooled(physical),
+                ConnectionState.Setting.OFFICE, "SWT", () -> {
+                    throw new SQLException("failed");
+                }));
+        apply(pooled(physical), ConnectionState.Setting.CLIENT_INFO, "a");
+        assertEquals(2, calls.get());
+
+        ConnectionState.forget(pooled(physical));
+        apply(pooled(physical), ConnectionState.Setting.CLIENT_INFO, "a");
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testConnectionsThatCanNotBeUnwrappedAreNotTracked() throws SQLException {
+        Connection conn = mock(Connection.class);
+        when(conn.unwrap(Connection.class)).thenThrow(new SQLException("not a wrapper"));
+
+        apply(conn, ConnectionState.Setting.OFFICE, "SWT");
+        apply(conn, ConnectionState.Setting.OFFICE, "SWT");
+        assertEquals(2, calls.get());
+    }
+}
@@ -1,8 +1,14 @@
 package cwms.cda.formatters;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import org.junit.jupiter.api.Test;
 
@@ -66,13 +72,33 @@ class JsonV2Test extends TimeSeriesTestBase {
 
     }
 
+    @Test
+    void streamedLevelsMatchTheStringAndLeaveTheStreamOpen() throws IOException {
+        LocationLevels levels = buildLevels("crazyName" + System.nanoTime());
+        ContentType contentType = Formats.parseHeader(Formats.JSONV2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        boolean[] closed = {false};
+        FilterOutputStream out = new FilterOutputStream(bytes) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        Formats.format(contentType, levels, out);
+
+        assertEquals(Formats.format(contentType, levels),
+                new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        assertFalse(closed[0]);
+    }
+
     private LocationLevels buildLevels(String crazyName) {
         LocationLevel level = buildLevel(crazyName);
 
-        int offset = 0;
+        String pageKey = "";
         int pageSize = 500;
         Integer total = null;
-        return new LocationLevels.Builder(offset, pageSize, total).add(level).build();
+        return new LocationLevels.Builder(pageKey, pageSize, total).add(level).build();
     }
 
 }
@@ -0,0 +1,84 @@
+package cwms.cda.formatters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.api.TimeSeriesController;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.json.JsonV2;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesStreamWriterTest {
+
+    private static final ZonedDateTime BEGIN = ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]");
+
+    private static TimeSeries header() {
+        return new TimeSeries(null, -1, 0, "Test.Test.Elev.0.0.RAW", "SPK", BEGIN,
+                BEGIN.plusDays(1), "ft", Duration.ofHours(1));
+    }
+
+    private static List<TimeSeries.Record> values() {
+        List<TimeSeries.Record> values = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            Double value = i == 5 ? null : 30.0 + i;
+            values.add(new TimeSeries.Record(Timestamp.from(BEGIN.plusHours(i).toInstant()), value, 0));
+        }
+        return values;
+    }
+
+    private static String write(ContentType contentType) throws IOException {
+        TimeSeriesStreamWriter writer = Formats.getTimeSeriesStreamWriter(contentType);
+        assertNotNull(writer);
+
+        List<TimeSeries.Record> values = values();
+        TimeSeries header = header();
+        header.setPageBounds(values.get(0).getDateTime(), null);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(header, values.iterator(), out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void assertSameAsDto(TimeSeries actual) {
+        TimeSeries expected = header();
+        values().forEach(v -> expected.addValue(v.getDateTime(), v.getValue(), v.getQualityCode()));
+
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getOfficeId(), actual.getOfficeId());
+        assertEquals(expected.getUnits(), actual.getUnits());
+        assertEquals(expected.getPage(), actual.getPage());
+        assertEquals(expected.getNextPage(), actual.getNextPage());
+        assertEquals(expected.getValues(), actual.getValues());
+    }
+
+    @Test
+    void jsonV2StreamMatchesDto() throws IOException {
+        String body = write(new ContentType(Formats.JSONV2));
+
+        ObjectMapper om = JsonV2.buildObjectMapper();
+        assertSameAsDto(om.readValue(body, TimeSeries.class));
+    }
+
+    @Test
+    void xmlV2StreamMatchesDto() throws IOException {
+        String body = write(new ContentType(Formats.XMLV2));
+
+        assertSameAsDto(TimeSeriesController.deserializeJaxb(body));
+    }
+
+    @Test
+    void noStreamWriterForOtherFormats() {
+        assertNull(Formats.getTimeSeriesStreamWriter(new ContentType(Formats.JSON)));
+        assertNull(Formats.getTimeSeriesStreamWriter(new ContentType(Formats.CSV)));
+    }
+}
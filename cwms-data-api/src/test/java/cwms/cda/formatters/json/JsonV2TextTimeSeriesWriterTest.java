@@ -0,0 +1,105 @@
+package cwms.cda.formatters.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.api.enums.VersionType;
+import cwms.cda.data.dao.texttimeseries.TextTimeSeriesRows;
+import cwms.cda.data.dto.texttimeseries.RegularTextTimeSeriesRow;
+import cwms.cda.data.dto.texttimeseries.TextTimeSeries;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class JsonV2TextTimeSeriesWriterTest {
+
+    private static final ObjectMapper om = JsonV2.buildObjectMapper();
+
+    private static TextTimeSeries.Builder header() {
+        return new TextTimeSeries.Builder()
+                .withOfficeId("SPK")
+                .withName("TEST.Text.Inst.1Hour.0.MockTest")
+                .withDateVersionType(VersionType.UNVERSIONED)
+                .withTimeZone("UTC");
+    }
+
+    private static List<RegularTextTimeSeriesRow> rows() {
+        Instant first = Instant.parse("2024-01-01T00:00:00Z");
+        Instant second = Instant.parse("2024-01-01T01:00:00Z");
+        return Arrays.asList(
+                new RegularTextTimeSeriesRow.Builder()
+                        .withDateTime(first)
+                        .withDataEntryDate(first)
+                        .withFilename(first.getEpochSecond() + ".txt")
+                        .withMediaType("text/plain")
+                        .withTextValue("short note")
+                        .build(),
+                new RegularTextTimeSeriesRow.Builder()
+                        .withDateTime(second)
+                        .withDataEntryDate(second)
+                        .withFilename(second.getEpochSecond() + ".txt")
+                        .withMediaType("text/plain")
+                        .withValueUrl("http://localhost/timeseries/text/x/value?date=" + second)
+                        .build());
+    }
+
+    private static TextTimeSeriesRows rowsOf(List<RegularTextTimeSeriesRow> rows, int pageSize,
+                                             String nextPage) {
+        Iterator<RegularTextTimeSeriesRow> it = rows.iterator();
+        return new TextTimeSeriesRows() {
+            @Override
+            public String getNextPage() {
+                return nextPage;
+            }
+
+            @Override
+            public int getPageSize() {
+                return pageSize;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public RegularTextTimeSeriesRow next() {
+                return it.next();
+            }
+        };
+    }
+
+    @Test
+    void testMatchesNonStreamingOutput() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonV2TextTimeSeriesWriter().write(header().build(), rowsOf(rows(), 0, null), out);
+
+        JsonNode expected = om.valueToTree(header().withRegularTextValues(rows()).build());
+        assertEquals(expected, om.readTree(out.toByteArray()));
+    }
+
+    @Test
+    void testPageMarkersFollowTheRows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonV2TextTimeSeriesWriter().write(header().build(), rowsOf(rows(), 2, "next"), out);
+
+        JsonNode written = om.readTree(out.toByteArray());
+        assertEquals(2, written.get(JsonV2TextTimeSeriesWriter.VALUES).size());
+        assertEquals(2, written.get(JsonV2TextTimeSeriesWriter.PAGE_SIZE).asInt());
+        assertEquals("next", written.get(JsonV2TextTimeSeriesWriter.NEXT_PAGE).asText());
+    }
+
+    @Test
+    void testLastPageHasNoNextPage() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonV2TextTimeSeriesWriter().write(header().build(), rowsOf(rows(), 5, null), out);
+
+        assertFalse(om.readTree(out.toByteArray()).has(JsonV2TextTimeSeriesWriter.NEXT_PAGE));
+    }
+}
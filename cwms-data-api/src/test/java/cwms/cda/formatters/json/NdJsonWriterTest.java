@@ -0,0 +1,28 @@
+package cwms.cda.formatters.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class NdJsonWriterTest {
+
+    @Test
+    void testOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdJsonWriter writer = new NdJsonWriter(out);
+        writer.write(Collections.singletonMap("name", "first\nline"));
+        writer.write(Collections.singletonMap("name", "second"));
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("{\"name\":\"first\\nline\"}", lines[0]);
+        assertEquals("{\"name\":\"second\"}", lines[1]);
+        assertFalse(lines[1].isEmpty());
+        assertEquals("", lines[2]);
+    }
+}
@@ -0,0 +1,55 @@
+package cwms.cda.formatters.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.Office;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import org.junit.jupiter.api.Test;
+
+class JaxbContextCacheTest {
+
+    @Test
+    void contextIsCreatedOncePerClass() throws JAXBException {
+        assertSame(JaxbContextCache.getContext(Office.class),
+                JaxbContextCache.getContext(Office.class));
+    }
+
+    @Test
+    void releasedMarshallerIsReused() throws JAXBException {
+        Marshaller first = JaxbContextCache.borrow(Office.class, true);
+        JaxbContextCache.release(Office.class, true, first);
+
+        assertSame(first, JaxbContextCache.borrow(Office.class, true));
+        Marshaller unformatted = JaxbContextCache.borrow(Office.class, false);
+        assertFalse((Boolean) unformatted.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    }
+
+    @Test
+    void streamAndStringOutputMatch() {
+        Office office = new Office("SPK", "Sacramento District", "DIS", "SPD");
+        XMLv2 formatter = new XMLv2(false);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        formatter.format(office, out);
+
+        String asString = formatter.format(office);
+        assertEquals(asString, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertFalse(asString.contains("\n    <"), "unformatted output should not be indented");
+        assertTrue(new XMLv2(true).format(office).contains("\n    <"));
+    }
+
+    @Test
+    void xmlV1OfficeListUsesWrapper() {
+        Office office = new Office("SPK", "Sacramento District", "DIS", "SPD");
+        String xml = new XMLv1(false).format(Arrays.asList(office, office));
+
+        assertTrue(xml.contains("<offices><offices><office"), xml);
+    }
+}
@@ -0,0 +1,75 @@
+package cwms.cda.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.codahale.metrics.MetricRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+    @Test
+    void loadsOnceUntilInvalidated() {
+        MetricRegistry metrics = new MetricRegistry();
+        ExpiringCache<String, String> cache = new ExpiringCache<>(metrics, "test", 10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("A", cache.get("a", k -> { loads.incrementAndGet(); return "A"; }));
+        assertEquals("A", cache.get("a", k -> { loads.incrementAndGet(); return "B"; }));
+        assertEquals(1, loads.get());
+        assertEquals(1, metrics.counter("test.hits").getCount());
+        assertEquals(1, metrics.counter("test.misses").getCount());
+
+        cache.invalidateIf((k, v) -> v.equals("A"));
+        assertEquals("B", cache.get("a", k -> { loads.incrementAndGet(); return "B"; }));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void loadInFlightDuringInvalidationIsNotCached() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(new MetricRegistry(), "test", 10, Duration.ofMinutes(1));
+
+        assertEquals("stale", cache.get("a", k -> {
+            cache.invalidateIf((key, v) -> true);
+            return "stale";
+        }));
+        assertEquals(0, cache.size());
+        assertEquals("fresh", cache.get("a", k -> "fresh"));
+        assertEquals("fresh", cache.get("a", k -> "other"));
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(new MetricRegistry(), "test", 10, Duration.ZERO);
+
+        cache.get("a", k -> "A");
+        assertEquals("B", cache.get("a", k -> "B"));
+    }
+
+    @Test
+    void leastRecentlyUsedIsDropped() {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(new MetricRegistry(), "test", 2, Duration.ofMinutes(1));
+
+        cache.get(1, k -> k);
+        cache.get(2, k -> k);
+        cache.get(1, k -> k);
+        cache.get(3, k -> k);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get(1, k -> -1));
+        assertEquals(-1, cache.get(2, k -> -1));
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(new MetricRegistry(), "test", 10, Duration.ofMinutes(1));
+
+        assertThrows(IllegalStateException.class, () -> cache.get("a", k -> {
+            throw new IllegalStateException("no");
+        }));
+        assertEquals(0, cache.size());
+        assertEquals("A", cache.get("a", k -> "A"));
+    }
+}
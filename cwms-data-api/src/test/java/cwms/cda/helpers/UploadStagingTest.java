@@ -0,0 +1,104 @@
+package cwms.cda.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.data.dao.BlobDao;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UploadStagingTest {
+
+    @TempDir
+    Path directory;
+
+    private static InputStream part(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testPartsAreAppendedInOrder() throws IOException {
+        UploadStaging staging = new UploadStaging(directory, Duration.ofHours(1));
+        String uploadId = staging.begin();
+
+        assertEquals(0, staging.size(uploadId));
+        assertEquals(6, staging.append(uploadId, 0, part("hello ")));
+        assertEquals(11, staging.append(uploadId, 6, part("world")));
+
+        try (InputStream content = staging.open(uploadId)) {
+            assertArrayEquals("hello world".getBytes(StandardCharsets.UTF_8),
+                    BlobDao.readFully(content));
+        }
+    }
+
+    @Test
+    void testPartAtTheWrongOffsetIsRejected() throws IOException {
+        UploadStaging staging = new UploadStaging(directory, Duration.ofHours(1));
+        String uploadId = staging.begin();
+        staging.append(uploadId, 0, part("abc"));
+
+        UploadStaging.OffsetMismatchException e = assertThrows(
+                UploadStaging.OffsetMismatchException.class,
+                () -> staging.append(uploadId, 0, part("abc")));
+        assertEquals(3, e.getSize());
+        assertEquals(3, staging.size(uploadId));
+    }
+
+    @Test
+    void testPartPastTheMaximumSizeLeavesTheUploadAsItWas() throws IOException {
+        UploadStaging staging = new UploadStaging(directory, Duration.ofHours(1), 8);
+        String uploadId = staging.begin();
+        staging.append(uploadId, 0, part("hello "));
+
+        UploadStaging.UploadTooLargeException e = assertThrows(
+                UploadStaging.UploadTooLargeException.class,
+                () -> staging.append(uploadId, 6, part("world")));
+        assertEquals(8, e.getMaxSize());
+        assertEquals(6, staging.size(uploadId));
+        assertEquals(8, staging.append(uploadId, 6, part("wo")));
+    }
+
+    @Test
+    void testPartWhileAnotherIsWrittenIsRefused() throws IOException {
+        UploadStaging staging = new UploadStaging(directory, Duration.ofHours(1));
+        String uploadId = staging.begin();
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(uploadId + ".part"),
+                StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            assertThrows(UploadStaging.PartInProgressException.class,
+                    () -> staging.append(uploadId, 0, part("abc")));
+        }
+        assertEquals(3, staging.append(uploadId, 0, part("abc")));
+    }
+
+    @Test
+    void testUnknownOrDeletedUploadsAreNotFound() throws IOException {
+        UploadStaging staging = new UploadStaging(directory, Duration.ofHours(1));
+        String uploadId = staging.begin();
+        staging.delete(uploadId);
+
+        assertThrows(NotFoundException.class, () -> staging.size(uploadId));
+        assertThrows(NotFoundException.class, () -> staging.size("../../etc/passwd"));
+    }
+
+    @Test
+    void testExpiredUploadsAreRemovedWhenAnotherBegins() throws IOException {
+        UploadStaging staging = new UploadStaging(directory, Duration.ofMillis(-1));
+        String stale = staging.begin();
+        staging.begin();
+
+        assertThrows(NotFoundException.class, () -> staging.size(stale));
+    }
+}
@@ -0,0 +1,84 @@
+package cwms.cda.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.math.BigInteger;
+import java.net.URL;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class JwksKeysTest {
+
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    @Test
+    void testRsaKeysAreReadByKeyId() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        RSAPublicKey publicKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode jwks = mapper.createObjectNode();
+        ArrayNode keys = jwks.putArray("keys");
+        keys.addObject()
+                .put("kty", "RSA")
+                .put("kid", "rotated-in")
+                .put("n", encode(publicKey.getModulus()))
+                .put("e", encode(publicKey.getPublicExponent()));
+        keys.addObject()
+                .put("kty", "EC")
+                .put("kid", "not-rsa");
+
+        Map<String, Key> parsed = JwksKeys.parse(jwks, KeyFactory.getInstance("RSA"));
+
+        assertEquals(1, parsed.size());
+        RSAPublicKey read = (RSAPublicKey) parsed.get("rotated-in");
+        assertEquals(publicKey.getModulus(), read.getModulus());
+        assertEquals(publicKey.getPublicExponent(), read.getPublicExponent());
+    }
+
+    @Test
+    void testKeySetWithoutKeysIsRejected() throws Exception {
+        JsonNode empty = new ObjectMapper().createObjectNode();
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        assertThrows(IllegalArgumentException.class, () -> JwksKeys.parse(empty, keyFactory));
+    }
+
+    @Test
+    void testVerifiedTokenExpires() {
+        OpenIDAccessManager.VerifiedToken token =
+                new OpenIDAccessManager.VerifiedToken("user.1234567890", 1000L);
+        assertEquals(false, token.isExpired(999L));
+        assertEquals(true, token.isExpired(1000L));
+        assertEquals(64, OpenIDAccessManager.digest("header.body.signature").length());
+    }
+
+    @Test
+    void testStopAllEndsTheRefresh() throws Exception {
+        JwksKeys first = new JwksKeys(new URL("http://localhost:1/jwks"), 60);
+        JwksKeys second = new JwksKeys(new URL("http://localhost:1/other"), 60);
+
+        JwksKeys.stopAll();
+
+        assertTrue(first.isStopped());
+        assertTrue(second.isStopped());
+    }
+}
@@ -0,0 +1,86 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dto.Catalog;
+import cwms.cda.data.dto.LocationLevels;
+import cwms.cda.data.dto.Office;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Formatting of the larger response types through {@link Formats}, the same path the
+ * controllers use.  CSV and tab output are only implemented for the simple list types, so those
+ * are measured with offices.
+ */
+@State(Scope.Benchmark)
+public class FormatBenchmarks {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private final ContentType jsonV1 = new ContentType(Formats.JSON);
+    private final ContentType jsonV2 = new ContentType(Formats.JSONV2);
+    private final ContentType xmlV1 = new ContentType(Formats.XML);
+    private final ContentType xmlV2 = new ContentType(Formats.XMLV2);
+    private final ContentType csv = new ContentType(Formats.CSV);
+    private final ContentType tab = new ContentType(Formats.TAB);
+
+    private TimeSeries timeSeries;
+    private Catalog catalog;
+    private LocationLevels levels;
+    private List<Office> offices;
+
+    @Setup
+    public void setup() {
+        timeSeries = SyntheticData.timeSeries(size);
+        catalog = SyntheticData.catalog(size);
+        levels = SyntheticData.locationLevels(size);
+        offices = SyntheticData.offices(size);
+    }
+
+    @Benchmark
+    public String timeSeriesJsonV2() {
+        return Formats.format(jsonV2, timeSeries);
+    }
+
+    @Benchmark
+    public String timeSeriesXmlV2() {
+        return Formats.format(xmlV2, timeSeries);
+    }
+
+    @Benchmark
+    public String catalogJsonV1() {
+        return Formats.format(jsonV1, catalog);
+    }
+
+    @Benchmark
+    public String catalogJsonV2() {
+        return Formats.format(jsonV2, catalog);
+    }
+
+    @Benchmark
+    public String catalogXmlV1() {
+        return Formats.format(xmlV1, catalog);
+    }
+
+    @Benchmark
+    public String locationLevelsJsonV2() {
+        return Formats.format(jsonV2, levels);
+    }
+
+    @Benchmark
+    public String officesCsv() {
+        return Formats.format(csv, offices, Office.class);
+    }
+
+    @Benchmark
+    public String officesTab() {
+        return Formats.format(tab, offices, Office.class);
+    }
+}
@@ -0,0 +1,51 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dao.JsonRatingUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import javax.xml.transform.TransformerException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Conversion between the XML rating format and its JSON form, done on every rating read and
+ * write that uses JSON.
+ */
+@State(Scope.Benchmark)
+public class RatingJsonBenchmarks {
+    private static final String RATING = "/BEAV.Stage_Flow.BASE.PRODUCTION.xml";
+
+    private String xml;
+    private String json;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = RatingJsonBenchmarks.class.getResourceAsStream(RATING)) {
+            if (in == null) {
+                throw new IOException("Missing benchmark resource " + RATING);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+        json = JsonRatingUtils.xmlToJson(xml);
+    }
+
+    @Benchmark
+    public String xmlToJson() throws IOException {
+        return JsonRatingUtils.xmlToJson(xml);
+    }
+
+    @Benchmark
+    public String jsonToXml() throws IOException, TransformerException {
+        return JsonRatingUtils.jsonToXml(json);
+    }
+}
@@ -0,0 +1,66 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dto.CwmsDTOPaginated;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.helpers.DateUtils;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-request parsing that runs before any database work: page cursors, user dates and the
+ * Accept header.
+ */
+@State(Scope.Benchmark)
+public class RequestParsingBenchmarks {
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private final String cursor = CwmsDTOPaginated.encodeCursor(CwmsDTOPaginated.delimiter,
+            "SWT", "BIGH.Stage.Inst.1Hour.0.Raw", 1704067200000L, 5000, 500);
+    private final ZonedDateTime now = SyntheticData.START;
+
+    @Benchmark
+    public String encodeCursor() {
+        return CwmsDTOPaginated.encodeCursor(CwmsDTOPaginated.delimiter,
+                "SWT", "BIGH.Stage.Inst.1Hour.0.Raw", 1704067200000L, 5000, 500);
+    }
+
+    @Benchmark
+    public String[] decodeCursor() {
+        return CwmsDTOPaginated.decodeCursor(cursor);
+    }
+
+    @Benchmark
+    public ZonedDateTime parseIsoDate() {
+        return DateUtils.parseUserDate("2024-01-15T12:00:00", UTC, now);
+    }
+
+    @Benchmark
+    public ZonedDateTime parseOffsetDate() {
+        return DateUtils.parseUserDate("2024-01-15T12:00:00-08:00", UTC, now);
+    }
+
+    @Benchmark
+    public ZonedDateTime parseDuration() {
+        return DateUtils.parseUserDate("PT-24H", UTC, now);
+    }
+
+    @Benchmark
+    public ContentType parseAcceptHeader() {
+        return Formats.parseHeaderAndQueryParm("application/json;version=2", null);
+    }
+
+    @Benchmark
+    public ContentType parseBrowserAcceptHeader() {
+        return Formats.parseHeaderAndQueryParm(
+                "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8", null);
+    }
+
+    @Benchmark
+    public ContentType parseFormatParameter() {
+        return Formats.parseHeaderAndQueryParm(null, "json");
+    }
+}
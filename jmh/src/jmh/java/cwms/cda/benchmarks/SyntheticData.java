@@ -0,0 +1,78 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dto.Catalog;
+import cwms.cda.data.dto.LocationLevel;
+import cwms.cda.data.dto.LocationLevels;
+import cwms.cda.data.dto.Office;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesExtents;
+import cwms.cda.data.dto.catalog.CatalogEntry;
+import cwms.cda.data.dto.catalog.TimeseriesCatalogEntry;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds DTOs shaped like typical responses without a database.
+ */
+final class SyntheticData {
+    static final ZonedDateTime START =
+            ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+    static final String OFFICE = "SWT";
+
+    private SyntheticData() {
+    }
+
+    static TimeSeries timeSeries(int size) {
+        ZonedDateTime end = START.plusHours(size);
+        TimeSeries ts = new TimeSeries(null, size, size, "BIGH.Stage.Inst.1Hour.0.Raw", OFFICE,
+                START, end, "ft", Duration.ofHours(1));
+        long millis = START.toInstant().toEpochMilli();
+        for (int i = 0; i < size; i++) {
+            ts.addValue(new Timestamp(millis + i * 3_600_000L), 100.0 + (i % 50) * 0.25, 0);
+        }
+        return ts;
+    }
+
+    static Catalog catalog(int size) {
+        List<CatalogEntry> entries = new ArrayList<>(size);
+        Timestamp earliest = Timestamp.from(START.toInstant());
+        Timestamp latest = Timestamp.from(START.plusYears(1).toInstant());
+        for (int i = 0; i < size; i++) {
+            entries.add(new TimeseriesCatalogEntry.Builder()
+                    .officeId(OFFICE)
+                    .cwmsTsId("LOC" + i + ".Stage.Inst.1Hour.0.Raw")
+                    .units("ft")
+                    .interval("1Hour")
+                    .intervalOffset(0L)
+                    .timeZone("UTC")
+                    .withExtent(new TimeSeriesExtents(earliest, earliest, latest, latest))
+                    .build());
+        }
+        return new Catalog(null, size, size, entries);
+    }
+
+    static LocationLevels locationLevels(int size) {
+        LocationLevels.Builder builder = new LocationLevels.Builder("", size, size);
+        for (int i = 0; i < size; i++) {
+            builder.add(new LocationLevel.Builder("LOC" + i + ".Elev.Inst.0.Top of Flood", START)
+                    .withOfficeId(OFFICE)
+                    .withConstantValue(1000.0 + i)
+                    .withLevelUnitsId("ft")
+                    .withLevelComment("synthetic")
+                    .build());
+        }
+        return builder.build();
+    }
+
+    static List<Office> offices(int size) {
+        List<Office> offices = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            offices.add(new Office("O" + i, "Office " + i, "DIS", "SWD"));
+        }
+        return offices;
+    }
+}
@@ -0,0 +1,22 @@
+package cwms.cda.benchmarks;
+
+import cwms.cda.data.dto.TimeSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Building a time series value by value, as the DAO does while reading a result set.
+ */
+@State(Scope.Benchmark)
+public class TimeSeriesBenchmarks {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    @Benchmark
+    public TimeSeries addValues() {
+        return SyntheticData.timeSeries(size);
+    }
+}